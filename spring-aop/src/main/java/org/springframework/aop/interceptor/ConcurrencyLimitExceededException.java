@@ -0,0 +1,37 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+/**
+ * Exception thrown by a {@link ConcurrencyLimitInterceptor} when rejecting
+ * an invocation because the concurrency limit has been reached.
+ *
+ * @author agent
+ * @since 4.0
+ */
+@SuppressWarnings("serial")
+public class ConcurrencyLimitExceededException extends IllegalStateException {
+
+	/**
+	 * Create a new ConcurrencyLimitExceededException.
+	 * @param msg the detail message
+	 */
+	public ConcurrencyLimitExceededException(String msg) {
+		super(msg);
+	}
+
+}
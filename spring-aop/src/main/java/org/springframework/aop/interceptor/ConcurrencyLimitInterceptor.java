@@ -0,0 +1,88 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import org.springframework.util.AdaptiveConcurrencyLimiter;
+import org.springframework.util.Assert;
+
+/**
+ * Interceptor that limits concurrent access through an {@link AdaptiveConcurrencyLimiter},
+ * rejecting invocations with a {@link ConcurrencyLimitExceededException} once the
+ * (by default latency-adaptive) concurrency limit has been reached.
+ *
+ * <p>In contrast to {@link ConcurrencyThrottleInterceptor}, callers do not queue
+ * up indefinitely: they either get rejected immediately or after the limiter's
+ * maximum wait time, shedding load from an overloaded service.
+ *
+ * <p>A limiter instance may be shared between several interceptors (and a
+ * {@link org.springframework.web.filter.ConcurrencyLimitFilter}), applying a
+ * common limit to all of them.
+ *
+ * @author agent
+ * @since 4.0
+ * @see AdaptiveConcurrencyLimiter#setMaxWait
+ */
+public class ConcurrencyLimitInterceptor implements MethodInterceptor {
+
+	private final AdaptiveConcurrencyLimiter limiter;
+
+
+	/**
+	 * Create a new ConcurrencyLimitInterceptor with a default
+	 * {@link AdaptiveConcurrencyLimiter}.
+	 * @see #getLimiter()
+	 */
+	public ConcurrencyLimitInterceptor() {
+		this(new AdaptiveConcurrencyLimiter());
+	}
+
+	/**
+	 * Create a new ConcurrencyLimitInterceptor for the given limiter.
+	 * @param limiter the limiter to apply
+	 */
+	public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimiter limiter) {
+		Assert.notNull(limiter, "AdaptiveConcurrencyLimiter must not be null");
+		this.limiter = limiter;
+	}
+
+
+	/**
+	 * Return the limiter applied by this interceptor, for configuring it
+	 * or for accessing its metrics.
+	 */
+	public AdaptiveConcurrencyLimiter getLimiter() {
+		return this.limiter;
+	}
+
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		if (!this.limiter.tryAcquire()) {
+			throw new ConcurrencyLimitExceededException("Concurrency limit of " + this.limiter.getLimit() +
+					" reached - rejecting invocation of " + invocation.getMethod());
+		}
+		long startTime = System.nanoTime();
+		try {
+			return invocation.proceed();
+		}
+		finally {
+			this.limiter.release(System.nanoTime() - startTime);
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.interceptor;
+
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class ConcurrencyLimitInterceptorTests {
+
+	@Test
+	public void rejectsInvocationsBeyondLimit() {
+		final ConcurrencyLimitInterceptor interceptor = new ConcurrencyLimitInterceptor();
+		interceptor.getLimiter().setInitialLimit(1);
+		interceptor.getLimiter().setAdaptive(false);
+		final ProxyFactory proxyFactory = new ProxyFactory(ITestBean.class, interceptor);
+		TestBean target = new TestBean() {
+			@Override
+			public String getName() {
+				ITestBean nested = (ITestBean) proxyFactory.getProxy();
+				try {
+					nested.getAge();
+					fail("Should have thrown ConcurrencyLimitExceededException");
+				}
+				catch (ConcurrencyLimitExceededException ex) {
+					// expected
+				}
+				return "name";
+			}
+		};
+		proxyFactory.setTarget(target);
+		ITestBean proxy = (ITestBean) proxyFactory.getProxy();
+
+		assertEquals("name", proxy.getName());
+		assertEquals(0, proxy.getAge());
+		assertEquals(2, interceptor.getLimiter().getAcceptedCount());
+		assertEquals(1, interceptor.getLimiter().getRejectedCount());
+		assertEquals(0, interceptor.getLimiter().getInFlightCount());
+	}
+
+}
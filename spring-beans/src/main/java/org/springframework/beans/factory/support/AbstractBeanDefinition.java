@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2013 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,6 +25,7 @@ import java.util.Set;
 
 import org.springframework.beans.BeanMetadataAttributeAccessor;
 import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConstructorArgumentValues;
@@ -134,6 +135,8 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 
 	private volatile Object beanClass;
 
+	private ObjectFactory<?> instanceSupplier;
+
 	private String scope = SCOPE_DEFAULT;
 
 	private boolean singleton = true;
@@ -154,8 +157,7 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 
 	private boolean primary = false;
 
-	private final Map<String, AutowireCandidateQualifier> qualifiers =
-			new LinkedHashMap<String, AutowireCandidateQualifier>(0);
+	private Map<String, AutowireCandidateQualifier> qualifiers;
 
 	private boolean nonPublicAccessAllowed = true;
 
@@ -165,7 +167,7 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 
 	private MutablePropertyValues propertyValues;
 
-	private MethodOverrides methodOverrides = new MethodOverrides();
+	private MethodOverrides methodOverrides;
 
 	private String factoryBeanName;
 
@@ -229,16 +231,23 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 		setAbstract(original.isAbstract());
 		setLazyInit(original.isLazyInit());
 		setRole(original.getRole());
-		setConstructorArgumentValues(new ConstructorArgumentValues(original.getConstructorArgumentValues()));
-		setPropertyValues(new MutablePropertyValues(original.getPropertyValues()));
 		setSource(original.getSource());
 		copyAttributesFrom(original);
 
 		if (original instanceof AbstractBeanDefinition) {
 			AbstractBeanDefinition originalAbd = (AbstractBeanDefinition) original;
+			// Only copy argument and property holders if there is any content:
+			// empty holders get lazily created on first access.
+			if (originalAbd.hasConstructorArgumentValues()) {
+				setConstructorArgumentValues(new ConstructorArgumentValues(original.getConstructorArgumentValues()));
+			}
+			if (originalAbd.hasPropertyValues()) {
+				setPropertyValues(new MutablePropertyValues(original.getPropertyValues()));
+			}
 			if (originalAbd.hasBeanClass()) {
 				setBeanClass(originalAbd.getBeanClass());
 			}
+			setInstanceSupplier(originalAbd.getInstanceSupplier());
 			setAutowireMode(originalAbd.getAutowireMode());
 			setDependencyCheck(originalAbd.getDependencyCheck());
 			setDependsOn(originalAbd.getDependsOn());
@@ -251,11 +260,15 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 			setEnforceInitMethod(originalAbd.isEnforceInitMethod());
 			setDestroyMethodName(originalAbd.getDestroyMethodName());
 			setEnforceDestroyMethod(originalAbd.isEnforceDestroyMethod());
-			setMethodOverrides(new MethodOverrides(originalAbd.getMethodOverrides()));
+			if (originalAbd.hasMethodOverrides()) {
+				setMethodOverrides(new MethodOverrides(originalAbd.getMethodOverrides()));
+			}
 			setSynthetic(originalAbd.isSynthetic());
 			setResource(originalAbd.getResource());
 		}
 		else {
+			setConstructorArgumentValues(new ConstructorArgumentValues(original.getConstructorArgumentValues()));
+			setPropertyValues(new MutablePropertyValues(original.getPropertyValues()));
 			setResourceDescription(original.getResourceDescription());
 		}
 	}
@@ -304,16 +317,23 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 		setAbstract(other.isAbstract());
 		setLazyInit(other.isLazyInit());
 		setRole(other.getRole());
-		getConstructorArgumentValues().addArgumentValues(other.getConstructorArgumentValues());
-		getPropertyValues().addPropertyValues(other.getPropertyValues());
 		setSource(other.getSource());
 		copyAttributesFrom(other);
 
 		if (other instanceof AbstractBeanDefinition) {
 			AbstractBeanDefinition otherAbd = (AbstractBeanDefinition) other;
+			if (otherAbd.hasConstructorArgumentValues()) {
+				getConstructorArgumentValues().addArgumentValues(other.getConstructorArgumentValues());
+			}
+			if (otherAbd.hasPropertyValues()) {
+				getPropertyValues().addPropertyValues(other.getPropertyValues());
+			}
 			if (otherAbd.hasBeanClass()) {
 				setBeanClass(otherAbd.getBeanClass());
 			}
+			if (otherAbd.getInstanceSupplier() != null) {
+				setInstanceSupplier(otherAbd.getInstanceSupplier());
+			}
 			setAutowireCandidate(otherAbd.isAutowireCandidate());
 			setAutowireMode(otherAbd.getAutowireMode());
 			copyQualifiersFrom(otherAbd);
@@ -330,11 +350,15 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 				setDestroyMethodName(otherAbd.getDestroyMethodName());
 				setEnforceDestroyMethod(otherAbd.isEnforceDestroyMethod());
 			}
-			getMethodOverrides().addOverrides(otherAbd.getMethodOverrides());
+			if (otherAbd.hasMethodOverrides()) {
+				getMethodOverrides().addOverrides(otherAbd.getMethodOverrides());
+			}
 			setSynthetic(otherAbd.isSynthetic());
 			setResource(otherAbd.getResource());
 		}
 		else {
+			getConstructorArgumentValues().addArgumentValues(other.getConstructorArgumentValues());
+			getPropertyValues().addPropertyValues(other.getPropertyValues());
 			setResourceDescription(other.getResourceDescription());
 		}
 	}
@@ -418,6 +442,28 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 		return resolvedClass;
 	}
 
+	/**
+	 * Specify a callback for creating an instance of the bean,
+	 * as an alternative to a declaratively specified factory method
+	 * or to reflective instantiation of the bean class.
+	 * <p>If such a callback is set, it will override any other constructor
+	 * or factory method metadata. However, bean property population and
+	 * potential annotation-driven injection will still apply as usual.
+	 * @since 4.0
+	 * @see #setBeanClass
+	 */
+	public void setInstanceSupplier(ObjectFactory<?> instanceSupplier) {
+		this.instanceSupplier = instanceSupplier;
+	}
+
+	/**
+	 * Return a callback for creating an instance of the bean, if any.
+	 * @since 4.0
+	 */
+	public ObjectFactory<?> getInstanceSupplier() {
+		return this.instanceSupplier;
+	}
+
 
 	/**
 	 * Set the name of the target scope for the bean.
@@ -640,6 +686,9 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 	 * @see AutowireCandidateQualifier#getTypeName()
 	 */
 	public void addQualifier(AutowireCandidateQualifier qualifier) {
+		if (this.qualifiers == null) {
+			this.qualifiers = new LinkedHashMap<String, AutowireCandidateQualifier>(4);
+		}
 		this.qualifiers.put(qualifier.getTypeName(), qualifier);
 	}
 
@@ -647,14 +696,14 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 	 * Return whether this bean has the specified qualifier.
 	 */
 	public boolean hasQualifier(String typeName) {
-		return this.qualifiers.keySet().contains(typeName);
+		return (this.qualifiers != null && this.qualifiers.containsKey(typeName));
 	}
 
 	/**
 	 * Return the qualifier mapped to the provided type name.
 	 */
 	public AutowireCandidateQualifier getQualifier(String typeName) {
-		return this.qualifiers.get(typeName);
+		return (this.qualifiers != null ? this.qualifiers.get(typeName) : null);
 	}
 
 	/**
@@ -662,7 +711,9 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 	 * @return the Set of {@link AutowireCandidateQualifier} objects.
 	 */
 	public Set<AutowireCandidateQualifier> getQualifiers() {
-		return new LinkedHashSet<AutowireCandidateQualifier>(this.qualifiers.values());
+		return (this.qualifiers != null ?
+				new LinkedHashSet<AutowireCandidateQualifier>(this.qualifiers.values()) :
+				new LinkedHashSet<AutowireCandidateQualifier>(0));
 	}
 
 	/**
@@ -671,7 +722,14 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 	 */
 	public void copyQualifiersFrom(AbstractBeanDefinition source) {
 		Assert.notNull(source, "Source must not be null");
-		this.qualifiers.putAll(source.qualifiers);
+		if (source.qualifiers != null && !source.qualifiers.isEmpty()) {
+			if (this.qualifiers == null) {
+				this.qualifiers = new LinkedHashMap<String, AutowireCandidateQualifier>(source.qualifiers);
+			}
+			else {
+				this.qualifiers.putAll(source.qualifiers);
+			}
+		}
 	}
 
 
@@ -717,14 +775,17 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 	 * Specify constructor argument values for this bean.
 	 */
 	public void setConstructorArgumentValues(ConstructorArgumentValues constructorArgumentValues) {
-		this.constructorArgumentValues =
-				(constructorArgumentValues != null ? constructorArgumentValues : new ConstructorArgumentValues());
+		this.constructorArgumentValues = constructorArgumentValues;
 	}
 
 	/**
 	 * Return constructor argument values for this bean (never {@code null}).
+	 * <p>The holder is lazily created on first access if not specified before.
 	 */
 	public ConstructorArgumentValues getConstructorArgumentValues() {
+		if (this.constructorArgumentValues == null) {
+			this.constructorArgumentValues = new ConstructorArgumentValues();
+		}
 		return this.constructorArgumentValues;
 	}
 
@@ -732,39 +793,63 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 	 * Return if there are constructor argument values defined for this bean.
 	 */
 	public boolean hasConstructorArgumentValues() {
-		return !this.constructorArgumentValues.isEmpty();
+		return (this.constructorArgumentValues != null && !this.constructorArgumentValues.isEmpty());
 	}
 
 	/**
 	 * Specify property values for this bean, if any.
 	 */
 	public void setPropertyValues(MutablePropertyValues propertyValues) {
-		this.propertyValues = (propertyValues != null ? propertyValues : new MutablePropertyValues());
+		this.propertyValues = propertyValues;
 	}
 
 	/**
 	 * Return property values for this bean (never {@code null}).
+	 * <p>The holder is lazily created on first access if not specified before.
 	 */
 	public MutablePropertyValues getPropertyValues() {
+		if (this.propertyValues == null) {
+			this.propertyValues = new MutablePropertyValues();
+		}
 		return this.propertyValues;
 	}
 
+	/**
+	 * Return if there are property values defined for this bean.
+	 * @since 4.0
+	 */
+	public boolean hasPropertyValues() {
+		return (this.propertyValues != null && !this.propertyValues.isEmpty());
+	}
+
 	/**
 	 * Specify method overrides for the bean, if any.
 	 */
 	public void setMethodOverrides(MethodOverrides methodOverrides) {
-		this.methodOverrides = (methodOverrides != null ? methodOverrides : new MethodOverrides());
+		this.methodOverrides = methodOverrides;
 	}
 
 	/**
 	 * Return information about methods to be overridden by the IoC
 	 * container. This will be empty if there are no method overrides.
 	 * Never returns null.
+	 * <p>The holder is lazily created on first access if not specified before.
 	 */
 	public MethodOverrides getMethodOverrides() {
+		if (this.methodOverrides == null) {
+			this.methodOverrides = new MethodOverrides();
+		}
 		return this.methodOverrides;
 	}
 
+	/**
+	 * Return if there are method overrides defined for this bean.
+	 * @since 4.0
+	 */
+	public boolean hasMethodOverrides() {
+		return (this.methodOverrides != null && !this.methodOverrides.isEmpty());
+	}
+
 
 	public void setFactoryBeanName(String factoryBeanName) {
 		this.factoryBeanName = factoryBeanName;
@@ -934,7 +1019,7 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 	 * @throws BeanDefinitionValidationException in case of validation failure
 	 */
 	public void validate() throws BeanDefinitionValidationException {
-		if (!getMethodOverrides().isEmpty() && getFactoryMethodName() != null) {
+		if (hasMethodOverrides() && getFactoryMethodName() != null) {
 			throw new BeanDefinitionValidationException(
 					"Cannot combine static factory method with method overrides: " +
 					"the static factory method must create the instance");
@@ -952,9 +1037,8 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 	 */
 	public void prepareMethodOverrides() throws BeanDefinitionValidationException {
 		// Check that lookup methods exists.
-		MethodOverrides methodOverrides = getMethodOverrides();
-		if (!methodOverrides.isEmpty()) {
-			for (MethodOverride mo : methodOverrides.getOverrides()) {
+		if (hasMethodOverrides()) {
+			for (MethodOverride mo : this.methodOverrides.getOverrides()) {
 				prepareMethodOverride(mo);
 			}
 		}
@@ -1011,6 +1095,7 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 		AbstractBeanDefinition that = (AbstractBeanDefinition) other;
 
 		if (!ObjectUtils.nullSafeEquals(getBeanClassName(), that.getBeanClassName())) return false;
+		if (!ObjectUtils.nullSafeEquals(this.instanceSupplier, that.instanceSupplier)) return false;
 		if (!ObjectUtils.nullSafeEquals(this.scope, that.scope)) return false;
 		if (this.abstractFlag != that.abstractFlag) return false;
 		if (this.lazyInit != that.lazyInit) return false;
@@ -1019,14 +1104,17 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 		if (this.dependencyCheck != that.dependencyCheck) return false;
 		if (!Arrays.equals(this.dependsOn, that.dependsOn)) return false;
 		if (this.autowireCandidate != that.autowireCandidate) return false;
-		if (!ObjectUtils.nullSafeEquals(this.qualifiers, that.qualifiers)) return false;
+		if (!getQualifiers().equals(that.getQualifiers())) return false;
 		if (this.primary != that.primary) return false;
 
 		if (this.nonPublicAccessAllowed != that.nonPublicAccessAllowed) return false;
 		if (this.lenientConstructorResolution != that.lenientConstructorResolution) return false;
-		if (!ObjectUtils.nullSafeEquals(this.constructorArgumentValues, that.constructorArgumentValues)) return false;
-		if (!ObjectUtils.nullSafeEquals(this.propertyValues, that.propertyValues)) return false;
-		if (!ObjectUtils.nullSafeEquals(this.methodOverrides, that.methodOverrides)) return false;
+		if (!equalsIgnoringEmpty(this.constructorArgumentValues, hasConstructorArgumentValues(),
+				that.constructorArgumentValues, that.hasConstructorArgumentValues())) return false;
+		if (!equalsIgnoringEmpty(this.propertyValues, hasPropertyValues(),
+				that.propertyValues, that.hasPropertyValues())) return false;
+		if (!equalsIgnoringEmpty(this.methodOverrides, hasMethodOverrides(),
+				that.methodOverrides, that.hasMethodOverrides())) return false;
 
 		if (!ObjectUtils.nullSafeEquals(this.factoryBeanName, that.factoryBeanName)) return false;
 		if (!ObjectUtils.nullSafeEquals(this.factoryMethodName, that.factoryMethodName)) return false;
@@ -1044,15 +1132,29 @@ public abstract class AbstractBeanDefinition extends BeanMetadataAttributeAccess
 	@Override
 	public int hashCode() {
 		int hashCode = ObjectUtils.nullSafeHashCode(getBeanClassName());
+		hashCode = 29 * hashCode + ObjectUtils.nullSafeHashCode(this.instanceSupplier);
 		hashCode = 29 * hashCode + ObjectUtils.nullSafeHashCode(this.scope);
-		hashCode = 29 * hashCode + ObjectUtils.nullSafeHashCode(this.constructorArgumentValues);
-		hashCode = 29 * hashCode + ObjectUtils.nullSafeHashCode(this.propertyValues);
+		hashCode = 29 * hashCode + (hasConstructorArgumentValues() ? this.constructorArgumentValues.hashCode() : 0);
+		hashCode = 29 * hashCode + (hasPropertyValues() ? this.propertyValues.hashCode() : 0);
 		hashCode = 29 * hashCode + ObjectUtils.nullSafeHashCode(this.factoryBeanName);
 		hashCode = 29 * hashCode + ObjectUtils.nullSafeHashCode(this.factoryMethodName);
 		hashCode = 29 * hashCode + super.hashCode();
 		return hashCode;
 	}
 
+	/**
+	 * Compare two lazily created holders, treating a {@code null} holder
+	 * as equal to an empty one.
+	 */
+	private static boolean equalsIgnoringEmpty(Object holder, boolean hasContent,
+			Object otherHolder, boolean otherHasContent) {
+
+		if (!hasContent || !otherHasContent) {
+			return (hasContent == otherHasContent);
+		}
+		return holder.equals(otherHolder);
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder("class [");
@@ -38,6 +38,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Provider;
 
+import org.springframework.beans.BeanMetadataAttribute;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.FatalBeanException;
 import org.springframework.beans.TypeConverter;
@@ -126,6 +127,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	/** Whether to allow eager class loading even for lazy-init beans */
 	private boolean allowEagerClassLoading = true;
 
+	/** Whether to release bean definition source metadata after singleton pre-instantiation */
+	private boolean releaseBeanDefinitionSources = false;
+
 	/** Resolver to use for checking if a bean definition is an autowire candidate */
 	private AutowireCandidateResolver autowireCandidateResolver = new SimpleAutowireCandidateResolver();
 
@@ -206,6 +210,23 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 		this.allowEagerClassLoading = allowEagerClassLoading;
 	}
 
+	/**
+	 * Set whether to release the configuration source metadata held by bean
+	 * definitions once all non-lazy singletons have been pre-instantiated.
+	 * <p>Default is "false". Switch this flag on in order to let very large
+	 * contexts drop parsing-only metadata (such as DOM elements exposed by a
+	 * {@link org.springframework.beans.factory.parsing.PassThroughSourceExtractor},
+	 * or annotation metadata references) that is not needed at runtime anymore.
+	 * Note that tools inspecting {@link BeanDefinition#getSource()} after
+	 * context refresh will not see any sources then.
+	 * @since 4.0
+	 * @see #preInstantiateSingletons()
+	 * @see #releaseBeanDefinitionSources()
+	 */
+	public void setReleaseBeanDefinitionSources(boolean releaseBeanDefinitionSources) {
+		this.releaseBeanDefinitionSources = releaseBeanDefinitionSources;
+	}
+
 	/**
 	 * Set a custom autowire candidate resolver for this BeanFactory to use
 	 * when deciding whether a bean definition should be considered as a
@@ -245,6 +266,7 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			DefaultListableBeanFactory otherListableFactory = (DefaultListableBeanFactory) otherFactory;
 			this.allowBeanDefinitionOverriding = otherListableFactory.allowBeanDefinitionOverriding;
 			this.allowEagerClassLoading = otherListableFactory.allowEagerClassLoading;
+			this.releaseBeanDefinitionSources = otherListableFactory.releaseBeanDefinitionSources;
 			this.autowireCandidateResolver = otherListableFactory.autowireCandidateResolver;
 			this.resolvableDependencies.putAll(otherListableFactory.resolvableDependencies);
 		}
@@ -627,6 +649,50 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 				}
 			}
 		}
+		if (this.releaseBeanDefinitionSources) {
+			releaseBeanDefinitionSources();
+		}
+	}
+
+	/**
+	 * Release the configuration source metadata of all bean definitions in
+	 * this factory, including their qualifiers, method overrides and metadata
+	 * attributes, as well as the corresponding merged bean definitions.
+	 * <p>Property value and constructor argument holders are left untouched,
+	 * since they link to their original holders for conversion caching.
+	 * @since 4.0
+	 * @see #setReleaseBeanDefinitionSources
+	 */
+	protected void releaseBeanDefinitionSources() {
+		List<String> beanNames;
+		synchronized (this.beanDefinitionMap) {
+			beanNames = new ArrayList<String>(this.beanDefinitionNames);
+		}
+		for (String beanName : beanNames) {
+			BeanDefinition bd = this.beanDefinitionMap.get(beanName);
+			if (bd instanceof AbstractBeanDefinition) {
+				releaseSources((AbstractBeanDefinition) bd);
+				releaseSources(getMergedLocalBeanDefinition(beanName));
+			}
+		}
+	}
+
+	private void releaseSources(AbstractBeanDefinition bd) {
+		bd.setSource(null);
+		for (String attributeName : bd.attributeNames()) {
+			BeanMetadataAttribute attribute = bd.getMetadataAttribute(attributeName);
+			if (attribute != null) {
+				attribute.setSource(null);
+			}
+		}
+		for (AutowireCandidateQualifier qualifier : bd.getQualifiers()) {
+			qualifier.setSource(null);
+		}
+		if (bd.hasMethodOverrides()) {
+			for (MethodOverride methodOverride : bd.getMethodOverrides().getOverrides()) {
+				methodOverride.setSource(null);
+			}
+		}
 	}
 
 
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.xml;
+
+import org.w3c.dom.Element;
+
+/**
+ * {@link DefaultBeanDefinitionDocumentReader} variant that processes the
+ * top-level elements of a document as they are being read from a
+ * {@link StaxElementStream}, discarding each element once it has been parsed.
+ *
+ * <p>Nested {@code <beans>} elements and custom root elements are parsed
+ * the same way as with {@link DefaultBeanDefinitionDocumentReader}, since
+ * they are fully materialized before being handed to this reader.
+ *
+ * @author agent
+ * @since 4.0
+ * @see StaxBeanDefinitionReader
+ */
+class StaxBeanDefinitionDocumentReader extends DefaultBeanDefinitionDocumentReader {
+
+	private final StaxElementStream elementStream;
+
+
+	public StaxBeanDefinitionDocumentReader(StaxElementStream elementStream) {
+		this.elementStream = elementStream;
+	}
+
+
+	@Override
+	protected void parseBeanDefinitions(Element root, BeanDefinitionParserDelegate delegate) {
+		if (root != this.elementStream.getDocumentElement()) {
+			super.parseBeanDefinitions(root, delegate);
+		}
+		else if (!delegate.isDefaultNamespace(root)) {
+			// Custom root element: needs to see its entire content at once.
+			this.elementStream.readRemainingElements();
+			super.parseBeanDefinitions(root, delegate);
+		}
+		else {
+			// The root element holds exactly one child element at any point in time.
+			Element ele;
+			while ((ele = this.elementStream.nextChildElement()) != null) {
+				super.parseBeanDefinitions(root, delegate);
+				root.removeChild(ele);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.ValidatorHandler;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link XmlBeanDefinitionReader} variant that reads XML bean definition files
+ * through a StAX {@link XMLStreamReader} instead of building a DOM tree for the
+ * entire document. Intended for very large bean definition files, or for
+ * applications loading hundreds of them.
+ *
+ * <p>Each top-level element of a document (typically a {@code <bean>} definition)
+ * is turned into a small DOM fragment of its own, handed to the standard
+ * {@link BeanDefinitionParserDelegate} and namespace handlers, and discarded right
+ * afterwards. Memory consumption therefore depends on the size of the largest
+ * top-level element rather than on the size of the document.
+ *
+ * <p>XSD validation is performed in the same pass through a
+ * {@link javax.xml.validation.ValidatorHandler}. The compiled {@link Schema} for a
+ * given {@code xsi:schemaLocation} declaration is cached by this reader, so that
+ * schemas are parsed only once when loading many files that share the same set
+ * of namespaces. Note that all schemas need to be declared on the root element
+ * for this to work; schema locations declared on nested elements are ignored.
+ *
+ * <p>Falls back to the regular DOM-based processing of {@link XmlBeanDefinitionReader}
+ * for DTD-validated documents, for non-namespace-aware reading, and when a custom
+ * {@link #setDocumentReaderClass document reader class} has been specified.
+ *
+ * @author agent
+ * @since 4.0
+ * @see StaxBeanDefinitionDocumentReader
+ */
+public class StaxBeanDefinitionReader extends XmlBeanDefinitionReader {
+
+	private static final String SCHEMA_LOCATION_ATTRIBUTE = "schemaLocation";
+
+
+	private final XMLInputFactory inputFactory = createXmlInputFactory();
+
+	private final Map<String, Schema> schemaCache = new ConcurrentHashMap<String, Schema>(8);
+
+	private boolean customDocumentReader = false;
+
+
+	/**
+	 * Create new StaxBeanDefinitionReader for the given bean factory.
+	 * @param registry the BeanFactory to load bean definitions into,
+	 * in the form of a BeanDefinitionRegistry
+	 */
+	public StaxBeanDefinitionReader(BeanDefinitionRegistry registry) {
+		super(registry);
+	}
+
+
+	@Override
+	public void setDocumentReaderClass(Class<?> documentReaderClass) {
+		super.setDocumentReaderClass(documentReaderClass);
+		this.customDocumentReader = (documentReaderClass != DefaultBeanDefinitionDocumentReader.class);
+	}
+
+	/**
+	 * Create the StAX {@link XMLInputFactory} to use for reading XML documents.
+	 * <p>The default implementation returns a namespace-aware and coalescing
+	 * factory with DTD support switched off.
+	 */
+	protected XMLInputFactory createXmlInputFactory() {
+		XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+		inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+		inputFactory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		return inputFactory;
+	}
+
+
+	/**
+	 * Actually load bean definitions from the specified XML file,
+	 * streaming through its top-level elements.
+	 * @param inputSource the SAX InputSource to read from
+	 * @param resource the resource descriptor for the XML file
+	 * @return the number of bean definitions found
+	 * @throws BeanDefinitionStoreException in case of loading or parsing errors
+	 */
+	@Override
+	protected int doLoadBeanDefinitions(InputSource inputSource, Resource resource)
+			throws BeanDefinitionStoreException {
+
+		int validationMode = getValidationModeForResource(resource);
+		if (validationMode == VALIDATION_DTD || (validationMode == VALIDATION_NONE && !isNamespaceAware()) ||
+				this.customDocumentReader) {
+			return super.doLoadBeanDefinitions(inputSource, resource);
+		}
+		try {
+			XMLStreamReader streamReader = createXmlStreamReader(inputSource);
+			try {
+				streamReader.nextTag();
+				ValidatorHandler validatorHandler = null;
+				if (validationMode == VALIDATION_XSD) {
+					String schemaLocation = streamReader.getAttributeValue(
+							XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, SCHEMA_LOCATION_ATTRIBUTE);
+					validatorHandler = getSchema(schemaLocation).newValidatorHandler();
+					validatorHandler.setErrorHandler(getErrorHandler());
+					validatorHandler.setResourceResolver(new EntityResolverResourceResolver(getEntityResolver()));
+				}
+				StaxElementStream elementStream = new StaxElementStream(streamReader, validatorHandler, resource);
+				Document doc = elementStream.readDocumentElement();
+				StaxBeanDefinitionDocumentReader documentReader = new StaxBeanDefinitionDocumentReader(elementStream);
+				documentReader.setEnvironment(getEnvironment());
+				int countBefore = getRegistry().getBeanDefinitionCount();
+				documentReader.registerBeanDefinitions(doc, createReaderContext(resource));
+				elementStream.readToEnd();
+				return getRegistry().getBeanDefinitionCount() - countBefore;
+			}
+			finally {
+				streamReader.close();
+			}
+		}
+		catch (BeanDefinitionStoreException ex) {
+			throw ex;
+		}
+		catch (XMLStreamException ex) {
+			int lineNumber = (ex.getLocation() != null ? ex.getLocation().getLineNumber() : -1);
+			throw new XmlBeanDefinitionStoreException(resource.getDescription(),
+					"Line " + lineNumber + " in XML document from " + resource + " is invalid",
+					new SAXParseException(ex.getMessage(), null, null, lineNumber, -1, ex));
+		}
+		catch (SAXParseException ex) {
+			throw new XmlBeanDefinitionStoreException(resource.getDescription(),
+					"Line " + ex.getLineNumber() + " in XML document from " + resource + " is invalid", ex);
+		}
+		catch (SAXException ex) {
+			throw new XmlBeanDefinitionStoreException(resource.getDescription(),
+					"XML document from " + resource + " is invalid", ex);
+		}
+		catch (Throwable ex) {
+			throw new BeanDefinitionStoreException(resource.getDescription(),
+					"Unexpected exception parsing XML document from " + resource, ex);
+		}
+	}
+
+	/**
+	 * Create a StAX reader for the given SAX InputSource.
+	 */
+	protected XMLStreamReader createXmlStreamReader(InputSource inputSource) throws XMLStreamException {
+		Reader characterStream = inputSource.getCharacterStream();
+		if (characterStream != null) {
+			return this.inputFactory.createXMLStreamReader(inputSource.getSystemId(), characterStream);
+		}
+		InputStream byteStream = inputSource.getByteStream();
+		if (byteStream != null) {
+			if (inputSource.getEncoding() != null) {
+				return this.inputFactory.createXMLStreamReader(byteStream, inputSource.getEncoding());
+			}
+			return this.inputFactory.createXMLStreamReader(inputSource.getSystemId(), byteStream);
+		}
+		return this.inputFactory.createXMLStreamReader(new StreamSource(inputSource.getSystemId()));
+	}
+
+	/**
+	 * Obtain the compiled {@link Schema} for the given {@code xsi:schemaLocation}
+	 * declaration, building it on first access.
+	 * @param schemaLocation the value of the root element's {@code xsi:schemaLocation}
+	 * attribute (may be {@code null})
+	 * @return the corresponding Schema (never {@code null})
+	 */
+	protected Schema getSchema(String schemaLocation) throws SAXException, IOException {
+		String[] tokens = (schemaLocation != null ?
+				StringUtils.tokenizeToStringArray(schemaLocation, " \t\r\n") : new String[0]);
+		String cacheKey = StringUtils.arrayToDelimitedString(tokens, " ");
+		Schema schema = this.schemaCache.get(cacheKey);
+		if (schema == null) {
+			synchronized (this.schemaCache) {
+				schema = this.schemaCache.get(cacheKey);
+				if (schema == null) {
+					schema = createSchema(tokens);
+					this.schemaCache.put(cacheKey, schema);
+				}
+			}
+		}
+		return schema;
+	}
+
+	/**
+	 * Compile a {@link Schema} for the given namespace/location pairs,
+	 * resolving schema documents through this reader's EntityResolver.
+	 * <p>If no schema locations have been specified, a Schema that
+	 * dynamically evaluates location hints in the document is returned.
+	 * @param schemaLocationTokens alternating namespace and location tokens
+	 */
+	protected Schema createSchema(String[] schemaLocationTokens) throws SAXException, IOException {
+		EntityResolver entityResolver = getEntityResolver();
+		SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+		schemaFactory.setErrorHandler(getErrorHandler());
+		schemaFactory.setResourceResolver(new EntityResolverResourceResolver(entityResolver));
+		if (schemaLocationTokens.length < 2) {
+			return schemaFactory.newSchema();
+		}
+		Source[] sources = new Source[schemaLocationTokens.length / 2];
+		try {
+			for (int i = 0; i < sources.length; i++) {
+				String location = schemaLocationTokens[i * 2 + 1];
+				InputSource inputSource = (entityResolver != null ? entityResolver.resolveEntity(null, location) : null);
+				StreamSource source = new StreamSource(location);
+				if (inputSource != null) {
+					source.setInputStream(inputSource.getByteStream());
+					source.setReader(inputSource.getCharacterStream());
+					if (inputSource.getSystemId() != null) {
+						source.setSystemId(inputSource.getSystemId());
+					}
+				}
+				sources[i] = source;
+			}
+			return schemaFactory.newSchema(sources);
+		}
+		finally {
+			for (Source source : sources) {
+				if (source != null) {
+					closeQuietly((StreamSource) source);
+				}
+			}
+		}
+	}
+
+	private static void closeQuietly(StreamSource source) {
+		try {
+			if (source.getInputStream() != null) {
+				source.getInputStream().close();
+			}
+			if (source.getReader() != null) {
+				source.getReader().close();
+			}
+		}
+		catch (IOException ex) {
+			// ignore
+		}
+	}
+
+
+	/**
+	 * Adapts a SAX {@link EntityResolver} to the {@link LSResourceResolver} contract,
+	 * for resolving schema imports and includes.
+	 */
+	private static class EntityResolverResourceResolver implements LSResourceResolver {
+
+		private final EntityResolver entityResolver;
+
+		public EntityResolverResourceResolver(EntityResolver entityResolver) {
+			this.entityResolver = entityResolver;
+		}
+
+		public LSInput resolveResource(String type, String namespaceURI, String publicId, String systemId,
+				String baseURI) {
+
+			if (this.entityResolver == null || systemId == null) {
+				return null;
+			}
+			try {
+				InputSource inputSource = this.entityResolver.resolveEntity(publicId, systemId);
+				if (inputSource == null && baseURI != null) {
+					String resolvedSystemId = new URI(baseURI).resolve(systemId).toString();
+					if (!resolvedSystemId.equals(systemId)) {
+						inputSource = this.entityResolver.resolveEntity(publicId, resolvedSystemId);
+					}
+				}
+				return (inputSource != null ? new InputSourceInput(inputSource, systemId, baseURI) : null);
+			}
+			catch (Exception ex) {
+				// Let the schema factory fall back to its default resolution
+				return null;
+			}
+		}
+	}
+
+
+	/**
+	 * {@link LSInput} implementation backed by a SAX {@link InputSource}.
+	 */
+	private static class InputSourceInput implements LSInput {
+
+		private final InputSource inputSource;
+
+		private String systemId;
+
+		private String baseURI;
+
+		private String stringData;
+
+		private boolean certifiedText;
+
+		public InputSourceInput(InputSource inputSource, String systemId, String baseURI) {
+			this.inputSource = inputSource;
+			this.systemId = (inputSource.getSystemId() != null ? inputSource.getSystemId() : systemId);
+			this.baseURI = baseURI;
+		}
+
+		public Reader getCharacterStream() {
+			return this.inputSource.getCharacterStream();
+		}
+
+		public void setCharacterStream(Reader characterStream) {
+			this.inputSource.setCharacterStream(characterStream);
+		}
+
+		public InputStream getByteStream() {
+			return this.inputSource.getByteStream();
+		}
+
+		public void setByteStream(InputStream byteStream) {
+			this.inputSource.setByteStream(byteStream);
+		}
+
+		public String getStringData() {
+			return this.stringData;
+		}
+
+		public void setStringData(String stringData) {
+			this.stringData = stringData;
+		}
+
+		public String getSystemId() {
+			return this.systemId;
+		}
+
+		public void setSystemId(String systemId) {
+			this.systemId = systemId;
+		}
+
+		public String getPublicId() {
+			return this.inputSource.getPublicId();
+		}
+
+		public void setPublicId(String publicId) {
+			this.inputSource.setPublicId(publicId);
+		}
+
+		public String getBaseURI() {
+			return this.baseURI;
+		}
+
+		public void setBaseURI(String baseURI) {
+			this.baseURI = baseURI;
+		}
+
+		public String getEncoding() {
+			return this.inputSource.getEncoding();
+		}
+
+		public void setEncoding(String encoding) {
+			this.inputSource.setEncoding(encoding);
+		}
+
+		public boolean getCertifiedText() {
+			return this.certifiedText;
+		}
+
+		public void setCertifiedText(boolean certifiedText) {
+			this.certifiedText = certifiedText;
+		}
+	}
+
+}
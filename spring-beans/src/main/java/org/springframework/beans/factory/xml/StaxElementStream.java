@@ -0,0 +1,391 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.xml;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.validation.ValidatorHandler;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.core.io.Resource;
+import org.springframework.util.StringUtils;
+
+/**
+ * Pulls an XML bean definition document from a StAX {@link XMLStreamReader},
+ * materializing one top-level element of the document at a time.
+ *
+ * <p>The root element is turned into a DOM {@link Document} of its own, carrying
+ * the root's attributes and namespace declarations but no content. Each call to
+ * {@link #nextChildElement()} then reads exactly one more child of the root and
+ * appends it to the root element, so that the complete document never has to be
+ * held in memory. StAX events are routed through an optional schema
+ * {@link ValidatorHandler} before being turned into DOM nodes,
+ * which applies schema default attributes just like a validating DOM parser would.
+ *
+ * <p>Not thread-safe; one instance is used per XML resource.
+ *
+ * @author agent
+ * @since 4.0
+ * @see StaxBeanDefinitionReader
+ */
+class StaxElementStream {
+
+	private static final String XMLNS_ATTRIBUTE_NS_URI = XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+
+
+	private final XMLStreamReader reader;
+
+	private final ContentHandler contentHandler;
+
+	private final Resource resource;
+
+	private final DomFragmentBuilder builder;
+
+	private boolean documentEnded = false;
+
+
+	/**
+	 * Create a new StaxElementStream for the given reader.
+	 * @param reader the StAX reader, positioned at the start of the root element
+	 * @param validatorHandler an optional schema validator to route events through
+	 * (may be {@code null} for no validation)
+	 * @param resource the resource that the reader is reading from
+	 */
+	StaxElementStream(XMLStreamReader reader, ValidatorHandler validatorHandler,
+			Resource resource) throws ParserConfigurationException {
+
+		this.reader = reader;
+		this.resource = resource;
+		Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		this.builder = new DomFragmentBuilder(document);
+		if (validatorHandler != null) {
+			validatorHandler.setContentHandler(this.builder);
+			this.contentHandler = validatorHandler;
+		}
+		else {
+			this.contentHandler = this.builder;
+		}
+	}
+
+
+	/**
+	 * Read the start of the root element and return the Document that holds it.
+	 */
+	public Document readDocumentElement() {
+		try {
+			this.contentHandler.setDocumentLocator(new StaxLocator());
+			this.contentHandler.startDocument();
+			if (this.reader.getEventType() != XMLStreamConstants.START_ELEMENT) {
+				this.reader.nextTag();
+			}
+			handleStartElement();
+			return this.builder.document;
+		}
+		catch (Exception ex) {
+			throw translateException(ex);
+		}
+	}
+
+	/**
+	 * Return the root element of the document.
+	 */
+	public Element getDocumentElement() {
+		return this.builder.document.getDocumentElement();
+	}
+
+	/**
+	 * Read the next top-level element of the document and append it to the root element.
+	 * <p>Callers are expected to remove the element from the root once they are done with it.
+	 * @return the next child element of the root element,
+	 * or {@code null} if the end of the root element has been reached
+	 */
+	public Element nextChildElement() {
+		try {
+			while (!this.builder.rootEnded) {
+				pull();
+				if (this.builder.completedChild != null) {
+					Element child = this.builder.completedChild;
+					this.builder.completedChild = null;
+					return child;
+				}
+			}
+			return null;
+		}
+		catch (Exception ex) {
+			throw translateException(ex);
+		}
+	}
+
+	/**
+	 * Read all remaining content of the root element, appending it to the root element.
+	 */
+	public void readRemainingElements() {
+		while (nextChildElement() != null) {
+			// keep the elements attached to the root element
+		}
+	}
+
+	/**
+	 * Read the remainder of the document, discarding any remaining elements.
+	 * Makes sure that the entire document has been checked for well-formedness
+	 * and validity, even if not all of its elements have been processed.
+	 */
+	public void readToEnd() {
+		Element root = getDocumentElement();
+		Element child;
+		while ((child = nextChildElement()) != null) {
+			root.removeChild(child);
+		}
+		try {
+			while (!this.documentEnded) {
+				pull();
+			}
+		}
+		catch (Exception ex) {
+			throw translateException(ex);
+		}
+	}
+
+
+	private void pull() throws SAXException, XMLStreamException {
+		if (!this.reader.hasNext()) {
+			if (!this.documentEnded) {
+				this.contentHandler.endDocument();
+				this.documentEnded = true;
+			}
+			return;
+		}
+		switch (this.reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				handleStartElement();
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				handleEndElement();
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.SPACE:
+				this.contentHandler.characters(
+						this.reader.getTextCharacters(), this.reader.getTextStart(), this.reader.getTextLength());
+				break;
+			case XMLStreamConstants.END_DOCUMENT:
+				this.contentHandler.endDocument();
+				this.documentEnded = true;
+				break;
+		}
+	}
+
+	private void handleStartElement() throws SAXException {
+		for (int i = 0; i < this.reader.getNamespaceCount(); i++) {
+			this.contentHandler.startPrefixMapping(
+					nullSafePrefix(this.reader.getNamespacePrefix(i)), this.reader.getNamespaceURI(i));
+		}
+		AttributesImpl attributes = new AttributesImpl();
+		for (int i = 0; i < this.reader.getAttributeCount(); i++) {
+			String namespace = this.reader.getAttributeNamespace(i);
+			String localName = this.reader.getAttributeLocalName(i);
+			attributes.addAttribute((namespace != null ? namespace : ""), localName,
+					toQualifiedName(this.reader.getAttributePrefix(i), localName),
+					this.reader.getAttributeType(i), this.reader.getAttributeValue(i));
+		}
+		String namespace = this.reader.getNamespaceURI();
+		String localName = this.reader.getLocalName();
+		this.contentHandler.startElement((namespace != null ? namespace : ""), localName,
+				toQualifiedName(this.reader.getPrefix(), localName), attributes);
+	}
+
+	private void handleEndElement() throws SAXException {
+		String namespace = this.reader.getNamespaceURI();
+		String localName = this.reader.getLocalName();
+		this.contentHandler.endElement((namespace != null ? namespace : ""), localName,
+				toQualifiedName(this.reader.getPrefix(), localName));
+		for (int i = 0; i < this.reader.getNamespaceCount(); i++) {
+			this.contentHandler.endPrefixMapping(nullSafePrefix(this.reader.getNamespacePrefix(i)));
+		}
+	}
+
+	private static String nullSafePrefix(String prefix) {
+		return (prefix != null ? prefix : "");
+	}
+
+	private static String toQualifiedName(String prefix, String localName) {
+		return (StringUtils.hasLength(prefix) ? prefix + ":" + localName : localName);
+	}
+
+	private BeanDefinitionStoreException translateException(Exception ex) {
+		if (ex instanceof BeanDefinitionStoreException) {
+			return (BeanDefinitionStoreException) ex;
+		}
+		if (ex instanceof XMLStreamException) {
+			XMLStreamException xmlEx = (XMLStreamException) ex;
+			Location location = xmlEx.getLocation();
+			ex = (location != null ?
+					new SAXParseException(xmlEx.getMessage(), location.getPublicId(), location.getSystemId(),
+							location.getLineNumber(), location.getColumnNumber(), xmlEx) :
+					new SAXException(xmlEx.getMessage(), xmlEx));
+		}
+		if (ex instanceof SAXParseException) {
+			return new XmlBeanDefinitionStoreException(this.resource.getDescription(),
+					"Line " + ((SAXParseException) ex).getLineNumber() + " in XML document from " +
+					this.resource + " is invalid", (SAXParseException) ex);
+		}
+		if (ex instanceof SAXException) {
+			return new XmlBeanDefinitionStoreException(this.resource.getDescription(),
+					"XML document from " + this.resource + " is invalid", (SAXException) ex);
+		}
+		return new BeanDefinitionStoreException(this.resource.getDescription(),
+				"Unexpected exception parsing XML document from " + this.resource, ex);
+	}
+
+
+	/**
+	 * SAX {@link org.xml.sax.Locator} exposing the current position of the StAX reader.
+	 */
+	private class StaxLocator implements Locator {
+
+		public String getPublicId() {
+			Location location = reader.getLocation();
+			return (location != null ? location.getPublicId() : null);
+		}
+
+		public String getSystemId() {
+			Location location = reader.getLocation();
+			return (location != null ? location.getSystemId() : null);
+		}
+
+		public int getLineNumber() {
+			Location location = reader.getLocation();
+			return (location != null ? location.getLineNumber() : -1);
+		}
+
+		public int getColumnNumber() {
+			Location location = reader.getLocation();
+			return (location != null ? location.getColumnNumber() : -1);
+		}
+	}
+
+
+	/**
+	 * SAX handler that builds DOM nodes underneath the document's root element,
+	 * signalling the completion of each top-level element.
+	 */
+	private static class DomFragmentBuilder extends DefaultHandler {
+
+		private final Document document;
+
+		private final List<String> pendingNamespaces = new ArrayList<String>(4);
+
+		private Element currentElement;
+
+		private int depth = 0;
+
+		private Element completedChild;
+
+		private boolean rootEnded = false;
+
+		public DomFragmentBuilder(Document document) {
+			this.document = document;
+		}
+
+		@Override
+		public void startPrefixMapping(String prefix, String uri) {
+			this.pendingNamespaces.add(prefix);
+			this.pendingNamespaces.add(uri);
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			Element element = this.document.createElementNS((StringUtils.hasLength(uri) ? uri : null), qName);
+			for (int i = 0; i < this.pendingNamespaces.size(); i += 2) {
+				String prefix = this.pendingNamespaces.get(i);
+				element.setAttributeNS(XMLNS_ATTRIBUTE_NS_URI,
+						(StringUtils.hasLength(prefix) ? "xmlns:" + prefix : "xmlns"), this.pendingNamespaces.get(i + 1));
+			}
+			this.pendingNamespaces.clear();
+			for (int i = 0; i < attributes.getLength(); i++) {
+				String attributeUri = attributes.getURI(i);
+				String attributeName = attributes.getQName(i);
+				if (!StringUtils.hasLength(attributeName)) {
+					attributeName = attributes.getLocalName(i);
+				}
+				element.setAttributeNS((StringUtils.hasLength(attributeUri) ? attributeUri : null),
+						attributeName, attributes.getValue(i));
+			}
+			if (this.currentElement != null) {
+				this.currentElement.appendChild(element);
+			}
+			else {
+				this.document.appendChild(element);
+			}
+			this.currentElement = element;
+			this.depth++;
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			this.depth--;
+			if (this.depth == 1) {
+				this.completedChild = this.currentElement;
+			}
+			else if (this.depth == 0) {
+				this.rootEnded = true;
+			}
+			Node parent = this.currentElement.getParentNode();
+			this.currentElement = (parent instanceof Element ? (Element) parent : null);
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			// Text directly underneath the root element is not of interest.
+			if (this.depth < 2) {
+				return;
+			}
+			Node lastChild = this.currentElement.getLastChild();
+			if (lastChild instanceof Text) {
+				((Text) lastChild).appendData(new String(ch, start, length));
+			}
+			else {
+				this.currentElement.appendChild(this.document.createTextNode(new String(ch, start, length)));
+			}
+		}
+
+		@Override
+		public void ignorableWhitespace(char[] ch, int start, int length) {
+			characters(ch, start, length);
+		}
+	}
+
+}
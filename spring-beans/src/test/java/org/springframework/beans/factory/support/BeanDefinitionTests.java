@@ -18,6 +18,8 @@ package org.springframework.beans.factory.support;
 
 import junit.framework.TestCase;
 
+import org.springframework.beans.BeanMetadataAttribute;
+import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.tests.sample.beans.TestBean;
@@ -44,6 +46,23 @@ public class BeanDefinitionTests extends TestCase {
 		assertTrue(bd.hashCode() == otherBd.hashCode());
 	}
 
+	public void testBeanDefinitionEqualityWithInstanceSupplier() {
+		ObjectFactory<TestBean> supplier = new ObjectFactory<TestBean>() {
+			public TestBean getObject() {
+				return new TestBean();
+			}
+		};
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setInstanceSupplier(supplier);
+		RootBeanDefinition otherBd = new RootBeanDefinition(TestBean.class);
+		assertTrue(!bd.equals(otherBd));
+		assertTrue(!otherBd.equals(bd));
+		otherBd.setInstanceSupplier(supplier);
+		assertTrue(bd.equals(otherBd));
+		assertTrue(otherBd.equals(bd));
+		assertTrue(bd.hashCode() == otherBd.hashCode());
+	}
+
 	public void testBeanDefinitionEqualityWithPropertyValues() {
 		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
 		bd.getPropertyValues().add("name", "myName");
@@ -134,4 +153,64 @@ public class BeanDefinitionTests extends TestCase {
 		assertEquals(new Integer(5), bd.getConstructorArgumentValues().getArgumentValue(1, null).getValue());
 	}
 
+	public void testEmptyHoldersCreatedLazily() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		assertFalse(bd.hasConstructorArgumentValues());
+		assertFalse(bd.hasPropertyValues());
+		assertFalse(bd.hasMethodOverrides());
+		assertEquals(0, bd.getQualifiers().size());
+		assertEquals(0, bd.attributeNames().length);
+
+		RootBeanDefinition otherBd = new RootBeanDefinition(TestBean.class);
+		assertTrue(otherBd.getPropertyValues().isEmpty());
+		assertTrue(otherBd.getConstructorArgumentValues().isEmpty());
+		assertTrue(otherBd.getMethodOverrides().isEmpty());
+		assertTrue(bd.equals(otherBd));
+		assertTrue(otherBd.equals(bd));
+		assertTrue(bd.hashCode() == otherBd.hashCode());
+
+		otherBd.getPropertyValues().add("name", "myName");
+		assertTrue(otherBd.hasPropertyValues());
+		assertTrue(!bd.equals(otherBd));
+		assertTrue(!otherBd.equals(bd));
+	}
+
+	public void testBeanDefinitionMergingWithEmptyParent() {
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.addQualifier(new AutowireCandidateQualifier("myQualifier"));
+
+		GenericBeanDefinition childBd = new GenericBeanDefinition();
+		childBd.setParentName("bd");
+		childBd.getPropertyValues().add("name", "myName");
+
+		RootBeanDefinition mergedBd = new RootBeanDefinition(bd);
+		mergedBd.overrideFrom((BeanDefinition) childBd);
+		assertFalse(bd.hasPropertyValues());
+		assertFalse(mergedBd.hasConstructorArgumentValues());
+		assertEquals(1, mergedBd.getPropertyValues().size());
+		assertTrue(mergedBd.hasQualifier("myQualifier"));
+
+		mergedBd.addQualifier(new AutowireCandidateQualifier("otherQualifier"));
+		assertFalse(bd.hasQualifier("otherQualifier"));
+	}
+
+	public void testReleaseBeanDefinitionSources() {
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		bf.setReleaseBeanDefinitionSources(true);
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setSource("mySource");
+		BeanMetadataAttribute attribute = new BeanMetadataAttribute("myAttribute", "myValue");
+		attribute.setSource("myAttributeSource");
+		bd.addMetadataAttribute(attribute);
+		bf.registerBeanDefinition("bd", bd);
+		assertEquals("mySource", bf.getMergedBeanDefinition("bd").getSource());
+
+		bf.preInstantiateSingletons();
+		assertNull(bd.getSource());
+		assertNull(bf.getMergedBeanDefinition("bd").getSource());
+		assertNull(attribute.getSource());
+		assertEquals("myValue", bd.getAttribute("myAttribute"));
+		assertNotNull(bf.getBean("bd"));
+	}
+
 }
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.xml;
+
+import java.io.IOException;
+import java.util.Arrays;
+import javax.xml.validation.Schema;
+
+import org.junit.Test;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StaxBeanDefinitionReader}, comparing its results
+ * against the DOM-based {@link XmlBeanDefinitionReader}.
+ *
+ * @author agent
+ */
+public class StaxBeanDefinitionReaderTests {
+
+	@Test
+	public void sameDefinitionsAsDomReader() {
+		assertSameDefinitions("testUtilNamespace.xml");
+		assertSameDefinitions("collections.xml");
+		assertSameDefinitions("collectionMerging.xml");
+		assertSameDefinitions("factory-methods.xml");
+	}
+
+	@Test
+	public void schemaValidatedDefinitions() {
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		StaxBeanDefinitionReader reader = new StaxBeanDefinitionReader(bf);
+		reader.loadBeanDefinitions(new ClassPathResource("schemaValidated.xml", getClass()));
+
+		TestBean foo = (TestBean) bf.getBean("fooBean");
+		assertNotNull("Spouse is null", foo.getSpouse());
+		assertEquals("Incorrect number of friends", 2, foo.getFriends().size());
+	}
+
+	@Test
+	public void invalidPerSchema() {
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		StaxBeanDefinitionReader reader = new StaxBeanDefinitionReader(bf);
+		try {
+			reader.loadBeanDefinitions(new ClassPathResource("invalidPerSchema.xml", getClass()));
+			fail("Should have thrown BeanDefinitionStoreException");
+		}
+		catch (BeanDefinitionStoreException ex) {
+			assertTrue(ex.getCause() instanceof SAXParseException);
+		}
+	}
+
+	@Test
+	public void nestedBeansWithProfile() {
+		Resource resource = new ClassPathResource("NestedBeansElementTests-context.xml", getClass());
+
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		new StaxBeanDefinitionReader(bf).loadBeanDefinitions(resource);
+		assertEquals(String.class.getName(), bf.getBeanDefinition("foo").getBeanClassName());
+		assertFalse(bf.containsBeanDefinition("devOnlyBean"));
+
+		StandardEnvironment environment = new StandardEnvironment();
+		environment.setActiveProfiles("dev");
+		bf = new DefaultListableBeanFactory();
+		StaxBeanDefinitionReader reader = new StaxBeanDefinitionReader(bf);
+		reader.setEnvironment(environment);
+		reader.loadBeanDefinitions(resource);
+		assertEquals(Integer.class.getName(), bf.getBeanDefinition("foo").getBeanClassName());
+		assertTrue(bf.containsBeanDefinition("devOnlyBean"));
+	}
+
+	@Test
+	public void rejectedRootProfile() {
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		StaxBeanDefinitionReader reader = new StaxBeanDefinitionReader(bf);
+		int count = reader.loadBeanDefinitions(
+				new ClassPathResource("ProfileXmlBeanDefinitionTests-devProfile.xml", getClass()));
+		assertEquals(0, count);
+	}
+
+	@Test
+	public void dtdBasedDocumentFallsBackToDom() {
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		StaxBeanDefinitionReader reader = new StaxBeanDefinitionReader(bf);
+		reader.loadBeanDefinitions(new ClassPathResource("validateWithDtd.xml", getClass()));
+		assertTrue(bf.getBeanDefinitionCount() > 0);
+	}
+
+	@Test
+	public void schemaCompiledOnceForSameSchemaLocation() {
+		DefaultListableBeanFactory bf = new DefaultListableBeanFactory();
+		CountingStaxBeanDefinitionReader reader = new CountingStaxBeanDefinitionReader(bf);
+		reader.loadBeanDefinitions(new ClassPathResource("NestedBeansElementTests-context.xml", getClass()));
+		reader.loadBeanDefinitions(new ClassPathResource("ProfileXmlBeanDefinitionTests-devProfile.xml", getClass()));
+		reader.loadBeanDefinitions(new ClassPathResource("ProfileXmlBeanDefinitionTests-prodProfile.xml", getClass()));
+		assertEquals(1, reader.schemaCount);
+	}
+
+
+	private void assertSameDefinitions(String resourceName) {
+		Resource resource = new ClassPathResource(resourceName, getClass());
+
+		DefaultListableBeanFactory domFactory = new DefaultListableBeanFactory();
+		int domCount = new XmlBeanDefinitionReader(domFactory).loadBeanDefinitions(resource);
+		DefaultListableBeanFactory staxFactory = new DefaultListableBeanFactory();
+		int staxCount = new StaxBeanDefinitionReader(staxFactory).loadBeanDefinitions(resource);
+
+		assertEquals(domCount, staxCount);
+		String[] beanNames = domFactory.getBeanDefinitionNames();
+		assertEquals(Arrays.asList(beanNames), Arrays.asList(staxFactory.getBeanDefinitionNames()));
+		for (String beanName : beanNames) {
+			// Inner bean names contain identity hash codes, so compare the definitions' content
+			BeanDefinition domDefinition = domFactory.getBeanDefinition(beanName);
+			BeanDefinition staxDefinition = staxFactory.getBeanDefinition(beanName);
+			String message = "Bean definition '" + beanName + "' in " + resourceName;
+			assertEquals(message, domDefinition.toString(), staxDefinition.toString());
+			assertEquals(message, domDefinition.getPropertyValues().size(), staxDefinition.getPropertyValues().size());
+			for (PropertyValue pv : domDefinition.getPropertyValues().getPropertyValues()) {
+				assertNotNull(message, staxDefinition.getPropertyValues().getPropertyValue(pv.getName()));
+			}
+			assertEquals(message, domDefinition.getConstructorArgumentValues().getArgumentCount(),
+					staxDefinition.getConstructorArgumentValues().getArgumentCount());
+			assertArrayEquals(domFactory.getAliases(beanName), staxFactory.getAliases(beanName));
+		}
+	}
+
+
+	private static class CountingStaxBeanDefinitionReader extends StaxBeanDefinitionReader {
+
+		private int schemaCount;
+
+		public CountingStaxBeanDefinitionReader(DefaultListableBeanFactory beanFactory) {
+			super(beanFactory);
+		}
+
+		@Override
+		protected Schema createSchema(String[] schemaLocationTokens) throws SAXException, IOException {
+			this.schemaCount++;
+			return super.createSchema(schemaLocationTokens);
+		}
+	}
+
+}
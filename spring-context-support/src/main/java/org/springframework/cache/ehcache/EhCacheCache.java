@@ -16,11 +16,20 @@
 
 package org.springframework.cache.ehcache;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
 import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
 import net.sf.ehcache.Status;
 
+import org.springframework.cache.BulkCache;
 import org.springframework.cache.Cache;
+import org.springframework.cache.LoadingCache;
 import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.util.Assert;
 
@@ -31,7 +40,7 @@ import org.springframework.util.Assert;
  * @author Juergen Hoeller
  * @since 3.1
  */
-public class EhCacheCache implements Cache {
+public class EhCacheCache implements LoadingCache, BulkCache {
 
 	private final Ehcache cache;
 
@@ -62,10 +71,61 @@ public class EhCacheCache implements Cache {
 		return (element != null ? new SimpleValueWrapper(element.getObjectValue()) : null);
 	}
 
+	/**
+	 * This implementation holds Ehcache's write lock for the given key
+	 * while checking for an existing value and loading a missing one.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		Element element = this.cache.get(key);
+		if (element != null) {
+			return (T) element.getObjectValue();
+		}
+		this.cache.acquireWriteLockOnKey(key);
+		try {
+			element = this.cache.get(key);
+			if (element != null) {
+				return (T) element.getObjectValue();
+			}
+			T value;
+			try {
+				value = valueLoader.call();
+			}
+			catch (Throwable ex) {
+				throw new ValueRetrievalException(key, ex);
+			}
+			put(key, value);
+			return value;
+		}
+		finally {
+			this.cache.releaseWriteLockOnKey(key);
+		}
+	}
+
 	public void put(Object key, Object value) {
 		this.cache.put(new Element(key, value));
 	}
 
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, Element> elements = this.cache.getAll(keys);
+		Map<Object, ValueWrapper> result = new LinkedHashMap<Object, ValueWrapper>(elements.size());
+		for (Map.Entry<Object, Element> entry : elements.entrySet()) {
+			// Ehcache reports missing keys with a null element
+			if (entry.getValue() != null) {
+				result.put(entry.getKey(), new SimpleValueWrapper(entry.getValue().getObjectValue()));
+			}
+		}
+		return result;
+	}
+
+	public void putAll(Map<?, ?> entries) {
+		List<Element> elements = new ArrayList<Element>(entries.size());
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			elements.add(new Element(entry.getKey(), entry.getValue()));
+		}
+		this.cache.putAll(elements);
+	}
+
 	public void evict(Object key) {
 		this.cache.remove(key);
 	}
@@ -17,10 +17,17 @@
 package org.springframework.cache.jcache;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 import javax.cache.Status;
 
-import org.springframework.cache.Cache;
+import org.springframework.cache.BulkCache;
+import org.springframework.cache.LoadingCache;
 import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.util.Assert;
 
@@ -31,7 +38,7 @@ import org.springframework.util.Assert;
  * @author Juergen Hoeller
  * @since 3.2
  */
-public class JCacheCache implements Cache {
+public class JCacheCache implements LoadingCache, BulkCache {
 
 	private static final Object NULL_HOLDER = new NullHolder();
 
@@ -82,11 +89,59 @@ public class JCacheCache implements Cache {
 		return (value != null ? new SimpleValueWrapper(fromStoreValue(value)) : null);
 	}
 
+	/**
+	 * This implementation loads a missing value within a JCache entry processor,
+	 * which the provider executes atomically for the given key.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		Object value = this.cache.get(key);
+		if (value != null) {
+			return (T) fromStoreValue(value);
+		}
+		try {
+			return (T) this.cache.invokeEntryProcessor(key, new ValueLoaderEntryProcessor(valueLoader));
+		}
+		catch (RuntimeException ex) {
+			// The provider may have wrapped our failure in an exception of its own
+			Throwable cause = ex;
+			while (cause != null && !(cause instanceof ValueLoadingFailure)) {
+				cause = cause.getCause();
+			}
+			if (cause != null) {
+				throw new ValueRetrievalException(key, cause.getCause());
+			}
+			throw ex;
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	public void put(Object key, Object value) {
 		this.cache.put(key, toStoreValue(value));
 	}
 
+	@SuppressWarnings("unchecked")
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Set<Object> keySet = (keys instanceof Set ? (Set<Object>) keys : new LinkedHashSet<Object>(keys));
+		Map<Object, Object> values = this.cache.getAll(keySet);
+		Map<Object, ValueWrapper> result = new LinkedHashMap<Object, ValueWrapper>(values.size());
+		for (Map.Entry<Object, Object> entry : values.entrySet()) {
+			if (entry.getValue() != null) {
+				result.put(entry.getKey(), new SimpleValueWrapper(fromStoreValue(entry.getValue())));
+			}
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	public void putAll(Map<?, ?> entries) {
+		Map<Object, Object> storeEntries = new LinkedHashMap<Object, Object>(entries.size());
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			storeEntries.put(entry.getKey(), toStoreValue(entry.getValue()));
+		}
+		this.cache.putAll(storeEntries);
+	}
+
 	@SuppressWarnings("unchecked")
 	public void evict(Object key) {
 		this.cache.remove(key);
@@ -128,4 +183,46 @@ public class JCacheCache implements Cache {
 	private static class NullHolder implements Serializable {
 	}
 
+
+	/**
+	 * Entry processor that loads and stores a value if none is present yet.
+	 */
+	@SuppressWarnings("rawtypes")
+	private class ValueLoaderEntryProcessor implements javax.cache.Cache.EntryProcessor {
+
+		private final Callable<?> valueLoader;
+
+		public ValueLoaderEntryProcessor(Callable<?> valueLoader) {
+			this.valueLoader = valueLoader;
+		}
+
+		@SuppressWarnings("unchecked")
+		public Object process(javax.cache.Cache.MutableEntry entry) {
+			if (entry.exists()) {
+				return fromStoreValue(entry.getValue());
+			}
+			Object value;
+			try {
+				value = this.valueLoader.call();
+			}
+			catch (Throwable ex) {
+				throw new ValueLoadingFailure(ex);
+			}
+			entry.setValue(toStoreValue(value));
+			return value;
+		}
+	}
+
+
+	/**
+	 * Exception propagating a value loader failure through the entry processor.
+	 */
+	@SuppressWarnings("serial")
+	private static class ValueLoadingFailure extends RuntimeException {
+
+		public ValueLoadingFailure(Throwable cause) {
+			super(cause);
+		}
+	}
+
 }
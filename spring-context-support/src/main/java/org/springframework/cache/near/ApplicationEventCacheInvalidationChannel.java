@@ -0,0 +1,70 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheInvalidationChannel} implementation that broadcasts invalidation
+ * messages as {@link CacheInvalidationEvent CacheInvalidationEvents} through
+ * the containing application context (and its parent contexts).
+ *
+ * <p>Only reaches NearCacheManagers within the same JVM; mainly intended for
+ * testing as well as for several contexts that front the same backing caches.
+ * Needs to be defined as a bean in order to receive application events.
+ *
+ * @author agent
+ * @since 4.0
+ */
+public class ApplicationEventCacheInvalidationChannel
+		implements CacheInvalidationChannel, ApplicationEventPublisherAware, ApplicationListener<CacheInvalidationEvent> {
+
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	private final Set<CacheInvalidationListener> listeners = new CopyOnWriteArraySet<CacheInvalidationListener>();
+
+
+	public void setApplicationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+		this.applicationEventPublisher = applicationEventPublisher;
+	}
+
+	public void publish(CacheInvalidation invalidation) {
+		Assert.state(this.applicationEventPublisher != null, "No ApplicationEventPublisher set");
+		this.applicationEventPublisher.publishEvent(new CacheInvalidationEvent(this, invalidation));
+	}
+
+	public void subscribe(CacheInvalidationListener listener) {
+		this.listeners.add(listener);
+	}
+
+	public void unsubscribe(CacheInvalidationListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	public void onApplicationEvent(CacheInvalidationEvent event) {
+		for (CacheInvalidationListener listener : this.listeners) {
+			listener.onInvalidation(event.getInvalidation());
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import java.io.Serializable;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * Message about a modification of a shared cache, to be sent to all
+ * {@link NearCacheManager} instances that might hold local copies of the
+ * affected entries: either the eviction of a single key or the clearing
+ * of an entire cache.
+ *
+ * @author agent
+ * @since 4.0
+ * @see CacheInvalidationChannel
+ */
+@SuppressWarnings("serial")
+public class CacheInvalidation implements Serializable {
+
+	private final String origin;
+
+	private final String cacheName;
+
+	private final Object key;
+
+
+	/**
+	 * Create a new CacheInvalidation for a single key.
+	 * @param origin the identifier of the NearCacheManager that sent the message
+	 * @param cacheName the name of the affected cache
+	 * @param key the key to invalidate, or {@code null} to invalidate the entire cache
+	 */
+	public CacheInvalidation(String origin, String cacheName, Object key) {
+		Assert.notNull(origin, "Origin must not be null");
+		Assert.notNull(cacheName, "Cache name must not be null");
+		this.origin = origin;
+		this.cacheName = cacheName;
+		this.key = key;
+	}
+
+
+	/**
+	 * Return the identifier of the NearCacheManager that sent the message.
+	 */
+	public String getOrigin() {
+		return this.origin;
+	}
+
+	/**
+	 * Return the name of the affected cache.
+	 */
+	public String getCacheName() {
+		return this.cacheName;
+	}
+
+	/**
+	 * Return the key to invalidate, or {@code null} if the entire cache is to be invalidated.
+	 */
+	public Object getKey() {
+		return this.key;
+	}
+
+	/**
+	 * Return whether the entire cache is to be invalidated.
+	 */
+	public boolean isClear() {
+		return (this.key == null);
+	}
+
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof CacheInvalidation)) {
+			return false;
+		}
+		CacheInvalidation otherInvalidation = (CacheInvalidation) other;
+		return (this.origin.equals(otherInvalidation.origin) && this.cacheName.equals(otherInvalidation.cacheName) &&
+				ObjectUtils.nullSafeEquals(this.key, otherInvalidation.key));
+	}
+
+	@Override
+	public int hashCode() {
+		return this.cacheName.hashCode() * 29 + ObjectUtils.nullSafeHashCode(this.key);
+	}
+
+	@Override
+	public String toString() {
+		return "CacheInvalidation: cache '" + this.cacheName + "', " +
+				(isClear() ? "all entries" : "key '" + this.key + "'") + ", origin '" + this.origin + "'";
+	}
+
+}
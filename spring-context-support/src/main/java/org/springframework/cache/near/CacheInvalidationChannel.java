@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+/**
+ * Strategy for broadcasting {@link CacheInvalidation} messages between the
+ * {@link NearCacheManager} instances of a cluster, e.g. through a messaging
+ * system or the invalidation facilities of the backing cache provider.
+ *
+ * <p>Implementations are expected to deliver each published message to all
+ * subscribed listeners, including the ones in the publishing process;
+ * a NearCacheManager ignores the messages that it has sent itself.
+ *
+ * @author agent
+ * @since 4.0
+ * @see NearCacheManager#setInvalidationChannel
+ * @see ApplicationEventCacheInvalidationChannel
+ */
+public interface CacheInvalidationChannel {
+
+	/**
+	 * Broadcast the given invalidation message.
+	 * @param invalidation the invalidation to send
+	 */
+	void publish(CacheInvalidation invalidation);
+
+	/**
+	 * Register the given listener for invalidation messages.
+	 * @param listener the listener to deliver messages to
+	 */
+	void subscribe(CacheInvalidationListener listener);
+
+	/**
+	 * Remove the given listener, if registered.
+	 * @param listener the listener to stop delivering messages to
+	 */
+	void unsubscribe(CacheInvalidationListener listener);
+
+}
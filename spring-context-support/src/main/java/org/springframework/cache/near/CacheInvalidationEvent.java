@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event carrying a {@link CacheInvalidation} message within an
+ * application context.
+ *
+ * @author agent
+ * @since 4.0
+ * @see ApplicationEventCacheInvalidationChannel
+ */
+@SuppressWarnings("serial")
+public class CacheInvalidationEvent extends ApplicationEvent {
+
+	private final CacheInvalidation invalidation;
+
+
+	/**
+	 * Create a new CacheInvalidationEvent.
+	 * @param source the channel that published the event
+	 * @param invalidation the invalidation message
+	 */
+	public CacheInvalidationEvent(Object source, CacheInvalidation invalidation) {
+		super(source);
+		this.invalidation = invalidation;
+	}
+
+
+	/**
+	 * Return the invalidation message.
+	 */
+	public CacheInvalidation getInvalidation() {
+		return this.invalidation;
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cache.Cache;
+import org.springframework.util.Assert;
+
+/**
+ * Two-level {@link Cache} implementation, serving reads from a local cache
+ * where possible and falling back to a shared backing cache, with values
+ * found in the backing cache copied into the local cache.
+ *
+ * <p>Writes go to both tiers; an optional {@link CacheInvalidationChannel}
+ * is notified of every put, evict and clear so that other nodes can drop
+ * their local copies of the affected entries.
+ *
+ * @author agent
+ * @since 4.0
+ * @see NearCacheManager
+ */
+public class NearCache implements Cache {
+
+	private final Cache backingCache;
+
+	private final Cache localCache;
+
+	private final CacheInvalidationChannel invalidationChannel;
+
+	private final String origin;
+
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+
+	/**
+	 * Create a new NearCache without cross-node invalidation.
+	 * @param backingCache the shared backing cache
+	 * @param localCache the local cache to hold copies of backing cache entries
+	 */
+	public NearCache(Cache backingCache, Cache localCache) {
+		this(backingCache, localCache, null, null);
+	}
+
+	/**
+	 * Create a new NearCache, broadcasting modifications through the given channel.
+	 * @param backingCache the shared backing cache
+	 * @param localCache the local cache to hold copies of backing cache entries
+	 * @param invalidationChannel the channel to publish invalidations to (may be {@code null})
+	 * @param origin the identifier to send invalidations with
+	 * (may be {@code null} if no channel has been specified)
+	 */
+	public NearCache(Cache backingCache, Cache localCache, CacheInvalidationChannel invalidationChannel, String origin) {
+		Assert.notNull(backingCache, "Backing Cache must not be null");
+		Assert.notNull(localCache, "Local Cache must not be null");
+		Assert.isTrue(invalidationChannel == null || origin != null, "Origin is required for an invalidation channel");
+		this.backingCache = backingCache;
+		this.localCache = localCache;
+		this.invalidationChannel = invalidationChannel;
+		this.origin = origin;
+	}
+
+
+	/**
+	 * Return the shared backing cache.
+	 */
+	public Cache getBackingCache() {
+		return this.backingCache;
+	}
+
+	/**
+	 * Return the local cache.
+	 */
+	public Cache getLocalCache() {
+		return this.localCache;
+	}
+
+	public String getName() {
+		return this.backingCache.getName();
+	}
+
+	public Object getNativeCache() {
+		return this.backingCache.getNativeCache();
+	}
+
+	public ValueWrapper get(Object key) {
+		ValueWrapper wrapper = this.localCache.get(key);
+		if (wrapper != null) {
+			return wrapper;
+		}
+		long invalidations = this.invalidationCount.get();
+		wrapper = this.backingCache.get(key);
+		if (wrapper != null) {
+			this.localCache.put(key, wrapper.get());
+			if (this.invalidationCount.get() != invalidations) {
+				// An invalidation arrived while reading from the backing cache:
+				// the local copy might be stale already.
+				this.localCache.evict(key);
+			}
+		}
+		return wrapper;
+	}
+
+	public void put(Object key, Object value) {
+		this.backingCache.put(key, value);
+		this.localCache.put(key, value);
+		publish(key);
+	}
+
+	public void evict(Object key) {
+		this.backingCache.evict(key);
+		this.localCache.evict(key);
+		publish(key);
+	}
+
+	public void clear() {
+		this.backingCache.clear();
+		this.localCache.clear();
+		publish(null);
+	}
+
+	/**
+	 * Drop the local copy of the given key, leaving the backing cache untouched.
+	 * @param key the key to invalidate
+	 */
+	public void invalidateLocal(Object key) {
+		this.invalidationCount.incrementAndGet();
+		this.localCache.evict(key);
+	}
+
+	/**
+	 * Drop all local copies, leaving the backing cache untouched.
+	 */
+	public void invalidateLocal() {
+		this.invalidationCount.incrementAndGet();
+		this.localCache.clear();
+	}
+
+	private void publish(Object key) {
+		if (this.invalidationChannel != null) {
+			this.invalidationChannel.publish(new CacheInvalidation(this.origin, getName(), key));
+		}
+	}
+
+}
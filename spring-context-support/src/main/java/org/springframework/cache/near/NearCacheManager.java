@@ -0,0 +1,225 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.bounded.BoundedCache;
+import org.springframework.cache.bounded.BoundedCacheSettings;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheManager} implementation that fronts the caches of a backing
+ * CacheManager (e.g. an {@link org.springframework.cache.ehcache.EhCacheCacheManager}
+ * or {@link org.springframework.cache.jcache.JCacheCacheManager} for a clustered
+ * cache) with a small local {@link BoundedCache} each, exposing a {@link NearCache}
+ * per backing cache.
+ *
+ * <p>Local copies are kept coherent with the backing caches on put, evict and
+ * clear operations through this manager. Modifications made through other nodes
+ * are propagated via the configured {@link #setInvalidationChannel invalidation
+ * channel}; without a channel, or for modifications of the backing caches that
+ * bypass the near caches, a {@link BoundedCacheSettings#setTimeToLive time to live}
+ * for the local tier bounds the staleness of local copies.
+ *
+ * <p>Supports {@link #setTransactionAware transaction-aware} exposure of the near caches,
+ * in which case the backing CacheManager itself should not be transaction-aware.
+ *
+ * @author agent
+ * @since 4.0
+ * @see #setBackingCacheManager
+ * @see #setLocalCacheSettings
+ * @see #setInvalidationChannel
+ */
+public class NearCacheManager extends AbstractTransactionSupportingCacheManager
+		implements CacheInvalidationListener, DisposableBean {
+
+	/** The default maximum number of entries in a local cache: 1000 */
+	public static final long DEFAULT_LOCAL_MAXIMUM_SIZE = 1000;
+
+
+	private CacheManager backingCacheManager;
+
+	private BoundedCacheSettings localCacheSettings;
+
+	private CacheInvalidationChannel invalidationChannel;
+
+	private final String origin = UUID.randomUUID().toString();
+
+	private final ConcurrentMap<String, NearCache> nearCaches = new ConcurrentHashMap<String, NearCache>(16);
+
+
+	/**
+	 * Create a new NearCacheManager, setting the backing CacheManager
+	 * through the {@link #setBackingCacheManager} bean property.
+	 */
+	public NearCacheManager() {
+		this.localCacheSettings = new BoundedCacheSettings();
+		this.localCacheSettings.setMaximumSize(DEFAULT_LOCAL_MAXIMUM_SIZE);
+	}
+
+	/**
+	 * Create a new NearCacheManager for the given backing CacheManager.
+	 * @param backingCacheManager the shared CacheManager to front
+	 */
+	public NearCacheManager(CacheManager backingCacheManager) {
+		this();
+		this.backingCacheManager = backingCacheManager;
+	}
+
+
+	/**
+	 * Set the shared CacheManager to front.
+	 */
+	public void setBackingCacheManager(CacheManager backingCacheManager) {
+		this.backingCacheManager = backingCacheManager;
+	}
+
+	/**
+	 * Return the shared CacheManager that this manager fronts.
+	 */
+	public CacheManager getBackingCacheManager() {
+		return this.backingCacheManager;
+	}
+
+	/**
+	 * Specify the settings for the local caches. Default is a maximum
+	 * of {@link #DEFAULT_LOCAL_MAXIMUM_SIZE} entries without expiration.
+	 */
+	public void setLocalCacheSettings(BoundedCacheSettings localCacheSettings) {
+		Assert.notNull(localCacheSettings, "Local BoundedCacheSettings must not be null");
+		this.localCacheSettings = localCacheSettings;
+	}
+
+	/**
+	 * Set the channel to exchange invalidations with other nodes through.
+	 * Default is none, i.e. no cross-node coherence of local copies.
+	 */
+	public void setInvalidationChannel(CacheInvalidationChannel invalidationChannel) {
+		this.invalidationChannel = invalidationChannel;
+	}
+
+	/**
+	 * Return the identifier that this manager sends invalidations with.
+	 */
+	public String getOrigin() {
+		return this.origin;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		if (this.backingCacheManager == null) {
+			throw new IllegalStateException("'backingCacheManager' is required");
+		}
+		if (this.invalidationChannel != null) {
+			this.invalidationChannel.subscribe(this);
+		}
+		super.afterPropertiesSet();
+	}
+
+	public void destroy() {
+		if (this.invalidationChannel != null) {
+			this.invalidationChannel.unsubscribe(this);
+		}
+	}
+
+
+	@Override
+	protected Collection<Cache> loadCaches() {
+		Collection<String> names = this.backingCacheManager.getCacheNames();
+		Collection<Cache> caches = new LinkedHashSet<Cache>(names.size());
+		for (String name : names) {
+			Cache backingCache = this.backingCacheManager.getCache(name);
+			if (backingCache != null) {
+				caches.add(createNearCache(backingCache));
+			}
+		}
+		return caches;
+	}
+
+	@Override
+	public Cache getCache(String name) {
+		Cache cache = super.getCache(name);
+		if (cache == null) {
+			// check the backing CacheManager again
+			// (in case the cache was added at runtime)
+			Cache backingCache = this.backingCacheManager.getCache(name);
+			if (backingCache != null) {
+				synchronized (this.nearCaches) {
+					cache = super.getCache(name);
+					if (cache == null) {
+						addCache(createNearCache(backingCache));
+						cache = super.getCache(name);
+					}
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Create a NearCache for the given backing cache and register it
+	 * for invalidations.
+	 * @param backingCache the backing cache to front
+	 * @return the new NearCache
+	 */
+	protected NearCache createNearCache(Cache backingCache) {
+		NearCache nearCache = new NearCache(backingCache, createLocalCache(backingCache.getName()),
+				this.invalidationChannel, this.origin);
+		this.nearCaches.put(backingCache.getName(), nearCache);
+		return nearCache;
+	}
+
+	/**
+	 * Create the local cache for the specified cache name.
+	 * <p>The default implementation creates a {@link BoundedCache}
+	 * with the configured {@link #setLocalCacheSettings settings}.
+	 * @param name the name of the cache
+	 * @return the local Cache
+	 */
+	protected Cache createLocalCache(String name) {
+		return new BoundedCache(name, this.localCacheSettings);
+	}
+
+	/**
+	 * Drop local copies according to the given invalidation,
+	 * unless it has been sent by this manager itself.
+	 */
+	public void onInvalidation(CacheInvalidation invalidation) {
+		if (this.origin.equals(invalidation.getOrigin())) {
+			return;
+		}
+		NearCache nearCache = this.nearCaches.get(invalidation.getCacheName());
+		if (nearCache != null) {
+			if (invalidation.isClear()) {
+				nearCache.invalidateLocal();
+			}
+			else {
+				nearCache.invalidateLocal(invalidation.getKey());
+			}
+		}
+	}
+
+}
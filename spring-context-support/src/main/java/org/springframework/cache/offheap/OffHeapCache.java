@@ -0,0 +1,299 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.offheap;
+
+import java.util.Arrays;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Cache} implementation that keeps its entries outside of the Java heap,
+ * in direct {@link java.nio.ByteBuffer ByteBuffers}, so that even very large
+ * caches do not add to garbage collection pauses.
+ *
+ * <p>Keys and values are encoded through the {@link Serializer} and
+ * {@link Deserializer} SPI, by default using Java serialization. Keys are
+ * compared by their serialized form; they therefore need to serialize to
+ * the same bytes whenever they are equal, as is the case for strings,
+ * numbers and {@link org.springframework.cache.interceptor.SimpleKey}.
+ * Every read returns a freshly deserialized copy of the stored value;
+ * {@code null} values are supported without passing them to the Serializer.
+ *
+ * <p>The cache is divided into segments with a fixed share of the
+ * {@link #getCapacity() capacity} each, avoiding contention between
+ * concurrent operations on different segments. Each segment stores its
+ * entries in a circular log, evicting the oldest entries once the log is
+ * full; the on-heap footprint is limited to a hash index of 12 bytes per
+ * slot. Entries that exceed the capacity of a segment are not stored.
+ *
+ * @author agent
+ * @since 4.0
+ * @see OffHeapCacheManager
+ */
+public class OffHeapCache implements Cache {
+
+	/** The default capacity of a cache: 64 MB */
+	public static final long DEFAULT_CAPACITY = 64 * 1024 * 1024;
+
+	/** The default number of segments: 16 */
+	public static final int DEFAULT_SEGMENT_COUNT = 16;
+
+
+	private static final byte[] NULL_VALUE = new byte[0];
+
+
+	private final String name;
+
+	private final OffHeapSegment[] segments;
+
+	private final int segmentShift;
+
+	private final SerializingConverter serializer;
+
+	private final DeserializingConverter deserializer;
+
+
+	/**
+	 * Create a new OffHeapCache with the specified name and default settings.
+	 * @param name the name of the cache
+	 */
+	public OffHeapCache(String name) {
+		this(name, DEFAULT_CAPACITY, DEFAULT_SEGMENT_COUNT, new DefaultSerializer(), new DefaultDeserializer());
+	}
+
+	/**
+	 * Create a new OffHeapCache with the specified name and settings.
+	 * @param name the name of the cache
+	 * @param capacity the total number of off-heap bytes to allocate for entries
+	 * @param segmentCount the number of segments to divide the capacity into
+	 * (rounded up to a power of two)
+	 * @param serializer the Serializer to encode keys and values with
+	 * @param deserializer the Deserializer to decode values with
+	 */
+	public OffHeapCache(String name, long capacity, int segmentCount,
+			Serializer<Object> serializer, Deserializer<Object> deserializer) {
+
+		Assert.notNull(name, "Name must not be null");
+		Assert.isTrue(segmentCount > 0, "'segmentCount' must be positive");
+		Assert.notNull(serializer, "Serializer must not be null");
+		Assert.notNull(deserializer, "Deserializer must not be null");
+		int segments = (segmentCount > 1 ? Integer.highestOneBit(segmentCount - 1) << 1 : 1);
+		long segmentCapacity = capacity / segments;
+		Assert.isTrue(segmentCapacity >= OffHeapSegment.HEADER_SIZE,
+				"'capacity' too small for " + segments + " segments");
+		Assert.isTrue(segmentCapacity <= Integer.MAX_VALUE,
+				"'capacity' too large for " + segments + " segments: specify a higher segment count");
+		this.name = name;
+		this.segments = new OffHeapSegment[segments];
+		for (int i = 0; i < segments; i++) {
+			this.segments[i] = new OffHeapSegment((int) segmentCapacity);
+		}
+		this.segmentShift = 32 - Integer.numberOfTrailingZeros(segments);
+		this.serializer = new SerializingConverter(serializer);
+		this.deserializer = new DeserializingConverter(deserializer);
+	}
+
+
+	public final String getName() {
+		return this.name;
+	}
+
+	public final Object getNativeCache() {
+		return this;
+	}
+
+	public ValueWrapper get(Object key) {
+		byte[] keyBytes = this.serializer.convert(key);
+		int hash = hash(keyBytes);
+		OffHeapSegment segment = segmentFor(hash);
+		byte[] value;
+		synchronized (segment) {
+			value = segment.get(hash, keyBytes);
+		}
+		if (value == null) {
+			return null;
+		}
+		return new SimpleValueWrapper(value.length > 0 ? this.deserializer.convert(value) : null);
+	}
+
+	public void put(Object key, Object value) {
+		byte[] keyBytes = this.serializer.convert(key);
+		byte[] valueBytes = (value != null ? this.serializer.convert(value) : NULL_VALUE);
+		int hash = hash(keyBytes);
+		OffHeapSegment segment = segmentFor(hash);
+		synchronized (segment) {
+			segment.put(hash, keyBytes, valueBytes);
+		}
+	}
+
+	public void evict(Object key) {
+		byte[] keyBytes = this.serializer.convert(key);
+		int hash = hash(keyBytes);
+		OffHeapSegment segment = segmentFor(hash);
+		synchronized (segment) {
+			segment.remove(hash, keyBytes);
+		}
+	}
+
+	public void clear() {
+		for (OffHeapSegment segment : this.segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+
+	/**
+	 * Return the number of entries in the cache.
+	 */
+	public long size() {
+		long size = 0;
+		for (OffHeapSegment segment : this.segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Return the number of off-heap bytes allocated for entries.
+	 */
+	public long getCapacity() {
+		long capacity = 0;
+		for (OffHeapSegment segment : this.segments) {
+			capacity += segment.capacity();
+		}
+		return capacity;
+	}
+
+	/**
+	 * Return the number of off-heap bytes currently in use, including
+	 * space taken by replaced or evicted entries that has not been reclaimed yet.
+	 */
+	public long getUsedBytes() {
+		long usedBytes = 0;
+		for (OffHeapSegment segment : this.segments) {
+			synchronized (segment) {
+				usedBytes += segment.usedBytes();
+			}
+		}
+		return usedBytes;
+	}
+
+	/**
+	 * Return the number of off-heap bytes taken by the entries currently in the cache.
+	 */
+	public long getLiveBytes() {
+		long liveBytes = 0;
+		for (OffHeapSegment segment : this.segments) {
+			synchronized (segment) {
+				liveBytes += segment.liveBytes();
+			}
+		}
+		return liveBytes;
+	}
+
+	/**
+	 * Return the approximate number of on-heap bytes taken by the index.
+	 */
+	public long getIndexBytes() {
+		long indexBytes = 0;
+		for (OffHeapSegment segment : this.segments) {
+			synchronized (segment) {
+				indexBytes += segment.indexBytes();
+			}
+		}
+		return indexBytes;
+	}
+
+	/**
+	 * Return the number of lookups that found an entry.
+	 */
+	public long getHitCount() {
+		long count = 0;
+		for (OffHeapSegment segment : this.segments) {
+			synchronized (segment) {
+				count += segment.hitCount;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of lookups that did not find an entry.
+	 */
+	public long getMissCount() {
+		long count = 0;
+		for (OffHeapSegment segment : this.segments) {
+			synchronized (segment) {
+				count += segment.missCount;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of entries evicted to make room for new entries.
+	 */
+	public long getEvictionCount() {
+		long count = 0;
+		for (OffHeapSegment segment : this.segments) {
+			synchronized (segment) {
+				count += segment.evictionCount;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of entries not stored since they exceeded the capacity of a segment.
+	 */
+	public long getRejectionCount() {
+		long count = 0;
+		for (OffHeapSegment segment : this.segments) {
+			synchronized (segment) {
+				count += segment.rejectionCount;
+			}
+		}
+		return count;
+	}
+
+
+	private OffHeapSegment segmentFor(int hash) {
+		return (this.segments.length == 1 ? this.segments[0] : this.segments[hash >>> this.segmentShift]);
+	}
+
+	private static int hash(byte[] bytes) {
+		int h = Arrays.hashCode(bytes);
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		h *= 0xc2b2ae35;
+		return h ^ (h >>> 16);
+	}
+
+}
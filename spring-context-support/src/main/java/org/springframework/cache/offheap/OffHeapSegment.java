@@ -0,0 +1,308 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.offheap;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A segment of an {@link OffHeapCache}: a direct {@link ByteBuffer} used as a
+ * circular log of serialized entries, plus an on-heap open-addressing index
+ * holding nothing but the hash and log address of each live entry.
+ *
+ * <p>New and updated entries are appended at the head of the log; space is
+ * reclaimed by advancing the tail of the log, evicting the oldest entries
+ * that are still live. Updated and evicted entries remain in the log as
+ * garbage until the tail passes them.
+ *
+ * <p>Entry layout: total length (int, negative for padding at the end of
+ * the buffer), hash (int), key length (int), value length (int), key bytes,
+ * value bytes; padded to a multiple of 8 bytes.
+ *
+ * <p>Not thread-safe; to be guarded by the owning {@link OffHeapCache}.
+ *
+ * @author agent
+ * @since 4.0
+ */
+class OffHeapSegment {
+
+	static final int HEADER_SIZE = 16;
+
+	private static final int INITIAL_INDEX_SIZE = 16;
+
+
+	private final ByteBuffer buffer;
+
+	private final int capacity;
+
+	// logical log positions, mapped to the buffer modulo capacity
+	private long head = 0;
+
+	private long tail = 0;
+
+	private long liveBytes = 0;
+
+	// open-addressing index: entry hashes and log addresses (+1, with 0 meaning empty)
+	private int[] hashes = new int[INITIAL_INDEX_SIZE];
+
+	private long[] addresses = new long[INITIAL_INDEX_SIZE];
+
+	private int size = 0;
+
+	long hitCount;
+
+	long missCount;
+
+	long evictionCount;
+
+	long rejectionCount;
+
+
+	public OffHeapSegment(int capacity) {
+		this.capacity = capacity & ~7;
+		this.buffer = ByteBuffer.allocateDirect(this.capacity);
+	}
+
+
+	/**
+	 * Return the value bytes for the given key, or {@code null} if not present.
+	 */
+	public byte[] get(int hash, byte[] key) {
+		int slot = findSlot(hash, key);
+		if (slot < 0) {
+			this.missCount++;
+			return null;
+		}
+		this.hitCount++;
+		int position = position(this.addresses[slot] - 1);
+		int keyLength = this.buffer.getInt(position + 8);
+		byte[] value = new byte[this.buffer.getInt(position + 12)];
+		this.buffer.position(position + HEADER_SIZE + keyLength);
+		this.buffer.get(value);
+		return value;
+	}
+
+	/**
+	 * Store the given value bytes for the given key.
+	 * @return {@code false} if the entry exceeds the capacity of the segment
+	 */
+	public boolean put(int hash, byte[] key, byte[] value) {
+		// the previous entry (if any) turns into garbage
+		remove(hash, key);
+		long length = align((long) HEADER_SIZE + key.length + value.length);
+		if (length > this.capacity) {
+			this.rejectionCount++;
+			return false;
+		}
+		long address = allocate((int) length);
+		int position = position(address);
+		this.buffer.putInt(position, (int) length);
+		this.buffer.putInt(position + 4, hash);
+		this.buffer.putInt(position + 8, key.length);
+		this.buffer.putInt(position + 12, value.length);
+		this.buffer.position(position + HEADER_SIZE);
+		this.buffer.put(key);
+		this.buffer.put(value);
+		this.liveBytes += length;
+		insert(-(findSlot(hash, key) + 1), hash, address);
+		return true;
+	}
+
+	/**
+	 * Remove the entry for the given key, if present.
+	 */
+	public void remove(int hash, byte[] key) {
+		int slot = findSlot(hash, key);
+		if (slot >= 0) {
+			this.liveBytes -= entryLength(this.addresses[slot] - 1);
+			removeSlot(slot);
+		}
+	}
+
+	/**
+	 * Remove all entries.
+	 */
+	public void clear() {
+		this.hashes = new int[INITIAL_INDEX_SIZE];
+		this.addresses = new long[INITIAL_INDEX_SIZE];
+		this.size = 0;
+		this.head = 0;
+		this.tail = 0;
+		this.liveBytes = 0;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int capacity() {
+		return this.capacity;
+	}
+
+	public long usedBytes() {
+		return this.head - this.tail;
+	}
+
+	public long liveBytes() {
+		return this.liveBytes;
+	}
+
+	public long indexBytes() {
+		return this.hashes.length * 12L;
+	}
+
+
+	/**
+	 * Reserve the given number of bytes at the head of the log,
+	 * evicting the oldest entries as necessary.
+	 * @return the logical address of the reserved space
+	 */
+	private long allocate(int length) {
+		while (true) {
+			int position = position(this.head);
+			int padding = (position + length > this.capacity ? this.capacity - position : 0);
+			if (this.capacity - (this.head - this.tail) >= padding + length) {
+				if (padding > 0) {
+					this.buffer.putInt(position, -padding);
+					this.head += padding;
+				}
+				long address = this.head;
+				this.head += length;
+				return address;
+			}
+			if (this.head == this.tail) {
+				// empty log: restart at the beginning of the buffer
+				this.head = 0;
+				this.tail = 0;
+			}
+			else {
+				evictOldest();
+			}
+		}
+	}
+
+	private void evictOldest() {
+		int position = position(this.tail);
+		int length = this.buffer.getInt(position);
+		if (length < 0) {
+			this.tail -= length;
+			return;
+		}
+		int hash = this.buffer.getInt(position + 4);
+		int mask = this.addresses.length - 1;
+		for (int slot = hash & mask; this.addresses[slot] != 0; slot = (slot + 1) & mask) {
+			if (this.addresses[slot] == this.tail + 1) {
+				removeSlot(slot);
+				this.liveBytes -= length;
+				this.evictionCount++;
+				break;
+			}
+		}
+		this.tail += length;
+	}
+
+	private int findSlot(int hash, byte[] key) {
+		int mask = this.addresses.length - 1;
+		int slot = hash & mask;
+		while (this.addresses[slot] != 0) {
+			if (this.hashes[slot] == hash && keyMatches(this.addresses[slot] - 1, key)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -(slot + 1);
+	}
+
+	private boolean keyMatches(long address, byte[] key) {
+		int position = position(address);
+		if (this.buffer.getInt(position + 8) != key.length) {
+			return false;
+		}
+		position += HEADER_SIZE;
+		for (int i = 0; i < key.length; i++) {
+			if (this.buffer.get(position + i) != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void insert(int slot, int hash, long address) {
+		this.hashes[slot] = hash;
+		this.addresses[slot] = address + 1;
+		this.size++;
+		if (this.size > (this.addresses.length >> 2) * 3) {
+			resize();
+		}
+	}
+
+	private void resize() {
+		int[] oldHashes = this.hashes;
+		long[] oldAddresses = this.addresses;
+		this.hashes = new int[oldHashes.length << 1];
+		this.addresses = new long[oldAddresses.length << 1];
+		int mask = this.addresses.length - 1;
+		for (int i = 0; i < oldAddresses.length; i++) {
+			if (oldAddresses[i] != 0) {
+				int slot = oldHashes[i] & mask;
+				while (this.addresses[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				this.hashes[slot] = oldHashes[i];
+				this.addresses[slot] = oldAddresses[i];
+			}
+		}
+	}
+
+	/**
+	 * Remove the given slot, shifting subsequent entries of the same
+	 * probe sequence back so that no tombstones are needed.
+	 */
+	private void removeSlot(int slot) {
+		int mask = this.addresses.length - 1;
+		this.addresses[slot] = 0;
+		this.size--;
+		int gap = slot;
+		int current = slot;
+		while (true) {
+			current = (current + 1) & mask;
+			if (this.addresses[current] == 0) {
+				return;
+			}
+			int ideal = this.hashes[current] & mask;
+			boolean movable = (gap <= current ? (ideal <= gap || ideal > current) : (ideal <= gap && ideal > current));
+			if (movable) {
+				this.hashes[gap] = this.hashes[current];
+				this.addresses[gap] = this.addresses[current];
+				this.addresses[current] = 0;
+				gap = current;
+			}
+		}
+	}
+
+	private int entryLength(long address) {
+		return this.buffer.getInt(position(address));
+	}
+
+	private int position(long address) {
+		return (int) (address % this.capacity);
+	}
+
+	private static long align(long length) {
+		return (length + 7) & ~7L;
+	}
+
+}
@@ -16,6 +16,11 @@
 
 package org.springframework.cache.ehcache;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
@@ -24,7 +29,9 @@ import net.sf.ehcache.config.CacheConfiguration;
 import org.junit.Before;
 import org.junit.Test;
 
+import org.springframework.cache.BulkCache;
 import org.springframework.cache.Cache;
+import org.springframework.cache.LoadingCache;
 import org.springframework.tests.Assume;
 import org.springframework.tests.TestGroup;
 
@@ -96,6 +103,38 @@ public class EhCacheCacheTests {
 		assertNull(cache.get("enescu"));
 	}
 
+	@Test
+	public void testCacheGetWithValueLoader() throws Exception {
+		LoadingCache loadingCache = (LoadingCache) cache;
+		assertEquals("george", loadingCache.get("enescu", new Callable<String>() {
+			public String call() {
+				return "george";
+			}
+		}));
+		assertEquals("george", cache.get("enescu").get());
+		assertEquals("george", loadingCache.get("enescu", new Callable<String>() {
+			public String call() {
+				throw new IllegalStateException("Should not have been called");
+			}
+		}));
+	}
+
+	@Test
+	public void testCacheBulkOperations() throws Exception {
+		BulkCache bulkCache = (BulkCache) cache;
+		Map<String, String> entries = new LinkedHashMap<String, String>();
+		entries.put("enescu", "george");
+		entries.put("vlaicu", "aurel");
+		bulkCache.putAll(entries);
+		assertEquals("aurel", cache.get("vlaicu").get());
+
+		Map<Object, Cache.ValueWrapper> result = bulkCache.getAll(Arrays.asList("enescu", "brancusi", "vlaicu"));
+		assertEquals(2, result.size());
+		assertEquals("george", result.get("enescu").get());
+		assertEquals("aurel", result.get("vlaicu").get());
+		assertFalse(result.containsKey("brancusi"));
+	}
+
 	@Test
 	public void testExpiredElements() throws Exception {
 		Assume.group(TestGroup.LONG_RUNNING);
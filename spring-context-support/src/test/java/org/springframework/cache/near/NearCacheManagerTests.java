@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.near;
+
+import org.junit.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class NearCacheManagerTests {
+
+	@Test
+	public void localTierServesReads() {
+		ConcurrentMapCacheManager backingCacheManager = new ConcurrentMapCacheManager("test");
+		NearCacheManager cacheManager = new NearCacheManager(backingCacheManager);
+		cacheManager.afterPropertiesSet();
+
+		Cache cache = cacheManager.getCache("test");
+		assertTrue(cache instanceof NearCache);
+		cache.put("key", "value");
+		assertEquals("value", backingCacheManager.getCache("test").get("key").get());
+
+		backingCacheManager.getCache("test").evict("key");
+		assertEquals("value", cache.get("key").get());
+
+		cache.evict("key");
+		assertNull(cache.get("key"));
+	}
+
+	@Test
+	public void backingValueCopiedToLocalTier() {
+		ConcurrentMapCacheManager backingCacheManager = new ConcurrentMapCacheManager("test");
+		NearCacheManager cacheManager = new NearCacheManager(backingCacheManager);
+		cacheManager.afterPropertiesSet();
+
+		backingCacheManager.getCache("test").put("key", "value");
+		NearCache cache = (NearCache) cacheManager.getCache("test");
+		assertNull(cache.getLocalCache().get("key"));
+		assertEquals("value", cache.get("key").get());
+		assertEquals("value", cache.getLocalCache().get("key").get());
+
+		cache.clear();
+		assertNull(backingCacheManager.getCache("test").get("key"));
+		assertNull(cache.getLocalCache().get("key"));
+	}
+
+	@Test
+	public void cacheAddedAtRuntime() {
+		NearCacheManager cacheManager = new NearCacheManager(new ConcurrentMapCacheManager());
+		cacheManager.afterPropertiesSet();
+		assertTrue(cacheManager.getCacheNames().isEmpty());
+
+		Cache cache = cacheManager.getCache("runtime");
+		assertTrue(cache instanceof NearCache);
+		assertSame(cache, cacheManager.getCache("runtime"));
+		assertTrue(cacheManager.getCacheNames().contains("runtime"));
+	}
+
+	@Test
+	public void invalidationsAcrossManagers() {
+		StaticApplicationContext context = new StaticApplicationContext();
+		context.registerSingleton("channel", ApplicationEventCacheInvalidationChannel.class);
+		context.refresh();
+		CacheInvalidationChannel channel = context.getBean(CacheInvalidationChannel.class);
+
+		ConcurrentMapCacheManager backingCacheManager = new ConcurrentMapCacheManager("test");
+		NearCacheManager cacheManager1 = new NearCacheManager(backingCacheManager);
+		cacheManager1.setInvalidationChannel(channel);
+		cacheManager1.afterPropertiesSet();
+		NearCacheManager cacheManager2 = new NearCacheManager(backingCacheManager);
+		cacheManager2.setInvalidationChannel(channel);
+		cacheManager2.afterPropertiesSet();
+		Cache cache1 = cacheManager1.getCache("test");
+		Cache cache2 = cacheManager2.getCache("test");
+
+		cache1.put("key", "value1");
+		assertEquals("value1", cache2.get("key").get());
+		cache1.put("key", "value2");
+		assertEquals("value2", cache2.get("key").get());
+
+		// own invalidations do not drop local copies
+		backingCacheManager.getCache("test").evict("key");
+		assertEquals("value2", cache1.get("key").get());
+
+		cache1.put("other", "value");
+		assertEquals("value", cache2.get("other").get());
+		cache1.clear();
+		assertNull(cache2.get("key"));
+		assertNull(cache2.get("other"));
+
+		cacheManager2.destroy();
+		cache2.put("key", "value3");
+		cache1.put("key", "value4");
+		assertEquals("value3", cache2.get("key").get());
+		context.close();
+	}
+
+	@Test
+	public void transactionAwareNearCache() {
+		ConcurrentMapCacheManager backingCacheManager = new ConcurrentMapCacheManager("test");
+		NearCacheManager cacheManager = new NearCacheManager(backingCacheManager);
+		cacheManager.setTransactionAware(true);
+		cacheManager.afterPropertiesSet();
+
+		Cache cache = cacheManager.getCache("test");
+		assertTrue(cache instanceof TransactionAwareCacheDecorator);
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			cache.put("key", "value");
+			assertNull(cache.get("key"));
+			assertNull(backingCacheManager.getCache("test").get("key"));
+			TransactionSynchronizationUtils.triggerAfterCommit();
+		}
+		finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		assertEquals("value", cache.get("key").get());
+		assertEquals("value", backingCacheManager.getCache("test").get("key").get());
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.offheap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class OffHeapCacheTests {
+
+	@Test
+	public void putGetEvictClear() {
+		OffHeapCache cache = new OffHeapCache("test", 1024 * 1024, 4, new DefaultSerializer(), new DefaultDeserializer());
+		assertEquals("test", cache.getName());
+		assertSame(cache, cache.getNativeCache());
+		assertNull(cache.get("key"));
+
+		List<String> value = new ArrayList<String>();
+		value.add("element");
+		cache.put("key", value);
+		cache.put(new SimpleKey("a", 1), "compositeValue");
+		cache.put("nullKey", null);
+		assertEquals(value, cache.get("key").get());
+		assertNotSame(value, cache.get("key").get());
+		assertEquals("compositeValue", cache.get(new SimpleKey("a", 1)).get());
+		assertNotNull(cache.get("nullKey"));
+		assertNull(cache.get("nullKey").get());
+		assertEquals(3, cache.size());
+
+		cache.evict("key");
+		assertNull(cache.get("key"));
+		assertEquals(2, cache.size());
+		cache.clear();
+		assertNull(cache.get(new SimpleKey("a", 1)));
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getUsedBytes());
+		assertEquals(0, cache.getLiveBytes());
+	}
+
+	@Test
+	public void replacedEntryBecomesGarbage() {
+		OffHeapCache cache = new OffHeapCache("test", 64 * 1024, 1, new DefaultSerializer(), new DefaultDeserializer());
+		cache.put("key", "value1");
+		long liveBytes = cache.getLiveBytes();
+		cache.put("key", "value2");
+		assertEquals("value2", cache.get("key").get());
+		assertEquals(1, cache.size());
+		assertEquals(liveBytes, cache.getLiveBytes());
+		assertEquals(2 * liveBytes, cache.getUsedBytes());
+	}
+
+	@Test
+	public void oldestEntriesEvicted() {
+		OffHeapCache cache = new OffHeapCache("test", 16 * 1024, 1, new DefaultSerializer(), new DefaultDeserializer());
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, "value" + i);
+		}
+		assertTrue(cache.getEvictionCount() > 0);
+		assertTrue(cache.size() < 1000);
+		assertTrue(cache.getUsedBytes() <= cache.getCapacity());
+		assertEquals(1000, cache.size() + cache.getEvictionCount());
+		assertNull(cache.get(0));
+		assertEquals("value999", cache.get(999).get());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void oversizedEntryRejected() {
+		OffHeapCache cache = new OffHeapCache("test", 8 * 1024, 2, new DefaultSerializer(), new DefaultDeserializer());
+		cache.put("key", "value");
+		cache.put("key", new byte[8 * 1024]);
+		assertNull(cache.get("key"));
+		assertEquals(1, cache.getRejectionCount());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void consistentWithReferenceMap() {
+		OffHeapCache cache = new OffHeapCache("test", 32 * 1024, 2, new DefaultSerializer(), new DefaultDeserializer());
+		Map<Integer, String> reference = new HashMap<Integer, String>();
+		Random random = new Random(42);
+		for (int i = 0; i < 20000; i++) {
+			Integer key = random.nextInt(500);
+			int operation = random.nextInt(10);
+			if (operation < 6) {
+				StringBuilder value = new StringBuilder("value" + i);
+				for (int j = random.nextInt(20); j > 0; j--) {
+					value.append('x');
+				}
+				cache.put(key, value.toString());
+				reference.put(key, value.toString());
+			}
+			else if (operation < 9) {
+				Cache.ValueWrapper wrapper = cache.get(key);
+				if (wrapper != null) {
+					assertEquals(reference.get(key), wrapper.get());
+				}
+			}
+			else {
+				cache.evict(key);
+				reference.remove(key);
+			}
+		}
+		int present = 0;
+		for (Integer key : reference.keySet()) {
+			Cache.ValueWrapper wrapper = cache.get(key);
+			if (wrapper != null) {
+				assertEquals(reference.get(key), wrapper.get());
+				present++;
+			}
+		}
+		assertEquals(present, cache.size());
+		assertTrue(cache.getLiveBytes() <= cache.getUsedBytes());
+		assertTrue(cache.getIndexBytes() > 0);
+	}
+
+	@Test
+	public void cacheManager() {
+		OffHeapCacheManager cacheManager = new OffHeapCacheManager();
+		cacheManager.setCapacity(64 * 1024);
+		cacheManager.setSegmentCount(2);
+		Cache cache = cacheManager.getCache("test");
+		assertTrue(cache instanceof OffHeapCache);
+		assertSame(cache, cacheManager.getCache("test"));
+		assertEquals(64 * 1024, ((OffHeapCache) cache).getCapacity());
+		assertTrue(cacheManager.getCacheNames().contains("test"));
+
+		cacheManager = new OffHeapCacheManager("static");
+		assertNotNull(cacheManager.getCache("static"));
+		assertNull(cacheManager.getCache("other"));
+	}
+
+}
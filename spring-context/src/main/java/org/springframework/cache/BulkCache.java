@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Extension of the {@link Cache} interface for caches that are able to
+ * retrieve and store multiple entries in a single bulk operation.
+ *
+ * <p>Implemented by caches whose provider offers native bulk access.
+ * {@link org.springframework.cache.support.BulkCacheUtils} falls back to
+ * individual {@code get} and {@code put} calls for plain {@link Cache}
+ * implementations.
+ *
+ * @author agent
+ * @since 4.0
+ * @see org.springframework.cache.support.BulkCacheUtils
+ * @see org.springframework.cache.annotation.BulkCacheable
+ */
+public interface BulkCache extends Cache {
+
+	/**
+	 * Return the values to which this cache maps the specified keys.
+	 * @param keys the keys whose associated values are to be returned
+	 * @return a Map from key to value wrapper, containing entries
+	 * for those keys only that this cache contains a mapping for
+	 * (never {@code null})
+	 */
+	Map<Object, ValueWrapper> getAll(Collection<?> keys);
+
+	/**
+	 * Associate the specified values with their keys in this cache,
+	 * replacing any existing mappings for those keys.
+	 * @param entries the keys and values to store
+	 */
+	void putAll(Map<?, ?> entries);
+
+}
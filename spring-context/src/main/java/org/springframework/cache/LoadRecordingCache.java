@@ -0,0 +1,37 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache;
+
+/**
+ * Extension of the {@link Cache} interface for caches that keep track of the
+ * time it takes to load their values, including values that get loaded outside
+ * of the cache and put into it afterwards - e.g. by the caching infrastructure
+ * for {@link org.springframework.cache.annotation.Cacheable} methods.
+ *
+ * @author agent
+ * @since 4.0
+ * @see org.springframework.cache.statistics.StatisticsCache
+ */
+public interface LoadRecordingCache extends Cache {
+
+	/**
+	 * Record that a value has been loaded for this cache.
+	 * @param loadTime the time it took to load the value, in nanoseconds
+	 */
+	void recordLoad(long loadTime);
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Extension of the {@link Cache} interface for caches that are able to
+ * obtain a missing value through a value loader, guaranteeing that
+ * concurrent requests for the same key share a single load.
+ *
+ * <p>Implemented by caches whose provider supports atomic per-key computation.
+ * The caching infrastructure falls back to synchronizing loads on its own
+ * for plain {@link Cache} implementations.
+ *
+ * @author agent
+ * @since 4.0
+ * @see org.springframework.cache.annotation.Cacheable#sync()
+ */
+public interface LoadingCache extends Cache {
+
+	/**
+	 * Return the value to which this cache maps the specified key, obtaining
+	 * that value from the {@code valueLoader} if necessary and storing it in
+	 * the cache.
+	 * <p>If several threads request the same missing key at the same time,
+	 * the value loader is only invoked once, with all threads receiving
+	 * its result.
+	 * @param key the key whose associated value is to be returned
+	 * @param valueLoader the loader to obtain the value from on a cache miss
+	 * @return the value to which this cache maps the specified key
+	 * @throws ValueRetrievalException if the {@code valueLoader} throws an exception
+	 */
+	<T> T get(Object key, Callable<T> valueLoader);
+
+
+	/**
+	 * Wrapper exception to be thrown from {@link #get(Object, Callable)}
+	 * in case of the value loader callback failing with an exception.
+	 */
+	@SuppressWarnings("serial")
+	class ValueRetrievalException extends RuntimeException {
+
+		private final Object key;
+
+		public ValueRetrievalException(Object key, Throwable ex) {
+			super("Value for key '" + key + "' could not be loaded", ex);
+			this.key = key;
+		}
+
+		/**
+		 * Return the key whose value could not be loaded.
+		 */
+		public Object getKey() {
+			return this.key;
+		}
+	}
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation indicating that a method loading values for a collection of
+ * identifiers can be cached per identifier, e.g.:
+ *
+ * <pre class="code">
+ * &#064;BulkCacheable(value = "prices", resultKey = "id")
+ * public List&lt;Price&gt; getPrices(Collection&lt;Long&gt; ids) {...}</pre>
+ *
+ * <p>The first {@link java.util.Collection} parameter of the method provides
+ * the identifiers, each of which serves as a cache key of its own. On
+ * invocation, all identifiers are looked up in the cache; the method is only
+ * invoked for the missing identifiers, with its result being stored in the
+ * cache per identifier and merged with the cached values. Remaining method
+ * parameters are passed through unchanged and become part of the cache keys:
+ * for such methods, the configured
+ * {@link org.springframework.cache.interceptor.KeyGenerator} determines the
+ * cache key of each identifier from the arguments with the identifier in place
+ * of the Collection.
+ *
+ * <p>The method may either return a {@link java.util.Map} from identifier
+ * to value, or a {@link java.util.Collection} of values, in which case the
+ * {@link #resultKey} attribute is required to determine the identifier of
+ * each value. The merged result follows the order of the given identifiers;
+ * identifiers without a value are left out.
+ *
+ * <p>A bulk cacheable operation must be the only cache operation on its method.
+ * On the type level, it applies to all public methods of the class, each of
+ * which needs to meet the requirements above.
+ * Where the caching infrastructure is unable to invoke the method with a reduced
+ * set of identifiers (e.g. when applied through AspectJ), the method is invoked
+ * with all identifiers on a cache miss, still serving subsequent calls per
+ * identifier from the cache.
+ *
+ * @author agent
+ * @since 4.0
+ * @see org.springframework.cache.BulkCache
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface BulkCacheable {
+
+	/**
+	 * Name of the caches in which the values are stored.
+	 * <p>May be used to determine the target cache (or caches), matching the
+	 * qualifier value (or the bean name(s)) of (a) specific bean definition.
+	 */
+	String[] value();
+
+	/**
+	 * Spring Expression Language (SpEL) attribute used for conditioning the method caching.
+	 * <p>Default is "", meaning the method is always cached.
+	 */
+	String condition() default "";
+
+	/**
+	 * Spring Expression Language (SpEL) attribute for determining the identifier
+	 * of each value in a {@link java.util.Collection} result, evaluated against
+	 * the value as root object (e.g. "id").
+	 * <p>Default is "", which is only allowed for methods returning a {@link java.util.Map}.
+	 */
+	String resultKey() default "";
+
+}
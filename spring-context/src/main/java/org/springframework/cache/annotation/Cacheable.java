@@ -66,4 +66,22 @@ public @interface Cacheable {
 	 * @since 3.2
 	 */
 	String unless() default "";
+
+	/**
+	 * Synchronize the invocation of the underlying method if several threads
+	 * attempt to load a value for the same key: only one of them invokes the
+	 * method, with the others waiting for its result instead of invoking the
+	 * method themselves.
+	 * <p>Caches implementing {@link org.springframework.cache.LoadingCache}
+	 * perform the load natively; other caches are synchronized by the caching
+	 * infrastructure. Synchronized caching comes with restrictions:
+	 * <ol>
+	 * <li>{@link #unless()} is not supported</li>
+	 * <li>Only one cache may be specified</li>
+	 * <li>No other cache-related operation can be combined</li>
+	 * </ol>
+	 * Default is "false".
+	 * @since 4.0
+	 */
+	boolean sync() default false;
 }
@@ -19,18 +19,22 @@ package org.springframework.cache.annotation;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 
+import org.springframework.cache.interceptor.BulkCacheableOperation;
 import org.springframework.cache.interceptor.CacheEvictOperation;
 import org.springframework.cache.interceptor.CacheOperation;
 import org.springframework.cache.interceptor.CachePutOperation;
 import org.springframework.cache.interceptor.CacheableOperation;
 import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
 
 /**
  * Strategy implementation for parsing Spring's {@link Caching}, {@link Cacheable},
- * {@link CacheEvict} and {@link CachePut} annotations.
+ * {@link CacheEvict}, {@link CachePut} and {@link BulkCacheable} annotations.
  *
  * @author Costin Leau
  * @author Juergen Hoeller
@@ -65,6 +69,13 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 				ops.add(parseUpdateAnnotation(ae, p));
 			}
 		}
+		Collection<BulkCacheable> bulkCacheables = getAnnotations(ae, BulkCacheable.class);
+		if (bulkCacheables != null) {
+			ops = lazyInit(ops);
+			for (BulkCacheable bulkCacheable : bulkCacheables) {
+				ops.add(parseBulkCacheableAnnotation(ae, bulkCacheable));
+			}
+		}
 		Collection<Caching> caching = getAnnotations(ae, Caching.class);
 		if (caching != null) {
 			ops = lazyInit(ops);
@@ -72,6 +83,9 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 				ops.addAll(parseCachingAnnotation(ae, c));
 			}
 		}
+		if (ops != null) {
+			validateSyncOperations(ae, ops);
+		}
 		return ops;
 	}
 
@@ -84,6 +98,7 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		cuo.setCacheNames(caching.value());
 		cuo.setCondition(caching.condition());
 		cuo.setUnless(caching.unless());
+		cuo.setSync(caching.sync());
 		cuo.setKey(caching.key());
 		cuo.setName(ae.toString());
 		return cuo;
@@ -110,6 +125,56 @@ public class SpringCacheAnnotationParser implements CacheAnnotationParser, Seria
 		return cuo;
 	}
 
+	BulkCacheableOperation parseBulkCacheableAnnotation(AnnotatedElement ae, BulkCacheable caching) {
+		BulkCacheableOperation bco = new BulkCacheableOperation();
+		bco.setCacheNames(caching.value());
+		bco.setCondition(caching.condition());
+		bco.setResultKey(caching.resultKey());
+		bco.setName(ae.toString());
+		validateBulkCacheableOperation(ae, bco);
+		return bco;
+	}
+
+	/**
+	 * Check that the given bulk cacheable operation can be applied to the annotated
+	 * method or, for a type-level annotation, to all public methods of the class.
+	 */
+	private void validateBulkCacheableOperation(AnnotatedElement ae, BulkCacheableOperation operation) {
+		if (ae instanceof Method) {
+			operation.determineKeysParameterIndex((Method) ae);
+		}
+		else if (ae instanceof Class) {
+			for (Method method : ((Class<?>) ae).getDeclaredMethods()) {
+				if (Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers()) &&
+						!method.isBridge()) {
+					operation.determineKeysParameterIndex(method);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Check that a sync=true cacheable operation is the only cache operation
+	 * on the annotated element, is restricted to a single cache and does not
+	 * specify an unless condition.
+	 */
+	private void validateSyncOperations(AnnotatedElement ae, Collection<CacheOperation> ops) {
+		for (CacheOperation op : ops) {
+			if (op instanceof CacheableOperation && ((CacheableOperation) op).isSync()) {
+				if (ops.size() > 1) {
+					throw new IllegalStateException(
+							"A sync=true operation cannot be combined with other cache operations on '" + ae + "'");
+				}
+				if (op.getCacheNames().size() > 1) {
+					throw new IllegalStateException("A sync=true operation is restricted to a single cache: " + op);
+				}
+				if (StringUtils.hasText(((CacheableOperation) op).getUnless())) {
+					throw new IllegalStateException("A sync=true operation does not support the unless attribute: " + op);
+				}
+			}
+		}
+	}
+
 	Collection<CacheOperation> parseCachingAnnotation(AnnotatedElement ae, Caching caching) {
 		Collection<CacheOperation> ops = null;
 
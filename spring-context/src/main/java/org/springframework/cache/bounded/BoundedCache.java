@@ -0,0 +1,685 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.bounded;
+
+import java.io.Serializable;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.LoadingCache;
+import org.springframework.cache.support.LoadSynchronizer;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.util.Assert;
+
+/**
+ * {@link Cache} implementation that keeps its entries in memory, bounded by
+ * a maximum number of entries or a maximum total weight, with optional
+ * time-to-live and time-to-idle expiration.
+ *
+ * <p>Eviction follows a frequency-aware policy: new entries enter a small
+ * LRU admission window; entries falling out of the window only replace an
+ * entry of the main space if they have been requested more often recently,
+ * as estimated by a compact frequency sketch. The main space is segmented
+ * into a probation and a protected area, keeping entries that have been
+ * accessed repeatedly away from eviction. For skewed key distributions,
+ * this typically achieves a considerably higher hit rate than plain LRU,
+ * while a sudden burst of one-off keys does not flush the cache.
+ *
+ * <p>Lookups are served from a {@link ConcurrentHashMap} without locking;
+ * accesses are recorded in a buffer and applied to the eviction policy in
+ * batches. Writes update the eviction policy right away. Expired entries
+ * are removed when being accessed or when found at the least recently used
+ * end of the cache during maintenance.
+ *
+ * <p>Keeps track of hit, miss, put, eviction and expiration counts.
+ *
+ * @author agent
+ * @since 4.0
+ * @see BoundedCacheSettings
+ * @see BoundedCacheManager
+ */
+public class BoundedCache implements LoadingCache {
+
+	private static final Object NULL_HOLDER = new NullHolder();
+
+	/** Number of buffered reads that triggers a drain of the read buffer */
+	private static final int READ_BUFFER_THRESHOLD = 64;
+
+	/** Number of buffered reads beyond which further reads are not recorded */
+	private static final int READ_BUFFER_MAXIMUM = 128;
+
+	private static final int WINDOW = 0;
+
+	private static final int PROBATION = 1;
+
+	private static final int PROTECTED = 2;
+
+
+	private final String name;
+
+	private final ConcurrentHashMap<Object, Node> store = new ConcurrentHashMap<Object, Node>(256);
+
+	private final long maximum;
+
+	private final Weigher weigher;
+
+	private final long timeToLive;
+
+	private final long timeToIdle;
+
+	private final boolean allowNullValues;
+
+	private final Queue<Node> readBuffer = new ConcurrentLinkedQueue<Node>();
+
+	private final AtomicInteger readBufferSize = new AtomicInteger();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong putCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final AtomicLong expirationCount = new AtomicLong();
+
+	private final LoadSynchronizer loadSynchronizer = new LoadSynchronizer();
+
+	/** Guards all eviction policy state below */
+	private final ReentrantLock evictionLock = new ReentrantLock();
+
+	private final FrequencySketch sketch = new FrequencySketch();
+
+	private final AccessOrderDeque window = new AccessOrderDeque();
+
+	private final AccessOrderDeque probation = new AccessOrderDeque();
+
+	private final AccessOrderDeque protectedDeque = new AccessOrderDeque();
+
+	private final long windowMaximum;
+
+	private final long protectedMaximum;
+
+	private long windowWeight;
+
+	private long protectedWeight;
+
+	private long totalWeight;
+
+	private int linkedCount;
+
+
+	/**
+	 * Create a new BoundedCache with the specified name and maximum number of entries.
+	 * @param name the name of the cache
+	 * @param maximumSize the maximum number of entries in the cache
+	 */
+	public BoundedCache(String name, long maximumSize) {
+		this(name, createSettings(maximumSize));
+	}
+
+	/**
+	 * Create a new BoundedCache with the specified name and settings.
+	 * @param name the name of the cache
+	 * @param settings the bounds and expiration settings for the cache
+	 */
+	public BoundedCache(String name, BoundedCacheSettings settings) {
+		Assert.notNull(name, "Name must not be null");
+		Assert.notNull(settings, "BoundedCacheSettings must not be null");
+		this.name = name;
+		if (settings.getMaximumWeight() >= 0) {
+			Assert.notNull(settings.getWeigher(), "A Weigher is required in combination with a maximum weight");
+			this.maximum = settings.getMaximumWeight();
+			this.weigher = settings.getWeigher();
+		}
+		else {
+			this.maximum = settings.getMaximumSize();
+			this.weigher = null;
+		}
+		this.timeToLive = settings.getTimeToLive();
+		this.timeToIdle = settings.getTimeToIdle();
+		this.allowNullValues = settings.isAllowNullValues();
+		this.windowMaximum = Math.max(1, this.maximum / 100);
+		this.protectedMaximum = (long) ((this.maximum - this.windowMaximum) * 0.8);
+	}
+
+	private static BoundedCacheSettings createSettings(long maximumSize) {
+		BoundedCacheSettings settings = new BoundedCacheSettings();
+		settings.setMaximumSize(maximumSize);
+		return settings;
+	}
+
+
+	public String getName() {
+		return this.name;
+	}
+
+	public BoundedCache getNativeCache() {
+		return this;
+	}
+
+	public boolean isAllowNullValues() {
+		return this.allowNullValues;
+	}
+
+	public ValueWrapper get(Object key) {
+		Node node = this.store.get(key);
+		if (node == null) {
+			this.missCount.incrementAndGet();
+			return null;
+		}
+		long now = (isExpiring() ? System.currentTimeMillis() : 0);
+		if (hasExpired(node, now)) {
+			if (this.store.remove(key, node)) {
+				this.expirationCount.incrementAndGet();
+				removeNode(node);
+			}
+			this.missCount.incrementAndGet();
+			return null;
+		}
+		if (this.timeToIdle > 0) {
+			node.accessTime = now;
+		}
+		recordRead(node);
+		this.hitCount.incrementAndGet();
+		return new SimpleValueWrapper(fromStoreValue(node.value));
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(final Object key, final Callable<T> valueLoader) {
+		ValueWrapper wrapper = get(key);
+		if (wrapper != null) {
+			return (T) wrapper.get();
+		}
+		return this.loadSynchronizer.load(key, new Callable<T>() {
+			public T call() throws Exception {
+				Node node = store.get(key);
+				if (node != null && !hasExpired(node, isExpiring() ? System.currentTimeMillis() : 0)) {
+					return (T) fromStoreValue(node.value);
+				}
+				T value = valueLoader.call();
+				put(key, value);
+				return value;
+			}
+		});
+	}
+
+	public void put(Object key, Object value) {
+		Object storeValue = toStoreValue(value);
+		int weight = 1;
+		if (this.weigher != null) {
+			weight = this.weigher.weigh(key, value);
+			if (weight < 0) {
+				throw new IllegalArgumentException("Weigher returned negative weight " + weight + " for key [" + key + "]");
+			}
+		}
+		Node node = new Node(key, storeValue, weight, (isExpiring() ? System.currentTimeMillis() : 0));
+		Node previous = this.store.put(key, node);
+		this.putCount.incrementAndGet();
+		this.evictionLock.lock();
+		try {
+			if (previous != null) {
+				unlinkNode(previous);
+			}
+			linkNode(node);
+			maintenance(node.writeTime);
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	public void evict(Object key) {
+		Node node = this.store.remove(key);
+		if (node != null) {
+			removeNode(node);
+		}
+	}
+
+	public void clear() {
+		this.evictionLock.lock();
+		try {
+			this.store.clear();
+			this.readBuffer.clear();
+			this.readBufferSize.set(0);
+			clearDeque(this.window);
+			clearDeque(this.probation);
+			clearDeque(this.protectedDeque);
+			this.windowWeight = 0;
+			this.protectedWeight = 0;
+			this.totalWeight = 0;
+			this.linkedCount = 0;
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Perform pending maintenance: apply buffered reads to the eviction
+	 * policy, remove expired entries and evict entries beyond the bounds.
+	 * <p>Maintenance is performed automatically as part of regular cache
+	 * operations; there is usually no need to call this method explicitly.
+	 */
+	public void cleanUp() {
+		this.evictionLock.lock();
+		try {
+			maintenance(isExpiring() ? System.currentTimeMillis() : 0);
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+
+	/**
+	 * Return the current number of entries in the cache.
+	 */
+	public int size() {
+		return this.store.size();
+	}
+
+	/**
+	 * Return the current total weight of all entries in the cache:
+	 * the number of entries if no {@link Weigher} has been specified.
+	 */
+	public long getWeightedSize() {
+		this.evictionLock.lock();
+		try {
+			return this.totalWeight;
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	/**
+	 * Return the number of lookups that found a (non-expired) entry.
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Return the number of lookups that did not find a (non-expired) entry.
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Return the number of entries that have been put into the cache.
+	 */
+	public long getPutCount() {
+		return this.putCount.get();
+	}
+
+	/**
+	 * Return the number of entries that have been evicted
+	 * in order to keep the cache within its bounds.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	/**
+	 * Return the number of entries that have been removed due to
+	 * their time to live or time to idle having expired.
+	 */
+	public long getExpirationCount() {
+		return this.expirationCount.get();
+	}
+
+
+	/**
+	 * Convert the given value from the internal store to a user value
+	 * returned from the get method (adapting {@code null}).
+	 * @param storeValue the store value
+	 * @return the value to return to the user
+	 */
+	protected Object fromStoreValue(Object storeValue) {
+		if (this.allowNullValues && storeValue == NULL_HOLDER) {
+			return null;
+		}
+		return storeValue;
+	}
+
+	/**
+	 * Convert the given user value, as passed into the put method,
+	 * to a value in the internal store (adapting {@code null}).
+	 * @param userValue the given user value
+	 * @return the value to store
+	 */
+	protected Object toStoreValue(Object userValue) {
+		if (this.allowNullValues && userValue == null) {
+			return NULL_HOLDER;
+		}
+		return userValue;
+	}
+
+
+	private boolean isExpiring() {
+		return (this.timeToLive > 0 || this.timeToIdle > 0);
+	}
+
+	private boolean hasExpired(Node node, long now) {
+		return ((this.timeToLive > 0 && now - node.writeTime >= this.timeToLive) ||
+				(this.timeToIdle > 0 && now - node.accessTime >= this.timeToIdle));
+	}
+
+	/**
+	 * Record a read access to the given node, draining the read buffer
+	 * if it has reached its threshold and no other thread is doing so.
+	 * Reads are dropped if the buffer is full, in which case the eviction
+	 * policy merely misses some of the access history.
+	 */
+	private void recordRead(Node node) {
+		int pending = this.readBufferSize.incrementAndGet();
+		if (pending <= READ_BUFFER_MAXIMUM) {
+			this.readBuffer.offer(node);
+		}
+		else {
+			this.readBufferSize.decrementAndGet();
+		}
+		if (pending >= READ_BUFFER_THRESHOLD && this.evictionLock.tryLock()) {
+			try {
+				maintenance(this.timeToIdle > 0 ? node.accessTime : (isExpiring() ? System.currentTimeMillis() : 0));
+			}
+			finally {
+				this.evictionLock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Remove the given node, already removed from the store, from the eviction policy.
+	 */
+	private void removeNode(Node node) {
+		this.evictionLock.lock();
+		try {
+			unlinkNode(node);
+		}
+		finally {
+			this.evictionLock.unlock();
+		}
+	}
+
+	private void clearDeque(AccessOrderDeque deque) {
+		Node node = deque.first;
+		while (node != null) {
+			Node next = node.next;
+			node.prev = null;
+			node.next = null;
+			node.state = Node.DEAD;
+			node = next;
+		}
+		deque.first = null;
+		deque.last = null;
+	}
+
+	// The following methods must only be called while holding the eviction lock
+
+	private void maintenance(long now) {
+		drainReadBuffer();
+		if (isExpiring()) {
+			expireEntries(this.window, now);
+			expireEntries(this.probation, now);
+			expireEntries(this.protectedDeque, now);
+		}
+		evictEntries();
+	}
+
+	private void drainReadBuffer() {
+		Node node;
+		while ((node = this.readBuffer.poll()) != null) {
+			this.readBufferSize.decrementAndGet();
+			onAccess(node);
+		}
+	}
+
+	private void linkNode(Node node) {
+		// A concurrent put, evict or clear may have superseded the node already
+		if (node.state != Node.UNLINKED || this.store.get(node.key) != node) {
+			node.state = Node.DEAD;
+			return;
+		}
+		node.state = Node.LINKED;
+		node.queue = WINDOW;
+		this.window.linkLast(node);
+		this.windowWeight += node.weight;
+		this.totalWeight += node.weight;
+		this.linkedCount++;
+		// Sized lazily from the current entry count, capped at a maximum entry count
+		this.sketch.ensureCapacity(this.weigher != null ? this.linkedCount : Math.min(this.linkedCount, this.maximum));
+		this.sketch.increment(node.key);
+	}
+
+	private void unlinkNode(Node node) {
+		if (node.state == Node.LINKED) {
+			if (node.queue == WINDOW) {
+				this.window.unlink(node);
+				this.windowWeight -= node.weight;
+			}
+			else if (node.queue == PROBATION) {
+				this.probation.unlink(node);
+			}
+			else {
+				this.protectedDeque.unlink(node);
+				this.protectedWeight -= node.weight;
+			}
+			this.totalWeight -= node.weight;
+			this.linkedCount--;
+		}
+		node.state = Node.DEAD;
+	}
+
+	private void onAccess(Node node) {
+		if (node.state != Node.LINKED) {
+			return;
+		}
+		this.sketch.increment(node.key);
+		if (node.queue == WINDOW) {
+			this.window.moveToLast(node);
+		}
+		else if (node.queue == PROBATION) {
+			// Accessed again while on probation: promote to the protected area
+			this.probation.unlink(node);
+			node.queue = PROTECTED;
+			this.protectedDeque.linkLast(node);
+			this.protectedWeight += node.weight;
+			while (this.protectedWeight > this.protectedMaximum && this.protectedDeque.first != null) {
+				Node demoted = this.protectedDeque.first;
+				this.protectedDeque.unlink(demoted);
+				this.protectedWeight -= demoted.weight;
+				demoted.queue = PROBATION;
+				this.probation.linkLast(demoted);
+			}
+		}
+		else {
+			this.protectedDeque.moveToLast(node);
+		}
+	}
+
+	private void expireEntries(AccessOrderDeque deque, long now) {
+		Node node = deque.first;
+		while (node != null && hasExpired(node, now)) {
+			Node next = node.next;
+			if (this.store.remove(node.key, node)) {
+				this.expirationCount.incrementAndGet();
+			}
+			unlinkNode(node);
+			node = next;
+		}
+	}
+
+	/**
+	 * Move entries beyond the window's bound into the probation area, then
+	 * evict entries until the cache is within its bounds: each candidate from
+	 * the window competes against the probation area's least recently used
+	 * entry, with the more frequently requested one staying in the cache.
+	 */
+	private void evictEntries() {
+		Node candidate = null;
+		while (this.windowWeight > this.windowMaximum && this.window.first != null) {
+			Node node = this.window.first;
+			this.window.unlink(node);
+			this.windowWeight -= node.weight;
+			node.queue = PROBATION;
+			this.probation.linkLast(node);
+			if (candidate == null) {
+				candidate = node;
+			}
+		}
+
+		while (this.totalWeight > this.maximum) {
+			Node victim = this.probation.first;
+			if (victim != null && candidate != null && victim != candidate) {
+				Node next = candidate.next;
+				if (admit(candidate, victim)) {
+					evictNode(victim);
+				}
+				else {
+					evictNode(candidate);
+				}
+				candidate = next;
+				continue;
+			}
+			if (victim == null) {
+				victim = (this.protectedDeque.first != null ? this.protectedDeque.first : this.window.first);
+				if (victim == null) {
+					return;
+				}
+			}
+			if (victim == candidate) {
+				candidate = candidate.next;
+			}
+			evictNode(victim);
+		}
+	}
+
+	private boolean admit(Node candidate, Node victim) {
+		return (this.sketch.frequency(candidate.key) > this.sketch.frequency(victim.key));
+	}
+
+	private void evictNode(Node node) {
+		if (this.store.remove(node.key, node)) {
+			this.evictionCount.incrementAndGet();
+		}
+		unlinkNode(node);
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class NullHolder implements Serializable {
+	}
+
+
+	/**
+	 * A cache entry, also serving as a link in one of the eviction policy's deques.
+	 * Every put creates a new node; key, value and weight are therefore immutable.
+	 */
+	private static final class Node {
+
+		static final int UNLINKED = 0;
+
+		static final int LINKED = 1;
+
+		static final int DEAD = 2;
+
+		final Object key;
+
+		final Object value;
+
+		final int weight;
+
+		final long writeTime;
+
+		volatile long accessTime;
+
+		// Guarded by the eviction lock
+
+		int state = UNLINKED;
+
+		int queue;
+
+		Node prev;
+
+		Node next;
+
+		Node(Object key, Object value, int weight, long now) {
+			this.key = key;
+			this.value = value;
+			this.weight = weight;
+			this.writeTime = now;
+			this.accessTime = now;
+		}
+	}
+
+
+	/**
+	 * Doubly-linked deque of nodes in access order, least recently used first.
+	 */
+	private static final class AccessOrderDeque {
+
+		Node first;
+
+		Node last;
+
+		void linkLast(Node node) {
+			node.prev = this.last;
+			node.next = null;
+			if (this.last == null) {
+				this.first = node;
+			}
+			else {
+				this.last.next = node;
+			}
+			this.last = node;
+		}
+
+		void unlink(Node node) {
+			if (node.prev == null) {
+				this.first = node.next;
+			}
+			else {
+				node.prev.next = node.next;
+			}
+			if (node.next == null) {
+				this.last = node.prev;
+			}
+			else {
+				node.next.prev = node.prev;
+			}
+			node.prev = null;
+			node.next = null;
+		}
+
+		void moveToLast(Node node) {
+			if (node != this.last) {
+				unlink(node);
+				linkLast(node);
+			}
+		}
+	}
+
+}
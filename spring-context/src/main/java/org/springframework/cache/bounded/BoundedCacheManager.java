@@ -0,0 +1,151 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.bounded;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.Assert;
+
+/**
+ * {@link CacheManager} implementation that lazily builds {@link BoundedCache}
+ * instances for each {@link #getCache} request. Also supports a 'static' mode where
+ * the set of cache names is pre-defined through {@link #setCacheNames}, with no
+ * dynamic creation of further cache regions at runtime.
+ *
+ * <p>Each cache is configured with the {@link BoundedCacheSettings} registered for
+ * its name through {@link #setCacheSettings}, falling back to the
+ * {@link #setDefaultCacheSettings default settings}.
+ *
+ * @author agent
+ * @since 4.0
+ */
+public class BoundedCacheManager implements CacheManager {
+
+	private final ConcurrentMap<String, Cache> cacheMap = new ConcurrentHashMap<String, Cache>(16);
+
+	private final Map<String, BoundedCacheSettings> cacheSettings =
+			new ConcurrentHashMap<String, BoundedCacheSettings>(16);
+
+	private BoundedCacheSettings defaultCacheSettings = new BoundedCacheSettings();
+
+	private Set<String> cacheNames;
+
+
+	/**
+	 * Construct a dynamic BoundedCacheManager,
+	 * lazily creating cache instances as they are being requested.
+	 */
+	public BoundedCacheManager() {
+	}
+
+	/**
+	 * Construct a static BoundedCacheManager,
+	 * managing caches for the specified cache names only.
+	 */
+	public BoundedCacheManager(String... cacheNames) {
+		setCacheNames(Arrays.asList(cacheNames));
+	}
+
+
+	/**
+	 * Specify the set of cache names for this CacheManager's 'static' mode.
+	 * <p>The number of caches and their names will be fixed after a call to this method,
+	 * with no creation of further cache regions at runtime.
+	 */
+	public void setCacheNames(Collection<String> cacheNames) {
+		if (cacheNames != null) {
+			this.cacheNames = Collections.unmodifiableSet(new LinkedHashSet<String>(cacheNames));
+		}
+	}
+
+	/**
+	 * Specify the settings to apply to caches without specific settings.
+	 * Default is a plain {@link BoundedCacheSettings} instance.
+	 * <p>Only affects caches that have not been created yet.
+	 */
+	public void setDefaultCacheSettings(BoundedCacheSettings defaultCacheSettings) {
+		Assert.notNull(defaultCacheSettings, "Default BoundedCacheSettings must not be null");
+		this.defaultCacheSettings = defaultCacheSettings;
+	}
+
+	/**
+	 * Return the settings to apply to caches without specific settings.
+	 */
+	public BoundedCacheSettings getDefaultCacheSettings() {
+		return this.defaultCacheSettings;
+	}
+
+	/**
+	 * Specify settings for individual caches, keyed by cache name.
+	 * <p>Only affects caches that have not been created yet.
+	 */
+	public void setCacheSettings(Map<String, BoundedCacheSettings> cacheSettings) {
+		if (cacheSettings != null) {
+			this.cacheSettings.putAll(cacheSettings);
+		}
+	}
+
+	public Collection<String> getCacheNames() {
+		if (this.cacheNames != null) {
+			return this.cacheNames;
+		}
+		return Collections.unmodifiableSet(this.cacheMap.keySet());
+	}
+
+	public Cache getCache(String name) {
+		Cache cache = this.cacheMap.get(name);
+		if (cache == null && (this.cacheNames == null || this.cacheNames.contains(name))) {
+			synchronized (this.cacheMap) {
+				cache = this.cacheMap.get(name);
+				if (cache == null) {
+					cache = createBoundedCache(name);
+					this.cacheMap.put(name, cache);
+				}
+			}
+		}
+		return cache;
+	}
+
+	/**
+	 * Determine the settings for the specified cache name.
+	 * @param name the name of the cache
+	 * @return the specific settings for the cache, or the default settings
+	 */
+	protected BoundedCacheSettings getCacheSettings(String name) {
+		BoundedCacheSettings settings = this.cacheSettings.get(name);
+		return (settings != null ? settings : this.defaultCacheSettings);
+	}
+
+	/**
+	 * Create a new BoundedCache instance for the specified cache name.
+	 * @param name the name of the cache
+	 * @return the BoundedCache (or a decorator thereof)
+	 */
+	protected Cache createBoundedCache(String name) {
+		return new BoundedCache(name, getCacheSettings(name));
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.bounded;
+
+/**
+ * Configuration settings for a {@link BoundedCache}: bounds, expiration
+ * and {@code null} value handling. A bean-style holder that can be shared
+ * between several caches, e.g. as default settings of a {@link BoundedCacheManager}.
+ *
+ * <p>A cache is either bounded by a maximum number of entries (the default,
+ * with a maximum size of 10000) or, if a {@link #setMaximumWeight maximum weight}
+ * has been specified, by the total weight of its entries as determined by
+ * the configured {@link Weigher}.
+ *
+ * @author agent
+ * @since 4.0
+ * @see BoundedCache
+ * @see BoundedCacheManager#setDefaultCacheSettings
+ * @see BoundedCacheManager#setCacheSettings
+ */
+public class BoundedCacheSettings {
+
+	/** The default maximum number of entries in a cache: 10000 */
+	public static final long DEFAULT_MAXIMUM_SIZE = 10000;
+
+
+	private long maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+	private long maximumWeight = -1;
+
+	private Weigher weigher;
+
+	private long timeToLive = 0;
+
+	private long timeToIdle = 0;
+
+	private boolean allowNullValues = true;
+
+
+	/**
+	 * Set the maximum number of entries in the cache.
+	 * Default is {@link #DEFAULT_MAXIMUM_SIZE}.
+	 * <p>Ignored if a {@link #setMaximumWeight maximum weight} has been specified.
+	 */
+	public void setMaximumSize(long maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException("'maximumSize' must not be negative");
+		}
+		this.maximumSize = maximumSize;
+	}
+
+	/**
+	 * Return the maximum number of entries in the cache.
+	 */
+	public long getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	/**
+	 * Set the maximum total weight of all entries in the cache,
+	 * as calculated by the specified {@link #setWeigher Weigher}.
+	 * <p>Default is none, bounding the cache by its
+	 * {@link #setMaximumSize maximum number of entries} instead.
+	 */
+	public void setMaximumWeight(long maximumWeight) {
+		if (maximumWeight < 0) {
+			throw new IllegalArgumentException("'maximumWeight' must not be negative");
+		}
+		this.maximumWeight = maximumWeight;
+	}
+
+	/**
+	 * Return the maximum total weight of all entries in the cache,
+	 * or -1 if the cache is bounded by its maximum number of entries.
+	 */
+	public long getMaximumWeight() {
+		return this.maximumWeight;
+	}
+
+	/**
+	 * Set the {@link Weigher} to calculate entry weights with.
+	 * Required in combination with a {@link #setMaximumWeight maximum weight}.
+	 */
+	public void setWeigher(Weigher weigher) {
+		this.weigher = weigher;
+	}
+
+	/**
+	 * Return the {@link Weigher} to calculate entry weights with, if any.
+	 */
+	public Weigher getWeigher() {
+		return this.weigher;
+	}
+
+	/**
+	 * Set the time to live for cache entries, in milliseconds:
+	 * the maximum time between the creation (or latest update)
+	 * of an entry and its expiration. Default is 0, i.e. no expiration.
+	 */
+	public void setTimeToLive(long timeToLive) {
+		if (timeToLive < 0) {
+			throw new IllegalArgumentException("'timeToLive' must not be negative");
+		}
+		this.timeToLive = timeToLive;
+	}
+
+	/**
+	 * Return the time to live for cache entries, in milliseconds.
+	 */
+	public long getTimeToLive() {
+		return this.timeToLive;
+	}
+
+	/**
+	 * Set the time to idle for cache entries, in milliseconds:
+	 * the maximum time between two accesses to an entry before
+	 * it expires. Default is 0, i.e. no expiration.
+	 */
+	public void setTimeToIdle(long timeToIdle) {
+		if (timeToIdle < 0) {
+			throw new IllegalArgumentException("'timeToIdle' must not be negative");
+		}
+		this.timeToIdle = timeToIdle;
+	}
+
+	/**
+	 * Return the time to idle for cache entries, in milliseconds.
+	 */
+	public long getTimeToIdle() {
+		return this.timeToIdle;
+	}
+
+	/**
+	 * Specify whether to accept and convert {@code null} values for the cache.
+	 * Default is "true".
+	 */
+	public void setAllowNullValues(boolean allowNullValues) {
+		this.allowNullValues = allowNullValues;
+	}
+
+	/**
+	 * Return whether to accept and convert {@code null} values for the cache.
+	 */
+	public boolean isAllowNullValues() {
+		return this.allowNullValues;
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.bounded;
+
+/**
+ * Probabilistic estimator of the access frequency of cache keys:
+ * a count-min sketch with four 4-bit counters per key, packed into
+ * a {@code long} array. All counters are halved periodically so that
+ * the sketch keeps adapting to a changing key distribution.
+ *
+ * <p>Not thread-safe; to be guarded by the owning {@link BoundedCache}.
+ *
+ * @author agent
+ * @since 4.0
+ */
+class FrequencySketch {
+
+	private static final long[] SEEDS = new long[] {
+			0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+	private static final long RESET_MASK = 0x7777777777777777L;
+
+	private static final long ONE_MASK = 0x1111111111111111L;
+
+	private static final int MAXIMUM_TABLE_SIZE = 1 << 30;
+
+
+	private long[] table = new long[1];
+
+	private int sampleSize = 10;
+
+	private int additions = 0;
+
+
+	/**
+	 * Ensure that the sketch can accurately estimate the frequencies
+	 * for the given number of distinct keys, resizing it if necessary.
+	 * A resize keeps the frequencies recorded so far.
+	 * @param expectedSize the expected number of keys in the cache
+	 */
+	public void ensureCapacity(long expectedSize) {
+		int capacity = (int) Math.min(Math.max(expectedSize, 1), MAXIMUM_TABLE_SIZE);
+		if (this.table.length >= capacity) {
+			return;
+		}
+		long[] newTable = new long[Integer.highestOneBit(capacity - 1) << 1];
+		// A key's counters keep their index modulo the previous table length:
+		// replicating the previous table preserves all recorded frequencies
+		for (int i = 0; i < newTable.length; i += this.table.length) {
+			System.arraycopy(this.table, 0, newTable, i, this.table.length);
+		}
+		this.table = newTable;
+		this.sampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Return the estimated number of occurrences of the given key, up to 15.
+	 */
+	public int frequency(Object key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		int frequency = 15;
+		for (int i = 0; i < 4; i++) {
+			int index = indexOf(hash, i);
+			int count = (int) ((this.table[index] >>> ((start + i) << 2)) & 0xfL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+
+	/**
+	 * Record an occurrence of the given key.
+	 */
+	public void increment(Object key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+		if (added && ++this.additions == this.sampleSize) {
+			reset();
+		}
+	}
+
+	private boolean incrementAt(int index, int counter) {
+		int offset = counter << 2;
+		long mask = (0xfL << offset);
+		if ((this.table[index] & mask) != mask) {
+			this.table[index] += (1L << offset);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Halve all counters, aging the recorded frequencies.
+	 */
+	private void reset() {
+		int oddCounters = 0;
+		for (int i = 0; i < this.table.length; i++) {
+			oddCounters += Long.bitCount(this.table[i] & ONE_MASK);
+			this.table[i] = (this.table[i] >>> 1) & RESET_MASK;
+		}
+		this.additions = (this.additions >>> 1) - (oddCounters >>> 2);
+	}
+
+	private int indexOf(int hash, int i) {
+		long h = (hash + SEEDS[i]) * SEEDS[i];
+		h += (h >>> 32);
+		return ((int) h) & (this.table.length - 1);
+	}
+
+	private static int spread(int x) {
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		x = ((x >>> 16) ^ x) * 0x45d9f3b;
+		return (x >>> 16) ^ x;
+	}
+
+}
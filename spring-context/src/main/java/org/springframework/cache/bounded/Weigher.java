@@ -0,0 +1,41 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.bounded;
+
+/**
+ * Strategy interface for calculating the weight of a cache entry,
+ * used by {@link BoundedCache} when bounded by a maximum weight
+ * instead of a maximum number of entries.
+ *
+ * @author agent
+ * @since 4.0
+ * @see BoundedCacheSettings#setMaximumWeight
+ * @see BoundedCacheSettings#setWeigher
+ */
+public interface Weigher {
+
+	/**
+	 * Return the weight of the given cache entry.
+	 * <p>The weight is calculated once when the entry is being stored;
+	 * it is not expected to change for the lifetime of the entry.
+	 * @param key the key of the entry
+	 * @param value the value of the entry (may be {@code null})
+	 * @return the weight of the entry (must be zero or positive)
+	 */
+	int weigh(Object key, Object value);
+
+}
@@ -0,0 +1,7 @@
+/**
+ * Implementation package for bounded in-memory caches.
+ * Provides a {@link org.springframework.cache.CacheManager CacheManager}
+ * and {@link org.springframework.cache.Cache Cache} implementation with
+ * size- or weight-based eviction, expiration and statistics.
+ */
+package org.springframework.cache.bounded;
@@ -17,9 +17,12 @@
 package org.springframework.cache.concurrent;
 
 import org.springframework.cache.Cache;
+import org.springframework.cache.LoadingCache;
+import org.springframework.cache.support.LoadSynchronizer;
 import org.springframework.cache.support.SimpleValueWrapper;
 
 import java.io.Serializable;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -40,7 +43,7 @@ import java.util.concurrent.ConcurrentMap;
  * @author Juergen Hoeller
  * @since 3.1
  */
-public class ConcurrentMapCache implements Cache {
+public class ConcurrentMapCache implements LoadingCache {
 
 	private static final Object NULL_HOLDER = new NullHolder();
 
@@ -50,6 +53,8 @@ public class ConcurrentMapCache implements Cache {
 
 	private final boolean allowNullValues;
 
+	private final LoadSynchronizer loadSynchronizer = new LoadSynchronizer();
+
 
 	/**
 	 * Create a new ConcurrentMapCache with the specified name.
@@ -100,6 +105,25 @@ public class ConcurrentMapCache implements Cache {
 		return (value != null ? new SimpleValueWrapper(fromStoreValue(value)) : null);
 	}
 
+	@SuppressWarnings("unchecked")
+	public <T> T get(final Object key, final Callable<T> valueLoader) {
+		Object storeValue = this.store.get(key);
+		if (storeValue != null) {
+			return (T) fromStoreValue(storeValue);
+		}
+		return this.loadSynchronizer.load(key, new Callable<T>() {
+			public T call() throws Exception {
+				Object storeValue = store.get(key);
+				if (storeValue != null) {
+					return (T) fromStoreValue(storeValue);
+				}
+				T value = valueLoader.call();
+				put(key, value);
+				return value;
+			}
+		});
+	}
+
 	public void put(Object key, Object value) {
 		this.store.put(key, toStoreValue(value));
 	}
@@ -0,0 +1,444 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializationFailedException;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * Extension of {@link ConcurrentMapCacheManager} which preserves the contents of
+ * selected caches across restarts through a {@link #setSnapshotFile snapshot file}.
+ *
+ * <p>When running in an application context, the snapshot is written on
+ * {@link ContextClosedEvent} and read back asynchronously on initialization,
+ * with the context's startup waiting for the load to complete before it reports
+ * the context as refreshed. Keys and values are written through the
+ * {@link Serializer} SPI, by default using Java serialization; entries that
+ * cannot be serialized are left out of the snapshot.
+ *
+ * @author agent
+ * @since 4.0
+ * @see #setSnapshotFile
+ * @see #setSnapshotCacheNames
+ */
+public class SnapshottingConcurrentMapCacheManager extends ConcurrentMapCacheManager
+		implements InitializingBean, SmartLifecycle, ApplicationContextAware, ApplicationListener<ContextClosedEvent> {
+
+	private static final int SNAPSHOT_MAGIC = 0x43534e50;
+
+	private static final int SNAPSHOT_VERSION = 1;
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private File snapshotFile;
+
+	private Set<String> snapshotCacheNames = Collections.emptySet();
+
+	private long maxSnapshotAge = 0;
+
+	private long snapshotLoadTimeout = 60000;
+
+	private SerializingConverter snapshotSerializer = new SerializingConverter(new DefaultSerializer());
+
+	private DeserializingConverter snapshotDeserializer = new DeserializingConverter(new DefaultDeserializer());
+
+	private TaskExecutor snapshotLoadExecutor = new SimpleAsyncTaskExecutor("cache-snapshot-");
+
+	private ApplicationContext applicationContext;
+
+	private volatile FutureTask<Integer> snapshotLoad;
+
+	private volatile boolean running = false;
+
+
+	/**
+	 * Construct a dynamic SnapshottingConcurrentMapCacheManager,
+	 * lazily creating cache instances as they are being requested.
+	 */
+	public SnapshottingConcurrentMapCacheManager() {
+	}
+
+	/**
+	 * Construct a static SnapshottingConcurrentMapCacheManager,
+	 * managing caches for the specified cache names only.
+	 */
+	public SnapshottingConcurrentMapCacheManager(String... cacheNames) {
+		super(cacheNames);
+	}
+
+
+	/**
+	 * Specify the file to write snapshots of the {@link #setSnapshotCacheNames
+	 * selected caches} to, and to load them from on startup.
+	 */
+	public void setSnapshotFile(File snapshotFile) {
+		this.snapshotFile = snapshotFile;
+	}
+
+	/**
+	 * Specify the names of the caches to include in snapshots.
+	 * Caches need to opt in; default is none.
+	 */
+	public void setSnapshotCacheNames(Collection<String> snapshotCacheNames) {
+		this.snapshotCacheNames = Collections.unmodifiableSet(new LinkedHashSet<String>(snapshotCacheNames));
+	}
+
+	/**
+	 * Specify the maximum age (in milliseconds) of a snapshot to still be loaded
+	 * on startup. Default is 0, i.e. snapshots are loaded regardless of their age.
+	 */
+	public void setMaxSnapshotAge(long maxSnapshotAge) {
+		Assert.isTrue(maxSnapshotAge >= 0, "'maxSnapshotAge' must not be negative");
+		this.maxSnapshotAge = maxSnapshotAge;
+	}
+
+	/**
+	 * Specify the maximum time (in milliseconds) that the startup of the containing
+	 * application context waits for the snapshot to be loaded. Default is 60000.
+	 * The load carries on in the background after the timeout.
+	 */
+	public void setSnapshotLoadTimeout(long snapshotLoadTimeout) {
+		this.snapshotLoadTimeout = snapshotLoadTimeout;
+	}
+
+	/**
+	 * Set the Serializer to write snapshot keys and values with.
+	 * Default is a {@link DefaultSerializer}, using Java serialization.
+	 */
+	public void setSnapshotSerializer(Serializer<Object> snapshotSerializer) {
+		this.snapshotSerializer = new SerializingConverter(snapshotSerializer);
+	}
+
+	/**
+	 * Set the Deserializer to read snapshot keys and values with.
+	 * Default is a {@link DefaultDeserializer}, using Java serialization.
+	 */
+	public void setSnapshotDeserializer(Deserializer<Object> snapshotDeserializer) {
+		this.snapshotDeserializer = new DeserializingConverter(snapshotDeserializer);
+	}
+
+	/**
+	 * Set the TaskExecutor to load the snapshot on at startup.
+	 * Default is a {@link SimpleAsyncTaskExecutor}.
+	 */
+	public void setSnapshotLoadExecutor(TaskExecutor snapshotLoadExecutor) {
+		Assert.notNull(snapshotLoadExecutor, "TaskExecutor must not be null");
+		this.snapshotLoadExecutor = snapshotLoadExecutor;
+	}
+
+	public void setApplicationContext(ApplicationContext applicationContext) {
+		this.applicationContext = applicationContext;
+	}
+
+
+	/**
+	 * Start loading the snapshot in the background, if present.
+	 */
+	public void afterPropertiesSet() {
+		Assert.notNull(this.snapshotFile, "'snapshotFile' is required");
+		if (this.snapshotFile.exists()) {
+			FutureTask<Integer> load = new FutureTask<Integer>(new Callable<Integer>() {
+				public Integer call() throws IOException {
+					return loadSnapshot();
+				}
+			});
+			this.snapshotLoad = load;
+			this.snapshotLoadExecutor.execute(load);
+		}
+	}
+
+	/**
+	 * Wait for the snapshot load to complete, up to the configured timeout.
+	 * @see #setSnapshotLoadTimeout
+	 */
+	public void start() {
+		FutureTask<Integer> load = this.snapshotLoad;
+		if (load != null) {
+			try {
+				load.get(this.snapshotLoadTimeout, TimeUnit.MILLISECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			catch (ExecutionException ex) {
+				logger.warn("Failed to load cache snapshot from " + this.snapshotFile, ex.getCause());
+			}
+			catch (TimeoutException ex) {
+				logger.warn("Cache snapshot load from " + this.snapshotFile + " did not complete within " +
+						this.snapshotLoadTimeout + " ms - continuing in the background");
+			}
+			this.snapshotLoad = null;
+		}
+		this.running = true;
+	}
+
+	public void stop() {
+		this.running = false;
+	}
+
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	public boolean isRunning() {
+		return this.running;
+	}
+
+	public boolean isAutoStartup() {
+		return true;
+	}
+
+	/**
+	 * Returns {@code Integer.MIN_VALUE}, making caches available before
+	 * any other lifecycle components get started.
+	 */
+	public int getPhase() {
+		return Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Write the snapshot when the containing application context is closed.
+	 */
+	public void onApplicationEvent(ContextClosedEvent event) {
+		if (event.getApplicationContext() == this.applicationContext) {
+			try {
+				saveSnapshot();
+			}
+			catch (IOException ex) {
+				logger.warn("Failed to write cache snapshot to " + this.snapshotFile, ex);
+			}
+		}
+	}
+
+	/**
+	 * Write the current contents of the selected caches to the snapshot file,
+	 * replacing any previous snapshot. Entries whose key or value cannot be
+	 * serialized are skipped.
+	 * @return the number of entries written
+	 * @throws IOException if the snapshot could not be written
+	 */
+	public int saveSnapshot() throws IOException {
+		Assert.state(this.snapshotFile != null, "No snapshot file specified");
+		File tempFile = new File(this.snapshotFile.getPath() + ".tmp");
+		int count = 0;
+		int skipped = 0;
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+			try {
+				out.writeInt(SNAPSHOT_MAGIC);
+				out.writeInt(SNAPSHOT_VERSION);
+				out.writeLong(System.currentTimeMillis());
+				for (String name : this.snapshotCacheNames) {
+					Cache cache = (getCacheNames().contains(name) ? getCache(name) : null);
+					if (!(cache instanceof ConcurrentMapCache)) {
+						continue;
+					}
+					out.writeBoolean(true);
+					out.writeUTF(name);
+					for (Object key : ((ConcurrentMapCache) cache).getNativeCache().keySet()) {
+						Cache.ValueWrapper wrapper = cache.get(key);
+						if (wrapper != null) {
+							byte[] keyBytes;
+							byte[] valueBytes;
+							try {
+								keyBytes = serializeSnapshotObject(key);
+								valueBytes = serializeSnapshotObject(wrapper.get());
+							}
+							catch (SerializationFailedException ex) {
+								if (logger.isDebugEnabled()) {
+									logger.debug("Leaving entry for key '" + key + "' in cache '" + name +
+											"' out of snapshot", ex);
+								}
+								skipped++;
+								continue;
+							}
+							out.writeBoolean(true);
+							writeSnapshotBytes(out, keyBytes);
+							writeSnapshotBytes(out, valueBytes);
+							count++;
+						}
+					}
+					out.writeBoolean(false);
+				}
+				out.writeBoolean(false);
+			}
+			finally {
+				out.close();
+			}
+			if (!tempFile.renameTo(this.snapshotFile)) {
+				this.snapshotFile.delete();
+				if (!tempFile.renameTo(this.snapshotFile)) {
+					throw new IOException("Failed to replace cache snapshot " + this.snapshotFile);
+				}
+			}
+		}
+		finally {
+			if (tempFile.exists()) {
+				tempFile.delete();
+			}
+		}
+		if (skipped > 0) {
+			logger.warn("Left " + skipped + " cache entries that could not be serialized out of snapshot " +
+					this.snapshotFile);
+		}
+		if (logger.isInfoEnabled()) {
+			logger.info("Wrote " + count + " cache entries to snapshot " + this.snapshotFile);
+		}
+		return count;
+	}
+
+	/**
+	 * Load the entries of the selected caches from the snapshot file,
+	 * unless it is older than the {@link #setMaxSnapshotAge maximum age}.
+	 * Entries already present in a cache, including ones put concurrently
+	 * while the load is in progress, are left as they are.
+	 * @return the number of entries loaded
+	 * @throws IOException if the snapshot could not be read
+	 */
+	public int loadSnapshot() throws IOException {
+		Assert.state(this.snapshotFile != null, "No snapshot file specified");
+		int count = 0;
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.snapshotFile)));
+		try {
+			if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+				throw new IOException("Not a cache snapshot: " + this.snapshotFile);
+			}
+			long age = System.currentTimeMillis() - in.readLong();
+			if (this.maxSnapshotAge > 0 && age > this.maxSnapshotAge) {
+				if (logger.isInfoEnabled()) {
+					logger.info("Ignoring cache snapshot " + this.snapshotFile + " since it is " + age + " ms old");
+				}
+				return 0;
+			}
+			while (in.readBoolean()) {
+				String name = in.readUTF();
+				Cache cache = (this.snapshotCacheNames.contains(name) ? getCache(name) : null);
+				while (in.readBoolean()) {
+					if (cache != null) {
+						Object key = readSnapshotObject(in);
+						Object value = readSnapshotObject(in);
+						if (putIfAbsent(cache, key, value)) {
+							count++;
+						}
+					}
+					else {
+						skipSnapshotObject(in);
+						skipSnapshotObject(in);
+					}
+				}
+			}
+		}
+		catch (EOFException ex) {
+			throw new IOException("Truncated cache snapshot: " + this.snapshotFile, ex);
+		}
+		finally {
+			in.close();
+		}
+		if (logger.isInfoEnabled()) {
+			logger.info("Loaded " + count + " cache entries from snapshot " + this.snapshotFile);
+		}
+		return count;
+	}
+
+	/**
+	 * Put the given entry into the cache unless the key is present already,
+	 * atomically for a {@link ConcurrentMapCache}.
+	 * @return whether the entry has been put
+	 */
+	private boolean putIfAbsent(Cache cache, Object key, Object value) {
+		if (cache instanceof ConcurrentMapCache) {
+			ConcurrentMapCache mapCache = (ConcurrentMapCache) cache;
+			return (mapCache.getNativeCache().putIfAbsent(key, mapCache.toStoreValue(value)) == null);
+		}
+		if (cache.get(key) == null) {
+			cache.put(key, value);
+			return true;
+		}
+		return false;
+	}
+
+	private byte[] serializeSnapshotObject(Object object) {
+		return (object != null ? this.snapshotSerializer.convert(object) : null);
+	}
+
+	private void writeSnapshotBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		if (bytes == null) {
+			out.writeInt(-1);
+		}
+		else {
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private Object readSnapshotObject(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return this.snapshotDeserializer.convert(bytes);
+	}
+
+	private void skipSnapshotObject(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length > 0) {
+			in.readFully(new byte[length]);
+		}
+	}
+
+}
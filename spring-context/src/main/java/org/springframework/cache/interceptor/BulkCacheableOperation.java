@@ -0,0 +1,84 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Class describing a bulk cacheable operation, caching the values
+ * of a collection-valued method per element of its collection argument.
+ *
+ * @author agent
+ * @since 4.0
+ * @see org.springframework.cache.annotation.BulkCacheable
+ */
+public class BulkCacheableOperation extends CacheOperation {
+
+	private String resultKey = "";
+
+
+	public String getResultKey() {
+		return this.resultKey;
+	}
+
+	public void setResultKey(String resultKey) {
+		this.resultKey = resultKey;
+	}
+
+	/**
+	 * Determine the parameter of the given method that provides the keys, i.e.
+	 * its first {@link Collection} parameter, checking that the method's return
+	 * type is a {@link Map} or a {@link Collection} with a result key expression.
+	 * @param method the method to apply this operation to
+	 * @return the index of the keys parameter
+	 * @throws IllegalStateException if this operation cannot be applied to the method
+	 */
+	public int determineKeysParameterIndex(Method method) {
+		int index = -1;
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+				index = i;
+				break;
+			}
+		}
+		if (index == -1) {
+			throw new IllegalStateException("A bulk cacheable operation requires a Collection parameter: " +
+					this + " on '" + method + "'");
+		}
+		Class<?> returnType = method.getReturnType();
+		if (!Map.class.isAssignableFrom(returnType) &&
+				!(Collection.class.isAssignableFrom(returnType) && StringUtils.hasText(this.resultKey))) {
+			throw new IllegalStateException("A bulk cacheable operation requires a Map return type " +
+					"or a Collection return type with a 'resultKey' expression: " + this + " on '" + method + "'");
+		}
+		return index;
+	}
+
+	@Override
+	protected StringBuilder getOperationDescription() {
+		StringBuilder sb = super.getOperationDescription();
+		sb.append(" | resultKey='");
+		sb.append(this.resultKey);
+		sb.append("'");
+		return sb;
+	}
+}
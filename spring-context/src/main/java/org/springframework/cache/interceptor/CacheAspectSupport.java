@@ -19,20 +19,33 @@ package org.springframework.cache.interceptor;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.LoadRecordingCache;
+import org.springframework.cache.LoadingCache;
+import org.springframework.cache.support.BulkCacheUtils;
+import org.springframework.cache.support.CacheDecorator;
+import org.springframework.cache.support.LoadSynchronizer;
+import org.springframework.cache.support.RefreshAheadCache;
+import org.springframework.core.CollectionFactory;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -65,6 +78,28 @@ public abstract class CacheAspectSupport implements InitializingBean {
 		Object invoke();
 	}
 
+	/**
+	 * Extension of the {@link Invoker} interface for invokers that are able to
+	 * invoke the target method with different arguments, as needed for
+	 * {@link BulkCacheableOperation bulk cacheable operations}.
+	 * @since 4.0
+	 */
+	public interface ArgumentsAwareInvoker extends Invoker {
+		Object invoke(Object[] args);
+	}
+
+	/**
+	 * Extension of the {@link Invoker} interface for invokers that are able to
+	 * create an independent copy of themselves, which may still be invoked once
+	 * the current invocation has completed, as needed for refreshing a cache
+	 * entry asynchronously. Other invokers are replaced by a reflective
+	 * invocation of the target method for that purpose.
+	 * @since 4.0
+	 */
+	public interface CloneableInvoker extends Invoker {
+		Invoker cloneInvoker();
+	}
+
 	protected final Log logger = LogFactory.getLog(getClass());
 
 	private CacheManager cacheManager;
@@ -73,11 +108,14 @@ public abstract class CacheAspectSupport implements InitializingBean {
 
 	private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
 
-	private KeyGenerator keyGenerator = new DefaultKeyGenerator();
+	private KeyGenerator keyGenerator = new SimpleKeyGenerator();
+
+	private final LoadSynchronizer loadSynchronizer = new LoadSynchronizer();
 
 	private boolean initialized = false;
 
-	private static final String CACHEABLE = "cacheable", UPDATE = "cacheupdate", EVICT = "cacheevict";
+	private static final String CACHEABLE = "cacheable", UPDATE = "cacheupdate", EVICT = "cacheevict",
+			BULK = "cachebulk";
 
 	/**
 	 * Set the CacheManager that this cache aspect should delegate to.
@@ -116,7 +154,7 @@ public abstract class CacheAspectSupport implements InitializingBean {
 
 	/**
 	 * Set the KeyGenerator for this cache aspect.
-	 * Default is {@link DefaultKeyGenerator}.
+	 * Default is {@link SimpleKeyGenerator}.
 	 */
 	public void setKeyGenerator(KeyGenerator keyGenerator) {
 		this.keyGenerator = keyGenerator;
@@ -192,6 +230,22 @@ public abstract class CacheAspectSupport implements InitializingBean {
 		if (!CollectionUtils.isEmpty(cacheOp)) {
 			Map<String, Collection<CacheOperationContext>> ops = createOperationContext(cacheOp, method, args, target, targetClass);
 
+			// synchronized loading for a sole @Cacheable operation
+			CacheOperationContext syncContext = determineSyncContext(ops.get(CACHEABLE));
+			if (syncContext != null) {
+				return executeSynchronized(invoker, syncContext);
+			}
+
+			// bulk cacheable operations are handled on their own as well
+			Collection<CacheOperationContext> bulkCacheables = ops.get(BULK);
+			if (!bulkCacheables.isEmpty()) {
+				if (cacheOp.size() > 1) {
+					throw new IllegalStateException("A bulk cacheable operation cannot be combined with other " +
+							"cache operations on '" + method + "'");
+				}
+				return executeBulk(invoker, bulkCacheables.iterator().next());
+			}
+
 			// start with evictions
 			inspectBeforeCacheEvicts(ops.get(EVICT));
 
@@ -207,11 +261,21 @@ public abstract class CacheAspectSupport implements InitializingBean {
 				}
 				// return cached object
 				else {
+					if (!status.refreshes.isEmpty()) {
+						refreshAhead(status.refreshes, invoker);
+					}
 					return status.retVal;
 				}
 			}
 
-			retVal = invoker.invoke();
+			if (status != null) {
+				long start = System.nanoTime();
+				retVal = invoker.invoke();
+				recordLoadTime(status.cUpdates.keySet(), System.nanoTime() - start);
+			}
+			else {
+				retVal = invoker.invoke();
+			}
 
 			inspectAfterCacheEvicts(ops.get(EVICT), retVal);
 
@@ -225,6 +289,191 @@ public abstract class CacheAspectSupport implements InitializingBean {
 		return invoker.invoke();
 	}
 
+	private CacheOperationContext determineSyncContext(Collection<CacheOperationContext> cacheables) {
+		// sync=true restrictions have been checked when parsing the operation
+		for (CacheOperationContext context : cacheables) {
+			if (((CacheableOperation) context.operation).isSync()) {
+				return context;
+			}
+		}
+		return null;
+	}
+
+	private Object executeSynchronized(final Invoker invoker, CacheOperationContext context) {
+		if (!context.isConditionPassing()) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Cache condition failed on method " + context.method + " for operation " + context.operation);
+			}
+			return invoker.invoke();
+		}
+		final Object key = context.generateKey();
+		if (logger.isTraceEnabled()) {
+			logger.trace("Computed cache key " + key + " for operation " + context.operation);
+		}
+		if (key == null) {
+			throw new IllegalArgumentException(
+					"Null key returned for cache operation (maybe you are using named params on classes without debug info?) "
+							+ context.operation);
+		}
+		final Cache cache = context.getCaches().iterator().next();
+		try {
+			if (cache instanceof LoadingCache) {
+				return ((LoadingCache) cache).get(key, new Callable<Object>() {
+					public Object call() {
+						return invoker.invoke();
+					}
+				});
+			}
+			Cache.ValueWrapper wrapper = cache.get(key);
+			if (wrapper != null) {
+				return wrapper.get();
+			}
+			return this.loadSynchronizer.load(new SynchronizedLoadKey(cache, key), new Callable<Object>() {
+				public Object call() {
+					Cache.ValueWrapper wrapper = cache.get(key);
+					if (wrapper != null) {
+						return wrapper.get();
+					}
+					Object value = invoker.invoke();
+					cache.put(key, value);
+					return value;
+				}
+			});
+		}
+		catch (LoadingCache.ValueRetrievalException ex) {
+			// rethrow the invoker's exception as is, for the calling aspect to unwrap it
+			Throwable cause = ex.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw ex;
+		}
+	}
+
+	private Object executeBulk(Invoker invoker, CacheOperationContext context) {
+		BulkCacheableOperation operation = (BulkCacheableOperation) context.operation;
+		int index = operation.determineKeysParameterIndex(context.method);
+		Class<?>[] parameterTypes = context.method.getParameterTypes();
+		Class<?> returnType = context.method.getReturnType();
+		boolean mapResult = Map.class.isAssignableFrom(returnType);
+
+		Collection<?> keys = (Collection<?>) context.args[index];
+		if (keys == null || !context.isConditionPassing()) {
+			return invoker.invoke();
+		}
+
+		// determine the cache key for each key, including the other arguments (if any)
+		Map<Object, Object> cacheKeys = new HashMap<Object, Object>(keys.size());
+		Map<Object, Object> keysByCacheKey = new HashMap<Object, Object>(keys.size());
+		for (Object key : keys) {
+			Object cacheKey = generateBulkCacheKey(context, index, key);
+			cacheKeys.put(key, cacheKey);
+			keysByCacheKey.put(cacheKey, key);
+		}
+
+		// look up all keys, checking further caches for the keys still missing
+		Map<Object, Object> values = new HashMap<Object, Object>(keys.size());
+		Collection<Object> missingKeys = new LinkedHashSet<Object>(keys);
+		for (Cache cache : context.getCaches()) {
+			if (missingKeys.isEmpty()) {
+				break;
+			}
+			List<Object> missingCacheKeys = new ArrayList<Object>(missingKeys.size());
+			for (Object key : missingKeys) {
+				missingCacheKeys.add(cacheKeys.get(key));
+			}
+			Map<Object, Cache.ValueWrapper> cached = BulkCacheUtils.getAll(cache, missingCacheKeys);
+			for (Map.Entry<Object, Cache.ValueWrapper> entry : cached.entrySet()) {
+				Object key = keysByCacheKey.get(entry.getKey());
+				values.put(key, entry.getValue().get());
+				missingKeys.remove(key);
+			}
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("Found " + values.size() + " of " + keys.size() + " keys in cache for operation " + operation);
+		}
+
+		if (!missingKeys.isEmpty()) {
+			Object result;
+			@SuppressWarnings("unchecked")
+			Collection<Object> missingArg = CollectionFactory.createApproximateCollection(keys, missingKeys.size());
+			if (invoker instanceof ArgumentsAwareInvoker && parameterTypes[index].isInstance(missingArg)) {
+				missingArg.addAll(missingKeys);
+				Object[] args = context.args.clone();
+				args[index] = missingArg;
+				result = ((ArgumentsAwareInvoker) invoker).invoke(args);
+			}
+			else {
+				result = invoker.invoke();
+			}
+			Map<Object, Object> loaded = new LinkedHashMap<Object, Object>();
+			if (result instanceof Map) {
+				loaded.putAll((Map<?, ?>) result);
+			}
+			else if (result != null) {
+				for (Object value : (Collection<?>) result) {
+					if (value != null) {
+						loaded.put(evaluator.resultKey(operation.getResultKey(), context.method, value), value);
+					}
+				}
+			}
+			Map<Object, Object> loadedByCacheKey = new LinkedHashMap<Object, Object>(loaded.size());
+			for (Map.Entry<Object, Object> entry : loaded.entrySet()) {
+				Object cacheKey = cacheKeys.get(entry.getKey());
+				if (cacheKey == null) {
+					cacheKey = generateBulkCacheKey(context, index, entry.getKey());
+				}
+				loadedByCacheKey.put(cacheKey, entry.getValue());
+			}
+			for (Cache cache : context.getCaches()) {
+				BulkCacheUtils.putAll(cache, loadedByCacheKey);
+			}
+			values.putAll(loaded);
+		}
+
+		// merge cached and loaded values in the order of the given keys
+		if (mapResult) {
+			@SuppressWarnings("unchecked")
+			Map<Object, Object> merged = CollectionFactory.createMap(returnType, keys.size());
+			for (Object key : keys) {
+				if (values.containsKey(key)) {
+					merged.put(key, values.get(key));
+				}
+			}
+			return merged;
+		}
+		else {
+			@SuppressWarnings("unchecked")
+			Collection<Object> merged = (returnType.isAssignableFrom(List.class) ?
+					new ArrayList<Object>(keys.size()) : CollectionFactory.createCollection(returnType, keys.size()));
+			for (Object key : keys) {
+				Object value = values.get(key);
+				if (value != null) {
+					merged.add(value);
+				}
+			}
+			return merged;
+		}
+	}
+
+	/**
+	 * Generate the cache key for the given key of a bulk cacheable operation:
+	 * the key itself for a method with a single parameter, otherwise a key
+	 * from the {@link KeyGenerator} for the arguments with the key in place
+	 * of the Collection of keys.
+	 */
+	private Object generateBulkCacheKey(CacheOperationContext context, int index, Object key) {
+		if (context.args.length == 1) {
+			return key;
+		}
+		Object[] args = context.args.clone();
+		args[index] = key;
+		return this.keyGenerator.generate(context.target, context.method, args);
+	}
+
 	private void inspectBeforeCacheEvicts(Collection<CacheOperationContext> evictions) {
 		inspectCacheEvicts(evictions, true, ExpressionEvaluator.NO_RESULT);
 	}
@@ -280,6 +529,7 @@ public abstract class CacheAspectSupport implements InitializingBean {
 
 	private CacheStatus inspectCacheables(Collection<CacheOperationContext> cacheables) {
 		Map<CacheOperationContext, Object> cUpdates = new LinkedHashMap<CacheOperationContext, Object>(cacheables.size());
+		Map<CacheOperationContext, Object> refreshes = new LinkedHashMap<CacheOperationContext, Object>(cacheables.size());
 
 		boolean updateRequired = false;
 		Object retVal = null;
@@ -314,6 +564,10 @@ public abstract class CacheAspectSupport implements InitializingBean {
 							if (wrapper != null) {
 								retVal = wrapper.get();
 								localCacheHit = true;
+								RefreshAheadCache refreshCache = findCache(cache, RefreshAheadCache.class);
+								if (refreshCache != null && refreshCache.isRefreshDue(key)) {
+									refreshes.put(context, key);
+								}
 								break;
 							}
 						}
@@ -332,21 +586,150 @@ public abstract class CacheAspectSupport implements InitializingBean {
 
 			// return a status only if at least on cacheable matched
 			if (atLeastOnePassed) {
-				return new CacheStatus(cUpdates, updateRequired, retVal);
+				return new CacheStatus(cUpdates, refreshes, updateRequired, retVal);
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Record the time it took to load a value for the given cacheable
+	 * operations with the {@link LoadRecordingCache LoadRecordingCaches} involved.
+	 */
+	private void recordLoadTime(Collection<CacheOperationContext> cacheables, long nanos) {
+		for (CacheOperationContext context : cacheables) {
+			for (Cache cache : context.getCaches()) {
+				LoadRecordingCache recordingCache = findCache(cache, LoadRecordingCache.class);
+				if (recordingCache != null) {
+					recordingCache.recordLoad(nanos);
+				}
 			}
 		}
+	}
 
+	/**
+	 * Find a cache of the given type, either the given cache itself or
+	 * one decorated by it (at any level).
+	 * @return the matching cache, or {@code null} if none found
+	 */
+	private static <T> T findCache(Cache cache, Class<T> requiredType) {
+		Cache current = cache;
+		while (current != null) {
+			if (requiredType.isInstance(current)) {
+				return requiredType.cast(current);
+			}
+			current = (current instanceof CacheDecorator ? ((CacheDecorator) current).getTargetCache() : null);
+		}
 		return null;
 	}
 
+	/**
+	 * Reload the value of the given cache hits asynchronously, through the
+	 * first {@link RefreshAheadCache} involved, which de-duplicates reloads
+	 * per key. The reloaded value is put to all caches of the operations.
+	 * <p>The current invocation is completed by the time the reload runs, so
+	 * the reload goes through a copy of the invoker that is taken right here.
+	 */
+	private void refreshAhead(final Map<CacheOperationContext, Object> refreshes, Invoker invoker) {
+		Map.Entry<CacheOperationContext, Object> first = refreshes.entrySet().iterator().next();
+		Object key = first.getValue();
+		RefreshAheadCache refreshCache = null;
+		for (Cache cache : first.getKey().getCaches()) {
+			refreshCache = findCache(cache, RefreshAheadCache.class);
+			if (refreshCache != null) {
+				break;
+			}
+		}
+		final Invoker refreshInvoker = createRefreshInvoker(invoker, first.getKey());
+		if (refreshInvoker == null) {
+			if (logger.isTraceEnabled()) {
+				logger.trace("Cannot refresh cache key " + key + " for operation " + first.getKey().operation +
+						" without a target object");
+			}
+			return;
+		}
+		boolean submitted = refreshCache.refresh(key, new Runnable() {
+			public void run() {
+				update(refreshes, refreshInvoker.invoke());
+			}
+		});
+		if (submitted && logger.isTraceEnabled()) {
+			logger.trace("Refreshing cache key " + key + " for operation " + first.getKey().operation);
+		}
+	}
+
+	/**
+	 * Create an invoker for reloading a value after the current invocation has
+	 * completed: a copy of a {@link CloneableInvoker}, or else a reflective
+	 * invocation of the target method with a copy of the current arguments.
+	 * @return the invoker, or {@code null} if there is no target to invoke
+	 */
+	private Invoker createRefreshInvoker(Invoker invoker, final CacheOperationContext context) {
+		if (invoker instanceof CloneableInvoker) {
+			return ((CloneableInvoker) invoker).cloneInvoker();
+		}
+		if (context.target == null) {
+			return null;
+		}
+		final Object[] args = (context.args != null ? context.args.clone() : null);
+		return new Invoker() {
+			public Object invoke() {
+				try {
+					return AopUtils.invokeJoinpointUsingReflection(context.target, context.method, args);
+				}
+				catch (Throwable ex) {
+					ReflectionUtils.rethrowRuntimeException(ex);
+					return null;
+				}
+			}
+		};
+	}
+
+	/**
+	 * Key for a synchronized load from a cache without native support for it.
+	 */
+	private static class SynchronizedLoadKey {
+
+		private final Cache cache;
+
+		private final Object key;
+
+		public SynchronizedLoadKey(Cache cache, Object key) {
+			this.cache = cache;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof SynchronizedLoadKey)) {
+				return false;
+			}
+			SynchronizedLoadKey otherKey = (SynchronizedLoadKey) other;
+			return (this.cache == otherKey.cache && this.key.equals(otherKey.key));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.cache.hashCode() * 29 + this.key.hashCode();
+		}
+	}
+
 	private static class CacheStatus {
 		// caches/key
 		final Map<CacheOperationContext, Object> cUpdates;
+		// caches/key of hits due for a refresh
+		final Map<CacheOperationContext, Object> refreshes;
 		final boolean updateRequired;
 		final Object retVal;
 
-		CacheStatus(Map<CacheOperationContext, Object> cUpdates, boolean updateRequired, Object retVal) {
+		CacheStatus(Map<CacheOperationContext, Object> cUpdates, Map<CacheOperationContext, Object> refreshes,
+				boolean updateRequired, Object retVal) {
 			this.cUpdates = cUpdates;
+			this.refreshes = refreshes;
 			this.updateRequired = updateRequired;
 			this.retVal = retVal;
 		}
@@ -400,11 +783,12 @@ public abstract class CacheAspectSupport implements InitializingBean {
 
 	private Map<String, Collection<CacheOperationContext>> createOperationContext(Collection<CacheOperation> cacheOp,
 			Method method, Object[] args, Object target, Class<?> targetClass) {
-		Map<String, Collection<CacheOperationContext>> map = new LinkedHashMap<String, Collection<CacheOperationContext>>(3);
+		Map<String, Collection<CacheOperationContext>> map = new LinkedHashMap<String, Collection<CacheOperationContext>>(4);
 
 		Collection<CacheOperationContext> cacheables = new ArrayList<CacheOperationContext>();
 		Collection<CacheOperationContext> evicts = new ArrayList<CacheOperationContext>();
 		Collection<CacheOperationContext> updates = new ArrayList<CacheOperationContext>();
+		Collection<CacheOperationContext> bulkCacheables = new ArrayList<CacheOperationContext>();
 
 		for (CacheOperation cacheOperation : cacheOp) {
 			CacheOperationContext opContext = getOperationContext(cacheOperation, method, args, target, targetClass);
@@ -420,11 +804,16 @@ public abstract class CacheAspectSupport implements InitializingBean {
 			if (cacheOperation instanceof CachePutOperation) {
 				updates.add(opContext);
 			}
+
+			if (cacheOperation instanceof BulkCacheableOperation) {
+				bulkCacheables.add(opContext);
+			}
 		}
 
 		map.put(CACHEABLE, cacheables);
 		map.put(EVICT, evicts);
 		map.put(UPDATE, updates);
+		map.put(BULK, bulkCacheables);
 
 		return map;
 	}
@@ -486,6 +875,10 @@ public abstract class CacheAspectSupport implements InitializingBean {
 		 */
 		protected Object generateKey() {
 			if (StringUtils.hasText(this.operation.getKey())) {
+				Object key = evaluator.compiledKey(this.operation.getKey(), this.method, this.args, this.targetClass);
+				if (key != CompiledKeyExpression.NOT_APPLICABLE) {
+					return key;
+				}
 				EvaluationContext evaluationContext = createEvaluationContext(ExpressionEvaluator.NO_RESULT);
 				return evaluator.key(this.operation.getKey(), this.method, evaluationContext);
 			}
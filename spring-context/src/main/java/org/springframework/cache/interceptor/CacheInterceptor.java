@@ -22,6 +22,8 @@ import java.lang.reflect.Method;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
 
+import org.springframework.aop.ProxyMethodInvocation;
+
 /**
  * AOP Alliance MethodInterceptor for declarative cache
  * management using the common Spring caching infrastructure
@@ -45,22 +47,17 @@ public class CacheInterceptor extends CacheAspectSupport implements MethodInterc
 		private final Throwable original;
 
 		ThrowableWrapper(Throwable original) {
+			super(original.getMessage(), original);
 			this.original = original;
 		}
 	}
 
-	public Object invoke(final MethodInvocation invocation) throws Throwable {
+	public Object invoke(MethodInvocation invocation) throws Throwable {
 		Method method = invocation.getMethod();
 
-		Invoker aopAllianceInvoker = new Invoker() {
-			public Object invoke() {
-				try {
-					return invocation.proceed();
-				} catch (Throwable ex) {
-					throw new ThrowableWrapper(ex);
-				}
-			}
-		};
+		Invoker aopAllianceInvoker = (invocation instanceof ProxyMethodInvocation ?
+				new ProxyMethodInvocationInvoker((ProxyMethodInvocation) invocation) :
+				new MethodInvocationInvoker(invocation));
 
 		try {
 			return execute(aopAllianceInvoker, invocation.getThis(), method, invocation.getArguments());
@@ -68,4 +65,46 @@ public class CacheInterceptor extends CacheAspectSupport implements MethodInterc
 			throw th.original;
 		}
 	}
+
+
+	private static class MethodInvocationInvoker implements Invoker {
+
+		protected final MethodInvocation invocation;
+
+		public MethodInvocationInvoker(MethodInvocation invocation) {
+			this.invocation = invocation;
+		}
+
+		public Object invoke() {
+			try {
+				return this.invocation.proceed();
+			} catch (Throwable ex) {
+				throw new ThrowableWrapper(ex);
+			}
+		}
+	}
+
+
+	private static class ProxyMethodInvocationInvoker extends MethodInvocationInvoker
+			implements ArgumentsAwareInvoker, CloneableInvoker {
+
+		public ProxyMethodInvocationInvoker(ProxyMethodInvocation invocation) {
+			super(invocation);
+		}
+
+		public Object invoke(Object[] args) {
+			// proceed on a copy, leaving the arguments of the actual invocation untouched
+			try {
+				return ((ProxyMethodInvocation) this.invocation).invocableClone(args).proceed();
+			}
+			catch (Throwable ex) {
+				throw new ThrowableWrapper(ex);
+			}
+		}
+
+		public Invoker cloneInvoker() {
+			return new ProxyMethodInvocationInvoker(
+					(ProxyMethodInvocation) ((ProxyMethodInvocation) this.invocation).invocableClone());
+		}
+	}
 }
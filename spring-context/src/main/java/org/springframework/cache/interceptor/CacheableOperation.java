@@ -27,6 +27,8 @@ public class CacheableOperation extends CacheOperation {
 
 	private String unless;
 
+	private boolean sync;
+
 
 	public String getUnless() {
 		return unless;
@@ -36,11 +38,31 @@ public class CacheableOperation extends CacheOperation {
 		this.unless = unless;
 	}
 
+	/**
+	 * Return whether concurrent loads for the same key are to be synchronized.
+	 * @since 4.0
+	 */
+	public boolean isSync() {
+		return this.sync;
+	}
+
+	/**
+	 * Specify whether concurrent loads for the same key are to be synchronized,
+	 * with only one caller invoking the method and all others waiting for its result.
+	 * @since 4.0
+	 * @see org.springframework.cache.annotation.Cacheable#sync()
+	 */
+	public void setSync(boolean sync) {
+		this.sync = sync;
+	}
+
 	@Override
 	protected StringBuilder getOperationDescription() {
 		StringBuilder sb = super.getOperationDescription();
 		sb.append(" | unless='");
 		sb.append(this.unless);
+		sb.append("' | sync='");
+		sb.append(this.sync);
 		sb.append("'");
 		return sb;
 	}
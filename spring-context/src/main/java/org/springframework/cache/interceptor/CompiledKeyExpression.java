@@ -0,0 +1,358 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Precompiled form of a simple cache key expression, extracting the key
+ * straight from the method arguments instead of evaluating the expression
+ * against an {@link org.springframework.expression.EvaluationContext}.
+ *
+ * <p>Supports references to method arguments ({@code #p0}, {@code #a0} or
+ * {@code #paramName}), bean property paths on such arguments as resolved
+ * against the declared parameter type ({@code #paramName.property}), and
+ * concatenations of those with string literals ({@code #a0 + '-' + #a1}).
+ * Any other expression, as well as any argument value that the compiled form
+ * cannot handle exactly like SpEL would (e.g. a {@code null} value in a property
+ * path, or a concatenation of non-String values), leads to regular SpEL evaluation.
+ *
+ * @author agent
+ * @since 4.0
+ * @see ExpressionEvaluator#compiledKey
+ */
+abstract class CompiledKeyExpression {
+
+	/**
+	 * Marker returned from {@link #getValue} if the expression
+	 * needs to be evaluated through SpEL for the given arguments.
+	 */
+	public static final Object NOT_APPLICABLE = new Object();
+
+	/**
+	 * Marker for expressions that cannot be compiled at all.
+	 */
+	public static final CompiledKeyExpression UNSUPPORTED = new CompiledKeyExpression() {
+		@Override
+		public Object getValue(Object[] args) {
+			return NOT_APPLICABLE;
+		}
+	};
+
+
+	/**
+	 * Extract the key from the given method arguments.
+	 * @param args the method arguments
+	 * @return the key, or {@link #NOT_APPLICABLE} if the expression
+	 * needs to be evaluated through SpEL for the given arguments
+	 */
+	public abstract Object getValue(Object[] args);
+
+
+	/**
+	 * Compile the given key expression for the given method.
+	 * @param expression the key expression
+	 * @param method the most specific target method
+	 * @param parameterNames the parameter names of the method (may be {@code null})
+	 * @return the compiled expression, or {@link #UNSUPPORTED} if the
+	 * expression is not simple enough to be compiled
+	 */
+	public static CompiledKeyExpression compile(String expression, Method method, String[] parameterNames) {
+		String[] operands = splitOperands(expression);
+		if (operands == null) {
+			return UNSUPPORTED;
+		}
+		List<CompiledKeyExpression> parts = new ArrayList<CompiledKeyExpression>(operands.length);
+		for (String operand : operands) {
+			CompiledKeyExpression part = compileOperand(operand, method, parameterNames);
+			if (part == null) {
+				return UNSUPPORTED;
+			}
+			parts.add(part);
+		}
+		return (parts.size() == 1 ? parts.get(0) : new Concatenation(parts));
+	}
+
+	/**
+	 * Split the given expression into its '+' separated operands,
+	 * respecting string literals.
+	 * @return the trimmed operands, or {@code null} if the expression is malformed
+	 */
+	private static String[] splitOperands(String expression) {
+		List<String> operands = new ArrayList<String>(2);
+		boolean inLiteral = false;
+		int start = 0;
+		for (int i = 0; i < expression.length(); i++) {
+			char c = expression.charAt(i);
+			if (c == '\'') {
+				inLiteral = !inLiteral;
+			}
+			else if (c == '+' && !inLiteral) {
+				operands.add(expression.substring(start, i).trim());
+				start = i + 1;
+			}
+		}
+		if (inLiteral) {
+			return null;
+		}
+		operands.add(expression.substring(start).trim());
+		for (String operand : operands) {
+			if (operand.length() == 0) {
+				return null;
+			}
+		}
+		return StringUtils.toStringArray(operands);
+	}
+
+	private static CompiledKeyExpression compileOperand(String operand, Method method, String[] parameterNames) {
+		if (operand.length() >= 2 && operand.charAt(0) == '\'' && operand.charAt(operand.length() - 1) == '\'') {
+			String literal = operand.substring(1, operand.length() - 1);
+			return (literal.indexOf('\'') == -1 ? new Literal(literal) : null);
+		}
+		if (operand.charAt(0) != '#') {
+			return null;
+		}
+		String[] path = StringUtils.delimitedListToStringArray(operand.substring(1), ".");
+		for (String element : path) {
+			if (!isIdentifier(element)) {
+				return null;
+			}
+		}
+		int index = resolveParameterIndex(path[0], method, parameterNames);
+		if (index == -1) {
+			return null;
+		}
+		CompiledKeyExpression argument = new Argument(index);
+		if (path.length == 1) {
+			return argument;
+		}
+		Class<?> type = method.getParameterTypes()[index];
+		Member[] members = new Member[path.length - 1];
+		for (int i = 1; i < path.length; i++) {
+			Member member = Member.resolve(type, path[i]);
+			if (member == null) {
+				return null;
+			}
+			members[i - 1] = member;
+			type = member.getType();
+		}
+		return new PropertyPath(index, members);
+	}
+
+	private static boolean isIdentifier(String str) {
+		if (str.length() == 0 || !Character.isJavaIdentifierStart(str.charAt(0))) {
+			return false;
+		}
+		for (int i = 1; i < str.length(); i++) {
+			if (!Character.isJavaIdentifierPart(str.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Resolve the given variable name the same way as
+	 * {@link LazyParamAwareEvaluationContext}: parameter names take
+	 * precedence over the indexed "a" and "p" variables.
+	 */
+	private static int resolveParameterIndex(String name, Method method, String[] parameterNames) {
+		if ("root".equals(name) || "this".equals(name)) {
+			return -1;
+		}
+		int parameterCount = method.getParameterTypes().length;
+		if (parameterNames != null) {
+			for (int i = 0; i < parameterNames.length; i++) {
+				if (name.equals(parameterNames[i])) {
+					return i;
+				}
+			}
+		}
+		if (name.length() > 1 && (name.charAt(0) == 'a' || name.charAt(0) == 'p')) {
+			String digits = name.substring(1);
+			for (int i = 0; i < digits.length(); i++) {
+				if (!Character.isDigit(digits.charAt(i))) {
+					return -1;
+				}
+			}
+			if (digits.length() > 1 && digits.charAt(0) == '0') {
+				return -1;
+			}
+			try {
+				int index = Integer.parseInt(digits);
+				return (index < parameterCount ? index : -1);
+			}
+			catch (NumberFormatException ex) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * A string literal.
+	 */
+	private static class Literal extends CompiledKeyExpression {
+
+		private final String value;
+
+		public Literal(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public Object getValue(Object[] args) {
+			return this.value;
+		}
+	}
+
+
+	/**
+	 * A reference to a method argument.
+	 */
+	private static class Argument extends CompiledKeyExpression {
+
+		private final int index;
+
+		public Argument(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public Object getValue(Object[] args) {
+			return args[this.index];
+		}
+	}
+
+
+	/**
+	 * A property path on a method argument.
+	 */
+	private static class PropertyPath extends CompiledKeyExpression {
+
+		private final int index;
+
+		private final Member[] members;
+
+		public PropertyPath(int index, Member[] members) {
+			this.index = index;
+			this.members = members;
+		}
+
+		@Override
+		public Object getValue(Object[] args) {
+			Object value = args[this.index];
+			for (Member member : this.members) {
+				if (value == null) {
+					// let SpEL raise its usual exception
+					return NOT_APPLICABLE;
+				}
+				try {
+					value = member.getValue(value);
+				}
+				catch (Exception ex) {
+					return NOT_APPLICABLE;
+				}
+			}
+			return value;
+		}
+	}
+
+
+	/**
+	 * A concatenation of String values, e.g. {@code #a0 + '-' + #a1}.
+	 */
+	private static class Concatenation extends CompiledKeyExpression {
+
+		private final CompiledKeyExpression[] parts;
+
+		public Concatenation(List<CompiledKeyExpression> parts) {
+			this.parts = parts.toArray(new CompiledKeyExpression[parts.size()]);
+		}
+
+		@Override
+		public Object getValue(Object[] args) {
+			StringBuilder sb = new StringBuilder();
+			for (CompiledKeyExpression part : this.parts) {
+				Object value = part.getValue(args);
+				// SpEL's '+' operator adds numbers and converts other types
+				if (!(value instanceof String)) {
+					return NOT_APPLICABLE;
+				}
+				sb.append((String) value);
+			}
+			return sb.toString();
+		}
+	}
+
+
+	/**
+	 * A readable property: a public getter method or a public field,
+	 * with getters taking precedence like with SpEL's property access.
+	 */
+	private static class Member {
+
+		private final Method getter;
+
+		private final Field field;
+
+		private Member(Method getter, Field field) {
+			this.getter = getter;
+			this.field = field;
+		}
+
+		public Class<?> getType() {
+			return (this.getter != null ? this.getter.getReturnType() : this.field.getType());
+		}
+
+		public Object getValue(Object target) throws Exception {
+			return (this.getter != null ? this.getter.invoke(target) : this.field.get(target));
+		}
+
+		public static Member resolve(Class<?> type, String name) {
+			// same suffix rules as SpEL's ReflectivePropertyAccessor
+			String suffix = (name.length() > 1 && Character.isUpperCase(name.charAt(1)) ?
+					name : StringUtils.capitalize(name));
+			Method getter = ReflectionUtils.findMethod(type, "get" + suffix);
+			if (getter == null) {
+				getter = ReflectionUtils.findMethod(type, "is" + suffix);
+				if (getter != null && getter.getReturnType() != boolean.class && getter.getReturnType() != Boolean.class) {
+					getter = null;
+				}
+			}
+			if (getter != null && Modifier.isPublic(getter.getModifiers()) && !Modifier.isStatic(getter.getModifiers())) {
+				ReflectionUtils.makeAccessible(getter);
+				return new Member(getter, null);
+			}
+			Field field = ReflectionUtils.findField(type, name);
+			if (field != null && Modifier.isPublic(field.getModifiers()) && !Modifier.isStatic(field.getModifiers())) {
+				ReflectionUtils.makeAccessible(field);
+				return new Member(null, field);
+			}
+			return null;
+		}
+	}
+
+}
@@ -21,6 +21,7 @@ import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.aop.support.AopUtils;
 import org.springframework.cache.Cache;
 import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.ParameterNameDiscoverer;
@@ -36,6 +37,7 @@ import org.springframework.expression.spel.standard.SpelExpressionParser;
  *
  * @author Costin Leau
  * @author Phillip Webb
+ * @author agent
  * @since 3.1
  */
 class ExpressionEvaluator {
@@ -53,8 +55,13 @@ class ExpressionEvaluator {
 
 	private final Map<String, Expression> unlessCache = new ConcurrentHashMap<String, Expression>(64);
 
+	private final Map<String, Expression> resultKeyCache = new ConcurrentHashMap<String, Expression>(64);
+
 	private final Map<String, Method> targetMethodCache = new ConcurrentHashMap<String, Method>(64);
 
+	private final Map<CompiledKeyCacheKey, CompiledKeyExpression> compiledKeyCache =
+			new ConcurrentHashMap<CompiledKeyCacheKey, CompiledKeyExpression>(64);
+
 
 	/**
 	 * Create an {@link EvaluationContext} without a return value.
@@ -95,6 +102,33 @@ class ExpressionEvaluator {
 		return getExpression(this.keyCache, keyExpression, method).getValue(evalContext);
 	}
 
+	/**
+	 * Extract the key for the given key expression straight from the method
+	 * arguments, if the expression is simple enough to be precompiled.
+	 * Avoids the creation of an {@link EvaluationContext} in such a case.
+	 * @param keyExpression the key expression
+	 * @param method the method
+	 * @param args the method arguments
+	 * @param targetClass the target class
+	 * @return the key, or {@link CompiledKeyExpression#NOT_APPLICABLE} if the
+	 * expression needs to be evaluated through {@link #key} instead
+	 * @see CompiledKeyExpression
+	 */
+	public Object compiledKey(String keyExpression, Method method, Object[] args, Class<?> targetClass) {
+		CompiledKeyCacheKey cacheKey = new CompiledKeyCacheKey(keyExpression, method, targetClass);
+		CompiledKeyExpression compiledKey = this.compiledKeyCache.get(cacheKey);
+		if (compiledKey == null) {
+			Method targetMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+			if (targetMethod == null) {
+				targetMethod = method;
+			}
+			compiledKey = CompiledKeyExpression.compile(keyExpression, targetMethod,
+					this.paramNameDiscoverer.getParameterNames(targetMethod));
+			this.compiledKeyCache.put(cacheKey, compiledKey);
+		}
+		return compiledKey.getValue(args);
+	}
+
 	public boolean condition(String conditionExpression, Method method, EvaluationContext evalContext) {
 		return getExpression(this.conditionCache, conditionExpression, method).getValue(
 				evalContext, boolean.class);
@@ -105,6 +139,15 @@ class ExpressionEvaluator {
 				evalContext, boolean.class);
 	}
 
+	/**
+	 * Determine the key of a single value in a bulk result,
+	 * evaluating the given expression against the value as root object.
+	 * @see BulkCacheableOperation#getResultKey()
+	 */
+	public Object resultKey(String resultKeyExpression, Method method, Object value) {
+		return getExpression(this.resultKeyCache, resultKeyExpression, method).getValue(value);
+	}
+
 	private Expression getExpression(Map<String, Expression> cache, String expression, Method method) {
 		String key = toString(method, expression);
 		Expression rtn = cache.get(key);
@@ -124,4 +167,45 @@ class ExpressionEvaluator {
 		sb.append(expression);
 		return sb.toString();
 	}
+
+
+	/**
+	 * Cache key for compiled key expressions, avoiding String concatenation.
+	 */
+	private static class CompiledKeyCacheKey {
+
+		private final String expression;
+
+		private final Method method;
+
+		private final Class<?> targetClass;
+
+		private final int hashCode;
+
+		public CompiledKeyCacheKey(String expression, Method method, Class<?> targetClass) {
+			this.expression = expression;
+			this.method = method;
+			this.targetClass = targetClass;
+			this.hashCode = (expression.hashCode() * 29 + method.hashCode()) * 29 +
+					(targetClass != null ? targetClass.hashCode() : 0);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof CompiledKeyCacheKey)) {
+				return false;
+			}
+			CompiledKeyCacheKey otherKey = (CompiledKeyCacheKey) other;
+			return (this.expression.equals(otherKey.expression) && this.method.equals(otherKey.method) &&
+					this.targetClass == otherKey.targetClass);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hashCode;
+		}
+	}
 }
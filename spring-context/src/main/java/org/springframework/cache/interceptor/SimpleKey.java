@@ -0,0 +1,80 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * A simple key as returned from the {@link SimpleKeyGenerator}:
+ * a composite of method parameters with proper {@code equals}
+ * semantics and a hash code computed once on construction.
+ *
+ * @author agent
+ * @since 4.0
+ * @see SimpleKeyGenerator
+ */
+@SuppressWarnings("serial")
+public class SimpleKey implements Serializable {
+
+	/** An empty key, used for methods without parameters */
+	public static final SimpleKey EMPTY = new SimpleKey();
+
+
+	private final Object[] params;
+
+	private final int hashCode;
+
+
+	/**
+	 * Create a new {@link SimpleKey} instance.
+	 * @param elements the elements of the key
+	 */
+	public SimpleKey(Object... elements) {
+		Assert.notNull(elements, "Elements must not be null");
+		this.params = new Object[elements.length];
+		System.arraycopy(elements, 0, this.params, 0, elements.length);
+		this.hashCode = Arrays.deepHashCode(this.params);
+	}
+
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SimpleKey)) {
+			return false;
+		}
+		SimpleKey otherKey = (SimpleKey) obj;
+		return (this.hashCode == otherKey.hashCode && Arrays.deepEquals(this.params, otherKey.params));
+	}
+
+	@Override
+	public final int hashCode() {
+		return this.hashCode;
+	}
+
+	@Override
+	public String toString() {
+		return "SimpleKey [" + StringUtils.arrayToCommaDelimitedString(this.params) + "]";
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.statistics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.LatencyHistogram;
+
+/**
+ * Thread-safe counters for the operations on a {@link StatisticsCache},
+ * along with a {@link LatencyHistogram} for the values loaded on misses.
+ *
+ * @author agent
+ * @since 4.0
+ * @see StatisticsCache#getStatistics()
+ */
+public class CacheStatistics {
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong putCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+	private final AtomicLong clearCount = new AtomicLong();
+
+	private final LatencyHistogram loadTimeHistogram = new LatencyHistogram();
+
+
+	/**
+	 * Record the given number of lookups that found an entry.
+	 */
+	public void recordHits(long count) {
+		this.hitCount.addAndGet(count);
+	}
+
+	/**
+	 * Record the given number of lookups that did not find an entry.
+	 */
+	public void recordMisses(long count) {
+		this.missCount.addAndGet(count);
+	}
+
+	/**
+	 * Record the given number of entries put into the cache.
+	 */
+	public void recordPuts(long count) {
+		this.putCount.addAndGet(count);
+	}
+
+	/**
+	 * Record the eviction of an individual entry.
+	 */
+	public void recordEviction() {
+		this.evictionCount.incrementAndGet();
+	}
+
+	/**
+	 * Record the clearing of the entire cache.
+	 */
+	public void recordClear() {
+		this.clearCount.incrementAndGet();
+	}
+
+	/**
+	 * Record the load of a value for a missing entry.
+	 * @param nanos the time the load took, in nanoseconds
+	 */
+	public void recordLoad(long nanos) {
+		this.loadTimeHistogram.recordMicros(TimeUnit.NANOSECONDS.toMicros(nanos));
+	}
+
+
+	/**
+	 * Return the number of lookups that found an entry.
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Return the number of lookups that did not find an entry.
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Return the ratio of hits to all lookups, or 0 if there were no lookups.
+	 */
+	public double getHitRatio() {
+		long hits = this.hitCount.get();
+		long lookups = hits + this.missCount.get();
+		return (lookups > 0 ? (double) hits / lookups : 0);
+	}
+
+	/**
+	 * Return the number of entries put into the cache.
+	 */
+	public long getPutCount() {
+		return this.putCount.get();
+	}
+
+	/**
+	 * Return the number of explicit evictions of individual entries.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	/**
+	 * Return the number of times the entire cache has been cleared.
+	 */
+	public long getClearCount() {
+		return this.clearCount.get();
+	}
+
+	/**
+	 * Return the histogram of load times.
+	 */
+	public LatencyHistogram getLoadTimeHistogram() {
+		return this.loadTimeHistogram;
+	}
+
+	/**
+	 * Reset all counters and the load time histogram.
+	 */
+	public void reset() {
+		this.hitCount.set(0);
+		this.missCount.set(0);
+		this.putCount.set(0);
+		this.evictionCount.set(0);
+		this.clearCount.set(0);
+		this.loadTimeHistogram.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "hits=" + getHitCount() + ", misses=" + getMissCount() + ", puts=" + getPutCount() +
+				", evictions=" + getEvictionCount() + ", clears=" + getClearCount() +
+				", averageLoadTime=" + this.loadTimeHistogram.getAverageMicros() / 1000.0 + "ms";
+	}
+
+}
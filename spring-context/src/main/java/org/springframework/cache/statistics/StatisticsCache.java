@@ -0,0 +1,179 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.statistics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.springframework.cache.BulkCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.LoadRecordingCache;
+import org.springframework.cache.LoadingCache;
+import org.springframework.cache.support.BulkCacheUtils;
+import org.springframework.cache.support.CacheDecorator;
+import org.springframework.cache.support.LoadSynchronizer;
+import org.springframework.util.Assert;
+
+/**
+ * Cache decorator which records {@link CacheStatistics} for all operations
+ * on the target cache, independent of the underlying cache technology.
+ *
+ * <p>Load times are recorded for values loaded through {@link #get(Object, Callable)}
+ * as well as, for {@code @Cacheable} methods, by
+ * {@link org.springframework.cache.interceptor.CacheAspectSupport} through
+ * {@link #recordLoad}. Capabilities of the target cache that this decorator
+ * does not provide itself, such as refresh-ahead, remain available to the
+ * caching infrastructure through {@link #getTargetCache()}.
+ *
+ * @author agent
+ * @since 4.0
+ * @see StatisticsCacheManager
+ */
+public class StatisticsCache implements LoadingCache, BulkCache, LoadRecordingCache, CacheDecorator {
+
+	private final Cache targetCache;
+
+	private final CacheStatistics statistics = new CacheStatistics();
+
+	private final LoadSynchronizer loadSynchronizer = new LoadSynchronizer();
+
+
+	/**
+	 * Create a new StatisticsCache for the given target cache.
+	 * @param targetCache the target Cache to decorate
+	 */
+	public StatisticsCache(Cache targetCache) {
+		Assert.notNull(targetCache, "Target Cache must not be null");
+		this.targetCache = targetCache;
+	}
+
+
+	/**
+	 * Return the target Cache that this decorator delegates to.
+	 */
+	public Cache getTargetCache() {
+		return this.targetCache;
+	}
+
+	/**
+	 * Return the statistics recorded for this cache.
+	 */
+	public CacheStatistics getStatistics() {
+		return this.statistics;
+	}
+
+	public String getName() {
+		return this.targetCache.getName();
+	}
+
+	public Object getNativeCache() {
+		return this.targetCache.getNativeCache();
+	}
+
+	public ValueWrapper get(Object key) {
+		ValueWrapper wrapper = this.targetCache.get(key);
+		if (wrapper != null) {
+			this.statistics.recordHits(1);
+		}
+		else {
+			this.statistics.recordMisses(1);
+		}
+		return wrapper;
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(final Object key, final Callable<T> valueLoader) {
+		final boolean[] loaded = new boolean[1];
+		Callable<T> recordingLoader = new Callable<T>() {
+			public T call() throws Exception {
+				loaded[0] = true;
+				long start = System.nanoTime();
+				try {
+					return valueLoader.call();
+				}
+				finally {
+					statistics.recordLoad(System.nanoTime() - start);
+				}
+			}
+		};
+		T value;
+		if (this.targetCache instanceof LoadingCache) {
+			value = ((LoadingCache) this.targetCache).get(key, recordingLoader);
+		}
+		else {
+			ValueWrapper wrapper = this.targetCache.get(key);
+			if (wrapper != null) {
+				value = (T) wrapper.get();
+			}
+			else {
+				final Callable<T> loader = recordingLoader;
+				value = this.loadSynchronizer.load(key, new Callable<T>() {
+					public T call() throws Exception {
+						ValueWrapper wrapper = targetCache.get(key);
+						if (wrapper != null) {
+							return (T) wrapper.get();
+						}
+						T value = loader.call();
+						targetCache.put(key, value);
+						return value;
+					}
+				});
+			}
+		}
+		if (loaded[0]) {
+			this.statistics.recordMisses(1);
+			this.statistics.recordPuts(1);
+		}
+		else {
+			this.statistics.recordHits(1);
+		}
+		return value;
+	}
+
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		Map<Object, ValueWrapper> result = BulkCacheUtils.getAll(this.targetCache, keys);
+		this.statistics.recordHits(result.size());
+		this.statistics.recordMisses(keys.size() - result.size());
+		return result;
+	}
+
+	public void put(Object key, Object value) {
+		this.targetCache.put(key, value);
+		this.statistics.recordPuts(1);
+	}
+
+	public void putAll(Map<?, ?> entries) {
+		BulkCacheUtils.putAll(this.targetCache, entries);
+		this.statistics.recordPuts(entries.size());
+	}
+
+	public void evict(Object key) {
+		this.targetCache.evict(key);
+		this.statistics.recordEviction();
+	}
+
+	public void clear() {
+		this.targetCache.clear();
+		this.statistics.recordClear();
+	}
+
+	public void recordLoad(long loadTime) {
+		this.statistics.recordLoad(loadTime);
+	}
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.statistics;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.util.Assert;
+import org.springframework.util.LatencyHistogram;
+import org.springframework.util.StringUtils;
+
+/**
+ * Proxy for a target {@link CacheManager}, exposing {@link StatisticsCache}
+ * decorators that record {@link CacheStatistics} for each cache.
+ *
+ * <p>Annotated as a {@link ManagedResource}, so that it gets exported
+ * automatically by an {@link org.springframework.jmx.export.annotation.AnnotationMBeanExporter}
+ * (as registered through {@code @EnableMBeanExport} or {@code <context:mbean-export/>}),
+ * giving access to the statistics of each cache and allowing to clear caches
+ * or reset their statistics.
+ *
+ * @author agent
+ * @since 4.0
+ * @see #setTargetCacheManager
+ */
+@ManagedResource(description = "Cache statistics and management")
+public class StatisticsCacheManager implements CacheManager, InitializingBean {
+
+	private CacheManager targetCacheManager;
+
+	private final ConcurrentMap<String, StatisticsCache> cacheMap = new ConcurrentHashMap<String, StatisticsCache>(16);
+
+
+	/**
+	 * Create a new StatisticsCacheManager, setting the target CacheManager
+	 * through the {@link #setTargetCacheManager} bean property.
+	 */
+	public StatisticsCacheManager() {
+	}
+
+	/**
+	 * Create a new StatisticsCacheManager for the given target CacheManager.
+	 * @param targetCacheManager the target CacheManager to proxy
+	 */
+	public StatisticsCacheManager(CacheManager targetCacheManager) {
+		Assert.notNull(targetCacheManager, "Target CacheManager must not be null");
+		this.targetCacheManager = targetCacheManager;
+	}
+
+
+	/**
+	 * Set the target CacheManager to proxy.
+	 */
+	public void setTargetCacheManager(CacheManager targetCacheManager) {
+		this.targetCacheManager = targetCacheManager;
+	}
+
+	public void afterPropertiesSet() {
+		if (this.targetCacheManager == null) {
+			throw new IllegalStateException("'targetCacheManager' is required");
+		}
+	}
+
+
+	public Cache getCache(String name) {
+		StatisticsCache cache = this.cacheMap.get(name);
+		if (cache == null) {
+			Cache targetCache = this.targetCacheManager.getCache(name);
+			if (targetCache == null) {
+				return null;
+			}
+			cache = new StatisticsCache(targetCache);
+			StatisticsCache existing = this.cacheMap.putIfAbsent(name, cache);
+			if (existing != null) {
+				cache = existing;
+			}
+		}
+		return cache;
+	}
+
+	public Collection<String> getCacheNames() {
+		return this.targetCacheManager.getCacheNames();
+	}
+
+	/**
+	 * Return the statistics for the specified cache.
+	 * @param name the name of the cache
+	 * @return the statistics, or {@code null} if there is no such cache
+	 */
+	public CacheStatistics getStatistics(String name) {
+		StatisticsCache cache = (StatisticsCache) getCache(name);
+		return (cache != null ? cache.getStatistics() : null);
+	}
+
+
+	@ManagedAttribute(description = "Names of all caches")
+	public String[] getManagedCacheNames() {
+		return StringUtils.toStringArray(getCacheNames());
+	}
+
+	@ManagedOperation(description = "Number of lookups that found an entry")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "cacheName", description = "Name of the cache"))
+	public long getHitCount(String cacheName) {
+		return obtainStatistics(cacheName).getHitCount();
+	}
+
+	@ManagedOperation(description = "Number of lookups that did not find an entry")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "cacheName", description = "Name of the cache"))
+	public long getMissCount(String cacheName) {
+		return obtainStatistics(cacheName).getMissCount();
+	}
+
+	@ManagedOperation(description = "Ratio of hits to all lookups")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "cacheName", description = "Name of the cache"))
+	public double getHitRatio(String cacheName) {
+		return obtainStatistics(cacheName).getHitRatio();
+	}
+
+	@ManagedOperation(description = "Number of entries put into the cache")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "cacheName", description = "Name of the cache"))
+	public long getPutCount(String cacheName) {
+		return obtainStatistics(cacheName).getPutCount();
+	}
+
+	@ManagedOperation(description = "Number of explicit evictions of individual entries")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "cacheName", description = "Name of the cache"))
+	public long getEvictionCount(String cacheName) {
+		return obtainStatistics(cacheName).getEvictionCount();
+	}
+
+	@ManagedOperation(description = "Average load time in milliseconds")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "cacheName", description = "Name of the cache"))
+	public double getAverageLoadTime(String cacheName) {
+		return obtainStatistics(cacheName).getLoadTimeHistogram().getAverageMicros() / 1000.0;
+	}
+
+	@ManagedAttribute(description = "Upper bounds of the load time histogram buckets in microseconds")
+	public long[] getLoadTimeBucketBounds() {
+		return LatencyHistogram.getBucketBoundsMicros();
+	}
+
+	@ManagedOperation(description = "Number of loads per load time histogram bucket")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "cacheName", description = "Name of the cache"))
+	public long[] getLoadTimeBucketCounts(String cacheName) {
+		return obtainStatistics(cacheName).getLoadTimeHistogram().getBucketCounts();
+	}
+
+	@ManagedOperation(description = "Summary of all statistics")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "cacheName", description = "Name of the cache"))
+	public String getStatisticsSummary(String cacheName) {
+		return obtainStatistics(cacheName).toString();
+	}
+
+	@ManagedOperation(description = "Reset the statistics of a cache")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "cacheName", description = "Name of the cache"))
+	public void resetStatistics(String cacheName) {
+		obtainStatistics(cacheName).reset();
+	}
+
+	@ManagedOperation(description = "Remove all entries from a cache")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "cacheName", description = "Name of the cache"))
+	public void clear(String cacheName) {
+		Cache cache = getCache(cacheName);
+		if (cache == null) {
+			throw new IllegalArgumentException("No cache named '" + cacheName + "'");
+		}
+		cache.clear();
+	}
+
+	@ManagedOperation(description = "Remove all entries from all caches")
+	public void clearAll() {
+		for (String cacheName : getCacheNames()) {
+			Cache cache = getCache(cacheName);
+			if (cache != null) {
+				cache.clear();
+			}
+		}
+	}
+
+	private CacheStatistics obtainStatistics(String cacheName) {
+		CacheStatistics statistics = getStatistics(cacheName);
+		if (statistics == null) {
+			throw new IllegalArgumentException("No cache named '" + cacheName + "'");
+		}
+		return statistics;
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.cache.BulkCache;
+import org.springframework.cache.Cache;
+
+/**
+ * Utility methods for bulk access to {@link Cache} instances, delegating
+ * to the native bulk operations of {@link BulkCache} implementations and
+ * looping over individual entries for any other cache.
+ *
+ * @author agent
+ * @since 4.0
+ * @see BulkCache
+ */
+public abstract class BulkCacheUtils {
+
+	/**
+	 * Return the values to which the given cache maps the specified keys.
+	 * @param cache the cache to retrieve the values from
+	 * @param keys the keys whose associated values are to be returned
+	 * @return a Map from key to value wrapper, containing entries for
+	 * those keys only that the cache contains a mapping for
+	 * @see BulkCache#getAll
+	 */
+	public static Map<Object, Cache.ValueWrapper> getAll(Cache cache, Collection<?> keys) {
+		if (cache instanceof BulkCache) {
+			return ((BulkCache) cache).getAll(keys);
+		}
+		Map<Object, Cache.ValueWrapper> result = new LinkedHashMap<Object, Cache.ValueWrapper>(keys.size());
+		for (Object key : keys) {
+			Cache.ValueWrapper wrapper = cache.get(key);
+			if (wrapper != null) {
+				result.put(key, wrapper);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Associate the specified values with their keys in the given cache.
+	 * @param cache the cache to store the values in
+	 * @param entries the keys and values to store
+	 * @see BulkCache#putAll
+	 */
+	public static void putAll(Cache cache, Map<?, ?> entries) {
+		if (cache instanceof BulkCache) {
+			((BulkCache) cache).putAll(entries);
+			return;
+		}
+		for (Map.Entry<?, ?> entry : entries.entrySet()) {
+			cache.put(entry.getKey(), entry.getValue());
+		}
+	}
+
+}
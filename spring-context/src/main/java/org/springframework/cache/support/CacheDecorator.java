@@ -0,0 +1,38 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import org.springframework.cache.Cache;
+
+/**
+ * Interface to be implemented by {@link Cache} decorators, exposing the
+ * decorated cache. This allows the caching infrastructure to make use of
+ * capabilities of the target cache that a decorator does not provide itself,
+ * e.g. {@link RefreshAheadCache refresh-ahead} underneath a
+ * {@link org.springframework.cache.statistics.StatisticsCache}.
+ *
+ * @author agent
+ * @since 4.0
+ */
+public interface CacheDecorator extends Cache {
+
+	/**
+	 * Return the target Cache that this decorator delegates to.
+	 */
+	Cache getTargetCache();
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.cache.LoadingCache;
+
+/**
+ * Helper that coordinates concurrent loads of cache values, making
+ * concurrent callers for the same key wait for a single load in progress
+ * instead of each invoking the value loader themselves.
+ *
+ * <p>Keys are only held while their load is in progress. Useful for
+ * implementing {@link LoadingCache} on top of stores that do not support
+ * atomic per-key computation natively.
+ *
+ * @author agent
+ * @since 4.0
+ * @see LoadingCache#get(Object, Callable)
+ */
+public class LoadSynchronizer {
+
+	private final ConcurrentMap<Object, LoadTask<?>> loads = new ConcurrentHashMap<Object, LoadTask<?>>(16);
+
+
+	/**
+	 * Obtain a value from the given loader, unless a load for an equal key
+	 * is already in progress, in which case its result will be returned.
+	 * <p>The loader should check the cache again before actually loading,
+	 * since a concurrent load may have completed right before this call.
+	 * @param key the key to load the value for
+	 * @param valueLoader the loader to invoke if no load is in progress
+	 * @return the loaded value
+	 * @throws LoadingCache.ValueRetrievalException if the load failed
+	 * @throws IllegalStateException if the loader of a load in progress
+	 * attempts to load the same key again
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T load(Object key, Callable<T> valueLoader) {
+		LoadTask<?> task = new LoadTask<T>(valueLoader);
+		LoadTask<?> existingTask = this.loads.putIfAbsent(key, task);
+		if (existingTask == null) {
+			try {
+				task.run();
+			}
+			finally {
+				this.loads.remove(key, task);
+			}
+		}
+		else {
+			if (existingTask.owner == Thread.currentThread()) {
+				// Waiting for our own load would never return
+				throw new IllegalStateException("Recursive load of key '" + key + "' within its own value loader");
+			}
+			task = existingTask;
+		}
+		try {
+			return (T) task.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new LoadingCache.ValueRetrievalException(key, ex);
+		}
+		catch (ExecutionException ex) {
+			throw new LoadingCache.ValueRetrievalException(key, ex.getCause());
+		}
+	}
+
+	/**
+	 * Return whether a load for the given key is currently in progress.
+	 */
+	public boolean isLoading(Object key) {
+		return this.loads.containsKey(key);
+	}
+
+
+	/**
+	 * FutureTask that remembers the thread which runs the load.
+	 */
+	private static class LoadTask<T> extends FutureTask<T> {
+
+		private final Thread owner = Thread.currentThread();
+
+		public LoadTask(Callable<T> callable) {
+			super(callable);
+		}
+	}
+
+}
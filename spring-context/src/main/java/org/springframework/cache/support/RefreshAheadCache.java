@@ -0,0 +1,258 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cache.BulkCache;
+import org.springframework.cache.Cache;
+import org.springframework.cache.LoadingCache;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.util.Assert;
+
+/**
+ * Cache decorator which keeps track of the time each entry has been written,
+ * allowing for entries to be refreshed asynchronously before they expire:
+ * once an entry has reached the configured fraction of its time to live, the
+ * next read still returns the current value but triggers a reload of that key
+ * on the configured {@link TaskExecutor}, with at most one reload per key
+ * in progress at any time.
+ *
+ * <p>The time to live is specified for the decorator and is meant to match
+ * the expiration policy of the target cache (if any). The decorator does
+ * not expire entries itself; for a cache without expiration, refresh-ahead
+ * simply results in periodic reloads of frequently read entries.
+ *
+ * <p>Entries of unknown age, e.g. ones written before the cache was decorated,
+ * are considered due for a refresh on their next read.
+ *
+ * <p>Reloads are triggered for {@link org.springframework.cache.annotation.Cacheable}
+ * operations by {@link org.springframework.cache.interceptor.CacheAspectSupport},
+ * as well as through {@link #get(Object, Callable)}.
+ *
+ * @author agent
+ * @since 4.0
+ * @see RefreshAheadCacheManager
+ */
+public class RefreshAheadCache implements LoadingCache, BulkCache, CacheDecorator {
+
+	private static final Log logger = LogFactory.getLog(RefreshAheadCache.class);
+
+	private final Cache targetCache;
+
+	private final long timeToLive;
+
+	private final long refreshAfter;
+
+	private final TaskExecutor taskExecutor;
+
+	private final ConcurrentMap<Object, Long> writeTimes = new ConcurrentHashMap<Object, Long>(64);
+
+	private final ConcurrentMap<Object, Boolean> refreshesInProgress = new ConcurrentHashMap<Object, Boolean>(16);
+
+	private final LoadSynchronizer loadSynchronizer = new LoadSynchronizer();
+
+	private volatile long lastPurgeTime = System.currentTimeMillis();
+
+
+	/**
+	 * Create a new RefreshAheadCache for the given target cache.
+	 * @param targetCache the target Cache to decorate
+	 * @param timeToLive the time to live of the target cache's entries, in milliseconds
+	 * @param refreshThreshold the fraction of the time to live after which
+	 * an entry is due for a refresh (between 0 and 1)
+	 * @param taskExecutor the TaskExecutor to perform reloads on
+	 */
+	public RefreshAheadCache(Cache targetCache, long timeToLive, float refreshThreshold, TaskExecutor taskExecutor) {
+		Assert.notNull(targetCache, "Target Cache must not be null");
+		Assert.isTrue(timeToLive > 0, "'timeToLive' must be positive");
+		Assert.isTrue(refreshThreshold > 0 && refreshThreshold <= 1, "'refreshThreshold' must be between 0 and 1");
+		Assert.notNull(taskExecutor, "TaskExecutor must not be null");
+		this.targetCache = targetCache;
+		this.timeToLive = timeToLive;
+		this.refreshAfter = (long) (timeToLive * (double) refreshThreshold);
+		this.taskExecutor = taskExecutor;
+	}
+
+
+	/**
+	 * Return the target Cache that this decorator delegates to.
+	 */
+	public Cache getTargetCache() {
+		return this.targetCache;
+	}
+
+	public String getName() {
+		return this.targetCache.getName();
+	}
+
+	public Object getNativeCache() {
+		return this.targetCache.getNativeCache();
+	}
+
+	public ValueWrapper get(Object key) {
+		return this.targetCache.get(key);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(final Object key, final Callable<T> valueLoader) {
+		ValueWrapper wrapper = this.targetCache.get(key);
+		if (wrapper != null) {
+			if (isRefreshDue(key)) {
+				refresh(key, new Runnable() {
+					public void run() {
+						try {
+							put(key, valueLoader.call());
+						}
+						catch (Exception ex) {
+							throw new ValueRetrievalException(key, ex);
+						}
+					}
+				});
+			}
+			return (T) wrapper.get();
+		}
+		if (this.targetCache instanceof LoadingCache) {
+			return ((LoadingCache) this.targetCache).get(key, new Callable<T>() {
+				public T call() throws Exception {
+					T value = valueLoader.call();
+					recordWrite(key);
+					return value;
+				}
+			});
+		}
+		return this.loadSynchronizer.load(key, new Callable<T>() {
+			public T call() throws Exception {
+				ValueWrapper wrapper = targetCache.get(key);
+				if (wrapper != null) {
+					return (T) wrapper.get();
+				}
+				T value = valueLoader.call();
+				put(key, value);
+				return value;
+			}
+		});
+	}
+
+	public Map<Object, ValueWrapper> getAll(Collection<?> keys) {
+		return BulkCacheUtils.getAll(this.targetCache, keys);
+	}
+
+	public void put(Object key, Object value) {
+		this.targetCache.put(key, value);
+		recordWrite(key);
+	}
+
+	public void putAll(Map<?, ?> entries) {
+		BulkCacheUtils.putAll(this.targetCache, entries);
+		for (Object key : entries.keySet()) {
+			recordWrite(key);
+		}
+	}
+
+	public void evict(Object key) {
+		this.targetCache.evict(key);
+		this.writeTimes.remove(key);
+	}
+
+	public void clear() {
+		this.targetCache.clear();
+		this.writeTimes.clear();
+	}
+
+
+	/**
+	 * Determine whether the entry for the given key is due for a refresh,
+	 * i.e. whether it has been written longer ago than the refresh threshold
+	 * or is of unknown age.
+	 * @param key the key of an entry that is present in the cache
+	 */
+	public boolean isRefreshDue(Object key) {
+		Long writeTime = this.writeTimes.get(key);
+		return (writeTime == null || System.currentTimeMillis() - writeTime >= this.refreshAfter);
+	}
+
+	/**
+	 * Execute the given refresh task for the specified key on the
+	 * TaskExecutor, unless a refresh for that key is already in progress.
+	 * <p>The task is expected to {@link #put} the reloaded value into this cache.
+	 * Failures are logged and leave the current entry in place.
+	 * @param key the key to refresh
+	 * @param refreshTask the task that reloads the value for the key
+	 * @return {@code true} if the refresh has been submitted, {@code false} if a
+	 * refresh for the key is already in progress or the task has been rejected
+	 */
+	public boolean refresh(final Object key, final Runnable refreshTask) {
+		if (this.refreshesInProgress.putIfAbsent(key, Boolean.TRUE) != null) {
+			return false;
+		}
+		try {
+			this.taskExecutor.execute(new Runnable() {
+				public void run() {
+					try {
+						refreshTask.run();
+					}
+					catch (Throwable ex) {
+						logger.warn("Refresh of key '" + key + "' in cache '" + getName() + "' failed", ex);
+					}
+					finally {
+						refreshesInProgress.remove(key);
+					}
+				}
+			});
+			return true;
+		}
+		catch (TaskRejectedException ex) {
+			this.refreshesInProgress.remove(key);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Refresh of key '" + key + "' in cache '" + getName() + "' rejected", ex);
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Return whether a refresh for the given key is currently in progress.
+	 */
+	public boolean isRefreshing(Object key) {
+		return this.refreshesInProgress.containsKey(key);
+	}
+
+	private void recordWrite(Object key) {
+		long now = System.currentTimeMillis();
+		this.writeTimes.put(key, now);
+		if (now - this.lastPurgeTime >= this.timeToLive) {
+			// Drop write times of entries that the target cache has expired by now
+			this.lastPurgeTime = now;
+			for (Iterator<Long> it = this.writeTimes.values().iterator(); it.hasNext();) {
+				if (now - it.next() >= this.timeToLive) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+}
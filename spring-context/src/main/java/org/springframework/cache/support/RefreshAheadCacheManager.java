@@ -0,0 +1,174 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.support;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * Proxy for a target {@link CacheManager}, exposing {@link RefreshAheadCache}
+ * decorators for caches with a configured time to live, so that their entries
+ * get reloaded asynchronously before they expire. Caches without a time to live
+ * are exposed as-is.
+ *
+ * <p>Works with any CacheManager, e.g.
+ * {@link org.springframework.cache.concurrent.ConcurrentMapCacheManager},
+ * {@code EhCacheCacheManager} or {@code JCacheCacheManager}. The time to live
+ * for each cache is meant to match the expiration policy of the underlying
+ * cache provider.
+ *
+ * @author agent
+ * @since 4.0
+ * @see #setTargetCacheManager
+ * @see #setTimeToLive
+ * @see #setRefreshThreshold
+ * @see #setTaskExecutor
+ */
+public class RefreshAheadCacheManager implements CacheManager, InitializingBean {
+
+	/** The default refresh threshold: 0.8, i.e. after 80% of the time to live */
+	public static final float DEFAULT_REFRESH_THRESHOLD = 0.8f;
+
+
+	private CacheManager targetCacheManager;
+
+	private long defaultTimeToLive = 0;
+
+	private final Map<String, Long> timeToLiveMap = new ConcurrentHashMap<String, Long>(16);
+
+	private float refreshThreshold = DEFAULT_REFRESH_THRESHOLD;
+
+	private TaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("cache-refresh-");
+
+	private final ConcurrentMap<String, Cache> cacheMap = new ConcurrentHashMap<String, Cache>(16);
+
+
+	/**
+	 * Create a new RefreshAheadCacheManager, setting the target CacheManager
+	 * through the {@link #setTargetCacheManager} bean property.
+	 */
+	public RefreshAheadCacheManager() {
+	}
+
+	/**
+	 * Create a new RefreshAheadCacheManager for the given target CacheManager.
+	 * @param targetCacheManager the target CacheManager to proxy
+	 */
+	public RefreshAheadCacheManager(CacheManager targetCacheManager) {
+		Assert.notNull(targetCacheManager, "Target CacheManager must not be null");
+		this.targetCacheManager = targetCacheManager;
+	}
+
+
+	/**
+	 * Set the target CacheManager to proxy.
+	 */
+	public void setTargetCacheManager(CacheManager targetCacheManager) {
+		this.targetCacheManager = targetCacheManager;
+	}
+
+	/**
+	 * Set the time to live (in milliseconds) to assume for caches without
+	 * a specific {@link #setTimeToLiveMap time to live}. Default is 0,
+	 * i.e. no refresh-ahead for such caches.
+	 * <p>Only affects caches that have not been requested yet.
+	 */
+	public void setTimeToLive(long timeToLive) {
+		Assert.isTrue(timeToLive >= 0, "'timeToLive' must not be negative");
+		this.defaultTimeToLive = timeToLive;
+	}
+
+	/**
+	 * Specify the time to live (in milliseconds) for individual caches,
+	 * keyed by cache name. A value of 0 disables refresh-ahead for a cache.
+	 * <p>Only affects caches that have not been requested yet.
+	 */
+	public void setTimeToLiveMap(Map<String, Long> timeToLiveMap) {
+		if (timeToLiveMap != null) {
+			this.timeToLiveMap.putAll(timeToLiveMap);
+		}
+	}
+
+	/**
+	 * Set the fraction of the time to live after which an entry is due
+	 * for a refresh. Default is {@link #DEFAULT_REFRESH_THRESHOLD}.
+	 */
+	public void setRefreshThreshold(float refreshThreshold) {
+		Assert.isTrue(refreshThreshold > 0 && refreshThreshold <= 1, "'refreshThreshold' must be between 0 and 1");
+		this.refreshThreshold = refreshThreshold;
+	}
+
+	/**
+	 * Set the TaskExecutor to perform reloads on.
+	 * Default is a {@link SimpleAsyncTaskExecutor}.
+	 */
+	public void setTaskExecutor(TaskExecutor taskExecutor) {
+		Assert.notNull(taskExecutor, "TaskExecutor must not be null");
+		this.taskExecutor = taskExecutor;
+	}
+
+	public void afterPropertiesSet() {
+		if (this.targetCacheManager == null) {
+			throw new IllegalStateException("'targetCacheManager' is required");
+		}
+	}
+
+
+	public Cache getCache(String name) {
+		Cache cache = this.cacheMap.get(name);
+		if (cache == null) {
+			Cache targetCache = this.targetCacheManager.getCache(name);
+			if (targetCache == null) {
+				return null;
+			}
+			long timeToLive = determineTimeToLive(name);
+			if (timeToLive <= 0) {
+				return targetCache;
+			}
+			cache = new RefreshAheadCache(targetCache, timeToLive, this.refreshThreshold, this.taskExecutor);
+			Cache existing = this.cacheMap.putIfAbsent(name, cache);
+			if (existing != null) {
+				cache = existing;
+			}
+		}
+		return cache;
+	}
+
+	public Collection<String> getCacheNames() {
+		return this.targetCacheManager.getCacheNames();
+	}
+
+	/**
+	 * Determine the time to live (in milliseconds) for the specified cache.
+	 * @param name the name of the cache
+	 * @return the time to live, or 0 for no refresh-ahead
+	 */
+	protected long determineTimeToLive(String name) {
+		Long timeToLive = this.timeToLiveMap.get(name);
+		return (timeToLive != null ? timeToLive : this.defaultTimeToLive);
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2013 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
 
 /**
  * SPI interface to be implemented by most if not all application contexts.
@@ -81,6 +82,16 @@ public interface ConfigurableApplicationContext extends ApplicationContext, Life
 	 */
 	String SYSTEM_ENVIRONMENT_BEAN_NAME = "systemEnvironment";
 
+	/**
+	 * Bean definition attribute that specifies the order in which a lazy-init
+	 * singleton gets initialized during background warm-up (a Number or a String
+	 * containing an int value; lower values first).
+	 * @since 4.0
+	 * @see org.springframework.context.support.AbstractApplicationContext#setWarmUpExecutor
+	 * @see org.springframework.context.annotation.WarmUpOrder
+	 */
+	String WARM_UP_ORDER_ATTRIBUTE = "org.springframework.context.ConfigurableApplicationContext.warmUpOrder";
+
 
 	/**
 	 * Set the unique id of this application context.
@@ -128,6 +139,22 @@ public interface ConfigurableApplicationContext extends ApplicationContext, Life
 	 */
 	void addApplicationListener(ApplicationListener<?> listener);
 
+	/**
+	 * Set the {@link ApplicationStartup} for this application context.
+	 * <p>This allows the application context to record metrics
+	 * during startup, e.g. through a buffering implementation.
+	 * Needs to be set before the context gets refreshed.
+	 * @param applicationStartup the new application startup
+	 * @since 4.0
+	 */
+	void setApplicationStartup(ApplicationStartup applicationStartup);
+
+	/**
+	 * Return the {@link ApplicationStartup} for this application context.
+	 * @since 4.0
+	 */
+	ApplicationStartup getApplicationStartup();
+
 	/**
 	 * Load or refresh the persistent representation of the configuration,
 	 * which might an XML file, properties file, or relational database schema.
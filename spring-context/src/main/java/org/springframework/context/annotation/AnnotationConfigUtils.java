@@ -27,6 +27,7 @@ import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.util.ClassUtils;
 
@@ -241,6 +242,10 @@ public class AnnotationConfigUtils {
 		if (metadata.isAnnotated(DependsOn.class.getName())) {
 			abd.setDependsOn(attributesFor(metadata, DependsOn.class).getStringArray("value"));
 		}
+		if (metadata.isAnnotated(WarmUpOrder.class.getName())) {
+			abd.setAttribute(ConfigurableApplicationContext.WARM_UP_ORDER_ATTRIBUTE,
+					attributesFor(metadata, WarmUpOrder.class).getNumber("value"));
+		}
 		if (abd instanceof AbstractBeanDefinition) {
 			if (metadata.isAnnotated(Role.class.getName())) {
 				Integer role = attributesFor(metadata, Role.class).getNumber("value");
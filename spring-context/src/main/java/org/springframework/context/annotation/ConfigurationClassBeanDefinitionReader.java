@@ -42,6 +42,7 @@ import org.springframework.beans.factory.support.BeanDefinitionReader;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.Resource;
@@ -225,6 +226,11 @@ class ConfigurationClassBeanDefinitionReader {
 			}
 		}
 
+		if (metadata.isAnnotated(WarmUpOrder.class.getName())) {
+			beanDef.setAttribute(ConfigurableApplicationContext.WARM_UP_ORDER_ATTRIBUTE,
+					attributesFor(metadata, WarmUpOrder.class).getNumber("value"));
+		}
+
 		Autowire autowire = bean.getEnum("autowire");
 		if (autowire.isAutowire()) {
 			beanDef.setAutowireMode(autowire.value());
@@ -16,32 +16,57 @@
 
 package org.springframework.context.annotation;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.aop.scope.ScopedProxyFactoryBean;
+import org.springframework.asm.Type;
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.support.SimpleInstantiationStrategy;
+import org.springframework.cglib.core.ClassGenerator;
+import org.springframework.cglib.core.Constants;
+import org.springframework.cglib.core.DefaultGeneratorStrategy;
 import org.springframework.cglib.proxy.Callback;
 import org.springframework.cglib.proxy.CallbackFilter;
 import org.springframework.cglib.proxy.Enhancer;
 import org.springframework.cglib.proxy.MethodInterceptor;
 import org.springframework.cglib.proxy.MethodProxy;
 import org.springframework.cglib.proxy.NoOp;
+import org.springframework.cglib.transform.ClassEmitterTransformer;
+import org.springframework.cglib.transform.TransformingClassGenerator;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Enhances {@link Configuration} classes by generating a CGLIB subclass capable of
  * interacting with the Spring container to respect bean semantics.
  *
+ * <p>Enhanced subclasses do not hold any container-specific state in their callbacks:
+ * The owning BeanFactory gets injected into each instance through the
+ * {@link EnhancedConfiguration} interface. Hence, an enhanced class can be shared
+ * between all application contexts using the same configuration class, with each
+ * configuration class getting enhanced only once per ClassLoader.
+ *
+ * <p>Enhanced classes may also be pre-generated at build time through
+ * {@link ConfigurationClassPregenerator}, in which case they are simply loaded
+ * from the application's class path instead of getting generated at runtime.
+ *
  * @author Chris Beams
  * @author Juergen Hoeller
  * @since 3.0
@@ -50,31 +75,35 @@ import org.springframework.util.Assert;
  */
 class ConfigurationClassEnhancer {
 
+	/**
+	 * Suffix of the names of enhanced classes pre-generated at build time.
+	 * @see ConfigurationClassPregenerator
+	 */
+	static final String PREGENERATED_CLASS_SUFFIX = "$$PregeneratedConfiguration";
+
+	private static final String BEAN_FACTORY_FIELD = "$$beanFactory";
+
 	private static final Log logger = LogFactory.getLog(ConfigurationClassEnhancer.class);
 
 	private static final CallbackFilter CALLBACK_FILTER = new ConfigurationClassCallbackFilter();
 
-	private static final Callback DISPOSABLE_BEAN_METHOD_INTERCEPTOR = new DisposableBeanMethodInterceptor();
+	private static final Class<?>[] CALLBACK_TYPES = {BeanMethodInterceptor.class,
+			BeanFactoryAwareMethodInterceptor.class, DisposableBeanMethodInterceptor.class, NoOp.class};
 
-	private static final Class<?>[] CALLBACK_TYPES =
-			{BeanMethodInterceptor.class, DisposableBeanMethodInterceptor.class, NoOp.class};
+	// Callback instances must be ordered in the same way as CALLBACK_TYPES and CALLBACK_FILTER
+	private static final Callback[] CALLBACKS = {new BeanMethodInterceptor(),
+			new BeanFactoryAwareMethodInterceptor(), new DisposableBeanMethodInterceptor(), NoOp.INSTANCE};
 
-	private final Callback[] callbackInstances;
+	/** Enhanced classes per configuration class, not preventing either from getting garbage-collected */
+	private static final Map<Class<?>, Reference<Class<?>>> enhancedClassCache =
+			Collections.synchronizedMap(new WeakHashMap<Class<?>, Reference<Class<?>>>());
 
 
-	/**
-	 * Creates a new {@link ConfigurationClassEnhancer} instance.
-	 */
-	public ConfigurationClassEnhancer(ConfigurableBeanFactory beanFactory) {
-		Assert.notNull(beanFactory, "BeanFactory must not be null");
-		// Callback instances must be ordered in the same way as CALLBACK_TYPES and CALLBACK_FILTER
-		this.callbackInstances = new Callback[]
-				{new BeanMethodInterceptor(beanFactory), DISPOSABLE_BEAN_METHOD_INTERCEPTOR, NoOp.INSTANCE};
-	}
-
 	/**
 	 * Loads the specified class and generates a CGLIB subclass of it equipped with
 	 * container-aware callbacks capable of respecting scoping and other bean semantics.
+	 * <p>Reuses a previously enhanced class for the same configuration class, if any,
+	 * or a {@link ConfigurationClassPregenerator pre-generated} class if available.
 	 * @return the enhanced subclass
 	 */
 	public Class<?> enhance(Class<?> configClass) {
@@ -89,22 +118,58 @@ class ConfigurationClassEnhancer {
 			}
 			return configClass;
 		}
-		Class<?> enhancedClass = createClass(newEnhancer(configClass));
-		if (logger.isDebugEnabled()) {
-			logger.debug(String.format("Successfully enhanced %s; enhanced class name is: %s",
-					configClass.getName(), enhancedClass.getName()));
+		Reference<Class<?>> cachedClass = enhancedClassCache.get(configClass);
+		Class<?> enhancedClass = (cachedClass != null ? cachedClass.get() : null);
+		if (enhancedClass != null) {
+			return enhancedClass;
+		}
+		enhancedClass = loadPregeneratedClass(configClass);
+		if (enhancedClass == null) {
+			enhancedClass = createClass(newEnhancer(configClass));
+			if (logger.isDebugEnabled()) {
+				logger.debug(String.format("Successfully enhanced %s; enhanced class name is: %s",
+						configClass.getName(), enhancedClass.getName()));
+			}
 		}
+		enhancedClassCache.put(configClass, new WeakReference<Class<?>>(enhancedClass));
 		return enhancedClass;
 	}
 
+	/**
+	 * Load an enhanced class for the given configuration class that has been
+	 * pre-generated at build time, if available.
+	 * @return the pre-generated class, or {@code null} if none found
+	 */
+	private Class<?> loadPregeneratedClass(Class<?> configClass) {
+		String className = configClass.getName() + PREGENERATED_CLASS_SUFFIX;
+		ClassLoader classLoader = configClass.getClassLoader();
+		if (!ClassUtils.isPresent(className, classLoader)) {
+			return null;
+		}
+		Class<?> pregeneratedClass = ClassUtils.resolveClassName(className, classLoader);
+		if (pregeneratedClass.getSuperclass() != configClass ||
+				!EnhancedConfiguration.class.isAssignableFrom(pregeneratedClass)) {
+			if (logger.isWarnEnabled()) {
+				logger.warn("Ignoring incompatible pre-generated configuration class [" + className + "]");
+			}
+			return null;
+		}
+		Enhancer.registerStaticCallbacks(pregeneratedClass, CALLBACKS);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Using pre-generated enhanced class for " + configClass.getName());
+		}
+		return pregeneratedClass;
+	}
+
 	/**
 	 * Creates a new CGLIB {@link Enhancer} instance.
 	 */
-	private Enhancer newEnhancer(Class<?> superclass) {
+	static Enhancer newEnhancer(Class<?> superclass) {
 		Enhancer enhancer = new Enhancer();
 		enhancer.setSuperclass(superclass);
 		enhancer.setInterfaces(new Class[] {EnhancedConfiguration.class});
 		enhancer.setUseFactory(false);
+		enhancer.setStrategy(new BeanFactoryAwareGeneratorStrategy());
 		enhancer.setCallbackFilter(CALLBACK_FILTER);
 		enhancer.setCallbackTypes(CALLBACK_TYPES);
 		return enhancer;
@@ -112,36 +177,55 @@ class ConfigurationClassEnhancer {
 
 	/**
 	 * Uses enhancer to generate a subclass of superclass, ensuring that
-	 * {@link #callbackInstances} are registered for the new subclass.
+	 * {@link #CALLBACKS} are registered for the new subclass.
 	 */
-	private Class<?> createClass(Enhancer enhancer) {
+	static Class<?> createClass(Enhancer enhancer) {
 		Class<?> subclass = enhancer.createClass();
 		// registering callbacks statically (as opposed to threadlocal) is critical for usage in an OSGi env (SPR-5932)
-		Enhancer.registerStaticCallbacks(subclass, this.callbackInstances);
+		Enhancer.registerStaticCallbacks(subclass, CALLBACKS);
 		return subclass;
 	}
 
 
-
 	/**
 	 * Marker interface to be implemented by all @Configuration CGLIB subclasses.
 	 * Facilitates idempotent behavior for {@link ConfigurationClassEnhancer#enhance(Class)}
 	 * through checking to see if candidate classes are already assignable to it, e.g.
 	 * have already been enhanced.
-	 * <p>Also extends {@link DisposableBean}, as all enhanced
-	 * {@code @Configuration} classes must de-register static CGLIB callbacks on
-	 * destruction, which is handled by the (private) {@code DisposableBeanMethodInterceptor}.
+	 * <p>Also extends {@link BeanFactoryAware}, receiving the owning BeanFactory which
+	 * the (stateless) callbacks refer to, and {@link DisposableBean}, releasing the
+	 * BeanFactory reference on destruction; both handled by private method interceptors.
 	 * <p>Note that this interface is intended for framework-internal use only, however
 	 * must remain public in order to allow access to subclasses generated from other
 	 * packages (i.e. user code).
 	 */
-	public interface EnhancedConfiguration extends DisposableBean {
+	public interface EnhancedConfiguration extends BeanFactoryAware, DisposableBean {
+	}
+
+
+	/**
+	 * CGLIB GeneratorStrategy that declares a public field for the owning BeanFactory
+	 * in each generated class.
+	 */
+	static class BeanFactoryAwareGeneratorStrategy extends DefaultGeneratorStrategy {
+
+		@Override
+		protected ClassGenerator transform(ClassGenerator cg) throws Exception {
+			ClassEmitterTransformer transformer = new ClassEmitterTransformer() {
+				@Override
+				public void end_class() {
+					declare_field(Constants.ACC_PUBLIC, BEAN_FACTORY_FIELD, Type.getType(BeanFactory.class), null);
+					super.end_class();
+				}
+			};
+			return new TransformingClassGenerator(cg, transformer);
+		}
 	}
 
 
 	/**
-	 * CGLIB CallbackFilter implementation that points to BeanMethodInterceptor and
-	 * DisposableBeanMethodInterceptor.
+	 * CGLIB CallbackFilter implementation that points to BeanMethodInterceptor,
+	 * BeanFactoryAwareMethodInterceptor and DisposableBeanMethodInterceptor.
 	 */
 	private static class ConfigurationClassCallbackFilter implements CallbackFilter {
 
@@ -151,10 +235,13 @@ class ConfigurationClassEnhancer {
 			if (BeanAnnotationHelper.isBeanAnnotated(candidateMethod)) {
 				return 0;
 			}
-			if (DisposableBeanMethodInterceptor.isDestroyMethod(candidateMethod)) {
+			if (BeanFactoryAwareMethodInterceptor.isSetBeanFactory(candidateMethod)) {
 				return 1;
 			}
-			return 2;
+			if (DisposableBeanMethodInterceptor.isDestroyMethod(candidateMethod)) {
+				return 2;
+			}
+			return 3;
 		}
 	}
 
@@ -163,7 +250,7 @@ class ConfigurationClassEnhancer {
 	 * Intercepts calls to {@link FactoryBean#getObject()}, delegating to calling
 	 * {@link BeanFactory#getBean(String)} in order to respect caching / scoping.
 	 * @see BeanMethodInterceptor#intercept(Object, Method, Object[], MethodProxy)
-	 * @see BeanMethodInterceptor#enhanceFactoryBean(Class, String)
+	 * @see BeanMethodInterceptor#enhanceFactoryBean(Class, ConfigurableBeanFactory, String)
 	 */
 	private static class GetObjectMethodInterceptor implements MethodInterceptor {
 
@@ -182,16 +269,48 @@ class ConfigurationClassEnhancer {
 	}
 
 
+	/**
+	 * Intercepts the invocation of {@link BeanFactoryAware#setBeanFactory} on @Configuration
+	 * class instances, storing the BeanFactory in the generated field for use by the
+	 * {@link BeanMethodInterceptor}.
+	 * @see EnhancedConfiguration
+	 */
+	private static class BeanFactoryAwareMethodInterceptor implements MethodInterceptor {
+
+		public Object intercept(Object obj, Method method, Object[] args, MethodProxy proxy) throws Throwable {
+			Field field = ReflectionUtils.findField(obj.getClass(), BEAN_FACTORY_FIELD);
+			Assert.state(field != null, "Unable to find generated BeanFactory field");
+			field.set(obj, args[0]);
+			// does the actual (non-CGLIB) superclass actually implement BeanFactoryAware?
+			// if so, call its setBeanFactory() method. If not, just exit.
+			if (BeanFactoryAware.class.isAssignableFrom(obj.getClass().getSuperclass())) {
+				return proxy.invokeSuper(obj, args);
+			}
+			return null;
+		}
+
+		public static boolean isSetBeanFactory(Method candidateMethod) {
+			return candidateMethod.getName().equals("setBeanFactory") &&
+				candidateMethod.getParameterTypes().length == 1 &&
+				BeanFactory.class == candidateMethod.getParameterTypes()[0] &&
+				BeanFactoryAware.class.isAssignableFrom(candidateMethod.getDeclaringClass());
+		}
+	}
+
+
 	/**
 	 * Intercepts the invocation of any {@link DisposableBean#destroy()} on @Configuration
-	 * class instances for the purpose of de-registering CGLIB callbacks. This helps avoid
-	 * garbage collection issues. See SPR-7901.
+	 * class instances for the purpose of releasing the BeanFactory reference. This helps
+	 * avoid garbage collection issues. See SPR-7901.
 	 * @see EnhancedConfiguration
 	 */
 	private static class DisposableBeanMethodInterceptor implements MethodInterceptor {
 
 		public Object intercept(Object obj, Method method, Object[] args, MethodProxy proxy) throws Throwable {
-			Enhancer.registerStaticCallbacks(obj.getClass(), null);
+			Field field = ReflectionUtils.findField(obj.getClass(), BEAN_FACTORY_FIELD);
+			if (field != null) {
+				field.set(obj, null);
+			}
 			// does the actual (non-CGLIB) superclass actually implement DisposableBean?
 			// if so, call its dispose() method. If not, just exit.
 			if (DisposableBean.class.isAssignableFrom(obj.getClass().getSuperclass())) {
@@ -224,12 +343,6 @@ class ConfigurationClassEnhancer {
 			}
 		};
 
-		private final ConfigurableBeanFactory beanFactory;
-
-		public BeanMethodInterceptor(ConfigurableBeanFactory beanFactory) {
-			this.beanFactory = beanFactory;
-		}
-
 		/**
 		 * Enhance a {@link Bean @Bean} method to check the supplied BeanFactory for the
 		 * existence of this bean object.
@@ -240,13 +353,14 @@ class ConfigurationClassEnhancer {
 		public Object intercept(Object enhancedConfigInstance, Method beanMethod, Object[] beanMethodArgs,
 					MethodProxy cglibMethodProxy) throws Throwable {
 
+			ConfigurableBeanFactory beanFactory = getBeanFactory(enhancedConfigInstance);
 			String beanName = BeanAnnotationHelper.determineBeanNameFor(beanMethod);
 
 			// determine whether this bean is a scoped-proxy
 			Scope scope = AnnotationUtils.findAnnotation(beanMethod, Scope.class);
 			if (scope != null && scope.proxyMode() != ScopedProxyMode.NO) {
 				String scopedBeanName = ScopedProxyCreator.getTargetBeanName(beanName);
-				if (this.beanFactory.isCurrentlyInCreation(scopedBeanName)) {
+				if (beanFactory.isCurrentlyInCreation(scopedBeanName)) {
 					beanName = scopedBeanName;
 				}
 			}
@@ -258,19 +372,20 @@ class ConfigurationClassEnhancer {
 			// proxy that intercepts calls to getObject() and returns any cached bean instance.
 			// this ensures that the semantics of calling a FactoryBean from within @Bean methods
 			// is the same as that of referring to a FactoryBean within XML. See SPR-6602.
-			if (factoryContainsBean(BeanFactory.FACTORY_BEAN_PREFIX + beanName) && factoryContainsBean(beanName)) {
-				Object factoryBean = this.beanFactory.getBean(BeanFactory.FACTORY_BEAN_PREFIX + beanName);
+			if (factoryContainsBean(beanFactory, BeanFactory.FACTORY_BEAN_PREFIX + beanName) &&
+					factoryContainsBean(beanFactory, beanName)) {
+				Object factoryBean = beanFactory.getBean(BeanFactory.FACTORY_BEAN_PREFIX + beanName);
 				if (factoryBean instanceof ScopedProxyFactoryBean) {
 					// pass through - scoped proxy factory beans are a special case and should not
 					// be further proxied
 				}
 				else {
 					// it is a candidate FactoryBean - go ahead with enhancement
-					return enhanceFactoryBean(factoryBean.getClass(), beanName);
+					return enhanceFactoryBean(factoryBean.getClass(), beanFactory, beanName);
 				}
 			}
 
-			if (isCurrentlyInvokedFactoryMethod(beanMethod) && !this.beanFactory.containsSingleton(beanName)) {
+			if (isCurrentlyInvokedFactoryMethod(beanMethod) && !beanFactory.containsSingleton(beanName)) {
 				// the factory is calling the bean method in order to instantiate and register the bean
 				// (i.e. via a getBean() call) -> invoke the super implementation of the method to actually
 				// create the bean instance.
@@ -290,22 +405,35 @@ class ConfigurationClassEnhancer {
 				// call to the bean method, direct or indirect. The bean may have already been
 				// marked as 'in creation' in certain autowiring scenarios; if so, temporarily
 				// set the in-creation status to false in order to avoid an exception.
-				boolean alreadyInCreation = this.beanFactory.isCurrentlyInCreation(beanName);
+				boolean alreadyInCreation = beanFactory.isCurrentlyInCreation(beanName);
 				try {
 					if (alreadyInCreation) {
-						this.beanFactory.setCurrentlyInCreation(beanName, false);
+						beanFactory.setCurrentlyInCreation(beanName, false);
 					}
-					return this.beanFactory.getBean(beanName);
+					return beanFactory.getBean(beanName);
 				}
 				finally {
 					if (alreadyInCreation) {
-						this.beanFactory.setCurrentlyInCreation(beanName, true);
+						beanFactory.setCurrentlyInCreation(beanName, true);
 					}
 				}
 			}
 
 		}
 
+		/**
+		 * Retrieve the BeanFactory that the given enhanced configuration instance
+		 * has been injected with.
+		 */
+		private ConfigurableBeanFactory getBeanFactory(Object enhancedConfigInstance) {
+			Field field = ReflectionUtils.findField(enhancedConfigInstance.getClass(), BEAN_FACTORY_FIELD);
+			Assert.state(field != null, "Unable to find generated BeanFactory field");
+			Object beanFactory = ReflectionUtils.getField(field, enhancedConfigInstance);
+			Assert.state(beanFactory instanceof ConfigurableBeanFactory,
+					"BeanFactory has not been injected into @Configuration class");
+			return (ConfigurableBeanFactory) beanFactory;
+		}
+
 		/**
 		 * Check the BeanFactory to see whether the bean named <var>beanName</var> already
 		 * exists. Accounts for the fact that the requested bean may be "in creation", i.e.:
@@ -316,11 +444,12 @@ class ConfigurationClassEnhancer {
 		 * <p>Said another way, this check repurposes
 		 * {@link ConfigurableBeanFactory#isCurrentlyInCreation(String)} to determine whether
 		 * the container is calling this method or the user is calling this method.
+		 * @param beanFactory the BeanFactory to check
 		 * @param beanName name of bean to check for
 		 * @return whether <var>beanName</var> already exists in the factory
 		 */
-		private boolean factoryContainsBean(String beanName) {
-			return (this.beanFactory.containsBean(beanName) && !this.beanFactory.isCurrentlyInCreation(beanName));
+		private boolean factoryContainsBean(ConfigurableBeanFactory beanFactory, String beanName) {
+			return (beanFactory.containsBean(beanName) && !beanFactory.isCurrentlyInCreation(beanName));
 		}
 
 		/**
@@ -342,14 +471,16 @@ class ConfigurationClassEnhancer {
 		 * instance directly. If a FactoryBean instance is fetched through the container via &-dereferencing,
 		 * it will not be proxied. This too is aligned with the way XML configuration works.
 		 */
-		private Object enhanceFactoryBean(Class<?> fbClass, String beanName) throws InstantiationException, IllegalAccessException {
+		private Object enhanceFactoryBean(Class<?> fbClass, ConfigurableBeanFactory beanFactory, String beanName)
+				throws InstantiationException, IllegalAccessException {
+
 			Enhancer enhancer = new Enhancer();
 			enhancer.setSuperclass(fbClass);
 			enhancer.setUseFactory(false);
 			enhancer.setCallbackFilter(CALLBACK_FILTER);
 			// Callback instances must be ordered in the same way as CALLBACK_TYPES and CALLBACK_FILTER
 			Callback[] callbackInstances = new Callback[] {
-					new GetObjectMethodInterceptor(this.beanFactory, beanName),
+					new GetObjectMethodInterceptor(beanFactory, beanName),
 					NoOp.INSTANCE
 			};
 			enhancer.setCallbackTypes(CALLBACK_TYPES);
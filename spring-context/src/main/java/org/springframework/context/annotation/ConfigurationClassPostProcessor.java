@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2013 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -58,6 +58,7 @@ import org.springframework.core.env.MutablePropertySources;
 import org.springframework.core.env.PropertySource;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
@@ -275,21 +276,29 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		ConfigurationClassParser parser = new ConfigurationClassParser(
 				this.metadataReaderFactory, this.problemReporter, this.environment,
 				this.resourceLoader, this.componentScanBeanNameGenerator, registry);
-		for (BeanDefinitionHolder holder : configCandidates) {
-			BeanDefinition bd = holder.getBeanDefinition();
-			try {
-				if (bd instanceof AbstractBeanDefinition && ((AbstractBeanDefinition) bd).hasBeanClass()) {
-					parser.parse(((AbstractBeanDefinition) bd).getBeanClass(), holder.getBeanName());
+		StartupStep processConfig = ClassPathBeanDefinitionScanner.getApplicationStartup(registry)
+				.start("spring.context.config-classes.parse");
+		try {
+			for (BeanDefinitionHolder holder : configCandidates) {
+				BeanDefinition bd = holder.getBeanDefinition();
+				try {
+					if (bd instanceof AbstractBeanDefinition && ((AbstractBeanDefinition) bd).hasBeanClass()) {
+						parser.parse(((AbstractBeanDefinition) bd).getBeanClass(), holder.getBeanName());
+					}
+					else {
+						parser.parse(bd.getBeanClassName(), holder.getBeanName());
+					}
 				}
-				else {
-					parser.parse(bd.getBeanClassName(), holder.getBeanName());
+				catch (IOException ex) {
+					throw new BeanDefinitionStoreException("Failed to load bean class: " + bd.getBeanClassName(), ex);
 				}
 			}
-			catch (IOException ex) {
-				throw new BeanDefinitionStoreException("Failed to load bean class: " + bd.getBeanClassName(), ex);
-			}
+			parser.validate();
+			processConfig.tag("classCount", String.valueOf(parser.getConfigurationClasses().size()));
+		}
+		finally {
+			processConfig.end();
 		}
-		parser.validate();
 
 		// Handle any @PropertySource annotations
 		Stack<PropertySource<?>> parsedPropertySources = parser.getPropertySources();
@@ -348,23 +357,31 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			// nothing to enhance -> return immediately
 			return;
 		}
-		ConfigurationClassEnhancer enhancer = new ConfigurationClassEnhancer(beanFactory);
-		for (Map.Entry<String, AbstractBeanDefinition> entry : configBeanDefs.entrySet()) {
-			AbstractBeanDefinition beanDef = entry.getValue();
-			try {
-				Class<?> configClass = beanDef.resolveBeanClass(this.beanClassLoader);
-				Class<?> enhancedClass = enhancer.enhance(configClass);
-				if (configClass != enhancedClass) {
-					if (logger.isDebugEnabled()) {
-						logger.debug(String.format("Replacing bean definition '%s' existing class name '%s' " +
-								"with enhanced class name '%s'", entry.getKey(), configClass.getName(), enhancedClass.getName()));
+		StartupStep enhanceConfigClasses = beanFactory.getApplicationStartup()
+				.start("spring.context.config-classes.enhance")
+				.tag("classCount", String.valueOf(configBeanDefs.size()));
+		try {
+			ConfigurationClassEnhancer enhancer = new ConfigurationClassEnhancer();
+			for (Map.Entry<String, AbstractBeanDefinition> entry : configBeanDefs.entrySet()) {
+				AbstractBeanDefinition beanDef = entry.getValue();
+				try {
+					Class<?> configClass = beanDef.resolveBeanClass(this.beanClassLoader);
+					Class<?> enhancedClass = enhancer.enhance(configClass);
+					if (configClass != enhancedClass) {
+						if (logger.isDebugEnabled()) {
+							logger.debug(String.format("Replacing bean definition '%s' existing class name '%s' " +
+									"with enhanced class name '%s'", entry.getKey(), configClass.getName(), enhancedClass.getName()));
+						}
+						beanDef.setBeanClass(enhancedClass);
 					}
-					beanDef.setBeanClass(enhancedClass);
+				}
+				catch (Throwable ex) {
+					throw new IllegalStateException("Cannot load configuration class: " + beanDef.getBeanClassName(), ex);
 				}
 			}
-			catch (Throwable ex) {
-				throw new IllegalStateException("Cannot load configuration class: " + beanDef.getBeanClassName(), ex);
-			}
+		}
+		finally {
+			enhanceConfigClasses.end();
 		}
 	}
 
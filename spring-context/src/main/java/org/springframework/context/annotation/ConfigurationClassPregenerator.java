@@ -0,0 +1,175 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.cglib.core.ClassGenerator;
+import org.springframework.cglib.core.NamingPolicy;
+import org.springframework.cglib.core.Predicate;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Build-time tool that pre-generates the CGLIB subclasses of {@link Configuration}
+ * classes, writing them out as class files to be packaged with the application.
+ * At runtime, a pre-generated class gets picked up from the class path, and the
+ * bytecode generation step for the corresponding configuration class is skipped.
+ *
+ * <p>Invoke {@link #main} with the output directory (typically the compiled classes
+ * directory of the application) as first argument, followed by the fully-qualified
+ * names of the configuration classes to pre-generate, e.g. from a Gradle
+ * {@code JavaExec} task that runs after {@code compileJava}:
+ *
+ * <pre class="code">
+ * task pregenerateConfigurationClasses(type: JavaExec) {
+ *     classpath = sourceSets.main.runtimeClasspath
+ *     main = "org.springframework.context.annotation.ConfigurationClassPregenerator"
+ *     args = [sourceSets.main.output.classesDir, "com.mycompany.AppConfig"]
+ * }</pre>
+ *
+ * Pre-generated classes must be regenerated whenever their configuration classes
+ * change; a pre-generated class that does not match its configuration class any
+ * longer gets ignored at runtime.
+ *
+ * @author agent
+ * @since 4.0
+ * @see ConfigurationClassEnhancer
+ */
+public class ConfigurationClassPregenerator {
+
+	private final File outputDirectory;
+
+
+	/**
+	 * Create a new ConfigurationClassPregenerator for the given output directory.
+	 * @param outputDirectory the root directory to write class files to
+	 */
+	public ConfigurationClassPregenerator(File outputDirectory) {
+		Assert.notNull(outputDirectory, "Output directory must not be null");
+		this.outputDirectory = outputDirectory;
+	}
+
+
+	/**
+	 * Generate the enhanced subclass for the given configuration class
+	 * and write it to the output directory.
+	 * @param configClass the configuration class to enhance
+	 * @return the class file that has been written
+	 * @throws IOException in case of I/O errors
+	 */
+	public File pregenerate(Class<?> configClass) throws IOException {
+		Assert.notNull(configClass, "Configuration class must not be null");
+		String className = configClass.getName() + ConfigurationClassEnhancer.PREGENERATED_CLASS_SUFFIX;
+		Enhancer enhancer = ConfigurationClassEnhancer.newEnhancer(configClass);
+		CapturingGeneratorStrategy strategy = new CapturingGeneratorStrategy();
+		enhancer.setStrategy(strategy);
+		enhancer.setNamingPolicy(new FixedNamingPolicy(className));
+		enhancer.setUseCache(false);
+		try {
+			enhancer.createClass();
+		}
+		catch (BytecodeCapturedException ex) {
+			// expected: class generated but not defined in the current ClassLoader
+		}
+
+		File classFile = new File(this.outputDirectory, ClassUtils.convertClassNameToResourcePath(className) +
+				ClassUtils.CLASS_FILE_SUFFIX);
+		File parent = classFile.getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Unable to create directory " + parent);
+		}
+		OutputStream out = new FileOutputStream(classFile);
+		try {
+			out.write(strategy.getBytecode());
+		}
+		finally {
+			out.close();
+		}
+		return classFile;
+	}
+
+
+	/**
+	 * Pre-generate the enhanced subclasses for the given configuration classes.
+	 * @param args the output directory, followed by the names of the configuration classes
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length < 2) {
+			System.err.println("Usage: ConfigurationClassPregenerator <outputDirectory> <configClassName>...");
+			System.exit(1);
+		}
+		ConfigurationClassPregenerator pregenerator = new ConfigurationClassPregenerator(new File(args[0]));
+		ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+		for (int i = 1; i < args.length; i++) {
+			File classFile = pregenerator.pregenerate(ClassUtils.forName(args[i], classLoader));
+			System.out.println("Generated " + classFile);
+		}
+	}
+
+
+	/**
+	 * Enhancer strategy that keeps hold of the generated bytecode, aborting
+	 * class definition afterwards: The pre-generated class is not meant to be
+	 * used within the generating process.
+	 */
+	private static class CapturingGeneratorStrategy extends ConfigurationClassEnhancer.BeanFactoryAwareGeneratorStrategy {
+
+		private byte[] bytecode;
+
+		@Override
+		public byte[] generate(ClassGenerator cg) throws Exception {
+			this.bytecode = super.generate(cg);
+			throw new BytecodeCapturedException();
+		}
+
+		public byte[] getBytecode() {
+			Assert.state(this.bytecode != null, "No class generated");
+			return this.bytecode;
+		}
+	}
+
+
+	/**
+	 * Signals that the bytecode has been captured.
+	 */
+	@SuppressWarnings("serial")
+	private static class BytecodeCapturedException extends RuntimeException {
+	}
+
+
+	/**
+	 * CGLIB NamingPolicy that returns a fixed class name.
+	 */
+	private static class FixedNamingPolicy implements NamingPolicy {
+
+		private final String className;
+
+		public FixedNamingPolicy(String className) {
+			this.className = className;
+		}
+
+		public String getClassName(String prefix, String source, Object key, Predicate names) {
+			return this.className;
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.springframework.core.Ordered;
+
+/**
+ * Indicates the order in which a {@link Lazy lazy-init} bean gets initialized
+ * during the background warm-up of an application context, if enabled.
+ * Lower values have higher priority; beans without this annotation get
+ * warmed up last, in registration order.
+ *
+ * <p>May be used on any class directly or indirectly annotated with {@link
+ * org.springframework.stereotype.Component @Component} or on methods annotated with
+ * {@link Bean @Bean}. In XML bean definitions, specify a {@code <meta>} entry with the
+ * {@link org.springframework.context.ConfigurableApplicationContext#WARM_UP_ORDER_ATTRIBUTE}
+ * key instead.
+ *
+ * @author agent
+ * @since 4.0
+ * @see Lazy
+ * @see org.springframework.context.support.AbstractApplicationContext#setWarmUpExecutor
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface WarmUpOrder {
+
+	/**
+	 * The warm-up order value. Default is {@link Ordered#LOWEST_PRECEDENCE}.
+	 */
+	int value() default Ordered.LOWEST_PRECEDENCE;
+
+}
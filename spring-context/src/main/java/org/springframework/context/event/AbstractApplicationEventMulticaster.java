@@ -17,11 +17,13 @@
 package org.springframework.context.event;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
@@ -38,6 +40,10 @@ import org.springframework.core.OrderComparator;
  * ApplicationListener objects can be overridden through the "collectionClass"
  * bean property.
  *
+ * <p>Listener retrieval does not acquire any locks: registrations replace an
+ * immutable snapshot of all listeners (copy-on-write), and the listeners
+ * matching a given event and source type are cached per type combination.
+ *
  * <p>Implementing ApplicationEventMulticaster's actual {@link #multicastEvent} method
  * is left to subclasses. {@link SimpleApplicationEventMulticaster} simply multicasts
  * all events to all registered listeners, invoking them in the calling thread.
@@ -50,50 +56,66 @@ import org.springframework.core.OrderComparator;
  */
 public abstract class AbstractApplicationEventMulticaster implements ApplicationEventMulticaster, BeanFactoryAware {
 
-	private final ListenerRetriever defaultRetriever = new ListenerRetriever(false);
+	private volatile ListenerRetriever defaultRetriever =
+			new ListenerRetriever(Collections.<ApplicationListener>emptySet(), Collections.<String>emptySet(), false);
 
-	private final Map<ListenerCacheKey, ListenerRetriever> retrieverCache =
+	private final ConcurrentMap<ListenerCacheKey, ListenerRetriever> retrieverCache =
 			new ConcurrentHashMap<ListenerCacheKey, ListenerRetriever>(64);
 
+	private final Object registrationMonitor = new Object();
+
 	private BeanFactory beanFactory;
 
 
 	public void addApplicationListener(ApplicationListener listener) {
-		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListeners.add(listener);
-			this.retrieverCache.clear();
+		synchronized (this.registrationMonitor) {
+			Set<ApplicationListener> listeners =
+					new LinkedHashSet<ApplicationListener>(this.defaultRetriever.applicationListeners);
+			listeners.add(listener);
+			updateDefaultRetriever(listeners, this.defaultRetriever.applicationListenerBeans);
 		}
 	}
 
 	public void addApplicationListenerBean(String listenerBeanName) {
-		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListenerBeans.add(listenerBeanName);
-			this.retrieverCache.clear();
+		synchronized (this.registrationMonitor) {
+			Set<String> listenerBeans = new LinkedHashSet<String>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.add(listenerBeanName);
+			updateDefaultRetriever(this.defaultRetriever.applicationListeners, listenerBeans);
 		}
 	}
 
 	public void removeApplicationListener(ApplicationListener listener) {
-		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListeners.remove(listener);
-			this.retrieverCache.clear();
+		synchronized (this.registrationMonitor) {
+			Set<ApplicationListener> listeners =
+					new LinkedHashSet<ApplicationListener>(this.defaultRetriever.applicationListeners);
+			listeners.remove(listener);
+			updateDefaultRetriever(listeners, this.defaultRetriever.applicationListenerBeans);
 		}
 	}
 
 	public void removeApplicationListenerBean(String listenerBeanName) {
-		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListenerBeans.remove(listenerBeanName);
-			this.retrieverCache.clear();
+		synchronized (this.registrationMonitor) {
+			Set<String> listenerBeans = new LinkedHashSet<String>(this.defaultRetriever.applicationListenerBeans);
+			listenerBeans.remove(listenerBeanName);
+			updateDefaultRetriever(this.defaultRetriever.applicationListeners, listenerBeans);
 		}
 	}
 
 	public void removeAllListeners() {
-		synchronized (this.defaultRetriever) {
-			this.defaultRetriever.applicationListeners.clear();
-			this.defaultRetriever.applicationListenerBeans.clear();
-			this.retrieverCache.clear();
+		synchronized (this.registrationMonitor) {
+			updateDefaultRetriever(Collections.<ApplicationListener>emptySet(), Collections.<String>emptySet());
 		}
 	}
 
+	/**
+	 * Publish a new snapshot of all registered listeners
+	 * and discard all pre-filtered listeners.
+	 */
+	private void updateDefaultRetriever(Set<ApplicationListener> listeners, Set<String> listenerBeans) {
+		this.defaultRetriever = new ListenerRetriever(listeners, listenerBeans, false);
+		this.retrieverCache.clear();
+	}
+
 	public final void setBeanFactory(BeanFactory beanFactory) {
 		this.beanFactory = beanFactory;
 	}
@@ -113,9 +135,7 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 	 * @see org.springframework.context.ApplicationListener
 	 */
 	protected Collection<ApplicationListener> getApplicationListeners() {
-		synchronized (this.defaultRetriever) {
-			return this.defaultRetriever.getApplicationListeners();
-		}
+		return this.defaultRetriever.getApplicationListeners();
 	}
 
 	/**
@@ -135,32 +155,33 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 			return retriever.getApplicationListeners();
 		}
 		else {
-			retriever = new ListenerRetriever(true);
+			ListenerRetriever defaultRetriever = this.defaultRetriever;
+			Set<ApplicationListener> filteredListeners = new LinkedHashSet<ApplicationListener>();
+			Set<String> filteredListenerBeans = new LinkedHashSet<String>();
 			LinkedList<ApplicationListener> allListeners = new LinkedList<ApplicationListener>();
-			Set<ApplicationListener> listeners;
-			Set<String> listenerBeans;
-			synchronized (this.defaultRetriever) {
-				listeners = new LinkedHashSet<ApplicationListener>(this.defaultRetriever.applicationListeners);
-				listenerBeans = new LinkedHashSet<String>(this.defaultRetriever.applicationListenerBeans);
-			}
-			for (ApplicationListener listener : listeners) {
+			for (ApplicationListener listener : defaultRetriever.applicationListeners) {
 				if (supportsEvent(listener, eventType, sourceType)) {
-					retriever.applicationListeners.add(listener);
+					filteredListeners.add(listener);
 					allListeners.add(listener);
 				}
 			}
-			if (!listenerBeans.isEmpty()) {
+			if (!defaultRetriever.applicationListenerBeans.isEmpty()) {
 				BeanFactory beanFactory = getBeanFactory();
-				for (String listenerBeanName : listenerBeans) {
+				for (String listenerBeanName : defaultRetriever.applicationListenerBeans) {
 					ApplicationListener listener = beanFactory.getBean(listenerBeanName, ApplicationListener.class);
 					if (!allListeners.contains(listener) && supportsEvent(listener, eventType, sourceType)) {
-						retriever.applicationListenerBeans.add(listenerBeanName);
+						filteredListenerBeans.add(listenerBeanName);
 						allListeners.add(listener);
 					}
 				}
 			}
 			OrderComparator.sort(allListeners);
+			retriever = new ListenerRetriever(filteredListeners, filteredListenerBeans, true);
 			this.retrieverCache.put(cacheKey, retriever);
+			if (this.defaultRetriever != defaultRetriever) {
+				// registrations changed in the meantime: do not keep the outdated result
+				this.retrieverCache.remove(cacheKey, retriever);
+			}
 			return allListeners;
 		}
 	}
@@ -217,7 +238,7 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 
 
 	/**
-	 * Helper class that encapsulates a specific set of target listeners,
+	 * Helper class that encapsulates an immutable set of target listeners,
 	 * allowing for efficient retrieval of pre-filtered listeners.
 	 * <p>An instance of this helper gets cached per event type and source type.
 	 */
@@ -229,24 +250,35 @@ public abstract class AbstractApplicationEventMulticaster implements Application
 
 		private final boolean preFiltered;
 
-		public ListenerRetriever(boolean preFiltered) {
-			this.applicationListeners = new LinkedHashSet<ApplicationListener>();
-			this.applicationListenerBeans = new LinkedHashSet<String>();
+		// sorted listeners, if they do not depend on listener bean lookups
+		private final List<ApplicationListener> sortedListeners;
+
+		public ListenerRetriever(Set<ApplicationListener> applicationListeners,
+				Set<String> applicationListenerBeans, boolean preFiltered) {
+
+			this.applicationListeners = Collections.unmodifiableSet(applicationListeners);
+			this.applicationListenerBeans = Collections.unmodifiableSet(applicationListenerBeans);
 			this.preFiltered = preFiltered;
+			if (applicationListenerBeans.isEmpty()) {
+				LinkedList<ApplicationListener> listeners = new LinkedList<ApplicationListener>(applicationListeners);
+				OrderComparator.sort(listeners);
+				this.sortedListeners = Collections.unmodifiableList(listeners);
+			}
+			else {
+				this.sortedListeners = null;
+			}
 		}
 
 		public Collection<ApplicationListener> getApplicationListeners() {
-			LinkedList<ApplicationListener> allListeners = new LinkedList<ApplicationListener>();
-			for (ApplicationListener listener : this.applicationListeners) {
-				allListeners.add(listener);
+			if (this.sortedListeners != null) {
+				return this.sortedListeners;
 			}
-			if (!this.applicationListenerBeans.isEmpty()) {
-				BeanFactory beanFactory = getBeanFactory();
-				for (String listenerBeanName : this.applicationListenerBeans) {
-					ApplicationListener listener = beanFactory.getBean(listenerBeanName, ApplicationListener.class);
-					if (this.preFiltered || !allListeners.contains(listener)) {
-						allListeners.add(listener);
-					}
+			LinkedList<ApplicationListener> allListeners = new LinkedList<ApplicationListener>(this.applicationListeners);
+			BeanFactory beanFactory = getBeanFactory();
+			for (String listenerBeanName : this.applicationListenerBeans) {
+				ApplicationListener listener = beanFactory.getBean(listenerBeanName, ApplicationListener.class);
+				if (this.preFiltered || !allListeners.contains(listener)) {
+					allListeners.add(listener);
 				}
 			}
 			OrderComparator.sort(allListeners);
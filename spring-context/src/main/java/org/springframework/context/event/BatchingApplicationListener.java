@@ -0,0 +1,45 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.List;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+
+/**
+ * Extended variant of the {@link ApplicationListener} interface,
+ * able to process several events at once.
+ *
+ * <p>A {@link QueueingApplicationEventMulticaster} hands all events that have
+ * queued up for such a listener over in a single call, in publication order.
+ * Other multicasters simply call {@link #onApplicationEvent} for each event.
+ *
+ * @author agent
+ * @since 4.0
+ * @param <E> the specific ApplicationEvent subclass to listen to
+ * @see QueueingApplicationEventMulticaster#setMaxBatchSize
+ */
+public interface BatchingApplicationListener<E extends ApplicationEvent> extends ApplicationListener<E> {
+
+	/**
+	 * Handle the given application events.
+	 * @param events the events to respond to, in publication order
+	 */
+	void onApplicationEvents(List<E> events);
+
+}
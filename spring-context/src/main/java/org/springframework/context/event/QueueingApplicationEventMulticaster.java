@@ -0,0 +1,324 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * Asynchronous implementation of the {@link ApplicationEventMulticaster} interface,
+ * queueing events per listener and delivering them on a TaskExecutor.
+ *
+ * <p>Each listener has its own bounded queue, drained by at most one task at a
+ * time, so that every listener receives its events in publication order and a
+ * slow listener does not hold up any other listener.
+ * {@link BatchingApplicationListener BatchingApplicationListeners} receive
+ * all queued events (up to the {@link #setMaxBatchSize maximum batch size})
+ * in a single call.
+ *
+ * <p>When the queue of a listener is full, the publishing thread blocks until
+ * space becomes available (back-pressure), up to the configured
+ * {@link #setQueueFullTimeout timeout}, after which the event is dropped
+ * for that listener. Exceptions thrown by listeners are passed to the
+ * {@link #setErrorHandler ErrorHandler} and do not affect other listeners.
+ *
+ * <p>Events queued for a listener before its removal are still delivered to it.
+ * A listener that gets added again before its queue has been drained keeps
+ * using that queue, never receiving events from two drain tasks at a time.
+ *
+ * <p>Note that listeners are invoked outside of the publisher's thread context
+ * (class loader, transaction association), and that a listener which publishes
+ * events to itself should not be allowed to fill up its own queue.
+ *
+ * @author agent
+ * @since 4.0
+ * @see SimpleApplicationEventMulticaster
+ */
+public class QueueingApplicationEventMulticaster extends AbstractApplicationEventMulticaster {
+
+	/** The default capacity of each listener queue: 1000 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private Executor taskExecutor = new SimpleAsyncTaskExecutor("event-");
+
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+	private long queueFullTimeout = -1;
+
+	private int maxBatchSize = 100;
+
+	private ErrorHandler errorHandler = TaskUtils.LOG_AND_SUPPRESS_ERROR_HANDLER;
+
+	private final ConcurrentMap<ApplicationListener, ListenerQueue> listenerQueues =
+			new ConcurrentHashMap<ApplicationListener, ListenerQueue>(64);
+
+
+	/**
+	 * Create a new QueueingApplicationEventMulticaster.
+	 */
+	public QueueingApplicationEventMulticaster() {
+	}
+
+	/**
+	 * Create a new QueueingApplicationEventMulticaster for the given BeanFactory.
+	 */
+	public QueueingApplicationEventMulticaster(BeanFactory beanFactory) {
+		setBeanFactory(beanFactory);
+	}
+
+
+	/**
+	 * Set the TaskExecutor to deliver events to listeners on.
+	 * Default is a {@link SimpleAsyncTaskExecutor}.
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		Assert.notNull(taskExecutor, "TaskExecutor must not be null");
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Set the maximum number of pending events per listener.
+	 * Default is {@link #DEFAULT_QUEUE_CAPACITY}.
+	 * <p>Only affects listeners that have not received any events yet.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "'queueCapacity' must be positive");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Set the maximum time (in milliseconds) that a publisher waits for space
+	 * in a full listener queue before dropping the event for that listener.
+	 * Default is -1, i.e. waiting indefinitely.
+	 */
+	public void setQueueFullTimeout(long queueFullTimeout) {
+		this.queueFullTimeout = queueFullTimeout;
+	}
+
+	/**
+	 * Set the maximum number of events to hand over to a
+	 * {@link BatchingApplicationListener} at once. Default is 100.
+	 */
+	public void setMaxBatchSize(int maxBatchSize) {
+		Assert.isTrue(maxBatchSize > 0, "'maxBatchSize' must be positive");
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	/**
+	 * Set the ErrorHandler to pass exceptions thrown by listeners to.
+	 * Default is an ErrorHandler that logs the exception.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		Assert.notNull(errorHandler, "ErrorHandler must not be null");
+		this.errorHandler = errorHandler;
+	}
+
+
+	public void multicastEvent(ApplicationEvent event) {
+		for (ApplicationListener listener : getApplicationListeners(event)) {
+			boolean queued = false;
+			while (!queued) {
+				ListenerQueue queue = this.listenerQueues.get(listener);
+				if (queue == null) {
+					queue = new ListenerQueue(listener);
+					ListenerQueue existing = this.listenerQueues.putIfAbsent(listener, queue);
+					if (existing != null) {
+						queue = existing;
+					}
+				}
+				// a queue that has been drained and retired in the meantime is replaced
+				queued = queue.enqueue(event);
+			}
+		}
+	}
+
+	/**
+	 * Return the number of events waiting for delivery to the given listener.
+	 */
+	public int getPendingEventCount(ApplicationListener listener) {
+		ListenerQueue queue = this.listenerQueues.get(listener);
+		return (queue != null ? queue.events.size() : 0);
+	}
+
+
+	/**
+	 * Queue of pending events for a specific listener,
+	 * delivering them through a single drain task at a time.
+	 * <p>Once drained, the queue retires and removes itself from the map of
+	 * listener queues, so that only listeners with pending events hold a queue.
+	 */
+	private class ListenerQueue implements Runnable {
+
+		private static final int RETIRED = -1;
+
+		private final ApplicationListener listener;
+
+		private final BlockingQueue<ApplicationEvent> events;
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		// number of publishers currently enqueueing, or RETIRED
+		private final AtomicInteger publishers = new AtomicInteger();
+
+		public ListenerQueue(ApplicationListener listener) {
+			this.listener = listener;
+			this.events = new LinkedBlockingQueue<ApplicationEvent>(queueCapacity);
+		}
+
+		/**
+		 * Enqueue the given event for delivery.
+		 * @return {@code false} if this queue has retired and needs to be replaced
+		 */
+		public boolean enqueue(ApplicationEvent event) {
+			int count;
+			do {
+				count = this.publishers.get();
+				if (count == RETIRED) {
+					return false;
+				}
+			}
+			while (!this.publishers.compareAndSet(count, count + 1));
+			try {
+				doEnqueue(event);
+			}
+			finally {
+				// the events may have been delivered already, e.g. by a synchronous executor
+				if (this.publishers.decrementAndGet() == 0 && !this.scheduled.get() && this.events.isEmpty()) {
+					retireIfIdle();
+				}
+			}
+			return true;
+		}
+
+		private void doEnqueue(ApplicationEvent event) {
+			boolean queued;
+			try {
+				if (queueFullTimeout < 0) {
+					this.events.put(event);
+					queued = true;
+				}
+				else {
+					queued = this.events.offer(event, queueFullTimeout, TimeUnit.MILLISECONDS);
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				queued = false;
+			}
+			if (!queued) {
+				logger.warn("Dropped " + event + " for listener [" + this.listener + "] since its queue is full");
+			}
+			schedule();
+		}
+
+		private void schedule() {
+			if (this.scheduled.compareAndSet(false, true)) {
+				try {
+					taskExecutor.execute(this);
+				}
+				catch (RuntimeException ex) {
+					this.scheduled.set(false);
+					throw ex;
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		public void run() {
+			try {
+				// deliver at most one queue's worth of events per run, for fairness
+				int remaining = queueCapacity;
+				while (remaining > 0) {
+					ApplicationEvent event = this.events.poll();
+					if (event == null) {
+						break;
+					}
+					if (this.listener instanceof BatchingApplicationListener) {
+						List<ApplicationEvent> batch = new ArrayList<ApplicationEvent>();
+						batch.add(event);
+						this.events.drainTo(batch, maxBatchSize - 1);
+						remaining -= batch.size();
+						try {
+							((BatchingApplicationListener) this.listener).onApplicationEvents(batch);
+						}
+						catch (Throwable ex) {
+							errorHandler.handleError(ex);
+						}
+					}
+					else {
+						remaining--;
+						try {
+							this.listener.onApplicationEvent(event);
+						}
+						catch (Throwable ex) {
+							errorHandler.handleError(ex);
+						}
+					}
+				}
+			}
+			finally {
+				this.scheduled.set(false);
+				// pick up events queued after the last poll above
+				if (!this.events.isEmpty()) {
+					schedule();
+				}
+				else {
+					retireIfIdle();
+				}
+			}
+		}
+
+		/**
+		 * Retire this queue if no events are pending and no publisher is about
+		 * to enqueue one, removing it from the map of listener queues.
+		 */
+		private void retireIfIdle() {
+			if (this.publishers.compareAndSet(0, RETIRED)) {
+				if (this.events.isEmpty() && !this.scheduled.get()) {
+					listenerQueues.remove(this.listener, this);
+				}
+				else {
+					// an event got enqueued in the meantime
+					this.publishers.set(0);
+				}
+			}
+		}
+	}
+
+}
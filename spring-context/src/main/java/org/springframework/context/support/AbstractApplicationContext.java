@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2013 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -29,6 +30,8 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,6 +41,7 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
 import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
@@ -82,6 +86,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 
@@ -212,6 +218,12 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	/** Environment used by this context; initialized by {@link #createEnvironment()} */
 	private ConfigurableEnvironment environment;
 
+	/** ApplicationStartup for recording metrics during refresh */
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+	/** Executor for the background warm-up of lazy-init singletons, if any */
+	private Executor warmUpExecutor;
+
 
 	/**
 	 * Create a new AbstractApplicationContext with no parent.
@@ -302,6 +314,31 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		this.environment = environment;
 	}
 
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		Assert.notNull(applicationStartup, "ApplicationStartup must not be null");
+		this.applicationStartup = applicationStartup;
+	}
+
+	public ApplicationStartup getApplicationStartup() {
+		return this.applicationStartup;
+	}
+
+	/**
+	 * Specify an Executor for initializing the remaining lazy-init singletons
+	 * in the background once this context has been refreshed, avoiding their
+	 * initialization cost on first access. Default is none.
+	 * <p>Beans get warmed up one after the other, in the order specified through
+	 * the {@link #WARM_UP_ORDER_ATTRIBUTE} bean definition attribute (or the
+	 * {@link org.springframework.context.annotation.WarmUpOrder @WarmUpOrder}
+	 * annotation), with each bean's dependencies getting initialized first.
+	 * A {@code getBean} call for a bean which is being warmed up at that moment
+	 * waits for its initialization to complete rather than creating it again.
+	 * @see #warmUpLazySingletons
+	 */
+	public void setWarmUpExecutor(Executor warmUpExecutor) {
+		this.warmUpExecutor = warmUpExecutor;
+	}
+
 	/**
 	 * Return this context's internal bean factory as AutowireCapableBeanFactory,
 	 * if already available.
@@ -444,53 +481,68 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 
 	public void refresh() throws BeansException, IllegalStateException {
 		synchronized (this.startupShutdownMonitor) {
-			// Prepare this context for refreshing.
-			prepareRefresh();
+			StartupStep contextRefresh = this.applicationStartup.start("spring.context.refresh");
+			try {
+				// Prepare this context for refreshing.
+				prepareRefresh();
 
-			// Tell the subclass to refresh the internal bean factory.
-			ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
+				// Tell the subclass to refresh the internal bean factory.
+				ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
 
-			// Prepare the bean factory for use in this context.
-			prepareBeanFactory(beanFactory);
+				// Prepare the bean factory for use in this context.
+				prepareBeanFactory(beanFactory);
 
-			try {
-				// Allows post-processing of the bean factory in context subclasses.
-				postProcessBeanFactory(beanFactory);
+				try {
+					// Allows post-processing of the bean factory in context subclasses.
+					postProcessBeanFactory(beanFactory);
 
-				// Invoke factory processors registered as beans in the context.
-				invokeBeanFactoryPostProcessors(beanFactory);
+					// Invoke factory processors registered as beans in the context.
+					invokeBeanFactoryPostProcessors(beanFactory);
+
+					// Register bean processors that intercept bean creation.
+					StartupStep beanPostProcess = this.applicationStartup.start("spring.context.beans.post-process");
+					try {
+						registerBeanPostProcessors(beanFactory);
+					}
+					finally {
+						beanPostProcess.end();
+					}
 
-				// Register bean processors that intercept bean creation.
-				registerBeanPostProcessors(beanFactory);
+					// Initialize message source for this context.
+					initMessageSource();
 
-				// Initialize message source for this context.
-				initMessageSource();
+					// Initialize event multicaster for this context.
+					initApplicationEventMulticaster();
 
-				// Initialize event multicaster for this context.
-				initApplicationEventMulticaster();
+					// Initialize other special beans in specific context subclasses.
+					onRefresh();
 
-				// Initialize other special beans in specific context subclasses.
-				onRefresh();
+					// Check for listener beans and register them.
+					registerListeners();
 
-				// Check for listener beans and register them.
-				registerListeners();
+					// Instantiate all remaining (non-lazy-init) singletons.
+					finishBeanFactoryInitialization(beanFactory);
 
-				// Instantiate all remaining (non-lazy-init) singletons.
-				finishBeanFactoryInitialization(beanFactory);
+					// Last step: publish corresponding event.
+					finishRefresh();
 
-				// Last step: publish corresponding event.
-				finishRefresh();
-			}
+					// Initialize remaining lazy-init singletons in the background, if desired.
+					warmUpLazySingletons(beanFactory);
+				}
 
-			catch (BeansException ex) {
-				// Destroy already created singletons to avoid dangling resources.
-				destroyBeans();
+				catch (BeansException ex) {
+					// Destroy already created singletons to avoid dangling resources.
+					destroyBeans();
 
-				// Reset 'active' flag.
-				cancelRefresh(ex);
+					// Reset 'active' flag.
+					cancelRefresh(ex);
 
-				// Propagate exception to caller.
-				throw ex;
+					// Propagate exception to caller.
+					throw ex;
+				}
+			}
+			finally {
+				contextRefresh.end();
 			}
 		}
 	}
@@ -534,7 +586,13 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	 * @see #getBeanFactory()
 	 */
 	protected ConfigurableListableBeanFactory obtainFreshBeanFactory() {
-		refreshBeanFactory();
+		StartupStep beanDefinitionLoading = this.applicationStartup.start("spring.context.bean-definitions.load");
+		try {
+			refreshBeanFactory();
+		}
+		finally {
+			beanDefinitionLoading.end();
+		}
 		ConfigurableListableBeanFactory beanFactory = getBeanFactory();
 		if (logger.isDebugEnabled()) {
 			logger.debug("Bean factory for " + getDisplayName() + ": " + beanFactory);
@@ -551,6 +609,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		// Tell the internal bean factory to use the context's class loader etc.
 		beanFactory.setBeanClassLoader(getClassLoader());
 		beanFactory.setBeanExpressionResolver(new StandardBeanExpressionResolver());
+		beanFactory.setApplicationStartup(getApplicationStartup());
 		beanFactory.addPropertyEditorRegistrar(new ResourceEditorRegistrar(this, getEnvironment()));
 
 		// Configure the bean factory with context callbacks.
@@ -614,7 +673,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 				if (postProcessor instanceof BeanDefinitionRegistryPostProcessor) {
 					BeanDefinitionRegistryPostProcessor registryPostProcessor =
 							(BeanDefinitionRegistryPostProcessor) postProcessor;
-					registryPostProcessor.postProcessBeanDefinitionRegistry(registry);
+					invokeBeanDefinitionRegistryPostProcessor(registryPostProcessor, registry);
 					registryPostProcessors.add(registryPostProcessor);
 				}
 				else {
@@ -627,7 +686,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 					new ArrayList<BeanDefinitionRegistryPostProcessor>(beanMap.values());
 			OrderComparator.sort(registryPostProcessorBeans);
 			for (BeanDefinitionRegistryPostProcessor postProcessor : registryPostProcessorBeans) {
-				postProcessor.postProcessBeanDefinitionRegistry(registry);
+				invokeBeanDefinitionRegistryPostProcessor(postProcessor, registry);
 			}
 			invokeBeanFactoryPostProcessors(registryPostProcessors, beanFactory);
 			invokeBeanFactoryPostProcessors(registryPostProcessorBeans, beanFactory);
@@ -684,6 +743,22 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		invokeBeanFactoryPostProcessors(nonOrderedPostProcessors, beanFactory);
 	}
 
+	/**
+	 * Invoke the given BeanDefinitionRegistryPostProcessor bean.
+	 */
+	private void invokeBeanDefinitionRegistryPostProcessor(
+			BeanDefinitionRegistryPostProcessor postProcessor, BeanDefinitionRegistry registry) {
+
+		StartupStep postProcessorStep = this.applicationStartup.start("spring.context.beandef-registry.post-process")
+				.tag("postProcessor", postProcessor.getClass().getName());
+		try {
+			postProcessor.postProcessBeanDefinitionRegistry(registry);
+		}
+		finally {
+			postProcessorStep.end();
+		}
+	}
+
 	/**
 	 * Invoke the given BeanFactoryPostProcessor beans.
 	 */
@@ -691,7 +766,14 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			Collection<? extends BeanFactoryPostProcessor> postProcessors, ConfigurableListableBeanFactory beanFactory) {
 
 		for (BeanFactoryPostProcessor postProcessor : postProcessors) {
-			postProcessor.postProcessBeanFactory(beanFactory);
+			StartupStep postProcessorStep = this.applicationStartup.start("spring.context.bean-factory.post-process")
+					.tag("postProcessor", postProcessor.getClass().getName());
+			try {
+				postProcessor.postProcessBeanFactory(beanFactory);
+			}
+			finally {
+				postProcessorStep.end();
+			}
 		}
 	}
 
@@ -942,7 +1024,13 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		initLifecycleProcessor();
 
 		// Propagate refresh to lifecycle processor first.
-		getLifecycleProcessor().onRefresh();
+		StartupStep lifecycleStart = this.applicationStartup.start("spring.context.lifecycle.start");
+		try {
+			getLifecycleProcessor().onRefresh();
+		}
+		finally {
+			lifecycleStart.end();
+		}
 
 		// Publish the final event.
 		publishEvent(new ContextRefreshedEvent(this));
@@ -951,6 +1039,84 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		LiveBeansView.registerApplicationContext(this);
 	}
 
+	/**
+	 * Initialize the remaining lazy-init singletons through the
+	 * {@link #setWarmUpExecutor warm-up Executor}, if any.
+	 * @param beanFactory the bean factory of this context
+	 */
+	protected void warmUpLazySingletons(final ConfigurableListableBeanFactory beanFactory) {
+		if (this.warmUpExecutor == null) {
+			return;
+		}
+		try {
+			this.warmUpExecutor.execute(new Runnable() {
+				public void run() {
+					doWarmUpLazySingletons(beanFactory);
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			logger.warn("Background warm-up of lazy-init singletons rejected by Executor", ex);
+		}
+	}
+
+	private void doWarmUpLazySingletons(ConfigurableListableBeanFactory beanFactory) {
+		List<WarmUpCandidate> candidates = new ArrayList<WarmUpCandidate>();
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition bd = beanFactory.getMergedBeanDefinition(beanName);
+			if (!bd.isAbstract() && bd.isSingleton() && bd.isLazyInit()) {
+				candidates.add(new WarmUpCandidate(beanName, determineWarmUpOrder(beanName, bd)));
+			}
+		}
+		Collections.sort(candidates);
+		for (WarmUpCandidate candidate : candidates) {
+			synchronized (this.activeMonitor) {
+				if (!this.active || this.closed) {
+					// Context closed in the meantime -> stop warm-up.
+					return;
+				}
+			}
+			String beanName = candidate.beanName;
+			if (beanFactory.containsSingleton(beanName)) {
+				continue;
+			}
+			try {
+				if (beanFactory.isFactoryBean(beanName)) {
+					beanFactory.getBean(BeanFactory.FACTORY_BEAN_PREFIX + beanName);
+				}
+				else {
+					beanFactory.getBean(beanName);
+				}
+			}
+			catch (Throwable ex) {
+				// Will be thrown again on first actual access to the bean.
+				if (logger.isDebugEnabled()) {
+					logger.debug("Background warm-up of bean '" + beanName + "' failed", ex);
+				}
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Finished background warm-up of " + candidates.size() + " lazy-init singletons in " + this);
+		}
+	}
+
+	private int determineWarmUpOrder(String beanName, BeanDefinition bd) {
+		Object order = bd.getAttribute(WARM_UP_ORDER_ATTRIBUTE);
+		if (order instanceof Number) {
+			return ((Number) order).intValue();
+		}
+		if (order instanceof String) {
+			try {
+				return Integer.parseInt(((String) order).trim());
+			}
+			catch (NumberFormatException ex) {
+				logger.warn("Invalid warm-up order '" + order + "' for bean '" + beanName +
+						"' - falling back to default order");
+			}
+		}
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
 	/**
 	 * Cancel this context's refresh attempt, resetting the {@code active} flag
 	 * after an exception got thrown.
@@ -1381,6 +1547,27 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	}
 
 
+	/**
+	 * Lazy-init singleton to be warmed up, sortable by warm-up order
+	 * (keeping registration order for equal values).
+	 */
+	private static class WarmUpCandidate implements Comparable<WarmUpCandidate> {
+
+		private final String beanName;
+
+		private final int order;
+
+		public WarmUpCandidate(String beanName, int order) {
+			this.beanName = beanName;
+			this.order = order;
+		}
+
+		public int compareTo(WarmUpCandidate other) {
+			return (this.order < other.order ? -1 : (this.order > other.order ? 1 : 0));
+		}
+	}
+
+
 	/**
 	 * BeanPostProcessor that detects beans which implement the ApplicationListener interface.
 	 * This catches beans that can't reliably be detected by getBeanNamesForType.
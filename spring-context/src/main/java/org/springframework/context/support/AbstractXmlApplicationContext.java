@@ -21,6 +21,7 @@ import java.io.IOException;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.xml.ResourceEntityResolver;
+import org.springframework.beans.factory.xml.StaxBeanDefinitionReader;
 import org.springframework.beans.factory.xml.XmlBeanDefinitionReader;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.Resource;
@@ -46,6 +47,8 @@ public abstract class AbstractXmlApplicationContext extends AbstractRefreshableC
 
 	private boolean validating = true;
 
+	private boolean streaming = false;
+
 
 	/**
 	 * Create a new AbstractXmlApplicationContext with no parent.
@@ -69,6 +72,18 @@ public abstract class AbstractXmlApplicationContext extends AbstractRefreshableC
 		this.validating = validating;
 	}
 
+	/**
+	 * Set whether to read XML bean definition files in a streaming fashion,
+	 * through a {@link StaxBeanDefinitionReader} instead of a DOM-based
+	 * {@link XmlBeanDefinitionReader}. Default is {@code false}.
+	 * <p>Switch this on for very large bean definition files, or for contexts
+	 * loading a large number of files sharing the same XML schemas.
+	 * @since 4.0
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
 
 	/**
 	 * Loads the bean definitions via an XmlBeanDefinitionReader.
@@ -79,7 +94,8 @@ public abstract class AbstractXmlApplicationContext extends AbstractRefreshableC
 	@Override
 	protected void loadBeanDefinitions(DefaultListableBeanFactory beanFactory) throws BeansException, IOException {
 		// Create a new XmlBeanDefinitionReader for the given BeanFactory.
-		XmlBeanDefinitionReader beanDefinitionReader = new XmlBeanDefinitionReader(beanFactory);
+		XmlBeanDefinitionReader beanDefinitionReader = (this.streaming ?
+				new StaxBeanDefinitionReader(beanFactory) : new XmlBeanDefinitionReader(beanFactory));
 
 		// Configure the bean definition reader with this context's
 		// resource loading environment.
@@ -1,5 +1,5 @@
 /*
- * Copyright 2002-2012 the original author or authors.
+ * Copyright 2002-2013 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,15 +21,19 @@ import java.io.IOException;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanDefinitionStoreException;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.annotation.QualifierAnnotationAutowireCandidateResolver;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionCustomizer;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.util.Assert;
 
 /**
@@ -65,6 +69,19 @@ import org.springframework.util.Assert;
  * MyBean myBean = (MyBean) ctx.getBean("myBean");
  * ...</pre>
  *
+ * <p>Beans may also be registered programmatically through the {@code registerBean}
+ * methods, optionally along with an {@link ObjectFactory} callback that creates the
+ * bean instance without any reflective instantiation or configuration class parsing:
+ *
+ * <pre>
+ * final GenericApplicationContext ctx = new GenericApplicationContext();
+ * ctx.registerBean(MyBean.class, new ObjectFactory&lt;MyBean&gt;() {
+ *     public MyBean getObject() {
+ *         return new MyBean(ctx.getBean(MyDependency.class));
+ *     }
+ * });
+ * ctx.refresh();</pre>
+ *
  * For the typical case of XML bean definitions, simply use
  * {@link ClassPathXmlApplicationContext} or {@link FileSystemXmlApplicationContext},
  * which are easier to set up - but less flexible, since you can just use standard
@@ -154,6 +171,17 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 		super.setId(id);
 	}
 
+	/**
+	 * Set the ApplicationStartup for this application context,
+	 * also applying it to the internal BeanFactory.
+	 * @see org.springframework.beans.factory.config.ConfigurableBeanFactory#setApplicationStartup
+	 */
+	@Override
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		super.setApplicationStartup(applicationStartup);
+		this.beanFactory.setApplicationStartup(applicationStartup);
+	}
+
 	/**
 	 * Set whether it should be allowed to override bean definitions by registering
 	 * a different definition with the same name, automatically replacing the former.
@@ -316,4 +344,69 @@ public class GenericApplicationContext extends AbstractApplicationContext implem
 		return this.beanFactory.isAlias(beanName);
 	}
 
+
+	//---------------------------------------------------------------------
+	// Convenient methods for registering individual beans
+	//---------------------------------------------------------------------
+
+	/**
+	 * Register a bean from the given bean class, optionally customizing its
+	 * bean definition metadata.
+	 * @param beanClass the class of the bean (to be instantiated through its
+	 * default constructor, or through an autowired constructor if declared)
+	 * @param customizers one or more callbacks for customizing the
+	 * factory's {@link BeanDefinition}, e.g. setting a lazy-init or primary flag
+	 * @since 4.0
+	 * @see #registerBean(String, Class, ObjectFactory, BeanDefinitionCustomizer...)
+	 */
+	public <T> void registerBean(Class<T> beanClass, BeanDefinitionCustomizer... customizers) {
+		registerBean(null, beanClass, null, customizers);
+	}
+
+	/**
+	 * Register a bean from the given bean class, using the given supplier for
+	 * obtaining a new instance, optionally customizing its bean definition
+	 * metadata.
+	 * @param beanClass the class of the bean
+	 * @param supplier a callback for creating an instance of the bean
+	 * @param customizers one or more callbacks for customizing the
+	 * factory's {@link BeanDefinition}, e.g. setting a lazy-init or primary flag
+	 * @since 4.0
+	 * @see #registerBean(String, Class, ObjectFactory, BeanDefinitionCustomizer...)
+	 */
+	public <T> void registerBean(Class<T> beanClass, ObjectFactory<T> supplier, BeanDefinitionCustomizer... customizers) {
+		registerBean(null, beanClass, supplier, customizers);
+	}
+
+	/**
+	 * Register a bean from the given bean class, using the given supplier for
+	 * obtaining a new instance (if any), optionally customizing its bean
+	 * definition metadata.
+	 * <p>A supplier-based bean is created without any reflective constructor
+	 * or factory method resolution; property population and bean post-processing
+	 * still apply as for any other bean.
+	 * @param beanName the name of the bean (may be {@code null}, in which case
+	 * the fully-qualified name of the bean class will be used)
+	 * @param beanClass the class of the bean
+	 * @param supplier a callback for creating an instance of the bean
+	 * (in case of {@code null}, the bean class will be instantiated as usual)
+	 * @param customizers one or more callbacks for customizing the
+	 * factory's {@link BeanDefinition}, e.g. setting a lazy-init or primary flag
+	 * @since 4.0
+	 * @see GenericBeanDefinition#setInstanceSupplier
+	 */
+	public <T> void registerBean(String beanName, Class<T> beanClass, ObjectFactory<T> supplier,
+			BeanDefinitionCustomizer... customizers) {
+
+		Assert.notNull(beanClass, "Bean class must not be null");
+		GenericBeanDefinition beanDefinition = new GenericBeanDefinition();
+		beanDefinition.setBeanClass(beanClass);
+		beanDefinition.setInstanceSupplier(supplier);
+		for (BeanDefinitionCustomizer customizer : customizers) {
+			customizer.customize(beanDefinition);
+		}
+		String nameToUse = (beanName != null ? beanName : beanClass.getName());
+		registerBeanDefinition(nameToUse, beanDefinition);
+	}
+
 }
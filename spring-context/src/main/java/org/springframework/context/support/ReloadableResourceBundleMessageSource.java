@@ -21,11 +21,16 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.springframework.context.ResourceLoaderAware;
 import org.springframework.core.io.DefaultResourceLoader;
@@ -71,6 +76,12 @@ import org.springframework.util.StringUtils;
  * individual properties files are detected with a maximum delay of 1 second.
  * Higher "cacheSeconds" values usually <i>do not</i> make a significant difference.
  *
+ * <p>Message lookups do not block on cached content: Once the "cacheSeconds" interval
+ * has expired, a single thread refreshes a stale properties file while all other
+ * threads keep returning the existing messages in the meantime. With a
+ * {@link #setRefreshExecutor "refreshExecutor"} specified, such refresh attempts
+ * happen in the background, not delaying any message lookups at all.
+ *
  * <p>This MessageSource can easily be used outside of an
  * {@link org.springframework.context.ApplicationContext}: It will use a
  * {@link org.springframework.core.io.DefaultResourceLoader} as default,
@@ -114,15 +125,19 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 
 	private ResourceLoader resourceLoader = new DefaultResourceLoader();
 
+	private Executor refreshExecutor;
+
 	/** Cache to hold filename lists per Locale */
-	private final Map<String, Map<Locale, List<String>>> cachedFilenames =
-			new HashMap<String, Map<Locale, List<String>>>();
+	private final ConcurrentMap<String, Map<Locale, List<String>>> cachedFilenames =
+			new ConcurrentHashMap<String, Map<Locale, List<String>>>();
 
 	/** Cache to hold already loaded properties per filename */
-	private final Map<String, PropertiesHolder> cachedProperties = new HashMap<String, PropertiesHolder>();
+	private final ConcurrentMap<String, PropertiesHolder> cachedProperties =
+			new ConcurrentHashMap<String, PropertiesHolder>();
 
 	/** Cache to hold merged loaded properties per locale */
-	private final Map<Locale, PropertiesHolder> cachedMergedProperties = new HashMap<Locale, PropertiesHolder>();
+	private final ConcurrentMap<Locale, PropertiesHolder> cachedMergedProperties =
+			new ConcurrentHashMap<Locale, PropertiesHolder>();
 
 
 	/**
@@ -226,6 +241,7 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 * <li>A value of "0" will check the last-modified timestamp of the file on
 	 * every message access. <b>Do not use this in a production environment!</b>
 	 * </ul>
+	 * @see #setRefreshExecutor
 	 */
 	public void setCacheSeconds(int cacheSeconds) {
 		this.cacheMillis = (cacheSeconds * 1000);
@@ -254,6 +270,19 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 		this.resourceLoader = (resourceLoader != null ? resourceLoader : new DefaultResourceLoader());
 	}
 
+	/**
+	 * Set an Executor for refreshing stale properties files in the background,
+	 * e.g. a {@link org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor}.
+	 * <p>Default is none, refreshing a stale properties file on the first thread
+	 * that notices it, while other threads keep returning the existing messages.
+	 * With an Executor specified, all threads keep returning the existing messages
+	 * until the background refresh has completed.
+	 * <p>Only relevant with a non-negative {@link #setCacheSeconds "cacheSeconds"} value.
+	 */
+	public void setRefreshExecutor(Executor refreshExecutor) {
+		this.refreshExecutor = refreshExecutor;
+	}
+
 
 	/**
 	 * Resolves the given message code as key in the retrieved bundle files,
@@ -321,26 +350,24 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 * cached forever.
 	 */
 	protected PropertiesHolder getMergedProperties(Locale locale) {
-		synchronized (this.cachedMergedProperties) {
-			PropertiesHolder mergedHolder = this.cachedMergedProperties.get(locale);
-			if (mergedHolder != null) {
-				return mergedHolder;
-			}
-			Properties mergedProps = new Properties();
-			mergedHolder = new PropertiesHolder(mergedProps, -1);
-			for (int i = this.basenames.length - 1; i >= 0; i--) {
-				List filenames = calculateAllFilenames(this.basenames[i], locale);
-				for (int j = filenames.size() - 1; j >= 0; j--) {
-					String filename = (String) filenames.get(j);
-					PropertiesHolder propHolder = getProperties(filename);
-					if (propHolder.getProperties() != null) {
-						mergedProps.putAll(propHolder.getProperties());
-					}
+		PropertiesHolder mergedHolder = this.cachedMergedProperties.get(locale);
+		if (mergedHolder != null) {
+			return mergedHolder;
+		}
+		Properties mergedProps = new Properties();
+		mergedHolder = new PropertiesHolder(mergedProps, -1);
+		for (int i = this.basenames.length - 1; i >= 0; i--) {
+			List<String> filenames = calculateAllFilenames(this.basenames[i], locale);
+			for (int j = filenames.size() - 1; j >= 0; j--) {
+				String filename = filenames.get(j);
+				PropertiesHolder propHolder = getProperties(filename);
+				if (propHolder.getProperties() != null) {
+					mergedProps.putAll(propHolder.getProperties());
 				}
 			}
-			this.cachedMergedProperties.put(locale, mergedHolder);
-			return mergedHolder;
 		}
+		PropertiesHolder existing = this.cachedMergedProperties.putIfAbsent(locale, mergedHolder);
+		return (existing != null ? existing : mergedHolder);
 	}
 
 	/**
@@ -354,36 +381,34 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 * @see #calculateFilenamesForLocale
 	 */
 	protected List<String> calculateAllFilenames(String basename, Locale locale) {
-		synchronized (this.cachedFilenames) {
-			Map<Locale, List<String>> localeMap = this.cachedFilenames.get(basename);
-			if (localeMap != null) {
-				List<String> filenames = localeMap.get(locale);
-				if (filenames != null) {
-					return filenames;
-				}
+		Map<Locale, List<String>> localeMap = this.cachedFilenames.get(basename);
+		if (localeMap != null) {
+			List<String> filenames = localeMap.get(locale);
+			if (filenames != null) {
+				return filenames;
 			}
-			List<String> filenames = new ArrayList<String>(7);
-			filenames.addAll(calculateFilenamesForLocale(basename, locale));
-			if (this.fallbackToSystemLocale && !locale.equals(Locale.getDefault())) {
-				List<String> fallbackFilenames = calculateFilenamesForLocale(basename, Locale.getDefault());
-				for (String fallbackFilename : fallbackFilenames) {
-					if (!filenames.contains(fallbackFilename)) {
-						// Entry for fallback locale that isn't already in filenames list.
-						filenames.add(fallbackFilename);
-					}
+		}
+		List<String> filenames = new ArrayList<String>(7);
+		filenames.addAll(calculateFilenamesForLocale(basename, locale));
+		if (this.fallbackToSystemLocale && !locale.equals(Locale.getDefault())) {
+			List<String> fallbackFilenames = calculateFilenamesForLocale(basename, Locale.getDefault());
+			for (String fallbackFilename : fallbackFilenames) {
+				if (!filenames.contains(fallbackFilename)) {
+					// Entry for fallback locale that isn't already in filenames list.
+					filenames.add(fallbackFilename);
 				}
 			}
-			filenames.add(basename);
-			if (localeMap != null) {
-				localeMap.put(locale, filenames);
-			}
-			else {
-				localeMap = new HashMap<Locale, List<String>>();
-				localeMap.put(locale, filenames);
-				this.cachedFilenames.put(basename, localeMap);
+		}
+		filenames.add(basename);
+		if (localeMap == null) {
+			localeMap = new ConcurrentHashMap<Locale, List<String>>();
+			Map<Locale, List<String>> existing = this.cachedFilenames.putIfAbsent(basename, localeMap);
+			if (existing != null) {
+				localeMap = existing;
 			}
-			return filenames;
 		}
+		localeMap.put(locale, filenames);
+		return filenames;
 	}
 
 	/**
@@ -431,16 +456,83 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 * @return the current PropertiesHolder for the bundle
 	 */
 	protected PropertiesHolder getProperties(String filename) {
-		synchronized (this.cachedProperties) {
-			PropertiesHolder propHolder = this.cachedProperties.get(filename);
-			if (propHolder != null &&
-					(propHolder.getRefreshTimestamp() < 0 ||
-					 propHolder.getRefreshTimestamp() > System.currentTimeMillis() - this.cacheMillis)) {
-				// up to date
+		PropertiesHolder propHolder = this.cachedProperties.get(filename);
+		long originalTimestamp = -2;
+
+		if (propHolder != null) {
+			originalTimestamp = propHolder.getRefreshTimestamp();
+			if (originalTimestamp == -1 || originalTimestamp > System.currentTimeMillis() - this.cacheMillis) {
+				// Up to date
+				return propHolder;
+			}
+		}
+		else {
+			// Empty placeholder, to be populated by the first thread getting its refresh lock
+			propHolder = new PropertiesHolder();
+			PropertiesHolder existingHolder = this.cachedProperties.putIfAbsent(filename, propHolder);
+			if (existingHolder != null) {
+				propHolder = existingHolder;
+			}
+		}
+
+		// At this point, we need to refresh...
+		if (propHolder.getRefreshTimestamp() >= 0) {
+			// A populated but stale holder -> keep using it for the time being.
+			if (this.refreshExecutor != null) {
+				scheduleRefresh(filename, propHolder);
 				return propHolder;
 			}
+			if (!propHolder.refreshLock.tryLock()) {
+				// Getting refreshed by another thread already.
+				return propHolder;
+			}
+		}
+		else {
+			propHolder.refreshLock.lock();
+		}
+		try {
+			PropertiesHolder existingHolder = this.cachedProperties.get(filename);
+			if (existingHolder != null && existingHolder.getRefreshTimestamp() > originalTimestamp) {
+				return existingHolder;
+			}
 			return refreshProperties(filename, propHolder);
 		}
+		finally {
+			propHolder.refreshLock.unlock();
+		}
+	}
+
+	/**
+	 * Refresh the given stale PropertiesHolder through the
+	 * {@link #setRefreshExecutor refresh Executor}, unless a refresh
+	 * has already been scheduled for it.
+	 */
+	private void scheduleRefresh(final String filename, final PropertiesHolder propHolder) {
+		if (!propHolder.refreshScheduled.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			this.refreshExecutor.execute(new Runnable() {
+				public void run() {
+					propHolder.refreshLock.lock();
+					try {
+						if (cachedProperties.get(filename) == propHolder) {
+							refreshProperties(filename, propHolder);
+						}
+					}
+					finally {
+						propHolder.refreshLock.unlock();
+						propHolder.refreshScheduled.set(false);
+					}
+				}
+			});
+		}
+		catch (RejectedExecutionException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Refresh of properties for filename [" + filename + "] rejected - will retry", ex);
+			}
+			propHolder.refreshScheduled.set(false);
+		}
 	}
 
 	/**
@@ -560,12 +652,8 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 */
 	public void clearCache() {
 		logger.debug("Clearing entire resource bundle cache");
-		synchronized (this.cachedProperties) {
-			this.cachedProperties.clear();
-		}
-		synchronized (this.cachedMergedProperties) {
-			this.cachedMergedProperties.clear();
-		}
+		this.cachedProperties.clear();
+		this.cachedMergedProperties.clear();
 	}
 
 	/**
@@ -594,15 +682,19 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 	 */
 	protected class PropertiesHolder {
 
-		private Properties properties;
+		private final Properties properties;
+
+		private final long fileTimestamp;
 
-		private long fileTimestamp = -1;
+		private volatile long refreshTimestamp = -2;
 
-		private long refreshTimestamp = -1;
+		private final ReentrantLock refreshLock = new ReentrantLock();
+
+		private final AtomicBoolean refreshScheduled = new AtomicBoolean();
 
 		/** Cache to hold already generated MessageFormats per message code */
-		private final Map<String, Map<Locale, MessageFormat>> cachedMessageFormats =
-				new HashMap<String, Map<Locale, MessageFormat>>();
+		private final ConcurrentMap<String, Map<Locale, MessageFormat>> cachedMessageFormats =
+				new ConcurrentHashMap<String, Map<Locale, MessageFormat>>();
 
 		public PropertiesHolder(Properties properties, long fileTimestamp) {
 			this.properties = properties;
@@ -610,6 +702,8 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 		}
 
 		public PropertiesHolder() {
+			this.properties = null;
+			this.fileTimestamp = -1;
 		}
 
 		public Properties getProperties() {
@@ -639,26 +733,27 @@ public class ReloadableResourceBundleMessageSource extends AbstractMessageSource
 			if (this.properties == null) {
 				return null;
 			}
-			synchronized (this.cachedMessageFormats) {
-				Map<Locale, MessageFormat> localeMap = this.cachedMessageFormats.get(code);
-				if (localeMap != null) {
-					MessageFormat result = localeMap.get(locale);
-					if (result != null) {
-						return result;
-					}
+			Map<Locale, MessageFormat> localeMap = this.cachedMessageFormats.get(code);
+			if (localeMap != null) {
+				MessageFormat result = localeMap.get(locale);
+				if (result != null) {
+					return result;
 				}
-				String msg = this.properties.getProperty(code);
-				if (msg != null) {
-					if (localeMap == null) {
-						localeMap = new HashMap<Locale, MessageFormat>();
-						this.cachedMessageFormats.put(code, localeMap);
+			}
+			String msg = this.properties.getProperty(code);
+			if (msg != null) {
+				if (localeMap == null) {
+					localeMap = new ConcurrentHashMap<Locale, MessageFormat>();
+					Map<Locale, MessageFormat> existing = this.cachedMessageFormats.putIfAbsent(code, localeMap);
+					if (existing != null) {
+						localeMap = existing;
 					}
-					MessageFormat result = createMessageFormat(msg, locale);
-					localeMap.put(locale, result);
-					return result;
 				}
-				return null;
+				MessageFormat result = createMessageFormat(msg, locale);
+				localeMap.put(locale, result);
+				return result;
 			}
+			return null;
 		}
 	}
 
@@ -25,17 +25,24 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.format.Formatter;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
  * A formatter for {@link java.util.Date} types.
  * Allows the configuration of an explicit date pattern and locale.
  *
+ * <p>As of Spring 4.0, the configured {@link DateFormat} is built once per locale
+ * and kept as a prototype, with each {@link #print}/{@link #parse} call operating
+ * on a clone of it. Changing the configuration discards the prototypes. Subclasses
+ * overriding {@link #getDateFormat} obtain a new DateFormat for each call instead.
+ *
  * @author Keith Donald
  * @author Juergen Hoeller
  * @author Phillip Webb
@@ -66,6 +73,11 @@ public class DateFormatter implements Formatter<Date> {
 
 	private boolean lenient = false;
 
+	private final Map<Locale, DateFormat> dateFormatPrototypes = new ConcurrentHashMap<Locale, DateFormat>(4);
+
+	private final boolean dateFormatCacheable = (DateFormatter.class ==
+			ReflectionUtils.findMethod(getClass(), "getDateFormat", Locale.class).getDeclaringClass());
+
 
 	/**
 	 * Create a new default DateFormatter.
@@ -87,6 +99,7 @@ public class DateFormatter implements Formatter<Date> {
 	 */
 	public void setPattern(String pattern) {
 		this.pattern = pattern;
+		this.dateFormatPrototypes.clear();
 	}
 
 	/**
@@ -100,6 +113,7 @@ public class DateFormatter implements Formatter<Date> {
 	 */
 	public void setStyle(int style) {
 		this.style = style;
+		this.dateFormatPrototypes.clear();
 	}
 
 	/**
@@ -118,6 +132,7 @@ public class DateFormatter implements Formatter<Date> {
 	 */
 	public void setStylePattern(String stylePattern) {
 		this.stylePattern = stylePattern;
+		this.dateFormatPrototypes.clear();
 	}
 
 	/**
@@ -127,12 +142,15 @@ public class DateFormatter implements Formatter<Date> {
 	 */
 	public void setIso(ISO iso) {
 		this.iso = iso;
+		this.dateFormatPrototypes.clear();
 	}
+
 	/**
 	 * Set the TimeZone to normalize the date values into, if any.
 	 */
 	public void setTimeZone(TimeZone timeZone) {
 		this.timeZone = timeZone;
+		this.dateFormatPrototypes.clear();
 	}
 
 	/**
@@ -142,18 +160,36 @@ public class DateFormatter implements Formatter<Date> {
 	 */
 	public void setLenient(boolean lenient) {
 		this.lenient = lenient;
+		this.dateFormatPrototypes.clear();
 	}
 
 
 	public String print(Date date, Locale locale) {
-		return getDateFormat(locale).format(date);
+		return obtainDateFormat(locale).format(date);
 	}
 
 	public Date parse(String text, Locale locale) throws ParseException {
-		return getDateFormat(locale).parse(text);
+		return obtainDateFormat(locale).parse(text);
 	}
 
 
+	/**
+	 * Obtain a DateFormat for the given locale, cloned from a cached prototype
+	 * unless {@link #getDateFormat} has been overridden. DateFormat instances
+	 * are not thread-safe, so each caller gets its own copy.
+	 */
+	private DateFormat obtainDateFormat(Locale locale) {
+		if (locale == null || !this.dateFormatCacheable) {
+			return getDateFormat(locale);
+		}
+		DateFormat prototype = this.dateFormatPrototypes.get(locale);
+		if (prototype == null) {
+			prototype = getDateFormat(locale);
+			this.dateFormatPrototypes.put(locale, prototype);
+		}
+		return (DateFormat) prototype.clone();
+	}
+
 	protected DateFormat getDateFormat(Locale locale) {
 		DateFormat dateFormat = createDateFormat(locale);
 		if (this.timeZone != null) {
@@ -20,8 +20,11 @@ import java.text.NumberFormat;
 import java.text.ParseException;
 import java.text.ParsePosition;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.format.Formatter;
+import org.springframework.util.ReflectionUtils;
 
 /**
  * Abstract formatter for Numbers,
@@ -35,6 +38,12 @@ public abstract class AbstractNumberFormatter implements Formatter<Number> {
 
 	private boolean lenient = false;
 
+	private final Map<Locale, NumberFormat> numberFormatPrototypes = new ConcurrentHashMap<Locale, NumberFormat>(4);
+
+	private final boolean numberFormatCacheable = isNumberFormatCacheable(
+			ReflectionUtils.findMethod(getClass(), "getNumberFormat", Locale.class).getDeclaringClass());
+
+
 	/**
 	 * Specify whether or not parsing is to be lenient. Default is false.
 	 * <p>With lenient parsing, the parser may allow inputs that do not precisely match the format.
@@ -45,11 +54,11 @@ public abstract class AbstractNumberFormatter implements Formatter<Number> {
 	}
 
 	public String print(Number number, Locale locale) {
-		return getNumberFormat(locale).format(number);
+		return obtainNumberFormat(locale).format(number);
 	}
 
 	public Number parse(String text, Locale locale) throws ParseException {
-		NumberFormat format = getNumberFormat(locale);
+		NumberFormat format = obtainNumberFormat(locale);
 		ParsePosition position = new ParsePosition(0);
 		Number number = format.parse(text, position);
 		if (position.getErrorIndex() != -1) {
@@ -64,8 +73,53 @@ public abstract class AbstractNumberFormatter implements Formatter<Number> {
 		return number;
 	}
 
+	/**
+	 * Obtain a NumberFormat for the given locale, cloned from a cached prototype
+	 * if {@link #isNumberFormatCacheable caching} applies. NumberFormat instances
+	 * are not thread-safe, so each caller gets its own copy.
+	 */
+	private NumberFormat obtainNumberFormat(Locale locale) {
+		if (locale == null || !this.numberFormatCacheable) {
+			return getNumberFormat(locale);
+		}
+		NumberFormat prototype = this.numberFormatPrototypes.get(locale);
+		if (prototype == null) {
+			prototype = getNumberFormat(locale);
+			this.numberFormatPrototypes.put(locale, prototype);
+		}
+		return (NumberFormat) prototype.clone();
+	}
+
+	/**
+	 * Determine whether the NumberFormats returned by the given class's
+	 * {@link #getNumberFormat} implementation may be cached per locale as prototypes.
+	 * Invoked once during construction.
+	 * <p>The default is {@code false}. Spring's own formatters enable caching for
+	 * their own implementations only, since those call {@link #resetNumberFormatCache()}
+	 * on every configuration change; subclasses overriding {@code getNumberFormat}
+	 * fall back to obtaining a new NumberFormat for each call.
+	 * @param implementationClass the class declaring the {@code getNumberFormat}
+	 * implementation in use
+	 * @since 4.0
+	 */
+	protected boolean isNumberFormatCacheable(Class<?> implementationClass) {
+		return false;
+	}
+
+	/**
+	 * Discard the cached NumberFormat prototypes, to be invoked by subclasses
+	 * whenever a configuration change affects {@link #getNumberFormat}.
+	 * @since 4.0
+	 */
+	protected void resetNumberFormatCache() {
+		this.numberFormatPrototypes.clear();
+	}
+
 	/**
 	 * Obtain a concrete NumberFormat for the specified locale.
+	 * <p>As of Spring 4.0, if {@link #isNumberFormatCacheable caching} applies,
+	 * this method is invoked once per locale, with the returned NumberFormat serving
+	 * as prototype for the formats used in {@link #print} and {@link #parse}.
 	 * @param locale the current locale
 	 * @return the NumberFormat instance (never {@code null})
 	 */
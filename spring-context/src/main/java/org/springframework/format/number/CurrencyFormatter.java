@@ -57,6 +57,7 @@ public class CurrencyFormatter extends AbstractNumberFormatter {
 	 */
 	public void setFractionDigits(int fractionDigits) {
 		this.fractionDigits = fractionDigits;
+		resetNumberFormatCache();
 	}
 
 	/**
@@ -65,6 +66,7 @@ public class CurrencyFormatter extends AbstractNumberFormatter {
 	 */
 	public void setRoundingMode(RoundingMode roundingMode) {
 		this.roundingMode = roundingMode;
+		resetNumberFormatCache();
 	}
 
 	/**
@@ -72,6 +74,7 @@ public class CurrencyFormatter extends AbstractNumberFormatter {
 	 */
 	public void setCurrency(Currency currency) {
 		this.currency = currency;
+		resetNumberFormatCache();
 	}
 
 
@@ -88,6 +91,11 @@ public class CurrencyFormatter extends AbstractNumberFormatter {
 		return decimal;
 	}
 
+	@Override
+	protected boolean isNumberFormatCacheable(Class<?> implementationClass) {
+		return (implementationClass == CurrencyFormatter.class);
+	}
+
 	protected NumberFormat getNumberFormat(Locale locale) {
 		DecimalFormat format = (DecimalFormat) NumberFormat.getCurrencyInstance(locale);
 		format.setParseBigDecimal(true);
@@ -62,9 +62,15 @@ public class NumberFormatter extends AbstractNumberFormatter {
 	 */
 	public void setPattern(String pattern) {
 		this.pattern = pattern;
+		resetNumberFormatCache();
 	}
 
 
+	@Override
+	protected boolean isNumberFormatCacheable(Class<?> implementationClass) {
+		return (implementationClass == NumberFormatter.class);
+	}
+
 	public NumberFormat getNumberFormat(Locale locale) {
 		NumberFormat format = NumberFormat.getInstance(locale);
 		if (!(format instanceof DecimalFormat)) {
@@ -34,6 +34,11 @@ import java.util.Locale;
  */
 public class PercentFormatter extends AbstractNumberFormatter {
 
+	@Override
+	protected boolean isNumberFormatCacheable(Class<?> implementationClass) {
+		return (implementationClass == PercentFormatter.class);
+	}
+
 	protected NumberFormat getNumberFormat(Locale locale) {
 		NumberFormat format = NumberFormat.getPercentInstance(locale);
 		if (format instanceof DecimalFormat) {
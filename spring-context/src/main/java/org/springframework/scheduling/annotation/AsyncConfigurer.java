@@ -23,7 +23,10 @@ import java.util.concurrent.Executor;
  * Configuration} classes annotated with @{@link EnableAsync} that wish to customize the
  * {@link Executor} instance used when processing async method invocations.
  *
- * <p>See @{@link EnableAsync} for usage examples.
+ * <p>See @{@link EnableAsync} for usage examples. Besides a
+ * {@link org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor}, consider a
+ * work-stealing {@link org.springframework.scheduling.concurrent.ForkJoinPoolTaskExecutor}
+ * for large numbers of short async tasks.
  *
  * @author Chris Beams
  * @since 3.1
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.scheduling.support.TaskExecutionMetrics;
+import org.springframework.util.Assert;
+import org.springframework.util.LatencyHistogram;
+
+/**
+ * Policy for adapting the core size of a {@link ThreadPoolExecutor} to its load
+ * at runtime, as an alternative to sizing a thread pool by hand. To be set on a
+ * {@link ThreadPoolTaskExecutor}, which will start and stop the policy along with
+ * its thread pool.
+ *
+ * <p>Periodically compares the average time that tasks waited in the queue during
+ * the last {@link #setAdjustmentInterval interval} with the
+ * {@link #setTargetQueueWait target queue wait}: The pool grows in steps of
+ * a quarter of its size while tasks wait longer than the target, unless the
+ * previous growth step did not increase the throughput (in which case the pool
+ * is probably limited by something other than its number of threads), and it
+ * shrinks back one thread at a time while tasks wait less than half of the
+ * target and some threads are idle. The pool size always stays within the
+ * {@link #setMinPoolSize minimum} and {@link #setMaxPoolSize maximum} size, and
+ * never exceeds the maximum pool size of the thread pool itself.
+ *
+ * <p>Each policy instance is meant to drive a single thread pool.
+ *
+ * @author agent
+ * @since 4.0
+ * @see ThreadPoolTaskExecutor#setSizingPolicy
+ */
+public class AdaptivePoolSizingPolicy {
+
+	/** The default target queue wait: 10 milliseconds */
+	public static final long DEFAULT_TARGET_QUEUE_WAIT = 10;
+
+	/** The default adjustment interval: 1 second */
+	public static final long DEFAULT_ADJUSTMENT_INTERVAL = 1000;
+
+	/** Minimum relative increase in throughput for a growth step to count as successful */
+	private static final double MINIMUM_THROUGHPUT_GAIN = 1.05;
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private int minPoolSize = 1;
+
+	private int maxPoolSize = Integer.MAX_VALUE;
+
+	private long targetQueueWait = DEFAULT_TARGET_QUEUE_WAIT;
+
+	private long adjustmentInterval = DEFAULT_ADJUSTMENT_INTERVAL;
+
+	private ThreadPoolExecutor threadPoolExecutor;
+
+	private TaskExecutionMetrics metrics;
+
+	private ScheduledExecutorService adjustmentExecutor;
+
+	private long lastAdjustmentTime;
+
+	private long lastExecutionCount;
+
+	private long lastQueueWaitCount;
+
+	private double lastQueueWaitTotal;
+
+	private double lastThroughput;
+
+	private boolean lastAdjustmentGrew;
+
+
+	/**
+	 * Set the minimum core pool size. Default is 1.
+	 */
+	public void setMinPoolSize(int minPoolSize) {
+		Assert.isTrue(minPoolSize >= 0, "'minPoolSize' must not be negative");
+		this.minPoolSize = minPoolSize;
+	}
+
+	/**
+	 * Return the minimum core pool size.
+	 */
+	public int getMinPoolSize() {
+		return this.minPoolSize;
+	}
+
+	/**
+	 * Set the maximum core pool size. Default is the maximum pool size
+	 * of the thread pool that this policy is applied to.
+	 */
+	public void setMaxPoolSize(int maxPoolSize) {
+		Assert.isTrue(maxPoolSize > 0, "'maxPoolSize' must be 1 or higher");
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	/**
+	 * Return the maximum core pool size.
+	 */
+	public int getMaxPoolSize() {
+		return this.maxPoolSize;
+	}
+
+	/**
+	 * Set the average time, in milliseconds, that tasks should wait in the queue
+	 * at most. Default is {@link #DEFAULT_TARGET_QUEUE_WAIT}.
+	 */
+	public void setTargetQueueWait(long targetQueueWait) {
+		Assert.isTrue(targetQueueWait >= 0, "'targetQueueWait' must not be negative");
+		this.targetQueueWait = targetQueueWait;
+	}
+
+	/**
+	 * Return the target queue wait in milliseconds.
+	 */
+	public long getTargetQueueWait() {
+		return this.targetQueueWait;
+	}
+
+	/**
+	 * Set the interval between two adjustments of the pool size, in milliseconds.
+	 * Default is {@link #DEFAULT_ADJUSTMENT_INTERVAL}.
+	 */
+	public void setAdjustmentInterval(long adjustmentInterval) {
+		Assert.isTrue(adjustmentInterval > 0, "'adjustmentInterval' must be 1 or higher");
+		this.adjustmentInterval = adjustmentInterval;
+	}
+
+	/**
+	 * Return the interval between two adjustments in milliseconds.
+	 */
+	public long getAdjustmentInterval() {
+		return this.adjustmentInterval;
+	}
+
+
+	/**
+	 * Start adjusting the core size of the given thread pool.
+	 * @param threadPoolExecutor the thread pool to adjust
+	 * @param metrics the metrics that all tasks submitted to the thread pool are
+	 * recorded in, providing the queue wait times and the throughput
+	 * @param threadNamePrefix the name prefix for the adjustment thread
+	 */
+	public synchronized void start(ThreadPoolExecutor threadPoolExecutor, TaskExecutionMetrics metrics,
+			String threadNamePrefix) {
+
+		Assert.notNull(threadPoolExecutor, "ThreadPoolExecutor must not be null");
+		Assert.notNull(metrics, "TaskExecutionMetrics must not be null");
+		Assert.state(this.threadPoolExecutor == null, "AdaptivePoolSizingPolicy already started");
+		this.threadPoolExecutor = threadPoolExecutor;
+		this.metrics = metrics;
+		resetMeasurements();
+		CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+		threadFactory.setDaemon(true);
+		this.adjustmentExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		this.adjustmentExecutor.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				try {
+					adjust();
+				}
+				catch (Throwable ex) {
+					logger.warn("Failed to adjust thread pool size", ex);
+				}
+			}
+		}, this.adjustmentInterval, this.adjustmentInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stop adjusting the core size of the thread pool.
+	 */
+	public synchronized void stop() {
+		if (this.adjustmentExecutor != null) {
+			this.adjustmentExecutor.shutdownNow();
+			this.adjustmentExecutor = null;
+		}
+		this.threadPoolExecutor = null;
+		this.metrics = null;
+	}
+
+	/**
+	 * Adjust the core size of the thread pool according to the measurements
+	 * since the previous adjustment. Called periodically once started.
+	 * @return the new core pool size
+	 */
+	public synchronized int adjust() {
+		Assert.state(this.threadPoolExecutor != null, "AdaptivePoolSizingPolicy not started");
+		long now = System.nanoTime();
+		long executionCount = this.metrics.getCompletedCount() + this.metrics.getFailedCount();
+		LatencyHistogram queueWaitHistogram = this.metrics.getQueueWaitHistogram();
+		long queueWaitCount = queueWaitHistogram.getCount();
+		double queueWaitTotal = queueWaitHistogram.getAverageMicros() / 1000.0 * queueWaitCount;
+		int currentSize = this.threadPoolExecutor.getCorePoolSize();
+		if (executionCount < this.lastExecutionCount || queueWaitCount < this.lastQueueWaitCount) {
+			// Metrics have been reset in the meantime
+			resetMeasurements();
+			return currentSize;
+		}
+
+		long startedTasks = queueWaitCount - this.lastQueueWaitCount;
+		double queueWait;
+		if (startedTasks > 0) {
+			queueWait = (queueWaitTotal - this.lastQueueWaitTotal) / startedTasks;
+		}
+		else {
+			// No task got started at all: saturated if there are tasks waiting
+			queueWait = (this.threadPoolExecutor.getQueue().isEmpty() ? 0 : Double.MAX_VALUE);
+		}
+		double elapsedSeconds = Math.max(now - this.lastAdjustmentTime, 1) / 1000000000.0;
+		double throughput = (executionCount - this.lastExecutionCount) / elapsedSeconds;
+
+		int newSize = determinePoolSize(currentSize, queueWait, throughput, this.threadPoolExecutor.getActiveCount());
+		int upperBound = Math.min(this.maxPoolSize, this.threadPoolExecutor.getMaximumPoolSize());
+		newSize = Math.max(Math.min(newSize, upperBound), Math.min(this.minPoolSize, upperBound));
+		if (newSize != currentSize) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Adjusting core pool size from " + currentSize + " to " + newSize +
+						" (average queue wait " + queueWait + "ms, throughput " + throughput + "/s)");
+			}
+			this.threadPoolExecutor.setCorePoolSize(newSize);
+		}
+
+		this.lastAdjustmentGrew = (newSize > currentSize);
+		this.lastAdjustmentTime = now;
+		this.lastExecutionCount = executionCount;
+		this.lastQueueWaitCount = queueWaitCount;
+		this.lastQueueWaitTotal = queueWaitTotal;
+		this.lastThroughput = throughput;
+		return newSize;
+	}
+
+	/**
+	 * Determine the new core pool size for the given measurements. The result
+	 * will be limited to the configured minimum and maximum pool size afterwards.
+	 * <p>Can be overridden in subclasses for a custom sizing strategy.
+	 * @param currentSize the current core pool size
+	 * @param queueWait the average queue wait since the previous adjustment,
+	 * in milliseconds ({@code Double.MAX_VALUE} if tasks are waiting but none
+	 * got started since the previous adjustment)
+	 * @param throughput the number of task executions per second since the
+	 * previous adjustment
+	 * @param activeCount the number of threads currently executing tasks
+	 * @return the new core pool size
+	 */
+	protected int determinePoolSize(int currentSize, double queueWait, double throughput, int activeCount) {
+		if (queueWait > this.targetQueueWait) {
+			if (this.lastAdjustmentGrew && throughput <= this.lastThroughput * MINIMUM_THROUGHPUT_GAIN) {
+				// More threads did not help the last time: hold off for one interval
+				return currentSize;
+			}
+			return currentSize + Math.max(1, currentSize / 4);
+		}
+		if (queueWait < this.targetQueueWait / 2.0 && activeCount < currentSize) {
+			return currentSize - 1;
+		}
+		return currentSize;
+	}
+
+	private void resetMeasurements() {
+		LatencyHistogram queueWaitHistogram = this.metrics.getQueueWaitHistogram();
+		this.lastAdjustmentTime = System.nanoTime();
+		this.lastExecutionCount = this.metrics.getCompletedCount() + this.metrics.getFailedCount();
+		this.lastQueueWaitCount = queueWaitHistogram.getCount();
+		this.lastQueueWaitTotal = queueWaitHistogram.getAverageMicros() / 1000.0 * this.lastQueueWaitCount;
+		this.lastThroughput = 0;
+		this.lastAdjustmentGrew = false;
+	}
+
+}
@@ -25,9 +25,11 @@ import java.util.concurrent.Future;
 import javax.enterprise.concurrent.ManagedExecutors;
 import javax.enterprise.concurrent.ManagedTask;
 
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.SchedulingAwareRunnable;
 import org.springframework.scheduling.SchedulingTaskExecutor;
+import org.springframework.scheduling.support.TaskExecutionMetrics;
 import org.springframework.util.ClassUtils;
 
 /**
@@ -75,6 +77,8 @@ public class ConcurrentTaskExecutor implements SchedulingTaskExecutor {
 
 	private TaskExecutorAdapter adaptedExecutor;
 
+	private TaskExecutionMetrics metrics;
+
 
 	/**
 	 * Create a new ConcurrentTaskExecutor,
@@ -125,21 +129,78 @@ public class ConcurrentTaskExecutor implements SchedulingTaskExecutor {
 		return this.concurrentExecutor;
 	}
 
+	/**
+	 * Specify a {@link TaskExecutionMetrics} instance to record queue wait
+	 * and execution times as well as rejections of all submitted tasks in.
+	 * <p>Default is none, leaving submitted tasks uninstrumented. Note that
+	 * tasks run through a caller-runs policy of the target executor cannot
+	 * be told apart from regularly executed tasks here.
+	 */
+	public void setMetrics(TaskExecutionMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Return the {@link TaskExecutionMetrics} instance that this executor
+	 * records its tasks in, if any.
+	 */
+	public TaskExecutionMetrics getMetrics() {
+		return this.metrics;
+	}
+
 
 	public void execute(Runnable task) {
-		this.adaptedExecutor.execute(task);
+		if (this.metrics == null) {
+			this.adaptedExecutor.execute(task);
+			return;
+		}
+		try {
+			this.adaptedExecutor.execute(this.metrics.instrument(task));
+		}
+		catch (TaskRejectedException ex) {
+			this.metrics.recordRejection();
+			throw ex;
+		}
 	}
 
 	public void execute(Runnable task, long startTimeout) {
-		this.adaptedExecutor.execute(task, startTimeout);
+		if (this.metrics == null) {
+			this.adaptedExecutor.execute(task, startTimeout);
+			return;
+		}
+		try {
+			this.adaptedExecutor.execute(this.metrics.instrument(task), startTimeout);
+		}
+		catch (TaskRejectedException ex) {
+			this.metrics.recordRejection();
+			throw ex;
+		}
 	}
 
 	public Future<?> submit(Runnable task) {
-		return this.adaptedExecutor.submit(task);
+		if (this.metrics == null) {
+			return this.adaptedExecutor.submit(task);
+		}
+		try {
+			return this.adaptedExecutor.submit(this.metrics.instrument(task));
+		}
+		catch (TaskRejectedException ex) {
+			this.metrics.recordRejection();
+			throw ex;
+		}
 	}
 
 	public <T> Future<T> submit(Callable<T> task) {
-		return this.adaptedExecutor.submit(task);
+		if (this.metrics == null) {
+			return this.adaptedExecutor.submit(task);
+		}
+		try {
+			return this.adaptedExecutor.submit(this.metrics.instrument(task));
+		}
+		catch (TaskRejectedException ex) {
+			this.metrics.recordRejection();
+			throw ex;
+		}
 	}
 
 	/**
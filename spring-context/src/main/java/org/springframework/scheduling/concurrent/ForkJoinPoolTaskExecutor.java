@@ -0,0 +1,213 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.SchedulingTaskExecutor;
+import org.springframework.util.Assert;
+
+/**
+ * Implementation of Spring's {@link org.springframework.core.task.AsyncTaskExecutor}
+ * interface, wrapping a work-stealing {@link ForkJoinPool}. In contrast to
+ * {@link ThreadPoolTaskExecutor} with its single shared queue, each worker thread
+ * keeps a deque of its own, which avoids contention when many short tasks get
+ * submitted from many threads - e.g. for {@code @Async} methods.
+ *
+ * <p>Tasks submitted from one of the pool's own worker threads - e.g. by an
+ * {@code @Async} method that calls further {@code @Async} methods - are forked
+ * into the submitting worker's deque, with idle workers stealing them from there.
+ * Returned {@link Future} handles are {@link ForkJoinTask ForkJoinTasks}; note
+ * that cancelling them does not interrupt tasks that have started already.
+ *
+ * <p>Shutdown follows the {@link ExecutorConfigurationSupport} settings,
+ * e.g. waiting for submitted tasks to complete if configured accordingly.
+ * Worker threads get named according to the {@link #setThreadNamePrefix thread name prefix},
+ * whereas a {@link #setThreadFactory ThreadFactory} and a
+ * {@link #setRejectedExecutionHandler RejectedExecutionHandler} do not apply to a ForkJoinPool.
+ *
+ * <p>May be used on Java 7 as well as on Java 6 with {@code jsr166.jar} on the classpath,
+ * just like {@link ForkJoinPoolFactoryBean}.
+ *
+ * @author agent
+ * @since 4.0
+ * @see java.util.concurrent.ForkJoinPool
+ * @see ForkJoinPoolFactoryBean
+ */
+@SuppressWarnings("serial")
+public class ForkJoinPoolTaskExecutor extends ExecutorConfigurationSupport implements SchedulingTaskExecutor {
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	private boolean asyncMode = true;
+
+	private Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
+
+	private ForkJoinPool forkJoinPool;
+
+
+	/**
+	 * Specify the parallelism level, i.e. the number of worker threads.
+	 * Default is {@link Runtime#availableProcessors()}.
+	 */
+	public void setParallelism(int parallelism) {
+		Assert.isTrue(parallelism > 0, "'parallelism' must be 1 or higher");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Return the parallelism level.
+	 */
+	public int getParallelism() {
+		return this.parallelism;
+	}
+
+	/**
+	 * Specify whether the worker deques should process forked tasks in
+	 * first-in-first-out order. Default is {@code true}, which suits event-style
+	 * asynchronous tasks that are never joined; switch this flag to {@code false}
+	 * for the stack-based order of divide-and-conquer computations.
+	 * @see ForkJoinPoolFactoryBean#setAsyncMode
+	 */
+	public void setAsyncMode(boolean asyncMode) {
+		this.asyncMode = asyncMode;
+	}
+
+	/**
+	 * Set the handler for worker threads that terminate due to unrecoverable
+	 * errors encountered while executing tasks. Default is none.
+	 */
+	public void setUncaughtExceptionHandler(Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+		this.uncaughtExceptionHandler = uncaughtExceptionHandler;
+	}
+
+	protected ExecutorService initializeExecutor(
+			ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+
+		this.forkJoinPool = new ForkJoinPool(this.parallelism, new ForkJoinWorkerThreadFactory(),
+				this.uncaughtExceptionHandler, this.asyncMode);
+		return this.forkJoinPool;
+	}
+
+	/**
+	 * Return the underlying ForkJoinPool for native access.
+	 * @return the underlying ForkJoinPool (never {@code null})
+	 * @throws IllegalStateException if the ForkJoinPoolTaskExecutor hasn't been initialized yet
+	 */
+	public ForkJoinPool getForkJoinPool() throws IllegalStateException {
+		Assert.state(this.forkJoinPool != null, "ForkJoinPoolTaskExecutor not initialized");
+		return this.forkJoinPool;
+	}
+
+	/**
+	 * Return the number of worker threads that are currently executing tasks.
+	 * @see java.util.concurrent.ForkJoinPool#getActiveThreadCount()
+	 */
+	public int getActiveCount() {
+		return getForkJoinPool().getActiveThreadCount();
+	}
+
+	/**
+	 * Return the number of tasks that have been stolen from one worker's
+	 * deque by another so far.
+	 * @see java.util.concurrent.ForkJoinPool#getStealCount()
+	 */
+	public long getStealCount() {
+		return getForkJoinPool().getStealCount();
+	}
+
+
+	/**
+	 * Execute the given task without a result handle. In contrast to a task
+	 * {@link #submit submitted} for a {@link Future}, an exception thrown by the task
+	 * reaches the worker thread's {@link #setUncaughtExceptionHandler handler}.
+	 */
+	public void execute(Runnable task) {
+		Assert.notNull(task, "Runnable must not be null");
+		ForkJoinPool pool = getForkJoinPool();
+		try {
+			pool.execute(task);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Executor [" + pool + "] did not accept task: " + task, ex);
+		}
+	}
+
+	public void execute(Runnable task, long startTimeout) {
+		execute(task);
+	}
+
+	public Future<?> submit(Runnable task) {
+		Assert.notNull(task, "Runnable must not be null");
+		return submitTask(ForkJoinTask.adapt(task));
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		Assert.notNull(task, "Callable must not be null");
+		return submitTask(ForkJoinTask.adapt(task));
+	}
+
+	/**
+	 * This task executor prefers short-lived work units.
+	 */
+	public boolean prefersShortLivedTasks() {
+		return true;
+	}
+
+	private <T> ForkJoinTask<T> submitTask(ForkJoinTask<T> task) {
+		ForkJoinPool pool = getForkJoinPool();
+		Thread currentThread = Thread.currentThread();
+		if (currentThread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) currentThread).getPool() == pool) {
+			// Fork into the current worker's own deque, unless the pool is shutting down
+			if (!pool.isShutdown()) {
+				return task.fork();
+			}
+		}
+		try {
+			return pool.submit(task);
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Executor [" + pool + "] did not accept task: " + task, ex);
+		}
+	}
+
+
+	/**
+	 * Worker thread factory applying this executor's thread name prefix,
+	 * priority and daemon flag to each worker thread.
+	 */
+	private class ForkJoinWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+		public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+			ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) {};
+			thread.setName(nextThreadName());
+			thread.setPriority(getThreadPriority());
+			thread.setDaemon(isDaemon());
+			return thread;
+		}
+	}
+
+}
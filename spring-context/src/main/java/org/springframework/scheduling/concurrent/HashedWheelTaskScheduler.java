@@ -0,0 +1,671 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.SchedulingTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ErrorHandler;
+
+/**
+ * Implementation of Spring's {@link TaskScheduler} interface, based on a
+ * hashed timing wheel: a circular array of buckets, each holding the tasks
+ * due within a given tick. In contrast to {@link ThreadPoolTaskScheduler},
+ * scheduling and cancelling a task are constant-time operations that do not
+ * contend on a shared lock, making this scheduler suitable for very large
+ * numbers of concurrently scheduled tasks - e.g. timeouts that usually get
+ * cancelled before they fire.
+ *
+ * <p>A single timer thread advances the wheel once per
+ * {@link #setTickDuration tick}, handing expired tasks off to a worker
+ * {@link Executor}: by default, an internal thread pool with the configured
+ * {@link #setPoolSize pool size}. Tasks therefore fire with a precision of
+ * one tick; they never fire early, but may fire up to one tick late.
+ *
+ * <p>Also usable through {@code <task:scheduler type="hashed-wheel"/>}
+ * as well as through a {@link org.springframework.scheduling.annotation.SchedulingConfigurer}.
+ *
+ * @author agent
+ * @since 4.0
+ * @see #setTickDuration
+ * @see #setTicksPerWheel
+ * @see #setTaskExecutor
+ */
+@SuppressWarnings("serial")
+public class HashedWheelTaskScheduler extends ExecutorConfigurationSupport
+		implements TaskScheduler, SchedulingTaskExecutor {
+
+	/** The default tick duration: 10 milliseconds */
+	public static final long DEFAULT_TICK_DURATION = 10;
+
+	/** The default number of ticks per wheel: 512 */
+	public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+	private static final int MAXIMUM_TICKS_PER_WHEEL = 1 << 30;
+
+	/** Maximum number of newly scheduled tasks to transfer onto the wheel per tick */
+	private static final int MAXIMUM_TRANSFERS_PER_TICK = 100000;
+
+
+	private volatile long tickDuration = DEFAULT_TICK_DURATION;
+
+	private volatile int ticksPerWheel = DEFAULT_TICKS_PER_WHEEL;
+
+	private volatile int poolSize = 1;
+
+	private volatile Executor taskExecutor;
+
+	private volatile ErrorHandler errorHandler;
+
+	private volatile ExecutorService internalExecutor;
+
+	private volatile Wheel wheel;
+
+
+	/**
+	 * Set the duration of a tick, in milliseconds: the resolution at which
+	 * scheduled tasks fire. Default is {@link #DEFAULT_TICK_DURATION}.
+	 */
+	public void setTickDuration(long tickDuration) {
+		Assert.isTrue(tickDuration > 0, "'tickDuration' must be 1 or higher");
+		this.tickDuration = tickDuration;
+	}
+
+	/**
+	 * Set the number of ticks per wheel revolution, i.e. the number of buckets,
+	 * rounded up to the next power of two. Default is {@link #DEFAULT_TICKS_PER_WHEEL}.
+	 * <p>Tasks due further ahead than one revolution stay in their bucket
+	 * for several revolutions, so a larger wheel means fewer visits per task.
+	 */
+	public void setTicksPerWheel(int ticksPerWheel) {
+		Assert.isTrue(ticksPerWheel > 0 && ticksPerWheel <= MAXIMUM_TICKS_PER_WHEEL,
+				"'ticksPerWheel' must be between 1 and 2^30");
+		this.ticksPerWheel = ticksPerWheel;
+	}
+
+	/**
+	 * Set the pool size of the internal worker thread pool.
+	 * Default is 1.
+	 * <p>Not applicable if an external {@link #setTaskExecutor task executor}
+	 * has been specified.
+	 */
+	public void setPoolSize(int poolSize) {
+		Assert.isTrue(poolSize > 0, "'poolSize' must be 1 or higher");
+		this.poolSize = poolSize;
+	}
+
+	/**
+	 * Specify an external {@link Executor} to hand off expired tasks to.
+	 * <p>Default is an internal thread pool with the configured
+	 * {@link #setPoolSize pool size}. An external executor will not be
+	 * shut down along with this scheduler.
+	 */
+	public void setTaskExecutor(Executor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Provide an {@link ErrorHandler} strategy.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		Assert.notNull(errorHandler, "'errorHandler' must not be null");
+		this.errorHandler = errorHandler;
+	}
+
+	protected ExecutorService initializeExecutor(
+			ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+
+		if (this.taskExecutor == null) {
+			this.internalExecutor = createExecutor(this.poolSize, threadFactory, rejectedExecutionHandler);
+		}
+		Wheel wheel = new Wheel(this.tickDuration, this.ticksPerWheel);
+		Thread timerThread = threadFactory.newThread(wheel);
+		timerThread.setDaemon(true);
+		wheel.start(timerThread);
+		this.wheel = wheel;
+		return this.internalExecutor;
+	}
+
+	/**
+	 * Create the internal worker {@link ExecutorService} instance.
+	 * <p>The default implementation creates a fixed-size {@link ThreadPoolExecutor}
+	 * with an unbounded queue. Can be overridden in subclasses to provide
+	 * custom {@link ExecutorService} instances.
+	 * @param poolSize the specified pool size
+	 * @param threadFactory the ThreadFactory to use
+	 * @param rejectedExecutionHandler the RejectedExecutionHandler to use
+	 * @return a new ExecutorService instance
+	 */
+	protected ExecutorService createExecutor(
+			int poolSize, ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
+
+		return new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<Runnable>(), threadFactory, rejectedExecutionHandler);
+	}
+
+	/**
+	 * Stop the timer thread, discarding all tasks that have not fired yet,
+	 * and shut down the internal worker thread pool (if any).
+	 */
+	@Override
+	public void shutdown() {
+		Wheel wheel = this.wheel;
+		if (wheel != null) {
+			wheel.stop();
+			this.wheel = null;
+		}
+		if (this.internalExecutor != null) {
+			super.shutdown();
+		}
+	}
+
+	/**
+	 * Return the number of tasks currently scheduled on the wheel, that is,
+	 * tasks that have neither fired nor been cancelled yet.
+	 */
+	public int getScheduledTaskCount() {
+		Wheel wheel = this.wheel;
+		return (wheel != null ? wheel.taskCount.get() : 0);
+	}
+
+	private Executor getTargetExecutor() {
+		Executor executor = (this.taskExecutor != null ? this.taskExecutor : this.internalExecutor);
+		Assert.state(executor != null, "HashedWheelTaskScheduler not initialized");
+		return executor;
+	}
+
+	private Wheel getWheel() {
+		Wheel wheel = this.wheel;
+		Assert.state(wheel != null, "HashedWheelTaskScheduler not initialized");
+		return wheel;
+	}
+
+
+	// SchedulingTaskExecutor implementation
+
+	public void execute(Runnable task) {
+		Executor executor = getTargetExecutor();
+		try {
+			executor.execute(errorHandlingTask(task, false));
+		}
+		catch (RejectedExecutionException ex) {
+			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
+		}
+	}
+
+	public void execute(Runnable task, long startTimeout) {
+		execute(task);
+	}
+
+	public Future<?> submit(Runnable task) {
+		FutureTask<Object> future = new FutureTask<Object>(errorHandlingTask(task, false), null);
+		execute(future);
+		return future;
+	}
+
+	public <T> Future<T> submit(final Callable<T> task) {
+		Callable<T> callable = task;
+		final ErrorHandler errorHandler = this.errorHandler;
+		if (errorHandler != null) {
+			callable = new Callable<T>() {
+				public T call() throws Exception {
+					try {
+						return task.call();
+					}
+					catch (Throwable t) {
+						errorHandler.handleError(t);
+						return null;
+					}
+				}
+			};
+		}
+		FutureTask<T> future = new FutureTask<T>(callable);
+		execute(future);
+		return future;
+	}
+
+	public boolean prefersShortLivedTasks() {
+		return true;
+	}
+
+
+	// TaskScheduler implementation
+
+	public ScheduledFuture schedule(Runnable task, Trigger trigger) {
+		ErrorHandler errorHandler =
+				(this.errorHandler != null ? this.errorHandler : TaskUtils.getDefaultErrorHandler(true));
+		return new WheelTask(TaskUtils.decorateTaskWithErrorHandler(task, errorHandler, true), trigger).schedule();
+	}
+
+	public ScheduledFuture schedule(Runnable task, Date startTime) {
+		return new WheelTask(errorHandlingTask(task, false), null).schedule(startTime);
+	}
+
+	public ScheduledFuture scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+		return schedulePeriodic(task, startTime.getTime() - System.currentTimeMillis(), period, true);
+	}
+
+	public ScheduledFuture scheduleAtFixedRate(Runnable task, long period) {
+		return schedulePeriodic(task, 0, period, true);
+	}
+
+	public ScheduledFuture scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+		return schedulePeriodic(task, startTime.getTime() - System.currentTimeMillis(), delay, false);
+	}
+
+	public ScheduledFuture scheduleWithFixedDelay(Runnable task, long delay) {
+		return schedulePeriodic(task, 0, delay, false);
+	}
+
+	private ScheduledFuture schedulePeriodic(Runnable task, long initialDelay, long period, boolean fixedRate) {
+		PeriodicTrigger trigger = new PeriodicTrigger(period);
+		trigger.setInitialDelay(Math.max(initialDelay, 0));
+		trigger.setFixedRate(fixedRate);
+		return new WheelTask(errorHandlingTask(task, true), trigger).schedule();
+	}
+
+	private Runnable errorHandlingTask(Runnable task, boolean isRepeatingTask) {
+		return TaskUtils.decorateTaskWithErrorHandler(task, this.errorHandler, isRepeatingTask);
+	}
+
+
+	/**
+	 * The timing wheel itself, driven by the timer thread. Newly scheduled and
+	 * cancelled tasks are queued up and only applied to the buckets by the
+	 * timer thread, so the buckets themselves do not need any synchronization.
+	 */
+	private class Wheel implements Runnable {
+
+		private final long tickNanos;
+
+		private final Bucket[] buckets;
+
+		private final int mask;
+
+		private final long startTime = System.nanoTime();
+
+		private final Queue<WheelTask> pendingTasks = new ConcurrentLinkedQueue<WheelTask>();
+
+		private final Queue<WheelTask> cancelledTasks = new ConcurrentLinkedQueue<WheelTask>();
+
+		private final AtomicInteger taskCount = new AtomicInteger();
+
+		private volatile boolean running = true;
+
+		private volatile Thread timerThread;
+
+		private long tick;
+
+		public Wheel(long tickDuration, int ticksPerWheel) {
+			int bucketCount = 1;
+			while (bucketCount < ticksPerWheel) {
+				bucketCount <<= 1;
+			}
+			this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+			this.buckets = new Bucket[bucketCount];
+			for (int i = 0; i < bucketCount; i++) {
+				this.buckets[i] = new Bucket(this);
+			}
+			this.mask = bucketCount - 1;
+		}
+
+		public void start(Thread timerThread) {
+			this.timerThread = timerThread;
+			timerThread.start();
+		}
+
+		public void stop() {
+			this.running = false;
+			Thread timerThread = this.timerThread;
+			if (timerThread != null) {
+				timerThread.interrupt();
+			}
+		}
+
+		/**
+		 * Return the wheel-relative deadline, in nanoseconds, for the given time.
+		 */
+		public long deadlineFor(Date executionTime) {
+			long delay = executionTime.getTime() - System.currentTimeMillis();
+			return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(delay, 0)) - this.startTime;
+		}
+
+		public void add(WheelTask task) {
+			if (!this.running) {
+				throw new TaskRejectedException("HashedWheelTaskScheduler has been shut down - " +
+						"did not accept task: " + task.task);
+			}
+			this.taskCount.incrementAndGet();
+			this.pendingTasks.add(task);
+		}
+
+		public void cancel(WheelTask task) {
+			this.cancelledTasks.add(task);
+		}
+
+		public void run() {
+			while (this.running) {
+				long deadline = waitForNextTick();
+				if (deadline < 0) {
+					break;
+				}
+				processCancelledTasks();
+				transferPendingTasks();
+				this.buckets[(int) (this.tick & this.mask)].expireTasks(deadline);
+				this.tick++;
+			}
+			this.pendingTasks.clear();
+			this.cancelledTasks.clear();
+			this.taskCount.set(0);
+		}
+
+		private long waitForNextTick() {
+			long deadline = this.tickNanos * (this.tick + 1);
+			while (true) {
+				long currentTime = System.nanoTime() - this.startTime;
+				long sleepMillis = (deadline - currentTime + 999999) / 1000000;
+				if (sleepMillis <= 0) {
+					return currentTime;
+				}
+				try {
+					Thread.sleep(sleepMillis);
+				}
+				catch (InterruptedException ex) {
+					if (!this.running) {
+						return -1;
+					}
+				}
+			}
+		}
+
+		private void processCancelledTasks() {
+			WheelTask task;
+			while ((task = this.cancelledTasks.poll()) != null) {
+				if (task.bucket != null) {
+					task.bucket.remove(task);
+					this.taskCount.decrementAndGet();
+				}
+			}
+		}
+
+		private void transferPendingTasks() {
+			for (int i = 0; i < MAXIMUM_TRANSFERS_PER_TICK; i++) {
+				WheelTask task = this.pendingTasks.poll();
+				if (task == null) {
+					break;
+				}
+				if (task.isCancelled()) {
+					this.taskCount.decrementAndGet();
+					continue;
+				}
+				long dueTick = task.deadline / this.tickNanos;
+				task.remainingRounds = (dueTick - this.tick) / this.buckets.length;
+				// Tasks that are already overdue go into the current bucket
+				this.buckets[(int) (Math.max(dueTick, this.tick) & this.mask)].add(task);
+			}
+		}
+
+		private void expire(WheelTask task) {
+			this.taskCount.decrementAndGet();
+			if (!task.state.compareAndSet(WheelTask.WAITING, WheelTask.RUNNING)) {
+				return;
+			}
+			Executor executor = getTargetExecutor();
+			try {
+				executor.execute(task);
+			}
+			catch (RejectedExecutionException ex) {
+				task.state.set(WheelTask.CANCELLED);
+				task.currentExecution.cancel(false);
+				logger.error("Executor [" + executor + "] did not accept expired task: " + task.task, ex);
+			}
+		}
+	}
+
+
+	/**
+	 * A bucket of the timing wheel: a doubly-linked list of tasks,
+	 * allowing for constant-time removal of cancelled tasks.
+	 */
+	private static class Bucket {
+
+		private final Wheel wheel;
+
+		private WheelTask head;
+
+		private WheelTask tail;
+
+		public Bucket(Wheel wheel) {
+			this.wheel = wheel;
+		}
+
+		public void add(WheelTask task) {
+			task.bucket = this;
+			if (this.head == null) {
+				this.head = this.tail = task;
+			}
+			else {
+				this.tail.next = task;
+				task.prev = this.tail;
+				this.tail = task;
+			}
+		}
+
+		public void expireTasks(long deadline) {
+			WheelTask task = this.head;
+			while (task != null) {
+				WheelTask next = task.next;
+				if (task.remainingRounds <= 0 && task.deadline <= deadline) {
+					remove(task);
+					this.wheel.expire(task);
+				}
+				else if (task.isCancelled()) {
+					remove(task);
+					this.wheel.taskCount.decrementAndGet();
+				}
+				else if (task.remainingRounds > 0) {
+					task.remainingRounds--;
+				}
+				task = next;
+			}
+		}
+
+		public void remove(WheelTask task) {
+			if (task.bucket != this) {
+				return;
+			}
+			if (task.prev != null) {
+				task.prev.next = task.next;
+			}
+			if (task.next != null) {
+				task.next.prev = task.prev;
+			}
+			if (task == this.head) {
+				this.head = task.next;
+			}
+			if (task == this.tail) {
+				this.tail = task.prev;
+			}
+			task.prev = null;
+			task.next = null;
+			task.bucket = null;
+		}
+	}
+
+
+	/**
+	 * A task scheduled on the wheel, serving as its own {@link ScheduledFuture}.
+	 * Repeatedly reschedules itself according to the given {@link Trigger}, if any.
+	 */
+	private class WheelTask implements ScheduledFuture<Object>, Runnable {
+
+		static final int WAITING = 0;
+
+		static final int RUNNING = 1;
+
+		static final int CANCELLED = 2;
+
+		static final int DONE = 3;
+
+		private final Runnable task;
+
+		private final Trigger trigger;
+
+		private final SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+
+		private final AtomicInteger state = new AtomicInteger(WAITING);
+
+		private final Wheel wheel;
+
+		private volatile FutureTask<Object> currentExecution;
+
+		private volatile Date scheduledExecutionTime;
+
+		private volatile long deadline;
+
+		// Wheel bookkeeping, only accessed by the timer thread
+
+		private long remainingRounds;
+
+		private Bucket bucket;
+
+		private WheelTask prev;
+
+		private WheelTask next;
+
+		public WheelTask(Runnable task, Trigger trigger) {
+			this.task = task;
+			this.trigger = trigger;
+			this.wheel = getWheel();
+		}
+
+		public ScheduledFuture schedule() {
+			Date executionTime = this.trigger.nextExecutionTime(this.triggerContext);
+			return (executionTime != null ? schedule(executionTime) : null);
+		}
+
+		public ScheduledFuture schedule(Date executionTime) {
+			this.scheduledExecutionTime = executionTime;
+			this.deadline = this.wheel.deadlineFor(executionTime);
+			this.currentExecution = new FutureTask<Object>(this.task, null);
+			this.wheel.add(this);
+			return this;
+		}
+
+		public void run() {
+			FutureTask<Object> execution = this.currentExecution;
+			if (this.trigger == null) {
+				execution.run();
+				this.state.compareAndSet(RUNNING, DONE);
+				return;
+			}
+			Date actualExecutionTime = new Date();
+			execution.run();
+			Date completionTime = new Date();
+			this.triggerContext.update(this.scheduledExecutionTime, actualExecutionTime, completionTime);
+			Date nextExecutionTime = this.trigger.nextExecutionTime(this.triggerContext);
+			if (nextExecutionTime == null) {
+				this.state.compareAndSet(RUNNING, DONE);
+			}
+			else if (this.state.compareAndSet(RUNNING, WAITING)) {
+				try {
+					schedule(nextExecutionTime);
+				}
+				catch (TaskRejectedException ex) {
+					// Scheduler has been shut down in the meantime
+					this.state.set(CANCELLED);
+				}
+			}
+		}
+
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			while (true) {
+				int current = this.state.get();
+				if (current == CANCELLED || current == DONE) {
+					return false;
+				}
+				if (this.state.compareAndSet(current, CANCELLED)) {
+					if (current == WAITING) {
+						this.wheel.cancel(this);
+					}
+					// A one-time task may have completed right before the state change
+					boolean cancelled = this.currentExecution.cancel(mayInterruptIfRunning);
+					return (cancelled || this.trigger != null);
+				}
+			}
+		}
+
+		public boolean isCancelled() {
+			return (this.state.get() == CANCELLED);
+		}
+
+		public boolean isDone() {
+			if (this.trigger == null) {
+				return this.currentExecution.isDone();
+			}
+			int current = this.state.get();
+			return (current == CANCELLED || current == DONE);
+		}
+
+		public Object get() throws InterruptedException, ExecutionException {
+			return this.currentExecution.get();
+		}
+
+		public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			return this.currentExecution.get(timeout, unit);
+		}
+
+		public long getDelay(TimeUnit unit) {
+			long delay = this.deadline - (System.nanoTime() - this.wheel.startTime);
+			return unit.convert(delay, TimeUnit.NANOSECONDS);
+		}
+
+		public int compareTo(Delayed other) {
+			if (this == other) {
+				return 0;
+			}
+			long diff = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+			return (diff == 0 ? 0 : ((diff < 0) ? -1 : 1));
+		}
+	}
+
+}
@@ -31,6 +31,7 @@ import java.util.concurrent.TimeUnit;
 
 import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.SchedulingTaskExecutor;
+import org.springframework.scheduling.support.TaskExecutionMetrics;
 import org.springframework.util.Assert;
 
 /**
@@ -41,6 +42,11 @@ import org.springframework.util.Assert;
  * providing several useful attributes: "corePoolSize", "maxPoolSize", "keepAliveSeconds"
  * (all supporting updates at runtime); "poolSize", "activeCount" (for introspection only).
  *
+ * <p>For insight into queue wait and execution times, specify a {@link TaskExecutionMetrics}
+ * instance through the {@link #setMetrics "metrics"} property. For adapting the core pool
+ * size to the load at runtime, specify an {@link AdaptivePoolSizingPolicy} through the
+ * {@link #setSizingPolicy "sizingPolicy"} property.
+ *
  * <p>For an alternative, you may set up a ThreadPoolExecutor instance directly using
  * constructor injection, or use a factory method definition that points to the JDK 1.5
  * {@link java.util.concurrent.Executors} class. To expose such a raw Executor as a
@@ -78,6 +84,10 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport impleme
 
 	private int queueCapacity = Integer.MAX_VALUE;
 
+	private TaskExecutionMetrics metrics;
+
+	private AdaptivePoolSizingPolicy sizingPolicy;
+
 	private ThreadPoolExecutor threadPoolExecutor;
 
 
@@ -97,9 +107,14 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport impleme
 
 	/**
 	 * Return the ThreadPoolExecutor's core pool size.
+	 * <p>With a {@link #setSizingPolicy sizing policy}, this is the thread pool's
+	 * current core pool size as adjusted by the policy.
 	 */
 	public int getCorePoolSize() {
 		synchronized (this.poolSizeMonitor) {
+			if (this.sizingPolicy != null && this.threadPoolExecutor != null) {
+				return this.threadPoolExecutor.getCorePoolSize();
+			}
 			return this.corePoolSize;
 		}
 	}
@@ -175,10 +190,45 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport impleme
 		this.queueCapacity = queueCapacity;
 	}
 
+	/**
+	 * Specify a {@link TaskExecutionMetrics} instance to record queue wait
+	 * and execution times as well as rejections of all submitted tasks in.
+	 * <p>Default is none, leaving submitted tasks uninstrumented.
+	 */
+	public void setMetrics(TaskExecutionMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Return the {@link TaskExecutionMetrics} instance that this executor
+	 * records its tasks in, if any.
+	 */
+	public TaskExecutionMetrics getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Specify an {@link AdaptivePoolSizingPolicy} to adjust the core pool size
+	 * with at runtime, starting from the configured {@link #setCorePoolSize core pool size}
+	 * and staying below the configured {@link #setMaxPoolSize maximum pool size}.
+	 * <p>Default is none, keeping the core pool size as configured. The policy relies
+	 * on the queue wait times recorded in the {@link #setMetrics metrics}; a
+	 * {@link TaskExecutionMetrics} instance will be created if none has been specified.
+	 */
+	public void setSizingPolicy(AdaptivePoolSizingPolicy sizingPolicy) {
+		this.sizingPolicy = sizingPolicy;
+	}
+
 
 	protected ExecutorService initializeExecutor(
 			ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
 
+		if (this.sizingPolicy != null && this.metrics == null) {
+			this.metrics = new TaskExecutionMetrics();
+		}
+		if (this.metrics != null) {
+			rejectedExecutionHandler = this.metrics.instrument(rejectedExecutionHandler);
+		}
 		BlockingQueue<Runnable> queue = createQueue(this.queueCapacity);
 		ThreadPoolExecutor executor  = new ThreadPoolExecutor(
 				this.corePoolSize, this.maxPoolSize, this.keepAliveSeconds, TimeUnit.SECONDS,
@@ -188,9 +238,24 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport impleme
 		}
 
 		this.threadPoolExecutor = executor;
+		if (this.sizingPolicy != null) {
+			this.sizingPolicy.start(executor, this.metrics, getThreadNamePrefix() + "sizing-");
+		}
 		return executor;
 	}
 
+	/**
+	 * Stop the {@link #setSizingPolicy sizing policy} (if any)
+	 * before shutting down the ThreadPoolExecutor.
+	 */
+	@Override
+	public void shutdown() {
+		if (this.sizingPolicy != null) {
+			this.sizingPolicy.stop();
+		}
+		super.shutdown();
+	}
+
 	/**
 	 * Create the BlockingQueue to use for the ThreadPoolExecutor.
 	 * <p>A LinkedBlockingQueue instance will be created for a positive
@@ -239,7 +304,7 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport impleme
 	public void execute(Runnable task) {
 		Executor executor = getThreadPoolExecutor();
 		try {
-			executor.execute(task);
+			executor.execute(this.metrics != null ? this.metrics.instrument(task) : task);
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -253,7 +318,7 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport impleme
 	public Future<?> submit(Runnable task) {
 		ExecutorService executor = getThreadPoolExecutor();
 		try {
-			return executor.submit(task);
+			return executor.submit(this.metrics != null ? this.metrics.instrument(task) : task);
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -263,7 +328,7 @@ public class ThreadPoolTaskExecutor extends ExecutorConfigurationSupport impleme
 	public <T> Future<T> submit(Callable<T> task) {
 		ExecutorService executor = getThreadPoolExecutor();
 		try {
-			return executor.submit(task);
+			return executor.submit(this.metrics != null ? this.metrics.instrument(task) : task);
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -33,6 +33,7 @@ import org.springframework.core.task.TaskRejectedException;
 import org.springframework.scheduling.SchedulingTaskExecutor;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.support.TaskExecutionMetrics;
 import org.springframework.scheduling.support.TaskUtils;
 import org.springframework.util.Assert;
 import org.springframework.util.ErrorHandler;
@@ -58,6 +59,8 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 
 	private volatile ErrorHandler errorHandler;
 
+	private volatile TaskExecutionMetrics metrics;
+
 
 	/**
 	 * Set the ScheduledExecutorService's pool size.
@@ -76,9 +79,30 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 		this.errorHandler = errorHandler;
 	}
 
+	/**
+	 * Specify a {@link TaskExecutionMetrics} instance to record all submitted
+	 * and scheduled tasks in. Scheduled tasks record their execution times only,
+	 * since they are meant to wait until their scheduled execution time.
+	 * <p>Default is none, leaving tasks uninstrumented.
+	 */
+	public void setMetrics(TaskExecutionMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Return the {@link TaskExecutionMetrics} instance that this scheduler
+	 * records its tasks in, if any.
+	 */
+	public TaskExecutionMetrics getMetrics() {
+		return this.metrics;
+	}
+
 	protected ExecutorService initializeExecutor(
 			ThreadFactory threadFactory, RejectedExecutionHandler rejectedExecutionHandler) {
 
+		if (this.metrics != null) {
+			rejectedExecutionHandler = this.metrics.instrument(rejectedExecutionHandler);
+		}
 		this.scheduledExecutor = createExecutor(this.poolSize, threadFactory, rejectedExecutionHandler);
 		return this.scheduledExecutor;
 	}
@@ -116,7 +140,7 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 	public void execute(Runnable task) {
 		Executor executor = getScheduledExecutor();
 		try {
-			executor.execute(errorHandlingTask(task, false));
+			executor.execute(errorHandlingTask(instrument(task), false));
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -130,7 +154,7 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 	public Future<?> submit(Runnable task) {
 		ExecutorService executor = getScheduledExecutor();
 		try {
-			return executor.submit(errorHandlingTask(task, false));
+			return executor.submit(errorHandlingTask(instrument(task), false));
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -140,6 +164,9 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 	public <T> Future<T> submit(Callable<T> task) {
 		ExecutorService executor = getScheduledExecutor();
 		try {
+			if (this.metrics != null) {
+				task = this.metrics.instrument(task);
+			}
 			if (this.errorHandler != null) {
 				task = new DelegatingErrorHandlingCallable<T>(task, this.errorHandler);
 			}
@@ -162,7 +189,7 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 		try {
 			ErrorHandler errorHandler =
 					(this.errorHandler != null ? this.errorHandler : TaskUtils.getDefaultErrorHandler(true));
-			return new ReschedulingRunnable(task, trigger, executor, errorHandler).schedule();
+			return new ReschedulingRunnable(instrumentScheduled(task), trigger, executor, errorHandler).schedule();
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -173,7 +200,7 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 		ScheduledExecutorService executor = getScheduledExecutor();
 		long initialDelay = startTime.getTime() - System.currentTimeMillis();
 		try {
-			return executor.schedule(errorHandlingTask(task, false), initialDelay, TimeUnit.MILLISECONDS);
+			return executor.schedule(errorHandlingTask(instrumentScheduled(task), false), initialDelay, TimeUnit.MILLISECONDS);
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -184,7 +211,7 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 		ScheduledExecutorService executor = getScheduledExecutor();
 		long initialDelay = startTime.getTime() - System.currentTimeMillis();
 		try {
-			return executor.scheduleAtFixedRate(errorHandlingTask(task, true), initialDelay, period, TimeUnit.MILLISECONDS);
+			return executor.scheduleAtFixedRate(errorHandlingTask(instrumentScheduled(task), true), initialDelay, period, TimeUnit.MILLISECONDS);
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -194,7 +221,7 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 	public ScheduledFuture scheduleAtFixedRate(Runnable task, long period) {
 		ScheduledExecutorService executor = getScheduledExecutor();
 		try {
-			return executor.scheduleAtFixedRate(errorHandlingTask(task, true), 0, period, TimeUnit.MILLISECONDS);
+			return executor.scheduleAtFixedRate(errorHandlingTask(instrumentScheduled(task), true), 0, period, TimeUnit.MILLISECONDS);
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -205,7 +232,7 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 		ScheduledExecutorService executor = getScheduledExecutor();
 		long initialDelay = startTime.getTime() - System.currentTimeMillis();
 		try {
-			return executor.scheduleWithFixedDelay(errorHandlingTask(task, true), initialDelay, delay, TimeUnit.MILLISECONDS);
+			return executor.scheduleWithFixedDelay(errorHandlingTask(instrumentScheduled(task), true), initialDelay, delay, TimeUnit.MILLISECONDS);
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -215,7 +242,7 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 	public ScheduledFuture scheduleWithFixedDelay(Runnable task, long delay) {
 		ScheduledExecutorService executor = getScheduledExecutor();
 		try {
-			return executor.scheduleWithFixedDelay(errorHandlingTask(task, true), 0, delay, TimeUnit.MILLISECONDS);
+			return executor.scheduleWithFixedDelay(errorHandlingTask(instrumentScheduled(task), true), 0, delay, TimeUnit.MILLISECONDS);
 		}
 		catch (RejectedExecutionException ex) {
 			throw new TaskRejectedException("Executor [" + executor + "] did not accept task: " + task, ex);
@@ -226,6 +253,14 @@ public class ThreadPoolTaskScheduler extends ExecutorConfigurationSupport
 		return TaskUtils.decorateTaskWithErrorHandler(task, this.errorHandler, isRepeatingTask);
 	}
 
+	private Runnable instrument(Runnable task) {
+		return (this.metrics != null ? this.metrics.instrument(task) : task);
+	}
+
+	private Runnable instrumentScheduled(Runnable task) {
+		return (this.metrics != null ? this.metrics.instrumentScheduled(task) : task);
+	}
+
 
 	private static class DelegatingErrorHandlingCallable<V> implements Callable<V> {
 
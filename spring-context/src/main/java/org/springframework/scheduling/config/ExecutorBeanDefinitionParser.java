@@ -53,6 +53,16 @@ public class ExecutorBeanDefinitionParser extends AbstractSingleBeanDefinitionPa
 		if (StringUtils.hasText(poolSize)) {
 			builder.addPropertyValue("poolSize", poolSize);
 		}
+		if ("fork-join".equals(element.getAttribute("type"))) {
+			builder.addPropertyValue("forkJoin", true);
+		}
+		if ("adaptive".equals(element.getAttribute("pool-sizing"))) {
+			builder.addPropertyValue("adaptivePoolSizing", true);
+			String targetQueueWait = element.getAttribute("target-queue-wait");
+			if (StringUtils.hasText(targetQueueWait)) {
+				builder.addPropertyValue("targetQueueWait", targetQueueWait);
+			}
+		}
 	}
 
 	private void configureRejectionPolicy(Element element, BeanDefinitionBuilder builder) {
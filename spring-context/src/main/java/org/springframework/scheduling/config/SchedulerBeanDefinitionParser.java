@@ -30,8 +30,14 @@ import org.springframework.util.StringUtils;
  */
 public class SchedulerBeanDefinitionParser extends AbstractSingleBeanDefinitionParser {
 
+	private static final String HASHED_WHEEL_TYPE = "hashed-wheel";
+
+
 	@Override
 	protected String getBeanClassName(Element element) {
+		if (HASHED_WHEEL_TYPE.equals(element.getAttribute("type"))) {
+			return "org.springframework.scheduling.concurrent.HashedWheelTaskScheduler";
+		}
 		return "org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler";
 	}
 
@@ -41,6 +47,20 @@ public class SchedulerBeanDefinitionParser extends AbstractSingleBeanDefinitionP
 		if (StringUtils.hasText(poolSize)) {
 			builder.addPropertyValue("poolSize", poolSize);
 		}
+		if (HASHED_WHEEL_TYPE.equals(element.getAttribute("type"))) {
+			String tickDuration = element.getAttribute("tick-duration");
+			if (StringUtils.hasText(tickDuration)) {
+				builder.addPropertyValue("tickDuration", tickDuration);
+			}
+			String ticksPerWheel = element.getAttribute("ticks-per-wheel");
+			if (StringUtils.hasText(ticksPerWheel)) {
+				builder.addPropertyValue("ticksPerWheel", ticksPerWheel);
+			}
+			String executor = element.getAttribute("executor");
+			if (StringUtils.hasText(executor)) {
+				builder.addPropertyReference("taskExecutor", executor);
+			}
+		}
 	}
 
 }
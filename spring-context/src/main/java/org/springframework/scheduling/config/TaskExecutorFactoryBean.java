@@ -23,12 +23,15 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.AdaptivePoolSizingPolicy;
+import org.springframework.scheduling.concurrent.ForkJoinPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.StringUtils;
 
 /**
  * FactoryBean for creating ThreadPoolTaskExecutor instances, choosing
  * between the standard concurrent and the backport-concurrent variant.
+ * Alternatively creates a work-stealing ForkJoinPoolTaskExecutor.
  *
  * @author Mark Fisher
  * @author Juergen Hoeller
@@ -45,6 +48,12 @@ public class TaskExecutorFactoryBean implements
 
 	private Integer keepAliveSeconds;
 
+	private boolean adaptivePoolSizing = false;
+
+	private Long targetQueueWait;
+
+	private boolean forkJoin = false;
+
 	private String beanName;
 
 	private TaskExecutor target;
@@ -66,14 +75,35 @@ public class TaskExecutorFactoryBean implements
 		this.keepAliveSeconds = keepAliveSeconds;
 	}
 
+	public void setAdaptivePoolSizing(boolean adaptivePoolSizing) {
+		this.adaptivePoolSizing = adaptivePoolSizing;
+	}
+
+	public void setTargetQueueWait(long targetQueueWait) {
+		this.targetQueueWait = targetQueueWait;
+	}
+
+	public void setForkJoin(boolean forkJoin) {
+		this.forkJoin = forkJoin;
+	}
+
 	public void setBeanName(String beanName) {
 		this.beanName = beanName;
 	}
 
 
 	public void afterPropertiesSet() throws Exception {
+		if (this.forkJoin) {
+			initializeForkJoinExecutor();
+			return;
+		}
 		BeanWrapper bw = new BeanWrapperImpl(ThreadPoolTaskExecutor.class);
-		determinePoolSizeRange(bw);
+		if (this.adaptivePoolSizing) {
+			determineAdaptivePoolSizeRange(bw);
+		}
+		else {
+			determinePoolSizeRange(bw);
+		}
 		if (this.queueCapacity != null) {
 			bw.setPropertyValue("queueCapacity", this.queueCapacity);
 		}
@@ -92,6 +122,29 @@ public class TaskExecutorFactoryBean implements
 		}
 	}
 
+	private void initializeForkJoinExecutor() {
+		if (this.queueCapacity != null || this.keepAliveSeconds != null ||
+				this.rejectedExecutionHandler != null || this.adaptivePoolSizing) {
+			throw new IllegalArgumentException("A fork-join executor does not support queue-capacity, " +
+					"keep-alive, rejection-policy and adaptive pool-sizing settings");
+		}
+		ForkJoinPoolTaskExecutor executor = new ForkJoinPoolTaskExecutor();
+		if (StringUtils.hasText(this.poolSize)) {
+			try {
+				executor.setParallelism(Integer.valueOf(this.poolSize));
+			}
+			catch (NumberFormatException ex) {
+				throw new IllegalArgumentException("Invalid pool-size value [" + this.poolSize + "]: " +
+						"only a single parallelism integer (e.g. \"5\") is supported for a fork-join executor", ex);
+			}
+		}
+		if (this.beanName != null) {
+			executor.setThreadNamePrefix(this.beanName + "-");
+		}
+		executor.afterPropertiesSet();
+		this.target = executor;
+	}
+
 	private void determinePoolSizeRange(BeanWrapper bw) {
 		if (StringUtils.hasText(this.poolSize)) {
 			try {
@@ -135,13 +188,52 @@ public class TaskExecutorFactoryBean implements
 		}
 	}
 
+	private void determineAdaptivePoolSizeRange(BeanWrapper bw) {
+		AdaptivePoolSizingPolicy sizingPolicy = new AdaptivePoolSizingPolicy();
+		if (this.targetQueueWait != null) {
+			sizingPolicy.setTargetQueueWait(this.targetQueueWait);
+		}
+		if (StringUtils.hasText(this.poolSize)) {
+			try {
+				// a range specifies the bounds for the core pool size, a single value its upper bound
+				int minPoolSize = 1;
+				int maxPoolSize;
+				int separatorIndex = this.poolSize.indexOf('-');
+				if (separatorIndex != -1) {
+					minPoolSize = Integer.valueOf(this.poolSize.substring(0, separatorIndex));
+					maxPoolSize = Integer.valueOf(this.poolSize.substring(separatorIndex + 1, this.poolSize.length()));
+					if (minPoolSize > maxPoolSize) {
+						throw new IllegalArgumentException(
+								"Lower bound of pool-size range must not exceed the upper bound");
+					}
+				}
+				else {
+					maxPoolSize = Integer.valueOf(this.poolSize);
+					minPoolSize = Math.min(minPoolSize, maxPoolSize);
+				}
+				sizingPolicy.setMinPoolSize(minPoolSize);
+				sizingPolicy.setMaxPoolSize(maxPoolSize);
+				bw.setPropertyValue("corePoolSize", minPoolSize);
+				bw.setPropertyValue("maxPoolSize", maxPoolSize);
+			}
+			catch (NumberFormatException ex) {
+				throw new IllegalArgumentException("Invalid pool-size value [" + this.poolSize + "]: only single " +
+						"maximum integer (e.g. \"5\") and minimum-maximum range (e.g. \"3-5\") are supported", ex);
+			}
+		}
+		bw.setPropertyValue("sizingPolicy", sizingPolicy);
+	}
+
 
 	public TaskExecutor getObject() {
 		return this.target;
 	}
 
 	public Class<? extends TaskExecutor> getObjectType() {
-		return (this.target != null ? this.target.getClass() : ThreadPoolTaskExecutor.class);
+		if (this.target != null) {
+			return this.target.getClass();
+		}
+		return (this.forkJoin ? ForkJoinPoolTaskExecutor.class : ThreadPoolTaskExecutor.class);
 	}
 
 	public boolean isSingleton() {
@@ -0,0 +1,379 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.support;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedOperationParameters;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.SchedulingAwareRunnable;
+import org.springframework.util.Assert;
+import org.springframework.util.LatencyHistogram;
+
+/**
+ * Metrics for the tasks passing through a task executor: counters for submitted,
+ * completed, failed and rejected tasks as well as for tasks that ran in the
+ * submitting thread through a caller-runs policy, plus latency histograms for
+ * the time that tasks waited in the queue and the time they took to execute.
+ *
+ * <p>To be set on a {@link org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor},
+ * {@link org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler} or
+ * {@link org.springframework.scheduling.concurrent.ConcurrentTaskExecutor},
+ * which will then wrap all submitted tasks through the {@code instrument} methods.
+ * Typically defined as a bean of its own: it is annotated as a {@link ManagedResource},
+ * so that it gets exported automatically by an
+ * {@link org.springframework.jmx.export.annotation.AnnotationMBeanExporter}
+ * (as registered through {@code @EnableMBeanExport} or {@code <context:mbean-export/>}).
+ *
+ * @author agent
+ * @since 4.0
+ * @see org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor#setMetrics
+ * @see org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler#setMetrics
+ * @see org.springframework.scheduling.concurrent.ConcurrentTaskExecutor#setMetrics
+ */
+@ManagedResource(description = "Task execution metrics")
+public class TaskExecutionMetrics {
+
+	private final AtomicLong submittedCount = new AtomicLong();
+
+	private final AtomicLong completedCount = new AtomicLong();
+
+	private final AtomicLong failedCount = new AtomicLong();
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	private final AtomicLong callerRunsCount = new AtomicLong();
+
+	private final AtomicInteger activeCount = new AtomicInteger();
+
+	private final LatencyHistogram queueWaitHistogram = new LatencyHistogram();
+
+	private final LatencyHistogram executionTimeHistogram = new LatencyHistogram();
+
+
+	/**
+	 * Wrap the given task for recording its queue wait and execution time,
+	 * starting the queue wait at the time of this call.
+	 * @param task the task to be submitted
+	 * @return the instrumented task to hand to the executor
+	 */
+	public Runnable instrument(Runnable task) {
+		Assert.notNull(task, "Task must not be null");
+		this.submittedCount.incrementAndGet();
+		return new InstrumentedRunnable(task, System.nanoTime(), false);
+	}
+
+	/**
+	 * Wrap the given task for recording its queue wait and execution time,
+	 * starting the queue wait at the time of this call.
+	 * @param task the task to be submitted
+	 * @return the instrumented task to hand to the executor
+	 */
+	public <T> Callable<T> instrument(Callable<T> task) {
+		Assert.notNull(task, "Task must not be null");
+		this.submittedCount.incrementAndGet();
+		return new InstrumentedCallable<T>(task, System.nanoTime());
+	}
+
+	/**
+	 * Wrap the given scheduled task for recording the time each of its
+	 * executions takes. No queue wait gets recorded for scheduled tasks,
+	 * since they are meant to wait until their scheduled execution time.
+	 * <p>Each repeated execution of a periodic task counts as a submission
+	 * of its own, keeping the submitted count in line with the completed
+	 * and failed counts, which are recorded per execution.
+	 * @param task the task to be scheduled
+	 * @return the instrumented task to hand to the scheduler
+	 */
+	public Runnable instrumentScheduled(Runnable task) {
+		Assert.notNull(task, "Task must not be null");
+		this.submittedCount.incrementAndGet();
+		return new InstrumentedRunnable(task, -1, true);
+	}
+
+	/**
+	 * Wrap the given {@link RejectedExecutionHandler} for recording rejected tasks,
+	 * counting tasks that a {@link ThreadPoolExecutor.CallerRunsPolicy} runs in the
+	 * submitting thread separately from rejections.
+	 * @param handler the handler that the thread pool would use otherwise
+	 * @return the instrumented handler
+	 */
+	public RejectedExecutionHandler instrument(final RejectedExecutionHandler handler) {
+		Assert.notNull(handler, "RejectedExecutionHandler must not be null");
+		return new RejectedExecutionHandler() {
+			public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+				if (handler instanceof ThreadPoolExecutor.CallerRunsPolicy && !executor.isShutdown()) {
+					callerRunsCount.incrementAndGet();
+				}
+				else {
+					rejectedCount.incrementAndGet();
+				}
+				handler.rejectedExecution(task, executor);
+			}
+		};
+	}
+
+	/**
+	 * Record a rejected task, for executors that do not expose
+	 * a {@link RejectedExecutionHandler} to {@link #instrument(RejectedExecutionHandler) instrument}.
+	 */
+	public void recordRejection() {
+		this.rejectedCount.incrementAndGet();
+	}
+
+
+	/**
+	 * Return the number of tasks submitted so far, including rejected tasks.
+	 * Every execution of a periodic scheduled task counts as a submission.
+	 */
+	@ManagedAttribute(description = "Number of submitted tasks, including rejected ones")
+	public long getSubmittedCount() {
+		return this.submittedCount.get();
+	}
+
+	/**
+	 * Return the number of task executions that completed normally.
+	 */
+	@ManagedAttribute(description = "Number of task executions that completed normally")
+	public long getCompletedCount() {
+		return this.completedCount.get();
+	}
+
+	/**
+	 * Return the number of task executions that threw an exception.
+	 */
+	@ManagedAttribute(description = "Number of task executions that threw an exception")
+	public long getFailedCount() {
+		return this.failedCount.get();
+	}
+
+	/**
+	 * Return the number of tasks that the executor rejected.
+	 */
+	@ManagedAttribute(description = "Number of rejected tasks")
+	public long getRejectedCount() {
+		return this.rejectedCount.get();
+	}
+
+	/**
+	 * Return the number of tasks that ran in the submitting thread
+	 * because of a full executor.
+	 */
+	@ManagedAttribute(description = "Number of tasks run by the submitting thread through a caller-runs policy")
+	public long getCallerRunsCount() {
+		return this.callerRunsCount.get();
+	}
+
+	/**
+	 * Return the number of tasks currently executing.
+	 */
+	@ManagedAttribute(description = "Number of currently executing tasks")
+	public int getActiveCount() {
+		return this.activeCount.get();
+	}
+
+	/**
+	 * Return the histogram of the time that tasks waited in the queue.
+	 */
+	public LatencyHistogram getQueueWaitHistogram() {
+		return this.queueWaitHistogram;
+	}
+
+	/**
+	 * Return the histogram of the time that task executions took.
+	 */
+	public LatencyHistogram getExecutionTimeHistogram() {
+		return this.executionTimeHistogram;
+	}
+
+	@ManagedAttribute(description = "Average queue wait time in milliseconds")
+	public double getAverageQueueWaitTime() {
+		return this.queueWaitHistogram.getAverageMicros() / 1000.0;
+	}
+
+	@ManagedAttribute(description = "Maximum queue wait time in milliseconds")
+	public double getMaxQueueWaitTime() {
+		return this.queueWaitHistogram.getMaxMicros() / 1000.0;
+	}
+
+	@ManagedAttribute(description = "Average execution time in milliseconds")
+	public double getAverageExecutionTime() {
+		return this.executionTimeHistogram.getAverageMicros() / 1000.0;
+	}
+
+	@ManagedAttribute(description = "Maximum execution time in milliseconds")
+	public double getMaxExecutionTime() {
+		return this.executionTimeHistogram.getMaxMicros() / 1000.0;
+	}
+
+	@ManagedAttribute(description = "Upper bounds of the histogram buckets in microseconds")
+	public long[] getLatencyBucketBounds() {
+		return LatencyHistogram.getBucketBoundsMicros();
+	}
+
+	@ManagedAttribute(description = "Number of tasks per queue wait histogram bucket")
+	public long[] getQueueWaitBucketCounts() {
+		return this.queueWaitHistogram.getBucketCounts();
+	}
+
+	@ManagedAttribute(description = "Number of task executions per execution time histogram bucket")
+	public long[] getExecutionTimeBucketCounts() {
+		return this.executionTimeHistogram.getBucketCounts();
+	}
+
+	@ManagedOperation(description = "Upper estimate for a percentile of queue wait times in microseconds")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "percentile", description = "Percentile between 0 and 100"))
+	public long getQueueWaitPercentile(double percentile) {
+		return this.queueWaitHistogram.getPercentileMicros(percentile);
+	}
+
+	@ManagedOperation(description = "Upper estimate for a percentile of execution times in microseconds")
+	@ManagedOperationParameters(@ManagedOperationParameter(name = "percentile", description = "Percentile between 0 and 100"))
+	public long getExecutionTimePercentile(double percentile) {
+		return this.executionTimeHistogram.getPercentileMicros(percentile);
+	}
+
+	/**
+	 * Reset all counters and histograms, except for the number of active tasks.
+	 */
+	@ManagedOperation(description = "Reset all counters and histograms")
+	public void reset() {
+		this.submittedCount.set(0);
+		this.completedCount.set(0);
+		this.failedCount.set(0);
+		this.rejectedCount.set(0);
+		this.callerRunsCount.set(0);
+		this.queueWaitHistogram.reset();
+		this.executionTimeHistogram.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "submitted=" + getSubmittedCount() + ", completed=" + getCompletedCount() +
+				", failed=" + getFailedCount() + ", rejected=" + getRejectedCount() +
+				", callerRuns=" + getCallerRunsCount() + ", active=" + getActiveCount() +
+				", averageQueueWaitTime=" + getAverageQueueWaitTime() +
+				"ms, averageExecutionTime=" + getAverageExecutionTime() + "ms";
+	}
+
+
+	private long beforeExecution(long enqueueTime) {
+		long startTime = System.nanoTime();
+		if (enqueueTime >= 0) {
+			this.queueWaitHistogram.recordMicros(TimeUnit.NANOSECONDS.toMicros(startTime - enqueueTime));
+		}
+		this.activeCount.incrementAndGet();
+		return startTime;
+	}
+
+	private void afterExecution(long startTime, boolean failed) {
+		this.executionTimeHistogram.recordMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startTime));
+		this.activeCount.decrementAndGet();
+		if (failed) {
+			this.failedCount.incrementAndGet();
+		}
+		else {
+			this.completedCount.incrementAndGet();
+		}
+	}
+
+
+	private class InstrumentedRunnable implements SchedulingAwareRunnable {
+
+		private final Runnable task;
+
+		private final long enqueueTime;
+
+		private final boolean scheduled;
+
+		private volatile boolean executed;
+
+		public InstrumentedRunnable(Runnable task, long enqueueTime, boolean scheduled) {
+			this.task = task;
+			this.enqueueTime = enqueueTime;
+			this.scheduled = scheduled;
+		}
+
+		public void run() {
+			if (this.scheduled) {
+				// The first execution has been counted when scheduling the task
+				if (this.executed) {
+					submittedCount.incrementAndGet();
+				}
+				this.executed = true;
+			}
+			long startTime = beforeExecution(this.enqueueTime);
+			boolean failed = true;
+			try {
+				this.task.run();
+				failed = false;
+			}
+			finally {
+				afterExecution(startTime, failed);
+			}
+		}
+
+		public boolean isLongLived() {
+			return (this.task instanceof SchedulingAwareRunnable && ((SchedulingAwareRunnable) this.task).isLongLived());
+		}
+
+		@Override
+		public String toString() {
+			return this.task.toString();
+		}
+	}
+
+
+	private class InstrumentedCallable<T> implements Callable<T> {
+
+		private final Callable<T> task;
+
+		private final long enqueueTime;
+
+		public InstrumentedCallable(Callable<T> task, long enqueueTime) {
+			this.task = task;
+			this.enqueueTime = enqueueTime;
+		}
+
+		public T call() throws Exception {
+			long startTime = beforeExecution(this.enqueueTime);
+			boolean failed = true;
+			try {
+				T result = this.task.call();
+				failed = false;
+				return result;
+			}
+			finally {
+				afterExecution(startTime, failed);
+			}
+		}
+
+		@Override
+		public String toString() {
+			return this.task.toString();
+		}
+	}
+
+}
@@ -17,12 +17,15 @@
 package org.springframework.validation.beanvalidation;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import javax.validation.metadata.BeanDescriptor;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -30,8 +33,12 @@ import org.hibernate.validator.HibernateValidator;
 import org.hibernate.validator.method.MethodConstraintViolation;
 import org.hibernate.validator.method.MethodConstraintViolationException;
 import org.hibernate.validator.method.MethodValidator;
+import org.hibernate.validator.method.metadata.MethodDescriptor;
+import org.hibernate.validator.method.metadata.ParameterDescriptor;
 
+import org.springframework.aop.support.AopUtils;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.validation.annotation.Validated;
 
@@ -53,6 +60,10 @@ import org.springframework.validation.annotation.Validated;
  * or Bean Validation 1.0 with Hibernate Validator 4.2 or higher. The actual provider
  * will be autodetected and automatically adapted.
  *
+ * <p>The constraint metadata of each method is determined once per target class:
+ * Invocations of methods without any parameter or return value constraints
+ * (and without cascaded validation) proceed without going through the validator.
+ *
  * @author Juergen Hoeller
  * @since 3.1
  * @see MethodValidationPostProcessor
@@ -67,9 +78,13 @@ public class MethodValidationInterceptor implements MethodInterceptor {
 
 	private static Method validateReturnValueMethod;
 
+	private static Method getConstraintsForMethodMethod;
+
 	static {
 		try {
 			forExecutablesMethod = Validator.class.getMethod("forExecutables");
+			getConstraintsForMethodMethod = BeanDescriptor.class.getMethod(
+					"getConstraintsForMethod", String.class, Class[].class);
 			Class<?> executableValidatorClass = forExecutablesMethod.getReturnType();
 			validateParametersMethod = executableValidatorClass.getMethod(
 					"validateParameters", Object.class, Method.class, Object[].class, Class[].class);
@@ -84,6 +99,9 @@ public class MethodValidationInterceptor implements MethodInterceptor {
 
 	private final Validator validator;
 
+	private final Map<Class<?>, Map<Method, Boolean>> constrainedMethodCache =
+			new ConcurrentHashMap<Class<?>, Map<Method, Boolean>>(64);
+
 
 	/**
 	 * Create a new MethodValidationInterceptor using a default JSR-303 validator underneath.
@@ -112,6 +130,9 @@ public class MethodValidationInterceptor implements MethodInterceptor {
 
 	@SuppressWarnings("unchecked")
 	public Object invoke(MethodInvocation invocation) throws Throwable {
+		if (!isConstrained(determineTargetClass(invocation), invocation.getMethod())) {
+			return invocation.proceed();
+		}
 		Class[] groups = determineValidationGroups(invocation);
 		if (forExecutablesMethod != null) {
 			Object executableValidator = ReflectionUtils.invokeMethod(forExecutablesMethod, this.validator);
@@ -135,6 +156,45 @@ public class MethodValidationInterceptor implements MethodInterceptor {
 		}
 	}
 
+	/**
+	 * Determine the user-level class of the target object, falling back to the
+	 * declaring class of the method if there is no target object.
+	 */
+	private Class<?> determineTargetClass(MethodInvocation invocation) {
+		Object target = invocation.getThis();
+		Class<?> targetClass = (target != null ? AopUtils.getTargetClass(target) :
+				invocation.getMethod().getDeclaringClass());
+		return ClassUtils.getUserClass(targetClass);
+	}
+
+	/**
+	 * Determine whether the given method has any parameter or return value
+	 * constraints when invoked on the given target class, caching the result.
+	 * @param targetClass the class of the target object
+	 * @param method the invoked method
+	 * @return {@code false} if the method is known to be unconstrained
+	 */
+	private boolean isConstrained(Class<?> targetClass, Method method) {
+		Map<Method, Boolean> methodCache = this.constrainedMethodCache.get(targetClass);
+		if (methodCache == null) {
+			methodCache = new ConcurrentHashMap<Method, Boolean>(16);
+			this.constrainedMethodCache.put(targetClass, methodCache);
+		}
+		Boolean constrained = methodCache.get(method);
+		if (constrained == null) {
+			if (getConstraintsForMethodMethod != null) {
+				BeanDescriptor beanDescriptor = this.validator.getConstraintsForClass(targetClass);
+				constrained = (ReflectionUtils.invokeMethod(getConstraintsForMethodMethod, beanDescriptor,
+						method.getName(), method.getParameterTypes()) != null);
+			}
+			else {
+				constrained = HibernateValidatorDelegate.isConstrained(this.validator, targetClass, method);
+			}
+			methodCache.put(method, constrained);
+		}
+		return constrained;
+	}
+
 	/**
 	 * Determine the validation groups to validate against for the given method invocation.
 	 * <p>Default are the validation groups as specified in the {@link Validated} annotation
@@ -174,6 +234,24 @@ public class MethodValidationInterceptor implements MethodInterceptor {
 			}
 			return returnValue;
 		}
+
+		public static boolean isConstrained(Validator validator, Class<?> targetClass, Method method) {
+			MethodDescriptor descriptor = validator.unwrap(MethodValidator.class).getConstraintsForType(targetClass)
+					.getConstraintsForMethod(method.getName(), method.getParameterTypes());
+			if (descriptor == null) {
+				// not a method of the target class - let the MethodValidator handle it
+				return true;
+			}
+			if (descriptor.hasConstraints() || descriptor.isCascaded()) {
+				return true;
+			}
+			for (ParameterDescriptor parameterDescriptor : descriptor.getParameterDescriptors()) {
+				if (parameterDescriptor.hasConstraints() || parameterDescriptor.isCascaded()) {
+					return true;
+				}
+			}
+			return false;
+		}
 	}
 
 }
@@ -16,13 +16,13 @@
 
 package org.springframework.validation.beanvalidation;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.validation.ConstraintViolation;
 import javax.validation.metadata.BeanDescriptor;
 import javax.validation.metadata.ConstraintDescriptor;
@@ -44,6 +44,12 @@ import org.springframework.validation.SmartValidator;
  * <p>Can be used as a programmatic wrapper. Also serves as base class for
  * {@link CustomValidatorBean} and {@link LocalValidatorFactoryBean}.
  *
+ * <p>As of Spring 4.0, this adapter caches the constraint metadata per target class:
+ * Objects of a class without any constraints (as indicated by
+ * {@link BeanDescriptor#isBeanConstrained()}) are not passed on to the JSR-303
+ * Validator at all. The error codes and arguments derived from each
+ * {@link ConstraintDescriptor} are cached as well.
+ *
  * @author Juergen Hoeller
  * @since 3.0
  */
@@ -59,6 +65,11 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 
 	private javax.validation.Validator targetValidator;
 
+	private final Map<Class<?>, Boolean> constrainedClassCache = new ConcurrentHashMap<Class<?>, Boolean>(64);
+
+	private final Map<ConstraintDescriptor<?>, ConstraintMetadata> constraintMetadataCache =
+			new ConcurrentHashMap<ConstraintDescriptor<?>, ConstraintMetadata>(64);
+
 
 	/**
 	 * Create a new SpringValidatorAdapter for the given JSR-303 Validator.
@@ -86,11 +97,16 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 	}
 
 	public void validate(Object target, Errors errors) {
-		processConstraintViolations(this.targetValidator.validate(target), errors);
+		if (isConstrained(target)) {
+			processConstraintViolations(this.targetValidator.validate(target), errors);
+		}
 	}
 
 	@SuppressWarnings("rawtypes")
 	public void validate(Object target, Errors errors, Object... validationHints) {
+		if (!isConstrained(target)) {
+			return;
+		}
 		Set<Class> groups = new LinkedHashSet<Class>();
 		if (validationHints != null) {
 			for (Object hint : validationHints) {
@@ -110,19 +126,23 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 	 * @param errors the Spring errors object to register to
 	 */
 	protected void processConstraintViolations(Set<ConstraintViolation<Object>> violations, Errors errors) {
+		if (violations.isEmpty()) {
+			return;
+		}
+		BindingResult bindingResult = (errors instanceof BindingResult ? (BindingResult) errors : null);
+		String nestedPath = (bindingResult != null ? bindingResult.getNestedPath() : null);
 		for (ConstraintViolation<Object> violation : violations) {
 			String field = violation.getPropertyPath().toString();
 			FieldError fieldError = errors.getFieldError(field);
 			if (fieldError == null || !fieldError.isBindingFailure()) {
 				try {
 					ConstraintDescriptor<?> cd = violation.getConstraintDescriptor();
-					String errorCode = cd.getAnnotation().annotationType().getSimpleName();
+					String errorCode = getConstraintMetadata(cd).errorCode;
 					Object[] errorArgs = getArgumentsForConstraint(errors.getObjectName(), field, cd);
-					if (errors instanceof BindingResult) {
+					if (bindingResult != null) {
 						// Can do custom FieldError registration with invalid value from ConstraintViolation,
 						// as necessary for Hibernate Validator compatibility (non-indexed set path in field)
-						BindingResult bindingResult = (BindingResult) errors;
-						String nestedField = bindingResult.getNestedPath() + field;
+						String nestedField = nestedPath + field;
 						if ("".equals(nestedField)) {
 							String[] errorCodes = bindingResult.resolveMessageCodes(errorCode);
 							bindingResult.addError(new ObjectError(
@@ -174,20 +194,46 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 	 * @see org.springframework.validation.DefaultBindingErrorProcessor#getArgumentsForBindError
 	 */
 	protected Object[] getArgumentsForConstraint(String objectName, String field, ConstraintDescriptor<?> descriptor) {
-		List<Object> arguments = new LinkedList<Object>();
+		Object[] exposedAttributes = getConstraintMetadata(descriptor).exposedAttributes;
+		Object[] arguments = new Object[exposedAttributes.length + 1];
 		String[] codes = new String[] {objectName + Errors.NESTED_PATH_SEPARATOR + field, field};
-		arguments.add(new DefaultMessageSourceResolvable(codes, field));
-		// Using a TreeMap for alphabetical ordering of attribute names
-		Map<String, Object> attributesToExpose = new TreeMap<String, Object>();
-		for (Map.Entry<String, Object> entry : descriptor.getAttributes().entrySet()) {
-			String attributeName = entry.getKey();
-			Object attributeValue = entry.getValue();
-			if (!internalAnnotationAttributes.contains(attributeName)) {
-				attributesToExpose.put(attributeName, attributeValue);
-			}
+		arguments[0] = new DefaultMessageSourceResolvable(codes, field);
+		System.arraycopy(exposedAttributes, 0, arguments, 1, exposedAttributes.length);
+		return arguments;
+	}
+
+	/**
+	 * Determine whether the given target object is subject to any constraints,
+	 * caching the result per target class.
+	 * @param target the object to validate
+	 * @return {@code false} if the object's class is known to be unconstrained
+	 * @see BeanDescriptor#isBeanConstrained()
+	 */
+	private boolean isConstrained(Object target) {
+		if (target == null) {
+			// let the target Validator handle the null case
+			return true;
+		}
+		Class<?> targetClass = target.getClass();
+		Boolean constrained = this.constrainedClassCache.get(targetClass);
+		if (constrained == null) {
+			constrained = this.targetValidator.getConstraintsForClass(targetClass).isBeanConstrained();
+			this.constrainedClassCache.put(targetClass, constrained);
 		}
-		arguments.addAll(attributesToExpose.values());
-		return arguments.toArray(new Object[arguments.size()]);
+		return constrained;
+	}
+
+	/**
+	 * Obtain the error code and the exposed attribute values for the given
+	 * constraint descriptor, resolving them once and caching them afterwards.
+	 */
+	private ConstraintMetadata getConstraintMetadata(ConstraintDescriptor<?> descriptor) {
+		ConstraintMetadata metadata = this.constraintMetadataCache.get(descriptor);
+		if (metadata == null) {
+			metadata = new ConstraintMetadata(descriptor);
+			this.constraintMetadataCache.put(descriptor, metadata);
+		}
+		return metadata;
 	}
 
 
@@ -196,6 +242,9 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 	//---------------------------------------------------------------------
 
 	public <T> Set<ConstraintViolation<T>> validate(T object, Class<?>... groups) {
+		if (!isConstrained(object)) {
+			return Collections.emptySet();
+		}
 		return this.targetValidator.validate(object, groups);
 	}
 
@@ -217,4 +266,29 @@ public class SpringValidatorAdapter implements SmartValidator, javax.validation.
 		return this.targetValidator.unwrap(type);
 	}
 
+
+	/**
+	 * Error code and exposed annotation attributes for a specific constraint.
+	 */
+	private static class ConstraintMetadata {
+
+		public final String errorCode;
+
+		public final Object[] exposedAttributes;
+
+		public ConstraintMetadata(ConstraintDescriptor<?> descriptor) {
+			this.errorCode = descriptor.getAnnotation().annotationType().getSimpleName();
+			// Using a TreeMap for alphabetical ordering of attribute names
+			Map<String, Object> attributesToExpose = new TreeMap<String, Object>();
+			for (Map.Entry<String, Object> entry : descriptor.getAttributes().entrySet()) {
+				String attributeName = entry.getKey();
+				Object attributeValue = entry.getValue();
+				if (!internalAnnotationAttributes.contains(attributeName)) {
+					attributesToExpose.put(attributeName, attributeValue);
+				}
+			}
+			this.exposedAttributes = attributesToExpose.values().toArray();
+		}
+	}
+
 }
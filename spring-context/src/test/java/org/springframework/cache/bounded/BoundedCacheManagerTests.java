@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.bounded;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class BoundedCacheManagerTests {
+
+	@Test
+	public void testDynamicMode() {
+		CacheManager cm = new BoundedCacheManager();
+		Cache cache1 = cm.getCache("c1");
+		assertTrue(cache1 instanceof BoundedCache);
+		assertSame(cache1, cm.getCache("c1"));
+		Cache cache2 = cm.getCache("c2");
+		assertTrue(cache2 instanceof BoundedCache);
+		assertSame(cache2, cm.getCache("c2"));
+		assertEquals(2, cm.getCacheNames().size());
+	}
+
+	@Test
+	public void testStaticMode() {
+		BoundedCacheManager cm = new BoundedCacheManager("c1", "c2");
+		assertEquals(2, cm.getCacheNames().size());
+		Cache cache1 = cm.getCache("c1");
+		assertTrue(cache1 instanceof BoundedCache);
+		assertSame(cache1, cm.getCache("c1"));
+		Cache cache2 = cm.getCache("c2");
+		assertTrue(cache2 instanceof BoundedCache);
+		assertNull(cm.getCache("c3"));
+	}
+
+	@Test
+	public void testCacheSettingsPerName() {
+		BoundedCacheSettings defaultSettings = new BoundedCacheSettings();
+		defaultSettings.setMaximumSize(5);
+		BoundedCacheSettings smallSettings = new BoundedCacheSettings();
+		smallSettings.setMaximumSize(1);
+		smallSettings.setAllowNullValues(false);
+
+		BoundedCacheManager cm = new BoundedCacheManager();
+		cm.setDefaultCacheSettings(defaultSettings);
+		cm.setCacheSettings(Collections.singletonMap("small", smallSettings));
+
+		BoundedCache small = (BoundedCache) cm.getCache("small");
+		assertFalse(small.isAllowNullValues());
+		small.put("k1", "v1");
+		small.put("k2", "v2");
+		assertEquals(1, small.size());
+
+		BoundedCache other = (BoundedCache) cm.getCache("other");
+		assertTrue(other.isAllowNullValues());
+		for (int i = 0; i < 10; i++) {
+			other.put(i, "v");
+		}
+		assertEquals(5, other.size());
+	}
+
+}
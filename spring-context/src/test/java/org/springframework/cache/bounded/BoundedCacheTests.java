@@ -0,0 +1,197 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.bounded;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class BoundedCacheTests {
+
+	private static final String CACHE_NAME = "testCache";
+
+	private BoundedCache cache;
+
+
+	@Before
+	public void setUp() {
+		cache = new BoundedCache(CACHE_NAME, 100);
+	}
+
+
+	@Test
+	public void testCacheName() {
+		assertEquals(CACHE_NAME, cache.getName());
+	}
+
+	@Test
+	public void testNativeCache() {
+		assertSame(cache, cache.getNativeCache());
+	}
+
+	@Test
+	public void testCachePut() {
+		assertNull(cache.get("enescu"));
+		cache.put("enescu", "george");
+		assertEquals("george", cache.get("enescu").get());
+		cache.put("enescu", "georges");
+		assertEquals("georges", cache.get("enescu").get());
+		assertEquals(1, cache.size());
+		assertEquals(1, cache.getWeightedSize());
+	}
+
+	@Test
+	public void testCachePutNull() {
+		cache.put("enescu", null);
+		assertNotNull(cache.get("enescu"));
+		assertNull(cache.get("enescu").get());
+	}
+
+	@Test
+	public void testCacheRemove() {
+		cache.put("enescu", "george");
+		cache.evict("enescu");
+		assertNull(cache.get("enescu"));
+		assertEquals(0, cache.getWeightedSize());
+	}
+
+	@Test
+	public void testCacheClear() {
+		cache.put("enescu", "george");
+		cache.put("vlaicu", "aurel");
+		cache.clear();
+		assertNull(cache.get("vlaicu"));
+		assertNull(cache.get("enescu"));
+		assertEquals(0, cache.size());
+		assertEquals(0, cache.getWeightedSize());
+		cache.put("enescu", "george");
+		assertEquals("george", cache.get("enescu").get());
+	}
+
+	@Test
+	public void testMaximumSize() {
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, "value" + i);
+		}
+		assertEquals(100, cache.size());
+		assertEquals(100, cache.getWeightedSize());
+		assertEquals(900, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testLargeMaximumSize() {
+		BoundedCache cache = new BoundedCache(CACHE_NAME, Integer.MAX_VALUE);
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, "value" + i);
+		}
+		assertEquals(1000, cache.size());
+		assertEquals("value0", cache.get(0).get());
+	}
+
+	@Test
+	public void testFrequentlyUsedEntriesSurviveScan() {
+		for (int i = 0; i < 50; i++) {
+			cache.put("hot" + i, "value");
+		}
+		for (int round = 0; round < 10; round++) {
+			for (int i = 0; i < 50; i++) {
+				assertNotNull(cache.get("hot" + i));
+			}
+		}
+		cache.cleanUp();
+		for (int i = 0; i < 1000; i++) {
+			cache.put("scan" + i, "value");
+		}
+		for (int i = 0; i < 50; i++) {
+			assertNotNull("Frequently used entry evicted: hot" + i, cache.get("hot" + i));
+		}
+		assertEquals(100, cache.size());
+	}
+
+	@Test
+	public void testMaximumWeight() {
+		BoundedCacheSettings settings = new BoundedCacheSettings();
+		settings.setMaximumWeight(100);
+		settings.setWeigher(new Weigher() {
+			public int weigh(Object key, Object value) {
+				return ((String) value).length();
+			}
+		});
+		BoundedCache weighted = new BoundedCache(CACHE_NAME, settings);
+		for (int i = 0; i < 100; i++) {
+			weighted.put(i, "0123456789");
+		}
+		assertEquals(10, weighted.size());
+		assertEquals(100, weighted.getWeightedSize());
+		weighted.put("large", "0123456789012345678901234567890123456789012345678901234567890123456789" +
+				"0123456789012345678901234567890123456789");
+		assertNull(weighted.get("large"));
+		assertTrue(weighted.getWeightedSize() <= 100);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMaximumWeightWithoutWeigher() {
+		BoundedCacheSettings settings = new BoundedCacheSettings();
+		settings.setMaximumWeight(100);
+		new BoundedCache(CACHE_NAME, settings);
+	}
+
+	@Test
+	public void testTimeToLive() throws Exception {
+		BoundedCacheSettings settings = new BoundedCacheSettings();
+		settings.setTimeToLive(50);
+		BoundedCache expiring = new BoundedCache(CACHE_NAME, settings);
+		expiring.put("enescu", "george");
+		assertNotNull(expiring.get("enescu"));
+		Thread.sleep(100);
+		assertNull(expiring.get("enescu"));
+		assertEquals(0, expiring.size());
+		assertEquals(1, expiring.getExpirationCount());
+	}
+
+	@Test
+	public void testTimeToIdle() throws Exception {
+		BoundedCacheSettings settings = new BoundedCacheSettings();
+		settings.setTimeToIdle(200);
+		BoundedCache expiring = new BoundedCache(CACHE_NAME, settings);
+		expiring.put("enescu", "george");
+		expiring.put("vlaicu", "aurel");
+		for (int i = 0; i < 3; i++) {
+			Thread.sleep(100);
+			assertNotNull(expiring.get("enescu"));
+		}
+		assertNull(expiring.get("vlaicu"));
+		assertEquals(1, expiring.size());
+	}
+
+	@Test
+	public void testStatistics() {
+		cache.put("enescu", "george");
+		cache.get("enescu");
+		cache.get("enescu");
+		cache.get("vlaicu");
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getPutCount());
+		assertEquals(0, cache.getEvictionCount());
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.cache.concurrent;
 
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -23,6 +24,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import org.springframework.cache.Cache;
+import org.springframework.cache.LoadingCache;
 
 import static org.junit.Assert.*;
 
@@ -86,4 +88,59 @@ public class ConcurrentCacheTests  {
 		assertNull(cache.get("enescu"));
 	}
 
+	@Test
+	public void testCacheGetWithValueLoader() throws Exception {
+		LoadingCache loadingCache = (LoadingCache) cache;
+		assertEquals("george", loadingCache.get("enescu", new Callable<String>() {
+			public String call() {
+				return "george";
+			}
+		}));
+		assertEquals("george", cache.get("enescu").get());
+		assertEquals("george", loadingCache.get("enescu", new Callable<String>() {
+			public String call() {
+				throw new IllegalStateException("Should not have been called");
+			}
+		}));
+	}
+
+	@Test
+	public void testCacheGetWithFailingValueLoader() throws Exception {
+		final IllegalStateException failure = new IllegalStateException();
+		try {
+			((LoadingCache) cache).get("enescu", new Callable<String>() {
+				public String call() {
+					throw failure;
+				}
+			});
+			fail("Should have thrown ValueRetrievalException");
+		}
+		catch (LoadingCache.ValueRetrievalException ex) {
+			assertSame(failure, ex.getCause());
+			assertEquals("enescu", ex.getKey());
+		}
+		assertNull(cache.get("enescu"));
+	}
+
+	@Test
+	public void testCacheGetWithRecursiveValueLoader() throws Exception {
+		final LoadingCache loadingCache = (LoadingCache) cache;
+		try {
+			loadingCache.get("enescu", new Callable<String>() {
+				public String call() {
+					return loadingCache.get("enescu", new Callable<String>() {
+						public String call() {
+							return "george";
+						}
+					});
+				}
+			});
+			fail("Should have thrown ValueRetrievalException");
+		}
+		catch (LoadingCache.ValueRetrievalException ex) {
+			assertTrue(ex.getCause() instanceof IllegalStateException);
+		}
+		assertNull(cache.get("enescu"));
+	}
+
 }
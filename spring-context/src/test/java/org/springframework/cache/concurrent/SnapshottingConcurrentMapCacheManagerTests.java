@@ -0,0 +1,145 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.concurrent;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.support.StaticApplicationContext;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class SnapshottingConcurrentMapCacheManagerTests {
+
+	@Test
+	public void testSnapshotRoundTrip() throws Exception {
+		File file = File.createTempFile("cache", ".snapshot");
+		try {
+			SnapshottingConcurrentMapCacheManager cm = new SnapshottingConcurrentMapCacheManager();
+			cm.setSnapshotFile(file);
+			cm.setSnapshotCacheNames(Arrays.asList("c1", "c3"));
+			cm.getCache("c1").put("key1", "value1");
+			cm.getCache("c1").put("key2", null);
+			cm.getCache("c2").put("key3", "value3");
+			assertEquals(2, cm.saveSnapshot());
+
+			SnapshottingConcurrentMapCacheManager cm2 = new SnapshottingConcurrentMapCacheManager();
+			cm2.setSnapshotFile(file);
+			cm2.setSnapshotCacheNames(Arrays.asList("c1", "c2"));
+			cm2.getCache("c1").put("key1", "newValue1");
+			cm2.afterPropertiesSet();
+			cm2.start();
+			assertEquals("newValue1", cm2.getCache("c1").get("key1").get());
+			assertNotNull(cm2.getCache("c1").get("key2"));
+			assertNull(cm2.getCache("c1").get("key2").get());
+			assertNull(cm2.getCache("c2").get("key3"));
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testUnserializableEntriesSkipped() throws Exception {
+		File file = File.createTempFile("cache", ".snapshot");
+		try {
+			SnapshottingConcurrentMapCacheManager cm = new SnapshottingConcurrentMapCacheManager();
+			cm.setSnapshotFile(file);
+			cm.setSnapshotCacheNames(Collections.singleton("c1"));
+			cm.getCache("c1").put("key1", "value1");
+			cm.getCache("c1").put("key2", new Object());
+			cm.getCache("c1").put(new Object(), "value3");
+			assertEquals(1, cm.saveSnapshot());
+			assertFalse(new File(file.getPath() + ".tmp").exists());
+
+			SnapshottingConcurrentMapCacheManager cm2 = new SnapshottingConcurrentMapCacheManager();
+			cm2.setSnapshotFile(file);
+			cm2.setSnapshotCacheNames(Collections.singleton("c1"));
+			assertEquals(1, cm2.loadSnapshot());
+			assertEquals("value1", cm2.getCache("c1").get("key1").get());
+			assertNull(cm2.getCache("c1").get("key2"));
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testStaleSnapshotIgnored() throws Exception {
+		File file = File.createTempFile("cache", ".snapshot");
+		try {
+			SnapshottingConcurrentMapCacheManager cm = new SnapshottingConcurrentMapCacheManager();
+			cm.setSnapshotFile(file);
+			cm.setSnapshotCacheNames(Collections.singleton("c1"));
+			cm.getCache("c1").put("key1", "value1");
+			cm.saveSnapshot();
+			Thread.sleep(20);
+
+			SnapshottingConcurrentMapCacheManager cm2 = new SnapshottingConcurrentMapCacheManager();
+			cm2.setSnapshotFile(file);
+			cm2.setSnapshotCacheNames(Collections.singleton("c1"));
+			cm2.setMaxSnapshotAge(10);
+			assertEquals(0, cm2.loadSnapshot());
+			assertNull(cm2.getCache("c1").get("key1"));
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testSnapshotAcrossContextRestart() throws Exception {
+		File file = File.createTempFile("cache", ".snapshot");
+		file.delete();
+		try {
+			StaticApplicationContext ac = createSnapshottingContext(file);
+			CacheManager cm = ac.getBean(CacheManager.class);
+			cm.getCache("c1").put("key1", "value1");
+			assertFalse(file.exists());
+			ac.close();
+			assertTrue(file.exists());
+
+			ac = createSnapshottingContext(file);
+			cm = ac.getBean(CacheManager.class);
+			assertEquals("value1", cm.getCache("c1").get("key1").get());
+			ac.close();
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+
+	private StaticApplicationContext createSnapshottingContext(File file) {
+		StaticApplicationContext ac = new StaticApplicationContext();
+		MutablePropertyValues pvs = new MutablePropertyValues();
+		pvs.add("snapshotFile", file);
+		pvs.add("snapshotCacheNames", "c1");
+		ac.registerSingleton("cacheManager", SnapshottingConcurrentMapCacheManager.class, pvs);
+		ac.refresh();
+		return ac;
+	}
+
+}
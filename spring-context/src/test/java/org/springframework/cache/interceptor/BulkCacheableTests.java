@@ -0,0 +1,269 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.BulkCacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link BulkCacheable} operations.
+ *
+ * @author agent
+ */
+public class BulkCacheableTests {
+
+	private ConcurrentMapCacheManager cacheManager;
+
+	private PriceServiceImpl target;
+
+	private PriceService service;
+
+
+	@Before
+	public void setUp() {
+		this.cacheManager = new ConcurrentMapCacheManager();
+		this.target = new PriceServiceImpl();
+		CacheInterceptor interceptor = new CacheInterceptor();
+		interceptor.setCacheManager(this.cacheManager);
+		interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+		interceptor.afterPropertiesSet();
+		ProxyFactory proxyFactory = new ProxyFactory(this.target);
+		proxyFactory.addInterface(PriceService.class);
+		proxyFactory.addAdvice(interceptor);
+		this.service = (PriceService) proxyFactory.getProxy();
+	}
+
+
+	@Test
+	public void collectionResult() {
+		List<Price> prices = service.getPrices(Arrays.asList(1L, 2L, 3L), "EUR");
+		assertEquals(Arrays.asList(1L, 2L, 3L), ids(prices));
+		assertEquals(Arrays.asList(Arrays.asList(1L, 2L, 3L)), target.requestedIds);
+
+		prices = service.getPrices(Arrays.asList(3L, 4L, 1L, 5L), "EUR");
+		assertEquals(Arrays.asList(3L, 4L, 1L, 5L), ids(prices));
+		assertEquals("EUR", prices.get(1).currency);
+		assertEquals(Arrays.asList(4L, 5L), target.requestedIds.get(1));
+
+		prices = service.getPrices(Arrays.asList(5L, 2L), "EUR");
+		assertEquals(Arrays.asList(5L, 2L), ids(prices));
+		assertEquals(2, target.requestedIds.size());
+
+		Cache cache = cacheManager.getCache("prices");
+		assertEquals(Long.valueOf(4L), ((Price) cache.get(new SimpleKey(4L, "EUR")).get()).id);
+	}
+
+	@Test
+	public void missingValuesLeftOut() {
+		List<Price> prices = service.getPrices(Arrays.asList(1L, -1L, 2L), "EUR");
+		assertEquals(Arrays.asList(1L, 2L), ids(prices));
+		assertNull(cacheManager.getCache("prices").get(new SimpleKey(-1L, "EUR")));
+		service.getPrices(Arrays.asList(1L, -1L, 2L), "EUR");
+		assertEquals(Arrays.asList(-1L), target.requestedIds.get(1));
+	}
+
+	@Test
+	public void mapResult() {
+		Map<Long, String> names = service.getNames(Arrays.asList(1L, 2L));
+		assertEquals(Arrays.asList(1L, 2L), new ArrayList<Long>(names.keySet()));
+		assertEquals("name1", names.get(1L));
+
+		names = service.getNames(Arrays.asList(2L, 3L));
+		assertEquals(Arrays.asList(2L, 3L), new ArrayList<Long>(names.keySet()));
+		assertEquals(Arrays.asList(3L), target.requestedIds.get(1));
+		assertEquals("name1", cacheManager.getCache("names").get(1L).get());
+	}
+
+	@Test
+	public void otherArgumentsPartOfCacheKey() {
+		Map<Long, String> names = service.getLocalizedNames(Arrays.asList(1L, 2L), "EN");
+		assertEquals("EN name1", names.get(1L));
+		names = service.getLocalizedNames(Arrays.asList(1L, 2L), "DE");
+		assertEquals("DE name1", names.get(1L));
+		assertEquals(2, target.requestedIds.size());
+
+		names = service.getLocalizedNames(Arrays.asList(2L, 1L), "EN");
+		assertEquals(Arrays.asList(2L, 1L), new ArrayList<Long>(names.keySet()));
+		assertEquals("EN name2", names.get(2L));
+		assertEquals(2, target.requestedIds.size());
+		assertEquals("DE name2", cacheManager.getCache("localizedNames").get(new SimpleKey(2L, "DE")).get());
+	}
+
+	@Test
+	public void conditionNotPassing() {
+		service.getPrices(Arrays.asList(1L, 2L), "USD");
+		service.getPrices(Arrays.asList(1L, 2L), "USD");
+		assertEquals(2, target.requestedIds.size());
+		assertNull(cacheManager.getCache("prices").get(1L));
+	}
+
+	@Test
+	public void invocationArgumentsUnchanged() {
+		final List<Object[]> argumentsAfterProceed = new ArrayList<Object[]>();
+		ProxyFactory proxyFactory = new ProxyFactory(this.target);
+		proxyFactory.addInterface(PriceService.class);
+		proxyFactory.addAdvice(new MethodInterceptor() {
+			public Object invoke(MethodInvocation invocation) throws Throwable {
+				Object result = invocation.proceed();
+				argumentsAfterProceed.add(invocation.getArguments());
+				return result;
+			}
+		});
+		proxyFactory.addAdvice((Advice) ((Advised) this.service).getAdvisors()[0].getAdvice());
+		PriceService service = (PriceService) proxyFactory.getProxy();
+
+		service.getPrices(Arrays.asList(1L), "EUR");
+		List<Long> ids = Arrays.asList(1L, 2L);
+		service.getPrices(ids, "EUR");
+		assertEquals(Arrays.asList(2L), target.requestedIds.get(1));
+		assertSame(ids, argumentsAfterProceed.get(1)[0]);
+		assertEquals("EUR", argumentsAfterProceed.get(1)[1]);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void collectionResultWithoutResultKey() {
+		service.getPricesWithoutResultKey(Arrays.asList(1L, 2L));
+	}
+
+	@Test
+	public void typeLevelAnnotationValidatedOnParsing() throws Exception {
+		AnnotationCacheOperationSource source = new AnnotationCacheOperationSource();
+		Method method = TypeLevelBulkService.class.getMethod("getNames", Collection.class);
+		try {
+			source.getCacheOperations(method, TypeLevelBulkService.class);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			assertTrue(ex.getMessage().contains("getName(java.lang.Long)"));
+		}
+	}
+
+
+	private static List<Long> ids(Collection<Price> prices) {
+		List<Long> ids = new ArrayList<Long>();
+		for (Price price : prices) {
+			ids.add(price.id);
+		}
+		return ids;
+	}
+
+
+	public interface PriceService {
+
+		List<Price> getPrices(Collection<Long> ids, String currency);
+
+		Map<Long, String> getNames(Collection<Long> ids);
+
+		List<Price> getPricesWithoutResultKey(Collection<Long> ids);
+
+		Map<Long, String> getLocalizedNames(Collection<Long> ids, String language);
+	}
+
+
+	public static class PriceServiceImpl implements PriceService {
+
+		private final List<List<Long>> requestedIds = new ArrayList<List<Long>>();
+
+		@BulkCacheable(value = "prices", resultKey = "id", condition = "#p1 == 'EUR'")
+		public List<Price> getPrices(Collection<Long> ids, String currency) {
+			this.requestedIds.add(new ArrayList<Long>(ids));
+			List<Price> prices = new ArrayList<Price>();
+			for (Long id : ids) {
+				if (id > 0) {
+					prices.add(new Price(id, currency));
+				}
+			}
+			return prices;
+		}
+
+		@BulkCacheable("names")
+		public Map<Long, String> getNames(Collection<Long> ids) {
+			this.requestedIds.add(new ArrayList<Long>(ids));
+			Map<Long, String> names = new LinkedHashMap<Long, String>();
+			for (Long id : ids) {
+				names.put(id, "name" + id);
+			}
+			return names;
+		}
+
+		@BulkCacheable("prices")
+		public List<Price> getPricesWithoutResultKey(Collection<Long> ids) {
+			return null;
+		}
+
+		@BulkCacheable("localizedNames")
+		public Map<Long, String> getLocalizedNames(Collection<Long> ids, String language) {
+			this.requestedIds.add(new ArrayList<Long>(ids));
+			Map<Long, String> names = new LinkedHashMap<Long, String>();
+			for (Long id : ids) {
+				names.put(id, language + " name" + id);
+			}
+			return names;
+		}
+	}
+
+
+	@BulkCacheable("names")
+	public static class TypeLevelBulkService {
+
+		public Map<Long, String> getNames(Collection<Long> ids) {
+			return null;
+		}
+
+		public String getName(Long id) {
+			return null;
+		}
+	}
+
+
+	public static class Price {
+
+		private final Long id;
+
+		private final String currency;
+
+		public Price(Long id, String currency) {
+			this.id = id;
+			this.currency = currency;
+		}
+
+		public Long getId() {
+			return this.id;
+		}
+	}
+
+}
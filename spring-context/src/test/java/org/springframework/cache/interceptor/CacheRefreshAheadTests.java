@@ -0,0 +1,276 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.statistics.StatisticsCache;
+import org.springframework.cache.statistics.StatisticsCacheManager;
+import org.springframework.cache.support.RefreshAheadCache;
+import org.springframework.cache.support.RefreshAheadCacheManager;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for refresh-ahead of {@code @Cacheable} entries
+ * through a {@link RefreshAheadCacheManager}.
+ *
+ * @author agent
+ */
+public class CacheRefreshAheadTests {
+
+	@Test
+	public void decoratesConfiguredCachesOnly() {
+		RefreshAheadCacheManager cacheManager = createCacheManager(new SyncTaskExecutor());
+		Cache cache = cacheManager.getCache("test");
+		assertTrue(cache instanceof RefreshAheadCache);
+		assertSame(cache, cacheManager.getCache("test"));
+		assertFalse(cacheManager.getCache("other") instanceof RefreshAheadCache);
+	}
+
+	@Test
+	public void freshEntryNotRefreshed() {
+		RefreshAheadCacheManager cacheManager = createCacheManager(new SyncTaskExecutor());
+		RefreshService target = new RefreshService();
+		RefreshService service = createProxy(cacheManager, target);
+		assertEquals("key1", service.load("key"));
+		assertEquals("key1", service.load("key"));
+		assertEquals(1, target.counter.get());
+	}
+
+	@Test
+	public void entryPastThresholdRefreshed() throws Exception {
+		RefreshAheadCacheManager cacheManager = createCacheManager(new SyncTaskExecutor());
+		RefreshService target = new RefreshService();
+		RefreshService service = createProxy(cacheManager, target);
+		assertEquals("key1", service.load("key"));
+		Thread.sleep(150);
+		// current value returned, reloaded value put to the cache
+		assertEquals("key1", service.load("key"));
+		assertEquals(2, target.counter.get());
+		assertEquals("key2", cacheManager.getCache("test").get("key").get());
+		assertEquals("key2", service.load("key"));
+		assertEquals(2, target.counter.get());
+	}
+
+	@Test
+	public void entryPastThresholdRefreshedWithSync() throws Exception {
+		RefreshAheadCacheManager cacheManager = createCacheManager(new SyncTaskExecutor());
+		RefreshService target = new RefreshService();
+		RefreshService service = createProxy(cacheManager, target);
+		assertEquals("key1", service.loadSync("key"));
+		Thread.sleep(150);
+		assertEquals("key1", service.loadSync("key"));
+		assertEquals(2, target.counter.get());
+		assertEquals("key2", service.loadSync("key"));
+	}
+
+	@Test
+	public void refreshDeduplicatedPerKey() throws Exception {
+		DeferringTaskExecutor executor = new DeferringTaskExecutor();
+		RefreshAheadCacheManager cacheManager = createCacheManager(executor);
+		RefreshService target = new RefreshService();
+		RefreshService service = createProxy(cacheManager, target);
+		service.load("key");
+		service.load("other");
+		Thread.sleep(150);
+		service.load("key");
+		service.load("key");
+		service.load("other");
+		assertEquals(2, executor.tasks.size());
+		assertTrue(((RefreshAheadCache) cacheManager.getCache("test")).isRefreshing("key"));
+
+		executor.runAll();
+		assertEquals(4, target.counter.get());
+		assertFalse(((RefreshAheadCache) cacheManager.getCache("test")).isRefreshing("key"));
+		assertEquals("key3", service.load("key"));
+		assertEquals("other4", service.load("other"));
+	}
+
+	@Test
+	public void failedRefreshKeepsEntry() throws Exception {
+		RefreshAheadCacheManager cacheManager = createCacheManager(new SyncTaskExecutor());
+		RefreshService target = new RefreshService();
+		RefreshService service = createProxy(cacheManager, target);
+		assertEquals("key1", service.load("key"));
+		Thread.sleep(150);
+		target.failing = true;
+		assertEquals("key1", service.load("key"));
+		assertEquals("key1", cacheManager.getCache("test").get("key").get());
+		assertFalse(((RefreshAheadCache) cacheManager.getCache("test")).isRefreshing("key"));
+	}
+
+
+	@Test
+	public void refreshProceedsThroughRemainingInterceptors() throws Exception {
+		DeferringTaskExecutor executor = new DeferringTaskExecutor();
+		RefreshAheadCacheManager cacheManager = createCacheManager(executor);
+		RefreshService target = new RefreshService();
+		ProxyFactory proxyFactory = new ProxyFactory(target);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice(createInterceptor(cacheManager));
+		final AtomicInteger downstreamCalls = new AtomicInteger();
+		proxyFactory.addAdvice(new MethodInterceptor() {
+			public Object invoke(MethodInvocation invocation) throws Throwable {
+				downstreamCalls.incrementAndGet();
+				return invocation.proceed();
+			}
+		});
+		RefreshService service = (RefreshService) proxyFactory.getProxy();
+		assertEquals("key1", service.load("key"));
+		Thread.sleep(150);
+		assertEquals("key1", service.load("key"));
+		assertEquals(1, downstreamCalls.get());
+
+		// refresh runs after the invocation that triggered it has completed
+		executor.runAll();
+		assertEquals(2, downstreamCalls.get());
+		assertEquals(2, target.counter.get());
+		assertEquals("key2", service.load("key"));
+	}
+
+	@Test
+	public void refreshUnderneathStatisticsCache() throws Exception {
+		StatisticsCacheManager statisticsCacheManager =
+				new StatisticsCacheManager(createCacheManager(new SyncTaskExecutor()));
+		statisticsCacheManager.afterPropertiesSet();
+		RefreshService target = new RefreshService();
+		RefreshService service = createProxy(statisticsCacheManager, target);
+		assertEquals("key1", service.load("key"));
+		Thread.sleep(150);
+		assertEquals("key1", service.load("key"));
+		assertEquals(2, target.counter.get());
+		assertEquals("key2", service.load("key"));
+
+		StatisticsCache cache = (StatisticsCache) statisticsCacheManager.getCache("test");
+		assertTrue(cache.getTargetCache() instanceof RefreshAheadCache);
+		assertEquals(1, cache.getStatistics().getLoadTimeHistogram().getCount());
+		assertEquals(2, cache.getStatistics().getHitCount());
+	}
+
+	@Test
+	public void refreshWithPlainInvoker() throws Exception {
+		RefreshAheadCacheManager cacheManager = createCacheManager(new SyncTaskExecutor());
+		PlainInvokerCacheAspect aspect = new PlainInvokerCacheAspect();
+		aspect.setCacheManager(cacheManager);
+		aspect.setCacheOperationSources(new AnnotationCacheOperationSource());
+		aspect.afterPropertiesSet();
+		RefreshService target = new RefreshService();
+		assertEquals("key1", aspect.load(target, "key"));
+		Thread.sleep(150);
+		assertEquals("key1", aspect.load(target, "key"));
+		assertEquals(2, target.counter.get());
+		assertEquals("key2", aspect.load(target, "key"));
+	}
+
+
+	private RefreshAheadCacheManager createCacheManager(TaskExecutor executor) {
+		RefreshAheadCacheManager cacheManager = new RefreshAheadCacheManager(new ConcurrentMapCacheManager());
+		cacheManager.setTimeToLiveMap(Collections.singletonMap("test", 200L));
+		cacheManager.setRefreshThreshold(0.5f);
+		cacheManager.setTaskExecutor(executor);
+		cacheManager.afterPropertiesSet();
+		return cacheManager;
+	}
+
+	private RefreshService createProxy(CacheManager cacheManager, RefreshService target) {
+		ProxyFactory proxyFactory = new ProxyFactory(target);
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice(createInterceptor(cacheManager));
+		return (RefreshService) proxyFactory.getProxy();
+	}
+
+	private CacheInterceptor createInterceptor(CacheManager cacheManager) {
+		CacheInterceptor interceptor = new CacheInterceptor();
+		interceptor.setCacheManager(cacheManager);
+		interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+		interceptor.afterPropertiesSet();
+		return interceptor;
+	}
+
+
+	public static class RefreshService {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		private volatile boolean failing;
+
+		@Cacheable("test")
+		public Object load(String key) {
+			if (this.failing) {
+				throw new IllegalStateException(key);
+			}
+			return key + this.counter.incrementAndGet();
+		}
+
+		@Cacheable(value = "test", sync = true)
+		public Object loadSync(String key) {
+			return load(key);
+		}
+	}
+
+
+	/**
+	 * Cache aspect with an invoker that cannot be invoked again, like the AspectJ one.
+	 */
+	private static class PlainInvokerCacheAspect extends CacheAspectSupport {
+
+		public Object load(final RefreshService target, final String key) throws Exception {
+			final AtomicInteger invocations = new AtomicInteger();
+			Invoker invoker = new Invoker() {
+				public Object invoke() {
+					assertEquals("Invoker invoked more than once", 1, invocations.incrementAndGet());
+					return target.load(key);
+				}
+			};
+			return execute(invoker, target, RefreshService.class.getMethod("load", String.class), new Object[] {key});
+		}
+	}
+
+
+	private static class DeferringTaskExecutor implements TaskExecutor {
+
+		private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+		public void execute(Runnable task) {
+			this.tasks.add(task);
+		}
+
+		public void runAll() {
+			for (Runnable task : this.tasks) {
+				task.run();
+			}
+			this.tasks.clear();
+		}
+	}
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for synchronized loading through {@code @Cacheable(sync=true)}.
+ *
+ * @author agent
+ */
+public class CacheSyncTests {
+
+	@Test
+	public void concurrentMissesWithLoadingCache() throws Exception {
+		assertSingleInvocation(new ConcurrentMapCacheManager());
+	}
+
+	@Test
+	public void concurrentMissesWithPlainCache() throws Exception {
+		SimpleCacheManager cacheManager = new SimpleCacheManager();
+		cacheManager.setCaches(Collections.singleton(new PlainCache(new ConcurrentMapCache("test"))));
+		cacheManager.afterPropertiesSet();
+		assertSingleInvocation(cacheManager);
+	}
+
+	@Test
+	public void exceptionPropagated() throws Exception {
+		SyncService service = createProxy(new ConcurrentMapCacheManager(), new SyncServiceImpl());
+		try {
+			service.fail("key");
+			fail("Should have thrown IOException");
+		}
+		catch (IOException ex) {
+			assertEquals("key", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void exceptionPropagatedWithPlainCache() throws Exception {
+		SimpleCacheManager cacheManager = new SimpleCacheManager();
+		cacheManager.setCaches(Collections.singleton(new PlainCache(new ConcurrentMapCache("test"))));
+		cacheManager.afterPropertiesSet();
+		SyncService service = createProxy(cacheManager, new SyncServiceImpl());
+		try {
+			service.fail("key");
+			fail("Should have thrown IOException");
+		}
+		catch (IOException ex) {
+			assertEquals("key", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void syncWithUnlessRejected() throws Exception {
+		SyncService service = createProxy(new ConcurrentMapCacheManager(), new SyncServiceImpl());
+		try {
+			service.unless("key");
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			assertTrue(ex.getMessage().contains("unless"));
+		}
+	}
+
+	@Test
+	public void syncRestrictionsValidatedOnParsing() throws Exception {
+		assertRejectedOnParsing("unless", "unless");
+		assertRejectedOnParsing("multipleCaches", "single cache");
+		assertRejectedOnParsing("combined", "combined");
+	}
+
+
+	private void assertSingleInvocation(CacheManager cacheManager) throws Exception {
+		final SyncServiceImpl target = new SyncServiceImpl();
+		final SyncService service = createProxy(cacheManager, target);
+		final CountDownLatch startLatch = new CountDownLatch(1);
+		final List<Object> results = Collections.synchronizedList(new ArrayList<Object>());
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 10; i++) {
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						startLatch.await();
+						results.add(service.load("key"));
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			};
+			thread.start();
+			threads.add(thread);
+		}
+		startLatch.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(1, target.counter.get());
+		assertEquals(10, results.size());
+		for (Object result : results) {
+			assertEquals("key1", result);
+		}
+		assertEquals("key1", service.load("key"));
+		assertEquals(1, target.counter.get());
+	}
+
+	private void assertRejectedOnParsing(String methodName, String messagePart) throws Exception {
+		AnnotationCacheOperationSource source = new AnnotationCacheOperationSource();
+		Method method = InvalidSyncService.class.getMethod(methodName, String.class);
+		try {
+			source.getCacheOperations(method, InvalidSyncService.class);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			assertTrue(ex.getMessage().contains(messagePart));
+		}
+	}
+
+	private SyncService createProxy(CacheManager cacheManager, SyncService target) {
+		CacheInterceptor interceptor = new CacheInterceptor();
+		interceptor.setCacheManager(cacheManager);
+		interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+		interceptor.afterPropertiesSet();
+		ProxyFactory proxyFactory = new ProxyFactory(target);
+		proxyFactory.addInterface(SyncService.class);
+		proxyFactory.addAdvice(interceptor);
+		return (SyncService) proxyFactory.getProxy();
+	}
+
+
+	public interface SyncService {
+
+		Object load(String key);
+
+		Object fail(String key) throws IOException;
+
+		Object unless(String key);
+	}
+
+
+	public static class SyncServiceImpl implements SyncService {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Cacheable(value = "test", sync = true)
+		public Object load(String key) {
+			try {
+				Thread.sleep(100);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return key + this.counter.incrementAndGet();
+		}
+
+		@Cacheable(value = "test", sync = true)
+		public Object fail(String key) throws IOException {
+			throw new IOException(key);
+		}
+
+		@Cacheable(value = "test", sync = true, unless = "#result == null")
+		public Object unless(String key) {
+			return key;
+		}
+	}
+
+
+	public static class InvalidSyncService {
+
+		@Cacheable(value = "test", sync = true, unless = "#result == null")
+		public Object unless(String key) {
+			return key;
+		}
+
+		@Cacheable(value = {"test", "other"}, sync = true)
+		public Object multipleCaches(String key) {
+			return key;
+		}
+
+		@Cacheable(value = "test", sync = true)
+		@CacheEvict("other")
+		public Object combined(String key) {
+			return key;
+		}
+	}
+
+
+	/**
+	 * Cache without native support for synchronized loading.
+	 */
+	private static class PlainCache implements Cache {
+
+		private final Cache delegate;
+
+		public PlainCache(Cache delegate) {
+			this.delegate = delegate;
+		}
+
+		public String getName() {
+			return this.delegate.getName();
+		}
+
+		public Object getNativeCache() {
+			return this.delegate.getNativeCache();
+		}
+
+		public ValueWrapper get(Object key) {
+			return this.delegate.get(key);
+		}
+
+		public void put(Object key, Object value) {
+			this.delegate.put(key, value);
+		}
+
+		public void evict(Object key) {
+			this.delegate.evict(key);
+		}
+
+		public void clear() {
+			this.delegate.clear();
+		}
+	}
+
+}
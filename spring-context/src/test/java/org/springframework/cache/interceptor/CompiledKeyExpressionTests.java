@@ -0,0 +1,176 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.util.ReflectionUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CompiledKeyExpression}, verifying that precompiled
+ * key expressions yield the same keys as SpEL evaluation.
+ *
+ * @author agent
+ */
+public class CompiledKeyExpressionTests {
+
+	private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+
+	private final Method method = ReflectionUtils.findMethod(
+			KeyedService.class, "find", Person.class, String.class, Integer.class);
+
+
+	@Test
+	public void indexedArgument() {
+		assertCompiled("#p0", person("Juergen"), "x", 1);
+		assertCompiled("#a1", person("Juergen"), "x", 1);
+		assertCompiled("#p2", person("Juergen"), "x", 1);
+	}
+
+	@Test
+	public void namedArgument() {
+		assertCompiled("#code", person("Juergen"), "x", 1);
+	}
+
+	@Test
+	public void propertyPath() {
+		assertCompiled("#person.name", person("Juergen"), "x", 1);
+		assertCompiled("#a0.name", person("Juergen"), "x", 1);
+		assertCompiled("#person.address.city", person("Juergen"), "x", 1);
+		assertCompiled("#person.nickname", person("Juergen"), "x", 1);
+		assertCompiled("#person.active", person("Juergen"), "x", 1);
+	}
+
+	@Test
+	public void concatenation() {
+		assertCompiled("#a0.name + #a1", person("Juergen"), "x", 1);
+		assertCompiled("#p1 + '-' + #person.name", person("Juergen"), "x", 1);
+		assertCompiled("'a+b' + #code", person("Juergen"), "x", 1);
+	}
+
+	@Test
+	public void unsupportedExpressions() {
+		assertNotCompiled("#person.name.length()");
+		assertNotCompiled("#root.args[0]");
+		assertNotCompiled("#p3");
+		assertNotCompiled("#unknown");
+		assertNotCompiled("#person.unknown");
+		assertNotCompiled("T(java.lang.String).valueOf(#p0)");
+		assertNotCompiled("#p0 +");
+		assertNotCompiled("'unterminated + #p0");
+	}
+
+	@Test
+	public void fallbackForNonStringConcatenation() {
+		Object key = evaluator.compiledKey("#p1 + #p2", method, new Object[] { null, "x", 1 }, KeyedService.class);
+		assertSame(CompiledKeyExpression.NOT_APPLICABLE, key);
+		assertEquals("x1", evaluate("#p1 + #p2", null, "x", 1));
+	}
+
+	@Test
+	public void fallbackForNullInPropertyPath() {
+		Object key = evaluator.compiledKey("#person.name", method, new Object[] { null, "x", 1 }, KeyedService.class);
+		assertSame(CompiledKeyExpression.NOT_APPLICABLE, key);
+	}
+
+
+	private void assertCompiled(String expression, Object... args) {
+		Object key = evaluator.compiledKey(expression, method, args, KeyedService.class);
+		assertNotSame("Expression '" + expression + "' not compiled", CompiledKeyExpression.NOT_APPLICABLE, key);
+		assertEquals(evaluate(expression, args), key);
+	}
+
+	private void assertNotCompiled(String expression) {
+		Object key = evaluator.compiledKey(expression, method, new Object[] { person("Juergen"), "x", 1 },
+				KeyedService.class);
+		assertSame(CompiledKeyExpression.NOT_APPLICABLE, key);
+	}
+
+	private Object evaluate(String expression, Object... args) {
+		EvaluationContext context = evaluator.createEvaluationContext(
+				Collections.<Cache>singleton(new ConcurrentMapCache("test")), method, args,
+				new KeyedService(), KeyedService.class);
+		return evaluator.key(expression, method, context);
+	}
+
+	private static Person person(String name) {
+		Person person = new Person();
+		person.setName(name);
+		person.nickname = name.toLowerCase();
+		person.getAddress().setCity("Linz");
+		return person;
+	}
+
+
+	public static class KeyedService {
+
+		public Object find(Person person, String code, Integer number) {
+			return null;
+		}
+	}
+
+
+	public static class Person {
+
+		private String name;
+
+		private boolean active = true;
+
+		private final Address address = new Address();
+
+		public String nickname;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public boolean isActive() {
+			return this.active;
+		}
+
+		public Address getAddress() {
+			return this.address;
+		}
+	}
+
+
+	public static class Address {
+
+		private String city;
+
+		public String getCity() {
+			return this.city;
+		}
+
+		public void setCity(String city) {
+			this.city = city;
+		}
+	}
+
+}
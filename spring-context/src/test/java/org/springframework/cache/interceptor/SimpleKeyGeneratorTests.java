@@ -0,0 +1,101 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.interceptor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link SimpleKeyGenerator} and {@link SimpleKey}.
+ *
+ * @author agent
+ */
+public class SimpleKeyGeneratorTests {
+
+	private final SimpleKeyGenerator generator = new SimpleKeyGenerator();
+
+
+	@Test
+	public void noValues() {
+		Object k1 = generator.generate(null, null, new Object[] {});
+		Object k2 = generator.generate(null, null, new Object[] {});
+		Object k3 = generator.generate(null, null, new Object[] { "different" });
+		assertSame(SimpleKey.EMPTY, k1);
+		assertEquals(k1, k2);
+		assertFalse(k1.equals(k3));
+	}
+
+	@Test
+	public void singleValue() {
+		Object k1 = generator.generate(null, null, new Object[] { "a" });
+		Object k2 = generator.generate(null, null, new Object[] { "a" });
+		Object k3 = generator.generate(null, null, new Object[] { "different" });
+		assertEquals("a", k1);
+		assertEquals(k1, k2);
+		assertFalse(k1.equals(k3));
+	}
+
+	@Test
+	public void multipleValues() {
+		Object k1 = generator.generate(null, null, new Object[] { "a", 1, "b" });
+		Object k2 = generator.generate(null, null, new Object[] { "a", 1, "b" });
+		Object k3 = generator.generate(null, null, new Object[] { "b", 1, "a" });
+		assertTrue(k1 instanceof SimpleKey);
+		assertEquals(k1.hashCode(), k2.hashCode());
+		assertEquals(k1, k2);
+		assertFalse(k1.equals(k3));
+	}
+
+	@Test
+	public void multipleValuesWithEqualHashCodes() {
+		// "Aa" and "BB" have the same hash code
+		Object k1 = generator.generate(null, null, new Object[] { "Aa", "BB" });
+		Object k2 = generator.generate(null, null, new Object[] { "BB", "Aa" });
+		assertEquals(k1.hashCode(), k2.hashCode());
+		assertFalse(k1.equals(k2));
+	}
+
+	@Test
+	public void singleNullValue() {
+		Object k1 = generator.generate(null, null, new Object[] { null });
+		Object k2 = generator.generate(null, null, new Object[] { null });
+		Object k3 = generator.generate(null, null, new Object[] { "different" });
+		assertTrue(k1 instanceof SimpleKey);
+		assertEquals(k1, k2);
+		assertFalse(k1.equals(k3));
+	}
+
+	@Test
+	public void arrays() {
+		Object k1 = generator.generate(null, null, new Object[] { new String[] { "a", "b" }, "c" });
+		Object k2 = generator.generate(null, null, new Object[] { new String[] { "a", "b" }, "c" });
+		Object k3 = generator.generate(null, null, new Object[] { new String[] { "b", "a" }, "c" });
+		assertEquals(k1.hashCode(), k2.hashCode());
+		assertEquals(k1, k2);
+		assertFalse(k1.equals(k3));
+	}
+
+	@Test
+	public void singleArray() {
+		Object k1 = generator.generate(null, null, new Object[] { new String[] { "a", "b" } });
+		Object k2 = generator.generate(null, null, new Object[] { new String[] { "a", "b" } });
+		assertTrue(k1 instanceof SimpleKey);
+		assertEquals(k1, k2);
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.cache.statistics;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.AnnotationCacheOperationSource;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.CacheInterceptor;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableMBeanExport;
+import org.springframework.jmx.support.MBeanServerFactoryBean;
+import org.springframework.jmx.support.ObjectNameManager;
+import org.springframework.util.LatencyHistogram;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class StatisticsCacheManagerTests {
+
+	@Test
+	public void cacheOperationsRecorded() throws Exception {
+		StatisticsCacheManager cacheManager = new StatisticsCacheManager(new ConcurrentMapCacheManager());
+		cacheManager.afterPropertiesSet();
+		Cache cache = cacheManager.getCache("test");
+		assertTrue(cache instanceof StatisticsCache);
+		assertSame(cache, cacheManager.getCache("test"));
+
+		assertNull(cache.get("key"));
+		cache.put("key", "value");
+		assertEquals("value", cache.get("key").get());
+		assertEquals("value", cache.get("key").get());
+		cache.evict("key");
+		cache.clear();
+
+		CacheStatistics statistics = cacheManager.getStatistics("test");
+		assertEquals(2, statistics.getHitCount());
+		assertEquals(1, statistics.getMissCount());
+		assertEquals(2.0 / 3, statistics.getHitRatio(), 0.0001);
+		assertEquals(1, statistics.getPutCount());
+		assertEquals(1, statistics.getEvictionCount());
+		assertEquals(1, statistics.getClearCount());
+
+		statistics.reset();
+		assertEquals(0, statistics.getHitCount());
+		assertEquals(0.0, statistics.getHitRatio(), 0);
+	}
+
+	@Test
+	public void loadingAndBulkOperationsRecorded() throws Exception {
+		StatisticsCacheManager cacheManager = new StatisticsCacheManager(new ConcurrentMapCacheManager());
+		StatisticsCache cache = (StatisticsCache) cacheManager.getCache("test");
+		Callable<String> loader = new Callable<String>() {
+			public String call() throws Exception {
+				Thread.sleep(3);
+				return "loaded";
+			}
+		};
+		assertEquals("loaded", cache.get("key", loader));
+		assertEquals("loaded", cache.get("key", loader));
+		assertEquals(1, cache.getAll(Arrays.asList("key", "other")).size());
+
+		CacheStatistics statistics = cache.getStatistics();
+		assertEquals(2, statistics.getHitCount());
+		assertEquals(2, statistics.getMissCount());
+		assertEquals(1, statistics.getPutCount());
+		LatencyHistogram histogram = statistics.getLoadTimeHistogram();
+		assertEquals(1, histogram.getCount());
+		assertTrue(histogram.getAverageMicros() >= 3000);
+		assertEquals(0, histogram.getBucketCounts()[0]);
+		assertTrue(histogram.getPercentileMicros(99) >= 5000 || histogram.getPercentileMicros(99) == -1);
+	}
+
+	@Test
+	public void loadTimeRecordedByCacheInterceptor() {
+		StatisticsCacheManager cacheManager = new StatisticsCacheManager(new ConcurrentMapCacheManager());
+		CacheInterceptor interceptor = new CacheInterceptor();
+		interceptor.setCacheManager(cacheManager);
+		interceptor.setCacheOperationSources(new AnnotationCacheOperationSource());
+		interceptor.afterPropertiesSet();
+		ProxyFactory proxyFactory = new ProxyFactory(new Service());
+		proxyFactory.setProxyTargetClass(true);
+		proxyFactory.addAdvice(interceptor);
+		Service service = (Service) proxyFactory.getProxy();
+
+		assertEquals("key", service.load("key"));
+		assertEquals("key", service.load("key"));
+		CacheStatistics statistics = cacheManager.getStatistics("test");
+		assertEquals(1, statistics.getHitCount());
+		assertEquals(1, statistics.getMissCount());
+		assertEquals(1, statistics.getPutCount());
+		assertEquals(1, statistics.getLoadTimeHistogram().getCount());
+	}
+
+	@Test
+	public void exportedViaJmx() throws Exception {
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(JmxConfiguration.class);
+		try {
+			MBeanServer server = ctx.getBean(MBeanServer.class);
+			CacheManager cacheManager = ctx.getBean(CacheManager.class);
+			cacheManager.getCache("test").put("key", "value");
+			assertNotNull(cacheManager.getCache("test").get("key"));
+
+			ObjectName oname = ObjectNameManager.getInstance(
+					"org.springframework.cache.statistics:name=cacheManager,type=StatisticsCacheManager");
+			assertArrayEquals(new String[] {"test"}, (String[]) server.getAttribute(oname, "ManagedCacheNames"));
+			String[] signature = new String[] {String.class.getName()};
+			assertEquals(1L, server.invoke(oname, "getHitCount", new Object[] {"test"}, signature));
+			assertEquals(1L, server.invoke(oname, "getPutCount", new Object[] {"test"}, signature));
+			server.invoke(oname, "clear", new Object[] {"test"}, signature);
+			assertNull(cacheManager.getCache("test").get("key"));
+		}
+		finally {
+			ctx.close();
+		}
+	}
+
+
+	public static class Service {
+
+		@Cacheable("test")
+		public String load(String key) {
+			return key;
+		}
+	}
+
+
+	@Configuration
+	@EnableMBeanExport(server = "server")
+	static class JmxConfiguration {
+
+		@Bean
+		public MBeanServerFactoryBean server() {
+			return new MBeanServerFactoryBean();
+		}
+
+		@Bean
+		public StatisticsCacheManager cacheManager() {
+			return new StatisticsCacheManager(new ConcurrentMapCacheManager("test"));
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.context.annotation.componentscan.simple.SimpleComponent;
+import org.springframework.core.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.buffering.BufferingApplicationStartup.TimelineEvent;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the startup steps recorded during an application context refresh.
+ *
+ * @author agent
+ */
+public class ApplicationStartupTests {
+
+	@Test
+	public void refreshRecordsStartupSteps() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(1000);
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+		ctx.setApplicationStartup(startup);
+		ctx.register(Config.class);
+		ctx.refresh();
+		assertSame(startup, ctx.getBeanFactory().getApplicationStartup());
+		assertNotNull(ctx.getBean(SimpleComponent.class));
+		ctx.close();
+
+		List<TimelineEvent> timeline = startup.getBufferedTimeline();
+		List<String> names = new ArrayList<String>();
+		for (TimelineEvent event : timeline) {
+			names.add(event.getName());
+		}
+		assertThat(names, hasItems("spring.context.bean-definitions.load",
+				"spring.context.beandef-registry.post-process", "spring.context.bean-factory.post-process",
+				"spring.context.config-classes.parse", "spring.context.config-classes.enhance",
+				"spring.context.component-scan", "spring.context.beans.post-process",
+				"spring.beans.create", "spring.beans.instantiate", "spring.beans.populate",
+				"spring.beans.initialize", "spring.context.lifecycle.start"));
+
+		TimelineEvent refresh = timeline.get(timeline.size() - 1);
+		assertEquals("spring.context.refresh", refresh.getName());
+		assertNull(refresh.getParentId());
+
+		TimelineEvent scan = timeline.get(names.indexOf("spring.context.component-scan"));
+		assertEquals(SimpleComponent.class.getPackage().getName(), scan.getTags().get("packageName"));
+
+		for (TimelineEvent event : timeline) {
+			if (event.getName().equals("spring.beans.create") &&
+					SimpleComponent.class.getName().equals(event.getTags().get("beanType"))) {
+				return;
+			}
+		}
+		fail("No creation step recorded for SimpleComponent");
+	}
+
+
+	@Configuration
+	@ComponentScan(basePackageClasses = SimpleComponent.class)
+	static class Config {
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.Test;
+
+import org.springframework.core.OverridingClassLoader;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.FileSystemUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the reuse and pre-generation of enhanced configuration classes.
+ *
+ * @author agent
+ */
+public class ConfigurationClassEnhancerTests {
+
+	@Test
+	public void enhancedClassSharedAcrossContexts() {
+		AnnotationConfigApplicationContext ctx1 = new AnnotationConfigApplicationContext(SharedConfig.class);
+		AnnotationConfigApplicationContext ctx2 = new AnnotationConfigApplicationContext(SharedConfig.class);
+		SharedConfig config1 = ctx1.getBean(SharedConfig.class);
+		SharedConfig config2 = ctx2.getBean(SharedConfig.class);
+		assertNotSame(SharedConfig.class, config1.getClass());
+		assertSame(config1.getClass(), config2.getClass());
+
+		TestBean spouse1 = ctx1.getBean("spouse", TestBean.class);
+		TestBean spouse2 = ctx2.getBean("spouse", TestBean.class);
+		assertNotSame(spouse1, spouse2);
+		assertSame(spouse1, ctx1.getBean("testBean", TestBean.class).getSpouse());
+		assertSame(spouse2, ctx2.getBean("testBean", TestBean.class).getSpouse());
+		assertSame(spouse1, config1.spouse());
+
+		ctx1.close();
+		assertSame(spouse2, config2.spouse());
+		ctx2.close();
+	}
+
+	@Test
+	public void pregeneratedClassUsed() throws Exception {
+		File outputDirectory = File.createTempFile("pregenerated", "");
+		outputDirectory.delete();
+		try {
+			File classFile = new ConfigurationClassPregenerator(outputDirectory).pregenerate(PregeneratedConfig.class);
+			assertTrue(classFile.isFile());
+
+			ClassLoader parent = new URLClassLoader(new URL[] {outputDirectory.toURI().toURL()}, getClass().getClassLoader());
+			ClassLoader classLoader = new OverridingClassLoader(parent) {
+				@Override
+				protected boolean isEligibleForOverriding(String className) {
+					return className.startsWith(PregeneratedConfig.class.getName());
+				}
+			};
+			Class<?> configClass = classLoader.loadClass(PregeneratedConfig.class.getName());
+			assertNotSame(PregeneratedConfig.class, configClass);
+
+			AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+			ctx.setClassLoader(classLoader);
+			ctx.register(configClass);
+			ctx.refresh();
+			Object config = ctx.getBean(configClass);
+			assertEquals(configClass.getName() + ConfigurationClassEnhancer.PREGENERATED_CLASS_SUFFIX,
+					config.getClass().getName());
+			assertSame(ctx.getBean("spouse"), ctx.getBean("testBean", TestBean.class).getSpouse());
+			ctx.close();
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(outputDirectory);
+		}
+	}
+
+
+	@Configuration
+	static class SharedConfig {
+
+		@Bean
+		public TestBean testBean() {
+			TestBean testBean = new TestBean();
+			testBean.setSpouse(spouse());
+			return testBean;
+		}
+
+		@Bean
+		public TestBean spouse() {
+			return new TestBean();
+		}
+	}
+
+
+	@Configuration
+	public static class PregeneratedConfig {
+
+		@Bean
+		public TestBean testBean() {
+			TestBean testBean = new TestBean();
+			testBean.setSpouse(spouse());
+			return testBean;
+		}
+
+		@Bean
+		public TestBean spouse() {
+			return new TestBean();
+		}
+	}
+
+}
@@ -57,6 +57,30 @@ public class ApplicationContextEventTests {
 		verify(listener).onApplicationEvent(evt);
 	}
 
+	@Test
+	public void listenerRegistrationAfterRetrieval() {
+		MyOrderedListener1 listener1 = new MyOrderedListener1();
+		SimpleApplicationEventMulticaster smc = new SimpleApplicationEventMulticaster();
+		smc.addApplicationListener(listener1);
+		MyEvent event1 = new MyEvent(this);
+		smc.multicastEvent(event1);
+
+		MyOrderedListener1 listener2 = new MyOrderedListener1();
+		smc.addApplicationListener(listener2);
+		MyEvent event2 = new MyEvent(this);
+		smc.multicastEvent(event2);
+		smc.removeApplicationListener(listener1);
+		MyEvent event3 = new MyEvent(this);
+		smc.multicastEvent(event3);
+
+		assertTrue(listener1.seenEvents.contains(event1));
+		assertTrue(listener1.seenEvents.contains(event2));
+		assertFalse(listener1.seenEvents.contains(event3));
+		assertFalse(listener2.seenEvents.contains(event1));
+		assertTrue(listener2.seenEvents.contains(event2));
+		assertTrue(listener2.seenEvents.contains(event3));
+	}
+
 	@Test
 	public void orderedListeners() {
 		MyOrderedListener1 listener1 = new MyOrderedListener1();
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ApplicationContextEventTests.MyEvent;
+import org.springframework.context.event.ApplicationContextEventTests.MyOtherEvent;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.util.ErrorHandler;
+import org.springframework.util.ReflectionUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class QueueingApplicationEventMulticasterTests {
+
+	@Test
+	public void eventsDeliveredInOrderPerListener() throws Exception {
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		RecordingListener listener1 = new RecordingListener(200);
+		RecordingListener listener2 = new RecordingListener(200);
+		multicaster.addApplicationListener(listener1);
+		multicaster.addApplicationListener(listener2);
+
+		List<ApplicationEvent> events = new ArrayList<ApplicationEvent>();
+		for (int i = 0; i < 200; i++) {
+			ApplicationEvent event = (i % 2 == 0 ? new MyEvent(this) : new MyOtherEvent(this));
+			events.add(event);
+			multicaster.multicastEvent(event);
+		}
+		assertTrue(listener1.latch.await(10, TimeUnit.SECONDS));
+		assertTrue(listener2.latch.await(10, TimeUnit.SECONDS));
+		assertEquals(events, listener1.events);
+		assertEquals(events, listener2.events);
+	}
+
+	@Test
+	public void eventsBatchedForBatchingListener() throws Exception {
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		multicaster.setMaxBatchSize(10);
+		BlockingListener blocker = new BlockingListener();
+		BatchRecordingListener listener = new BatchRecordingListener(50);
+		multicaster.addApplicationListener(blocker);
+		multicaster.addApplicationListener(listener);
+
+		// hold back delivery to the batching listener until all events are queued
+		listener.blocked = blocker;
+		List<ApplicationEvent> events = new ArrayList<ApplicationEvent>();
+		for (int i = 0; i < 50; i++) {
+			ApplicationEvent event = new MyEvent(this);
+			events.add(event);
+			multicaster.multicastEvent(event);
+		}
+		blocker.release.countDown();
+		assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+		assertEquals(events, listener.events);
+		assertTrue(listener.batchSizes.size() < 50);
+		for (int batchSize : listener.batchSizes) {
+			assertTrue(batchSize <= 10);
+		}
+	}
+
+	@Test
+	public void failingListenerIsolated() throws Exception {
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		final AtomicInteger errors = new AtomicInteger();
+		multicaster.setErrorHandler(new ErrorHandler() {
+			public void handleError(Throwable t) {
+				errors.incrementAndGet();
+			}
+		});
+		multicaster.addApplicationListener(new ApplicationListener<ApplicationEvent>() {
+			public void onApplicationEvent(ApplicationEvent event) {
+				throw new IllegalStateException();
+			}
+		});
+		RecordingListener listener = new RecordingListener(3);
+		multicaster.addApplicationListener(listener);
+
+		multicaster.multicastEvent(new MyEvent(this));
+		multicaster.multicastEvent(new MyEvent(this));
+		multicaster.multicastEvent(new MyEvent(this));
+		assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+		for (int i = 0; i < 100 && errors.get() < 3; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(3, errors.get());
+	}
+
+	@Test
+	public void fullQueueDropsEventAfterTimeout() throws Exception {
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		multicaster.setQueueCapacity(2);
+		multicaster.setQueueFullTimeout(50);
+		BlockingListener blocker = new BlockingListener();
+		multicaster.addApplicationListener(blocker);
+
+		multicaster.multicastEvent(new MyEvent(this));
+		assertTrue(blocker.started.await(10, TimeUnit.SECONDS));
+		multicaster.multicastEvent(new MyEvent(this));
+		multicaster.multicastEvent(new MyEvent(this));
+		long start = System.currentTimeMillis();
+		multicaster.multicastEvent(new MyEvent(this));
+		assertTrue(System.currentTimeMillis() - start >= 40);
+		assertEquals(2, multicaster.getPendingEventCount(blocker));
+
+		blocker.release.countDown();
+		for (int i = 0; i < 100 && blocker.count.get() < 3; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(3, blocker.count.get());
+		assertEquals(0, multicaster.getPendingEventCount(blocker));
+	}
+
+	@Test
+	public void queuesDroppedOnceDrained() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(RecordingListener.class);
+		bd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		bd.getConstructorArgumentValues().addGenericArgumentValue(1);
+		beanFactory.registerBeanDefinition("listener", bd);
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster(beanFactory);
+		multicaster.setTaskExecutor(new SyncTaskExecutor());
+		multicaster.addApplicationListenerBean("listener");
+
+		for (int i = 0; i < 100; i++) {
+			multicaster.multicastEvent(new MyEvent(this));
+		}
+		assertEquals(0, getListenerQueues(multicaster).size());
+	}
+
+	@Test
+	public void queueDroppedOnceDrainedAsynchronously() throws Exception {
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		RecordingListener listener = new RecordingListener(50);
+		multicaster.addApplicationListener(listener);
+
+		for (int i = 0; i < 50; i++) {
+			multicaster.multicastEvent(new MyEvent(this));
+		}
+		assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+		Map<?, ?> queues = getListenerQueues(multicaster);
+		for (int i = 0; i < 100 && !queues.isEmpty(); i++) {
+			Thread.sleep(10);
+		}
+		assertTrue(queues.isEmpty());
+
+		multicaster.multicastEvent(new MyEvent(this));
+		for (int i = 0; i < 100 && listener.events.size() < 51; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(51, listener.events.size());
+	}
+
+	@Test
+	public void queueRetiredAfterListenerBeanRemoval() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		BlockingListener blocker = new BlockingListener();
+		beanFactory.registerSingleton("blocker", blocker);
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster(beanFactory);
+		multicaster.addApplicationListenerBean("blocker");
+
+		multicaster.multicastEvent(new MyEvent(this));
+		assertTrue(blocker.started.await(10, TimeUnit.SECONDS));
+		multicaster.multicastEvent(new MyEvent(this));
+		assertEquals(1, multicaster.getPendingEventCount(blocker));
+
+		multicaster.removeApplicationListenerBean("blocker");
+		multicaster.multicastEvent(new MyEvent(this));
+		assertEquals(1, multicaster.getPendingEventCount(blocker));
+		blocker.release.countDown();
+
+		Map<?, ?> queues = getListenerQueues(multicaster);
+		for (int i = 0; i < 100 && !queues.isEmpty(); i++) {
+			Thread.sleep(10);
+		}
+		assertTrue(queues.isEmpty());
+		assertEquals(2, blocker.count.get());
+	}
+
+	@Test
+	public void listenerAddedAgainBeforeDrainRetired() throws Exception {
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		BlockingListener blocker = new BlockingListener();
+		multicaster.addApplicationListener(blocker);
+
+		multicaster.multicastEvent(new MyEvent(this));
+		assertTrue(blocker.started.await(10, TimeUnit.SECONDS));
+		multicaster.multicastEvent(new MyEvent(this));
+		multicaster.removeApplicationListener(blocker);
+		multicaster.addApplicationListener(blocker);
+		multicaster.multicastEvent(new MyEvent(this));
+		for (int i = 0; i < 20 && blocker.maxActive.get() < 2; i++) {
+			Thread.sleep(10);
+		}
+		blocker.release.countDown();
+
+		for (int i = 0; i < 100 && blocker.count.get() < 3; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(3, blocker.count.get());
+		assertEquals(1, blocker.maxActive.get());
+	}
+
+
+	private static Map<?, ?> getListenerQueues(QueueingApplicationEventMulticaster multicaster) {
+		Field field = ReflectionUtils.findField(QueueingApplicationEventMulticaster.class, "listenerQueues");
+		ReflectionUtils.makeAccessible(field);
+		return (Map<?, ?>) ReflectionUtils.getField(field, multicaster);
+	}
+
+
+	private static class RecordingListener implements ApplicationListener<ApplicationEvent> {
+
+		final List<ApplicationEvent> events = Collections.synchronizedList(new ArrayList<ApplicationEvent>());
+
+		final CountDownLatch latch;
+
+		public RecordingListener(int expectedEvents) {
+			this.latch = new CountDownLatch(expectedEvents);
+		}
+
+		public void onApplicationEvent(ApplicationEvent event) {
+			this.events.add(event);
+			this.latch.countDown();
+		}
+	}
+
+
+	private static class BatchRecordingListener implements BatchingApplicationListener<ApplicationEvent> {
+
+		final List<ApplicationEvent> events = Collections.synchronizedList(new ArrayList<ApplicationEvent>());
+
+		final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+
+		final CountDownLatch latch;
+
+		volatile BlockingListener blocked;
+
+		public BatchRecordingListener(int expectedEvents) {
+			this.latch = new CountDownLatch(expectedEvents);
+		}
+
+		public void onApplicationEvent(ApplicationEvent event) {
+			onApplicationEvents(Collections.singletonList(event));
+		}
+
+		public void onApplicationEvents(List<ApplicationEvent> events) {
+			try {
+				this.blocked.release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			this.batchSizes.add(events.size());
+			for (ApplicationEvent event : events) {
+				this.events.add(event);
+				this.latch.countDown();
+			}
+		}
+	}
+
+
+	private static class BlockingListener implements ApplicationListener<ApplicationEvent> {
+
+		final CountDownLatch started = new CountDownLatch(1);
+
+		final CountDownLatch release = new CountDownLatch(1);
+
+		final AtomicInteger count = new AtomicInteger();
+
+		final AtomicInteger active = new AtomicInteger();
+
+		final AtomicInteger maxActive = new AtomicInteger();
+
+		public void onApplicationEvent(ApplicationEvent event) {
+			int current = this.active.incrementAndGet();
+			if (current > this.maxActive.get()) {
+				this.maxActive.set(current);
+			}
+			this.started.countDown();
+			try {
+				this.release.await(10, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			this.active.decrementAndGet();
+			this.count.incrementAndGet();
+		}
+	}
+
+}
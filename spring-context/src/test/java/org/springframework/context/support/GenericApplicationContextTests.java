@@ -16,9 +16,30 @@
 
 package org.springframework.context.support;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionCustomizer;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.WarmUpOrder;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.SyncTaskExecutor;
+
+import static org.junit.Assert.*;
 
 /**
  * @author Juergen Hoeller
@@ -33,4 +54,181 @@ public class GenericApplicationContextTests {
 			new GenericApplicationContext(bf).refresh();
 	}
 
+	@Test
+	public void individualBeans() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean(BeanA.class);
+		context.registerBean(BeanB.class);
+		context.refresh();
+
+		assertNull(context.getBean(BeanA.class).b);
+		assertSame(context, context.getBean(BeanB.class).applicationContext);
+	}
+
+	@Test
+	public void individualBeansWithSupplier() {
+		final GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean(BeanA.class, new ObjectFactory<BeanA>() {
+			public BeanA getObject() {
+				BeanA a = new BeanA();
+				a.b = context.getBean(BeanB.class);
+				return a;
+			}
+		});
+		context.registerBean("b", BeanB.class, new ObjectFactory<BeanB>() {
+			public BeanB getObject() {
+				return new BeanB();
+			}
+		});
+		context.refresh();
+
+		assertSame(context.getBean("b"), context.getBean(BeanA.class).b);
+		assertSame(context, context.getBean(BeanB.class).applicationContext);
+		assertTrue(context.getBeanFactory().containsSingleton(BeanA.class.getName()));
+		assertEquals(1, context.getBeanNamesForType(BeanB.class).length);
+	}
+
+	@Test
+	public void individualBeanWithCustomizer() {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean(BeanB.class, new BeanDefinitionCustomizer() {
+			public void customize(BeanDefinition bd) {
+				bd.setLazyInit(true);
+			}
+		});
+		context.refresh();
+
+		assertFalse(context.getBeanFactory().containsSingleton(BeanB.class.getName()));
+		assertNotNull(context.getBean(BeanB.class));
+		assertTrue(context.getBeanFactory().containsSingleton(BeanB.class.getName()));
+	}
+
+	@Test
+	public void lazyInitWarmUpInOrder() {
+		final List<String> created = new ArrayList<String>();
+		GenericApplicationContext context = new GenericApplicationContext();
+		registerLazyBean(context, "first", 1, created);
+		registerLazyBean(context, "default", null, created);
+		registerLazyBean(context, "second", "2", created);
+		context.setWarmUpExecutor(new SyncTaskExecutor());
+		context.refresh();
+
+		assertEquals(Arrays.asList("first", "second", "default"), created);
+		assertTrue(context.getBeanFactory().containsSingleton("default"));
+		context.close();
+	}
+
+	@Test
+	public void lazyInitWarmUpWithInvalidOrder() {
+		final List<String> created = new ArrayList<String>();
+		GenericApplicationContext context = new GenericApplicationContext();
+		registerLazyBean(context, "invalid", "first", created);
+		registerLazyBean(context, "second", 2, created);
+		registerLazyBean(context, "third", "3", created);
+		context.setWarmUpExecutor(new SyncTaskExecutor());
+		context.refresh();
+
+		assertEquals(Arrays.asList("second", "third", "invalid"), created);
+		context.close();
+	}
+
+	private void registerLazyBean(GenericApplicationContext context, final String name,
+			final Object warmUpOrder, final List<String> created) {
+
+		context.registerBean(name, BeanB.class, new ObjectFactory<BeanB>() {
+			public BeanB getObject() {
+				created.add(name);
+				return new BeanB();
+			}
+		}, new BeanDefinitionCustomizer() {
+			public void customize(BeanDefinition bd) {
+				bd.setLazyInit(true);
+				if (warmUpOrder != null) {
+					bd.setAttribute(AbstractApplicationContext.WARM_UP_ORDER_ATTRIBUTE, warmUpOrder);
+				}
+			}
+		});
+	}
+
+	@Test
+	public void lazyInitWarmUpJoinedByGetBean() throws Exception {
+		final AtomicInteger instanceCount = new AtomicInteger();
+		final CountDownLatch creationStarted = new CountDownLatch(1);
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean("slow", BeanB.class, new ObjectFactory<BeanB>() {
+			public BeanB getObject() {
+				instanceCount.incrementAndGet();
+				creationStarted.countDown();
+				try {
+					Thread.sleep(100);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				return new BeanB();
+			}
+		}, new BeanDefinitionCustomizer() {
+			public void customize(BeanDefinition bd) {
+				bd.setLazyInit(true);
+			}
+		});
+		context.setWarmUpExecutor(new SimpleAsyncTaskExecutor());
+		context.refresh();
+
+		assertTrue(creationStarted.await(5, TimeUnit.SECONDS));
+		BeanB bean = context.getBean("slow", BeanB.class);
+		assertSame(context, bean.applicationContext);
+		assertSame(bean, context.getBean("slow"));
+		assertEquals(1, instanceCount.get());
+		context.close();
+	}
+
+	@Test
+	public void lazyInitWarmUpWithAnnotation() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		context.register(WarmUpConfig.class);
+		context.setWarmUpExecutor(new SyncTaskExecutor());
+		context.refresh();
+
+		assertEquals(Arrays.asList("early", "late"), context.getBean(WarmUpConfig.class).created);
+		assertEquals(5, context.getBeanFactory().getBeanDefinition("early").getAttribute(
+				AbstractApplicationContext.WARM_UP_ORDER_ATTRIBUTE));
+		context.close();
+	}
+
+
+	static class BeanA {
+
+		BeanB b;
+	}
+
+
+	static class BeanB implements ApplicationContextAware {
+
+		ApplicationContext applicationContext;
+
+		public void setApplicationContext(ApplicationContext applicationContext) {
+			this.applicationContext = applicationContext;
+		}
+	}
+
+
+	@Configuration
+	static class WarmUpConfig {
+
+		final List<String> created = new ArrayList<String>();
+
+		@Bean @Lazy
+		public BeanA late() {
+			this.created.add("late");
+			return new BeanA();
+		}
+
+		@Bean @Lazy @WarmUpOrder(5)
+		public BeanA early() {
+			this.created.add("early");
+			return new BeanA();
+		}
+	}
+
 }
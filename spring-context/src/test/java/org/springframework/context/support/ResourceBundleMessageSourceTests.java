@@ -16,10 +16,17 @@
 
 package org.springframework.context.support;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
 import java.util.ResourceBundle;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.TestCase;
 
@@ -352,6 +359,80 @@ public class ResourceBundleMessageSourceTests extends TestCase {
 		assertEquals(0, filenames.size());
 	}
 
+	public void testReloadableResourceBundleMessageSourceWithRefreshExecutor() throws Exception {
+		File file = File.createTempFile("messages", ".properties");
+		try {
+			writeMessage(file, "original");
+			final List<Runnable> refreshTasks = new ArrayList<Runnable>();
+			ReloadableResourceBundleMessageSource ms = new ReloadableResourceBundleMessageSource();
+			ms.setBasename("file:" + file.getPath().substring(0, file.getPath().length() - ".properties".length()));
+			ms.setCacheSeconds(0);
+			ms.setFallbackToSystemLocale(false);
+			ms.setRefreshExecutor(new Executor() {
+				@Override
+				public void execute(Runnable task) {
+					refreshTasks.add(task);
+				}
+			});
+			assertEquals("original", ms.getMessage("code", null, Locale.ENGLISH));
+			assertTrue(refreshTasks.isEmpty());
+
+			writeMessage(file, "modified");
+			file.setLastModified(file.lastModified() + 5000);
+			assertEquals("original", ms.getMessage("code", null, Locale.ENGLISH));
+			int scheduledTasks = refreshTasks.size();
+			assertTrue(scheduledTasks > 0);
+			assertEquals("original", ms.getMessage("code", null, Locale.ENGLISH));
+			assertEquals(scheduledTasks, refreshTasks.size());
+
+			for (Runnable refreshTask : refreshTasks) {
+				refreshTask.run();
+			}
+			assertEquals("modified", ms.getMessage("code", null, Locale.ENGLISH));
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	private void writeMessage(File file, String message) throws IOException {
+		Properties props = new Properties();
+		props.setProperty("code", message);
+		OutputStream os = new FileOutputStream(file);
+		try {
+			props.store(os, null);
+		}
+		finally {
+			os.close();
+		}
+	}
+
+	public void testReloadableResourceBundleMessageSourceWithConcurrentMessageFormatting() throws Exception {
+		final ReloadableResourceBundleMessageSource ms = new ReloadableResourceBundleMessageSource();
+		ms.setBasename("org/springframework/context/support/messages");
+		ms.setCacheSeconds(1);
+		final AtomicInteger failures = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			final String arg = "arg" + i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 1000; j++) {
+						if (!("Hello, " + arg).equals(ms.getMessage("hello", new Object[] {"Hello", arg}, Locale.ENGLISH))) {
+							failures.incrementAndGet();
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, failures.get());
+	}
+
 	public void testMessageSourceResourceBundle() {
 		ResourceBundleMessageSource ms = new ResourceBundleMessageSource();
 		ms.setBasename("org/springframework/context/support/messages");
@@ -26,6 +26,10 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.joda.time.DateTimeZone;
 import org.joda.time.format.DateTimeFormat;
@@ -210,6 +214,53 @@ public class DateFormatterTests {
 		assertThat("uses style", formatter.print(date, Locale.US), is("6/1/09"));
 	}
 
+	@Test
+	public void shouldPrintAndParseConcurrently() throws Exception {
+		final DateFormatter formatter = new DateFormatter("yyyy-MM-dd HH:mm:ss");
+		formatter.setTimeZone(UTC);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<?>[] futures = new Future<?>[8];
+			for (int i = 0; i < futures.length; i++) {
+				final int day = i + 1;
+				futures[i] = executor.submit(new Callable<Object>() {
+					@Override
+					public Object call() throws Exception {
+						Date date = getDate(2009, Calendar.JUNE, day, 1, 2, 3, 0);
+						String text = "2009-06-0" + day + " 01:02:03";
+						for (int j = 0; j < 500; j++) {
+							assertThat(formatter.print(date, Locale.US), is(text));
+							assertThat(formatter.parse(text, Locale.US), is(date));
+						}
+						return null;
+					}
+				});
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void overriddenDateFormatNotCached() throws Exception {
+		DateFormatter formatter = new DateFormatter("yyyy-MM-dd") {
+			private int calls = 0;
+			@Override
+			protected DateFormat getDateFormat(Locale locale) {
+				DateFormat format = super.getDateFormat(locale);
+				format.setTimeZone(this.calls++ == 0 ? UTC : TimeZone.getTimeZone("GMT+12"));
+				return format;
+			}
+		};
+		Date date = getDate(2009, Calendar.JUNE, 1, 18, 0, 0, 0);
+		assertThat(formatter.print(date, Locale.US), is("2009-06-01"));
+		assertThat(formatter.print(date, Locale.US), is("2009-06-02"));
+	}
+
 	private Date getDate(int year, int month, int dayOfMonth) {
 		return getDate(year, month, dayOfMonth, 0, 0, 0, 0);
 	}
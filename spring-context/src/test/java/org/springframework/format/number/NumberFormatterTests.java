@@ -19,6 +19,7 @@ package org.springframework.format.number;
 import static org.junit.Assert.assertEquals;
 
 import java.math.BigDecimal;
+import java.text.NumberFormat;
 import java.text.ParseException;
 import java.util.Locale;
 
@@ -52,4 +53,27 @@ public class NumberFormatterTests {
 		formatter.parse("23.56bogus", Locale.US);
 	}
 
+	@Test
+	public void patternChangedAfterUse() throws ParseException {
+		assertEquals("23.56", formatter.print(new BigDecimal("23.56"), Locale.US));
+		formatter.setPattern("#,##0.0");
+		assertEquals("1,023.6", formatter.print(new BigDecimal("1023.56"), Locale.US));
+		assertEquals(new BigDecimal("1023.5"), formatter.parse("1,023.5", Locale.US));
+	}
+
+	@Test
+	public void overriddenNumberFormatNotCached() {
+		NumberFormatter formatter = new NumberFormatter() {
+			private int precision = 0;
+			@Override
+			public NumberFormat getNumberFormat(Locale locale) {
+				NumberFormat format = super.getNumberFormat(locale);
+				format.setMinimumFractionDigits(this.precision++);
+				return format;
+			}
+		};
+		assertEquals("23", formatter.print(new BigDecimal("23"), Locale.US));
+		assertEquals("23.0", formatter.print(new BigDecimal("23"), Locale.US));
+	}
+
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class AdaptivePoolSizingPolicyTests {
+
+	private final AdaptivePoolSizingPolicy sizingPolicy = new AdaptivePoolSizingPolicy();
+
+	private final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+
+	@Before
+	public void initExecutor() {
+		// Adjusted manually through adjust() calls
+		this.sizingPolicy.setAdjustmentInterval(TimeUnit.HOURS.toMillis(1));
+		this.sizingPolicy.setMinPoolSize(1);
+		this.sizingPolicy.setMaxPoolSize(8);
+		this.sizingPolicy.setTargetQueueWait(50);
+		this.executor.setCorePoolSize(1);
+		this.executor.setMaxPoolSize(10);
+		this.executor.setSizingPolicy(this.sizingPolicy);
+		this.executor.afterPropertiesSet();
+	}
+
+	@After
+	public void shutdownExecutor() {
+		this.release.countDown();
+		this.executor.destroy();
+	}
+
+
+	@Test
+	public void growsWhileTasksAreWaiting() throws Exception {
+		this.executor.execute(new BlockingTask());
+		awaitActiveCount(1);
+		assertEquals(1, this.sizingPolicy.adjust());
+
+		for (int i = 0; i < 20; i++) {
+			this.executor.execute(new BlockingTask());
+		}
+		assertEquals(2, this.sizingPolicy.adjust());
+		assertEquals(2, this.executor.getCorePoolSize());
+		assertEquals(2, this.executor.getThreadPoolExecutor().getCorePoolSize());
+		awaitActiveCount(2);
+		// No task completed: more threads did not help, so hold off once
+		assertEquals(2, this.sizingPolicy.adjust());
+		assertEquals(3, this.sizingPolicy.adjust());
+	}
+
+	@Test
+	public void neverExceedsMaxPoolSize() throws Exception {
+		for (int i = 0; i < 20; i++) {
+			this.executor.execute(new BlockingTask());
+		}
+		for (int i = 0; i < 40; i++) {
+			this.sizingPolicy.adjust();
+		}
+		assertEquals(8, this.executor.getCorePoolSize());
+	}
+
+	@Test
+	public void shrinksUnderLightLoad() throws Exception {
+		this.executor.setCorePoolSize(4);
+		this.executor.getThreadPoolExecutor().setCorePoolSize(4);
+		final CountDownLatch done = new CountDownLatch(1);
+		this.executor.execute(new Runnable() {
+			public void run() {
+				done.countDown();
+			}
+		});
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		this.sizingPolicy.setTargetQueueWait(1000);
+		assertEquals(3, this.sizingPolicy.adjust());
+		assertEquals(2, this.sizingPolicy.adjust());
+		assertEquals(1, this.sizingPolicy.adjust());
+		assertEquals(1, this.sizingPolicy.adjust());
+	}
+
+	@Test
+	public void holdsWithinTarget() throws Exception {
+		final CountDownLatch done = new CountDownLatch(1);
+		this.executor.execute(new Runnable() {
+			public void run() {
+				done.countDown();
+			}
+		});
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		this.sizingPolicy.setTargetQueueWait(1000);
+		assertEquals(1, this.sizingPolicy.adjust());
+	}
+
+
+	private void awaitActiveCount(int activeCount) throws InterruptedException {
+		// The metrics count a task as active once its queue wait has been recorded
+		for (int i = 0; i < 500 && this.executor.getMetrics().getActiveCount() < activeCount; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(activeCount, this.executor.getMetrics().getActiveCount());
+	}
+
+
+	private class BlockingTask implements Runnable {
+
+		public void run() {
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.task.TaskRejectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class ForkJoinPoolTaskExecutorTests {
+
+	private final ForkJoinPoolTaskExecutor executor = new ForkJoinPoolTaskExecutor();
+
+
+	@Before
+	public void setup() {
+		this.executor.setThreadNamePrefix("forkJoinTest-");
+		this.executor.setParallelism(2);
+		this.executor.afterPropertiesSet();
+	}
+
+	@After
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+
+
+	@Test
+	public void submitCallable() throws Exception {
+		Future<String> future = this.executor.submit(new Callable<String>() {
+			@Override
+			public String call() {
+				return Thread.currentThread().getName();
+			}
+		});
+		String threadName = future.get(1000, TimeUnit.MILLISECONDS);
+		assertTrue(threadName.startsWith("forkJoinTest-"));
+		assertTrue(future.isDone());
+	}
+
+	@Test
+	public void submitFailingCallable() throws Exception {
+		Future<String> future = this.executor.submit(new Callable<String>() {
+			@Override
+			public String call() {
+				throw new IllegalStateException("expected");
+			}
+		});
+		try {
+			future.get(1000, TimeUnit.MILLISECONDS);
+			fail("Should have thrown ExecutionException");
+		}
+		catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void executeFailingRunnable() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicReference<Throwable> uncaught = new AtomicReference<Throwable>();
+		ForkJoinPoolTaskExecutor failingExecutor = new ForkJoinPoolTaskExecutor();
+		failingExecutor.setParallelism(1);
+		failingExecutor.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(Thread thread, Throwable ex) {
+				uncaught.set(ex);
+				latch.countDown();
+			}
+		});
+		failingExecutor.afterPropertiesSet();
+		try {
+			failingExecutor.execute(new Runnable() {
+				@Override
+				public void run() {
+					throw new IllegalStateException("failed");
+				}
+			});
+			assertTrue(latch.await(5, TimeUnit.SECONDS));
+			assertTrue(uncaught.get() instanceof IllegalStateException);
+		}
+		finally {
+			failingExecutor.shutdown();
+		}
+	}
+
+	@Test
+	public void nestedTasksForkIntoSamePool() throws Exception {
+		Future<Integer> future = this.executor.submit(new Callable<Integer>() {
+			@Override
+			public Integer call() throws Exception {
+				final Thread outer = Thread.currentThread();
+				assertTrue(outer instanceof ForkJoinWorkerThread);
+				Future<Integer> nested = executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						Thread current = Thread.currentThread();
+						assertSame(executor.getForkJoinPool(), ((ForkJoinWorkerThread) current).getPool());
+						return 21;
+					}
+				});
+				return nested.get() * 2;
+			}
+		});
+		assertEquals(Integer.valueOf(42), future.get(1000, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void gracefulShutdown() throws Exception {
+		final AtomicInteger counter = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(1);
+		for (int i = 0; i < 10; i++) {
+			this.executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						latch.await();
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+					counter.incrementAndGet();
+				}
+			});
+		}
+		this.executor.setWaitForTasksToCompleteOnShutdown(true);
+		this.executor.setAwaitTerminationSeconds(5);
+		latch.countDown();
+		this.executor.shutdown();
+		assertEquals(10, counter.get());
+		assertTrue(this.executor.getForkJoinPool().isTerminated());
+	}
+
+	@Test(expected = TaskRejectedException.class)
+	public void rejectedAfterShutdown() {
+		this.executor.shutdown();
+		this.executor.execute(new Runnable() {
+			@Override
+			public void run() {
+			}
+		});
+	}
+
+}
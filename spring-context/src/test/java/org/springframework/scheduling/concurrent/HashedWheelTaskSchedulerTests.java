@@ -0,0 +1,204 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.concurrent;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class HashedWheelTaskSchedulerTests {
+
+	private final HashedWheelTaskScheduler scheduler = new HashedWheelTaskScheduler();
+
+
+	@Before
+	public void initScheduler() {
+		scheduler.setThreadNamePrefix("wheel-");
+		scheduler.setTickDuration(5);
+		scheduler.setTicksPerWheel(8);
+		scheduler.setPoolSize(2);
+		scheduler.afterPropertiesSet();
+	}
+
+	@After
+	public void shutdownScheduler() {
+		scheduler.destroy();
+	}
+
+
+	@Test
+	public void scheduleOneTimeTask() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		final List<String> threadNames = new ArrayList<String>();
+		long start = System.currentTimeMillis();
+		ScheduledFuture future = scheduler.schedule(new Runnable() {
+			public void run() {
+				threadNames.add(Thread.currentThread().getName());
+				latch.countDown();
+			}
+		}, new Date(start + 50));
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(System.currentTimeMillis() - start >= 50);
+		assertNull(future.get(1, TimeUnit.SECONDS));
+		assertTrue(future.isDone());
+		assertFalse(future.isCancelled());
+		assertTrue(threadNames.get(0).startsWith("wheel-"));
+	}
+
+	@Test
+	public void scheduleBeyondOneRevolution() throws Exception {
+		// 8 ticks of 5 ms per revolution: 100 ms takes several rounds
+		final CountDownLatch latch = new CountDownLatch(1);
+		long start = System.currentTimeMillis();
+		scheduler.schedule(new CountDownTask(latch), new Date(start + 100));
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(System.currentTimeMillis() - start >= 100);
+	}
+
+	@Test
+	public void failingOneTimeTask() throws Exception {
+		ScheduledFuture future = scheduler.schedule(new Runnable() {
+			public void run() {
+				throw new IllegalStateException("intentional");
+			}
+		}, new Date());
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("Should have thrown ExecutionException");
+		}
+		catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	public void cancelledTasksDoNotFire() throws Exception {
+		final AtomicInteger count = new AtomicInteger();
+		Runnable task = new Runnable() {
+			public void run() {
+				count.incrementAndGet();
+			}
+		};
+		List<ScheduledFuture> futures = new ArrayList<ScheduledFuture>();
+		for (int i = 0; i < 10000; i++) {
+			futures.add(scheduler.schedule(task, new Date(System.currentTimeMillis() + 500 + i % 100)));
+		}
+		for (int i = 0; i < futures.size(); i += 2) {
+			assertTrue(futures.get(i).cancel(false));
+			assertTrue(futures.get(i).isCancelled());
+			assertFalse(futures.get(i).cancel(false));
+		}
+		for (int i = 0; i < 500 && count.get() < 5000; i++) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(50);
+		assertEquals(5000, count.get());
+		assertEquals(0, scheduler.getScheduledTaskCount());
+	}
+
+	@Test
+	public void fixedRateTask() throws Exception {
+		CountDownLatch latch = new CountDownLatch(3);
+		ScheduledFuture future = scheduler.scheduleAtFixedRate(new CountDownTask(latch), 20);
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(future.cancel(false));
+		assertTrue(future.isDone());
+	}
+
+	@Test
+	public void fixedDelayTaskWithStartTime() throws Exception {
+		CountDownLatch latch = new CountDownLatch(3);
+		long start = System.currentTimeMillis();
+		ScheduledFuture future = scheduler.scheduleWithFixedDelay(new CountDownTask(latch), new Date(start + 30), 10);
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(System.currentTimeMillis() - start >= 50);
+		future.cancel(false);
+	}
+
+	@Test
+	public void triggerBasedTask() throws Exception {
+		CountDownLatch latch = new CountDownLatch(3);
+		ScheduledFuture future = scheduler.schedule(new CountDownTask(latch), new Trigger() {
+			private int executions;
+			public Date nextExecutionTime(TriggerContext triggerContext) {
+				if (this.executions++ == 3) {
+					return null;
+				}
+				Date last = triggerContext.lastCompletionTime();
+				return new Date((last != null ? last.getTime() : System.currentTimeMillis()) + 10);
+			}
+		});
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		for (int i = 0; i < 100 && !future.isDone(); i++) {
+			Thread.sleep(10);
+		}
+		assertTrue(future.isDone());
+		assertFalse(future.isCancelled());
+	}
+
+	@Test
+	public void externalTaskExecutor() throws Exception {
+		HashedWheelTaskScheduler scheduler = new HashedWheelTaskScheduler();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		scheduler.setTaskExecutor(executor);
+		scheduler.afterPropertiesSet();
+		try {
+			CountDownLatch latch = new CountDownLatch(1);
+			scheduler.schedule(new CountDownTask(latch), new Date());
+			assertTrue(latch.await(5, TimeUnit.SECONDS));
+		}
+		finally {
+			scheduler.destroy();
+		}
+		assertFalse(executor.isShutdown());
+		executor.shutdown();
+	}
+
+
+	private static class CountDownTask implements Runnable {
+
+		private final CountDownLatch latch;
+
+		public CountDownTask(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		public void run() {
+			this.latch.countDown();
+		}
+	}
+
+}
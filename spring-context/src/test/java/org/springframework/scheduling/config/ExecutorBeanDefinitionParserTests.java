@@ -18,7 +18,9 @@ package org.springframework.scheduling.config;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 import org.junit.Before;
@@ -29,6 +31,8 @@ import org.springframework.beans.factory.BeanCreationException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.AdaptivePoolSizingPolicy;
+import org.springframework.scheduling.concurrent.ForkJoinPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.util.CustomizableThreadCreator;
 
@@ -95,6 +99,34 @@ public class ExecutorBeanDefinitionParserTests {
 		assertEquals(Integer.MAX_VALUE, getQueueCapacity(executor));
 	}
 
+	@Test
+	public void adaptiveRange() {
+		Object executor = this.context.getBean("adaptiveRange");
+		assertEquals(2, getCorePoolSize(executor));
+		assertEquals(20, getMaxPoolSize(executor));
+		assertEquals(Integer.MAX_VALUE, getQueueCapacity(executor));
+		AdaptivePoolSizingPolicy sizingPolicy =
+				(AdaptivePoolSizingPolicy) new DirectFieldAccessor(executor).getPropertyValue("sizingPolicy");
+		assertEquals(2, sizingPolicy.getMinPoolSize());
+		assertEquals(20, sizingPolicy.getMaxPoolSize());
+		assertEquals(25, sizingPolicy.getTargetQueueWait());
+		assertNotNull(((ThreadPoolTaskExecutor) executor).getMetrics());
+	}
+
+	@Test
+	public void forkJoin() throws Exception {
+		Object executor = this.context.getBean("forkJoin");
+		assertTrue(executor instanceof ForkJoinPoolTaskExecutor);
+		assertEquals(3, ((ForkJoinPoolTaskExecutor) executor).getForkJoinPool().getParallelism());
+		Future<String> future = ((ForkJoinPoolTaskExecutor) executor).submit(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return Thread.currentThread().getName();
+			}
+		});
+		assertTrue(future.get(1000, TimeUnit.MILLISECONDS).startsWith("forkJoin-"));
+	}
+
 	@Test
 	public void propertyPlaceholderWithSingleSize() {
 		Object executor = this.context.getBean("propertyPlaceholderWithSingleSize");
@@ -24,6 +24,7 @@ import org.junit.Test;
 import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
+import org.springframework.scheduling.concurrent.HashedWheelTaskScheduler;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
@@ -60,4 +61,14 @@ public class SchedulerBeanDefinitionParserTests {
 		assertEquals("customScheduler-", scheduler.getThreadNamePrefix());
 	}
 
+	@Test
+	public void hashedWheelScheduler() {
+		HashedWheelTaskScheduler scheduler = (HashedWheelTaskScheduler) this.context.getBean("hashedWheelScheduler");
+		DirectFieldAccessor accessor = new DirectFieldAccessor(scheduler);
+		assertEquals(4, accessor.getPropertyValue("poolSize"));
+		assertEquals(5L, accessor.getPropertyValue("tickDuration"));
+		assertEquals(64, accessor.getPropertyValue("ticksPerWheel"));
+		assertEquals("hashedWheelScheduler-", scheduler.getThreadNamePrefix());
+	}
+
 }
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.scheduling.support;
+
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableMBeanExport;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jmx.support.MBeanServerFactoryBean;
+import org.springframework.jmx.support.ObjectNameManager;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class TaskExecutionMetricsTests {
+
+	@Test
+	public void threadPoolTaskExecutor() throws Exception {
+		TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setMetrics(metrics);
+		executor.afterPropertiesSet();
+		try {
+			final CountDownLatch latch = new CountDownLatch(1);
+			executor.execute(new Runnable() {
+				public void run() {
+					try {
+						latch.await(5, TimeUnit.SECONDS);
+					}
+					catch (InterruptedException ex) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			Future<String> future = executor.submit(new Callable<String>() {
+				public String call() {
+					return "result";
+				}
+			});
+			Future<?> failed = executor.submit(new Runnable() {
+				public void run() {
+					throw new IllegalStateException();
+				}
+			});
+			Thread.sleep(20);
+			latch.countDown();
+			assertEquals("result", future.get(5, TimeUnit.SECONDS));
+			try {
+				failed.get(5, TimeUnit.SECONDS);
+				fail("Should have thrown ExecutionException");
+			}
+			catch (Exception ex) {
+				// expected
+			}
+			assertEquals(3, metrics.getSubmittedCount());
+			assertEquals(2, metrics.getCompletedCount());
+			assertEquals(1, metrics.getFailedCount());
+			assertEquals(0, metrics.getActiveCount());
+			assertEquals(3, metrics.getQueueWaitHistogram().getCount());
+			assertEquals(3, metrics.getExecutionTimeHistogram().getCount());
+			// The tasks submitted behind the blocking one waited in the queue
+			assertTrue(metrics.getMaxQueueWaitTime() >= 10);
+			assertTrue(metrics.getMaxExecutionTime() >= 10);
+		}
+		finally {
+			executor.destroy();
+		}
+	}
+
+	@Test
+	public void rejectionsAndCallerRuns() throws Exception {
+		TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setQueueCapacity(0);
+		executor.setMaxPoolSize(1);
+		executor.setMetrics(metrics);
+		executor.afterPropertiesSet();
+		final CountDownLatch latch = new CountDownLatch(1);
+		Runnable blockingTask = new Runnable() {
+			public void run() {
+				try {
+					latch.await(5, TimeUnit.SECONDS);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		try {
+			executor.execute(blockingTask);
+			try {
+				executor.execute(blockingTask);
+				fail("Should have thrown TaskRejectedException");
+			}
+			catch (TaskRejectedException ex) {
+				// expected
+			}
+			assertEquals(1, metrics.getRejectedCount());
+
+			executor.getThreadPoolExecutor().setRejectedExecutionHandler(
+					metrics.instrument(new ThreadPoolExecutor.CallerRunsPolicy()));
+			final Thread caller = Thread.currentThread();
+			final boolean[] ranInCaller = new boolean[1];
+			executor.execute(new Runnable() {
+				public void run() {
+					ranInCaller[0] = (Thread.currentThread() == caller);
+				}
+			});
+			assertTrue(ranInCaller[0]);
+			assertEquals(1, metrics.getCallerRunsCount());
+			assertEquals(1, metrics.getRejectedCount());
+		}
+		finally {
+			latch.countDown();
+			executor.destroy();
+		}
+	}
+
+	@Test
+	public void concurrentTaskExecutor() throws Exception {
+		TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+		ExecutorService target = Executors.newSingleThreadExecutor();
+		ConcurrentTaskExecutor executor = new ConcurrentTaskExecutor(target);
+		executor.setMetrics(metrics);
+		executor.submit(new Runnable() {
+			public void run() {
+			}
+		}).get(5, TimeUnit.SECONDS);
+		target.shutdown();
+		try {
+			executor.execute(new Runnable() {
+				public void run() {
+				}
+			});
+			fail("Should have thrown TaskRejectedException");
+		}
+		catch (TaskRejectedException ex) {
+			// expected
+		}
+		assertEquals(2, metrics.getSubmittedCount());
+		assertEquals(1, metrics.getCompletedCount());
+		assertEquals(1, metrics.getRejectedCount());
+	}
+
+	@Test
+	public void threadPoolTaskSchedulerRecordsExecutionTimesOnly() throws Exception {
+		TaskExecutionMetrics metrics = new TaskExecutionMetrics();
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setMetrics(metrics);
+		scheduler.afterPropertiesSet();
+		try {
+			final CountDownLatch latch = new CountDownLatch(3);
+			ScheduledFuture future = scheduler.scheduleAtFixedRate(new Runnable() {
+				public void run() {
+					latch.countDown();
+				}
+			}, new Date(System.currentTimeMillis() + 20), 10);
+			assertTrue(latch.await(5, TimeUnit.SECONDS));
+			future.cancel(false);
+			scheduler.submit(new Runnable() {
+				public void run() {
+				}
+			}).get(5, TimeUnit.SECONDS);
+			// each periodic execution counts as a submission
+			assertTrue(metrics.getSubmittedCount() >= 4);
+			assertEquals(metrics.getCompletedCount(), metrics.getSubmittedCount());
+			assertEquals(metrics.getCompletedCount(), metrics.getExecutionTimeHistogram().getCount());
+			assertEquals(1, metrics.getQueueWaitHistogram().getCount());
+		}
+		finally {
+			scheduler.destroy();
+		}
+	}
+
+	@Test
+	public void exportedViaJmx() throws Exception {
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(JmxConfiguration.class);
+		try {
+			MBeanServer server = ctx.getBean(MBeanServer.class);
+			ctx.getBean(ThreadPoolTaskExecutor.class).submit(new Runnable() {
+				public void run() {
+				}
+			}).get(5, TimeUnit.SECONDS);
+
+			ObjectName oname = ObjectNameManager.getInstance(
+					"org.springframework.scheduling.support:name=executorMetrics,type=TaskExecutionMetrics");
+			assertEquals(1L, server.getAttribute(oname, "SubmittedCount"));
+			assertEquals(1L, server.getAttribute(oname, "CompletedCount"));
+			assertEquals(14, ((long[]) server.getAttribute(oname, "ExecutionTimeBucketCounts")).length);
+			server.invoke(oname, "reset", new Object[0], new String[0]);
+			assertEquals(0L, server.getAttribute(oname, "SubmittedCount"));
+		}
+		finally {
+			ctx.close();
+		}
+	}
+
+
+	@Configuration
+	@EnableMBeanExport(server = "server")
+	static class JmxConfiguration {
+
+		@Bean
+		public MBeanServerFactoryBean server() {
+			return new MBeanServerFactoryBean();
+		}
+
+		@Bean
+		public TaskExecutionMetrics executorMetrics() {
+			return new TaskExecutionMetrics();
+		}
+
+		@Bean
+		public ThreadPoolTaskExecutor executor() {
+			ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+			executor.setMetrics(executorMetrics());
+			return executor;
+		}
+	}
+
+}
@@ -18,10 +18,19 @@ package org.springframework.validation.beanvalidation;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.validation.Validation;
+import javax.validation.Validator;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.NotNull;
 import javax.validation.groups.Default;
 
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
 import org.junit.Test;
 
 import org.springframework.aop.framework.ProxyFactory;
@@ -54,6 +63,51 @@ public class MethodValidationTests {
 	}
 
 
+	@Test
+	public void testMethodValidationInterceptorSkipsUnconstrainedMethod() {
+		final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+		final AtomicInteger validatorCalls = new AtomicInteger();
+		Validator countingValidator = (Validator) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] {Validator.class}, new InvocationHandler() {
+					@Override
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						validatorCalls.incrementAndGet();
+						try {
+							return method.invoke(validator, args);
+						}
+						catch (InvocationTargetException ex) {
+							throw ex.getTargetException();
+						}
+					}
+				});
+		ProxyFactory proxyFactory = new ProxyFactory(new MyValidBean());
+		proxyFactory.addAdvice(new MethodValidationInterceptor(countingValidator));
+		MyValidInterface proxy = (MyValidInterface) proxyFactory.getProxy();
+
+		assertEquals("value", proxy.myUnconstrainedMethod("value"));
+		int metadataCalls = validatorCalls.get();
+		assertEquals("value", proxy.myUnconstrainedMethod("value"));
+		assertEquals(null, proxy.myUnconstrainedMethod(null));
+		assertEquals(metadataCalls, validatorCalls.get());
+
+		doTestProxyValidation(proxy);
+		assertTrue(validatorCalls.get() > metadataCalls);
+	}
+
+	@Test
+	public void testMethodValidationInterceptorWithoutTarget() {
+		ProxyFactory proxyFactory = new ProxyFactory(MyValidInterface.class, new MethodValidationInterceptor());
+		proxyFactory.addAdvice(new MethodInterceptor() {
+			@Override
+			public Object invoke(MethodInvocation invocation) {
+				return invocation.getArguments()[0];
+			}
+		});
+		MyValidInterface proxy = (MyValidInterface) proxyFactory.getProxy();
+		assertEquals("value", proxy.myUnconstrainedMethod("value"));
+	}
+
+
 	private void doTestProxyValidation(MyValidInterface proxy) {
 		assertNotNull(proxy.myValidMethod("value", 5));
 		try {
@@ -87,12 +141,19 @@ public class MethodValidationTests {
 		public Object myValidMethod(String arg1, int arg2) {
 			return (arg2 == 0 ? null : "value");
 		}
+
+		@Override
+		public String myUnconstrainedMethod(String arg) {
+			return arg;
+		}
 	}
 
 
 	public interface MyValidInterface {
 
 		@NotNull Object myValidMethod(@NotNull(groups = MyGroup.class) String arg1, @Max(10) int arg2);
+
+		String myUnconstrainedMethod(String arg);
 	}
 
 
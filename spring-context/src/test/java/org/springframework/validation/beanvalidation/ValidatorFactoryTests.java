@@ -146,6 +146,29 @@ public class ValidatorFactoryTests {
 		System.out.println(fieldError.getDefaultMessage());
 	}
 
+	@Test
+	public void testSpringValidationWithCachedMetadata() throws Exception {
+		LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+		validator.afterPropertiesSet();
+		ValidPerson person = new ValidPerson();
+		BeanPropertyBindingResult result = new BeanPropertyBindingResult(person, "person");
+		validator.validate(person, result);
+		BeanPropertyBindingResult result2 = new BeanPropertyBindingResult(person, "person");
+		validator.validate(person, result2);
+		assertEquals(2, result2.getErrorCount());
+		FieldError fieldError = result.getFieldError("address.street");
+		FieldError fieldError2 = result2.getFieldError("address.street");
+		assertArrayEquals(fieldError.getCodes(), fieldError2.getCodes());
+		assertEquals(fieldError.getArguments().length, fieldError2.getArguments().length);
+		assertEquals(fieldError.getDefaultMessage(), fieldError2.getDefaultMessage());
+
+		Object unconstrained = new Object();
+		BeanPropertyBindingResult result3 = new BeanPropertyBindingResult(unconstrained, "object");
+		validator.validate(unconstrained, result3);
+		assertFalse(result3.hasErrors());
+		assertTrue(validator.validate(unconstrained).isEmpty());
+	}
+
 	@Test
 	public void testSpringValidationWithClassLevel() throws Exception {
 		LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
@@ -35,13 +35,18 @@ import org.springframework.util.Assert;
 @SuppressWarnings("serial")
 public abstract class AttributeAccessorSupport implements AttributeAccessor, Serializable {
 
-	/** Map with String keys and Object values */
-	private final Map<String, Object> attributes = new LinkedHashMap<String, Object>(0);
+	private static final String[] NO_ATTRIBUTE_NAMES = new String[0];
+
+	/** Map with String keys and Object values, lazily created on first attribute */
+	private Map<String, Object> attributes;
 
 
 	public void setAttribute(String name, Object value) {
 		Assert.notNull(name, "Name must not be null");
 		if (value != null) {
+			if (this.attributes == null) {
+				this.attributes = new LinkedHashMap<String, Object>(4);
+			}
 			this.attributes.put(name, value);
 		}
 		else {
@@ -51,20 +56,23 @@ public abstract class AttributeAccessorSupport implements AttributeAccessor, Ser
 
 	public Object getAttribute(String name) {
 		Assert.notNull(name, "Name must not be null");
-		return this.attributes.get(name);
+		return (this.attributes != null ? this.attributes.get(name) : null);
 	}
 
 	public Object removeAttribute(String name) {
 		Assert.notNull(name, "Name must not be null");
-		return this.attributes.remove(name);
+		return (this.attributes != null ? this.attributes.remove(name) : null);
 	}
 
 	public boolean hasAttribute(String name) {
 		Assert.notNull(name, "Name must not be null");
-		return this.attributes.containsKey(name);
+		return (this.attributes != null && this.attributes.containsKey(name));
 	}
 
 	public String[] attributeNames() {
+		if (this.attributes == null) {
+			return NO_ATTRIBUTE_NAMES;
+		}
 		return this.attributes.keySet().toArray(new String[this.attributes.size()]);
 	}
 
@@ -91,12 +99,17 @@ public abstract class AttributeAccessorSupport implements AttributeAccessor, Ser
 			return false;
 		}
 		AttributeAccessorSupport that = (AttributeAccessorSupport) other;
+		boolean empty = (this.attributes == null || this.attributes.isEmpty());
+		boolean otherEmpty = (that.attributes == null || that.attributes.isEmpty());
+		if (empty || otherEmpty) {
+			return (empty == otherEmpty);
+		}
 		return this.attributes.equals(that.attributes);
 	}
 
 	@Override
 	public int hashCode() {
-		return this.attributes.hashCode();
+		return (this.attributes != null ? this.attributes.hashCode() : 0);
 	}
 
 }
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics.buffering;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that buffers recorded
+ * {@link StartupStep steps} in memory and exposes them as a timeline,
+ * for example rendered as JSON through {@link #writeJson(Writer)}.
+ *
+ * <p>Steps are nested per thread: a step started while another step is
+ * still in progress on the same thread is recorded as its child. Only
+ * ended steps are part of the timeline; once the configured capacity has
+ * been reached, further steps are still handed out but not recorded.
+ *
+ * <p>Typical usage:
+ *
+ * <pre class="code">
+ * BufferingApplicationStartup startup = new BufferingApplicationStartup(10000);
+ * AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+ * ctx.setApplicationStartup(startup);
+ * ctx.register(AppConfig.class);
+ * ctx.refresh();
+ * startup.writeJson(writer);</pre>
+ *
+ * @author agent
+ * @since 4.0
+ */
+public class BufferingApplicationStartup implements ApplicationStartup {
+
+	private final int capacity;
+
+	private final long startTime = System.currentTimeMillis();
+
+	private final long startNanoTime = System.nanoTime();
+
+	private final AtomicLong idSeq = new AtomicLong();
+
+	private final AtomicInteger estimatedSize = new AtomicInteger();
+
+	private final ConcurrentLinkedQueue<TimelineEvent> events = new ConcurrentLinkedQueue<TimelineEvent>();
+
+	private final ThreadLocal<LinkedList<BufferedStartupStep>> currentSteps =
+			new NamedThreadLocal<LinkedList<BufferedStartupStep>>("Current startup steps") {
+				@Override
+				protected LinkedList<BufferedStartupStep> initialValue() {
+					return new LinkedList<BufferedStartupStep>();
+				}
+			};
+
+
+	/**
+	 * Create a new buffered {@link ApplicationStartup} with a limited capacity.
+	 * @param capacity the maximum number of steps to record
+	 */
+	public BufferingApplicationStartup(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+
+	public StartupStep start(String name) {
+		Assert.notNull(name, "Step name must not be null");
+		LinkedList<BufferedStartupStep> steps = this.currentSteps.get();
+		BufferedStartupStep parent = steps.peek();
+		BufferedStartupStep step = new BufferedStartupStep(this.idSeq.incrementAndGet(), name,
+				(parent != null ? parent.getId() : null), System.nanoTime());
+		steps.push(step);
+		return step;
+	}
+
+	/**
+	 * Return the wall-clock time (ms) when this recorder has been created.
+	 */
+	public long getStartTime() {
+		return this.startTime;
+	}
+
+	/**
+	 * Return the recorded timeline of ended steps, in order of completion.
+	 * @return an unmodifiable snapshot of the recorded events
+	 */
+	public List<TimelineEvent> getBufferedTimeline() {
+		return Collections.unmodifiableList(new ArrayList<TimelineEvent>(this.events));
+	}
+
+	/**
+	 * Remove all recorded events from the buffer, making room for new steps.
+	 */
+	public void clear() {
+		this.events.clear();
+		this.estimatedSize.set(0);
+	}
+
+	/**
+	 * Write the recorded timeline as a JSON document to the given Writer.
+	 * <p>The document contains the recorder's start time and an array of
+	 * events, each with id, parent id, name, start time and duration
+	 * (in milliseconds since the recorder's start) as well as its tags.
+	 * @param writer the Writer to write to (not closed afterwards)
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write("{\"startTime\":");
+		writer.write(String.valueOf(this.startTime));
+		writer.write(",\"events\":[");
+		for (Iterator<TimelineEvent> it = this.events.iterator(); it.hasNext();) {
+			TimelineEvent event = it.next();
+			writer.write("{\"id\":");
+			writer.write(String.valueOf(event.getId()));
+			writer.write(",\"parentId\":");
+			writer.write(String.valueOf(event.getParentId()));
+			writer.write(",\"name\":");
+			writeJsonString(writer, event.getName());
+			writer.write(",\"startTime\":");
+			writer.write(formatMillis(event.getStartTime()));
+			writer.write(",\"duration\":");
+			writer.write(formatMillis(event.getDuration()));
+			writer.write(",\"tags\":{");
+			for (Iterator<Map.Entry<String, String>> tagIt = event.getTags().entrySet().iterator(); tagIt.hasNext();) {
+				Map.Entry<String, String> tag = tagIt.next();
+				writeJsonString(writer, tag.getKey());
+				writer.write(':');
+				writeJsonString(writer, tag.getValue());
+				if (tagIt.hasNext()) {
+					writer.write(',');
+				}
+			}
+			writer.write("}}");
+			if (it.hasNext()) {
+				writer.write(',');
+			}
+		}
+		writer.write("]}");
+	}
+
+	/**
+	 * Return the recorded timeline as a JSON String.
+	 * @see #writeJson(Writer)
+	 */
+	public String toJson() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeJson(writer);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Unexpected I/O failure on StringWriter", ex);
+		}
+		return writer.toString();
+	}
+
+	private void record(BufferedStartupStep step, long endNanoTime) {
+		LinkedList<BufferedStartupStep> steps = this.currentSteps.get();
+		// Typically the innermost step; tolerate steps ended out of order.
+		steps.remove(step);
+		if (steps.isEmpty()) {
+			this.currentSteps.remove();
+		}
+		if (this.estimatedSize.incrementAndGet() <= this.capacity) {
+			this.events.add(new TimelineEvent(step, (step.startNanoTime - this.startNanoTime),
+					(endNanoTime - step.startNanoTime)));
+		}
+		else {
+			this.estimatedSize.decrementAndGet();
+		}
+	}
+
+	private static String formatMillis(long nanos) {
+		return String.valueOf(nanos / 1000000) + "." + String.valueOf(1000 + (nanos / 1000) % 1000).substring(1);
+	}
+
+	private static void writeJsonString(Writer writer, String value) throws IOException {
+		if (value == null) {
+			writer.write("null");
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+					writer.write("\\\"");
+					break;
+				case '\\':
+					writer.write("\\\\");
+					break;
+				case '\n':
+					writer.write("\\n");
+					break;
+				case '\r':
+					writer.write("\\r");
+					break;
+				case '\t':
+					writer.write("\\t");
+					break;
+				default:
+					if (c < 0x20) {
+						writer.write(String.format("\\u%04x", (int) c));
+					}
+					else {
+						writer.write(c);
+					}
+			}
+		}
+		writer.write('"');
+	}
+
+
+	/**
+	 * {@link StartupStep} implementation that records itself in the
+	 * timeline of its {@link BufferingApplicationStartup} when ended.
+	 */
+	private class BufferedStartupStep implements StartupStep {
+
+		private final long id;
+
+		private final String name;
+
+		private final Long parentId;
+
+		private final long startNanoTime;
+
+		private final Map<String, String> tags = new LinkedHashMap<String, String>(4);
+
+		private boolean ended = false;
+
+		public BufferedStartupStep(long id, String name, Long parentId, long startNanoTime) {
+			this.id = id;
+			this.name = name;
+			this.parentId = parentId;
+			this.startNanoTime = startNanoTime;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public long getId() {
+			return this.id;
+		}
+
+		public Long getParentId() {
+			return this.parentId;
+		}
+
+		public StartupStep tag(String key, String value) {
+			Assert.state(!this.ended, "StartupStep has already ended");
+			this.tags.put(key, value);
+			return this;
+		}
+
+		public Map<String, String> getTags() {
+			return Collections.unmodifiableMap(this.tags);
+		}
+
+		public void end() {
+			Assert.state(!this.ended, "StartupStep has already ended");
+			this.ended = true;
+			record(this, System.nanoTime());
+		}
+	}
+
+
+	/**
+	 * An ended {@link StartupStep} as recorded in the buffered timeline.
+	 */
+	public static class TimelineEvent {
+
+		private final long id;
+
+		private final Long parentId;
+
+		private final String name;
+
+		private final Map<String, String> tags;
+
+		private final long startTime;
+
+		private final long duration;
+
+		TimelineEvent(StartupStep step, long startTime, long duration) {
+			this.id = step.getId();
+			this.parentId = step.getParentId();
+			this.name = step.getName();
+			this.tags = step.getTags();
+			this.startTime = startTime;
+			this.duration = duration;
+		}
+
+		/**
+		 * Return the id of the recorded step.
+		 */
+		public long getId() {
+			return this.id;
+		}
+
+		/**
+		 * Return the id of the recorded step's parent, if any.
+		 */
+		public Long getParentId() {
+			return this.parentId;
+		}
+
+		/**
+		 * Return the name of the recorded step.
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return the tags of the recorded step.
+		 */
+		public Map<String, String> getTags() {
+			return this.tags;
+		}
+
+		/**
+		 * Return the start time of the step, in nanoseconds relative
+		 * to the creation of the {@link BufferingApplicationStartup}.
+		 */
+		public long getStartTime() {
+			return this.startTime;
+		}
+
+		/**
+		 * Return the duration of the step in nanoseconds.
+		 */
+		public long getDuration() {
+			return this.duration;
+		}
+
+		@Override
+		public String toString() {
+			return this.name + " " + this.tags + " (" + formatMillis(this.duration) + " ms)";
+		}
+	}
+
+}
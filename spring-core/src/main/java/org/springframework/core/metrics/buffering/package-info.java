@@ -0,0 +1,7 @@
+/**
+ *
+ * {@code ApplicationStartup} implementation that buffers startup steps
+ * in memory and renders them as a JSON timeline.
+ *
+ */
+package org.springframework.core.metrics.buffering;
@@ -0,0 +1,8 @@
+/**
+ *
+ * Support package for recording metrics during application startup.
+ * Provides the {@code ApplicationStartup} strategy and its
+ * {@code StartupStep} abstraction for timed, nested steps.
+ *
+ */
+package org.springframework.core.metrics;
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free limiter for concurrent access to a specific resource, rejecting
+ * (rather than indefinitely blocking) callers once the concurrency limit is reached.
+ * A non-blocking alternative to {@link ConcurrencyThrottleSupport}, suitable for
+ * shedding load in front of an overloaded service.
+ *
+ * <p>The concurrency limit adapts to the observed latency by default: Latencies get
+ * sampled in windows of {@link #setSampleWindow a given number} of calls, comparing
+ * the average latency of each window against a long-term average. As long as the
+ * latency stays flat, the limit keeps growing (as long as it is actually being used);
+ * once the latency rises beyond the {@link #setTolerance tolerance}, the limit
+ * shrinks proportionally. Switch {@link #setAdaptive "adaptive"} off for a fixed limit.
+ *
+ * <p>Callers need to invoke {@link #tryAcquire()} before accessing the resource and -
+ * if successful - {@link #release(long)} afterwards, typically in a finally block:
+ *
+ * <pre class="code">
+ * if (!limiter.tryAcquire()) {
+ *     // reject the request
+ * }
+ * long startTime = System.nanoTime();
+ * try {
+ *     // access the resource
+ * }
+ * finally {
+ *     limiter.release(System.nanoTime() - startTime);
+ * }</pre>
+ *
+ * <p>A limiter also keeps per-limiter metrics: the current limit, the number of
+ * calls in flight, and the numbers of accepted and rejected calls.
+ *
+ * @author agent
+ * @since 4.0
+ * @see org.springframework.aop.interceptor.ConcurrencyLimitInterceptor
+ * @see org.springframework.web.filter.ConcurrencyLimitFilter
+ */
+public class AdaptiveConcurrencyLimiter {
+
+	/** The default initial concurrency limit: 20 */
+	public static final int DEFAULT_INITIAL_LIMIT = 20;
+
+	/** The default maximum concurrency limit: 1000 */
+	public static final int DEFAULT_MAX_LIMIT = 1000;
+
+	/** The default number of calls per latency sample window: 25 */
+	public static final int DEFAULT_SAMPLE_WINDOW = 25;
+
+	/** The default latency tolerance: 1.5 (i.e. 50% above the long-term average) */
+	public static final double DEFAULT_TOLERANCE = 1.5;
+
+	private static final double SMOOTHING = 0.2;
+
+	private static final int LONG_TERM_WINDOWS = 50;
+
+
+	private int minLimit = 1;
+
+	private int maxLimit = DEFAULT_MAX_LIMIT;
+
+	private boolean adaptive = true;
+
+	private long maxWait = 0;
+
+	private int sampleWindow = DEFAULT_SAMPLE_WINDOW;
+
+	private double tolerance = DEFAULT_TOLERANCE;
+
+	private volatile double estimatedLimit = DEFAULT_INITIAL_LIMIT;
+
+	private volatile int limit = DEFAULT_INITIAL_LIMIT;
+
+	private volatile double longTermLatency = 0;
+
+	private volatile double shortTermLatency = 0;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final AtomicLong acceptedCount = new AtomicLong();
+
+	private final AtomicLong rejectedCount = new AtomicLong();
+
+	private final AtomicReference<Sample> currentSample = new AtomicReference<Sample>(new Sample());
+
+	private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<Waiter>();
+
+
+	/**
+	 * Set the initial concurrency limit. Default is {@link #DEFAULT_INITIAL_LIMIT}.
+	 * <p>This is the fixed limit if {@link #setAdaptive "adaptive"} has been switched off.
+	 */
+	public void setInitialLimit(int initialLimit) {
+		Assert.isTrue(initialLimit > 0, "'initialLimit' must be positive");
+		this.estimatedLimit = initialLimit;
+		this.limit = initialLimit;
+	}
+
+	/**
+	 * Set the minimum concurrency limit that an adaptive limit may shrink to.
+	 * Default is 1.
+	 */
+	public void setMinLimit(int minLimit) {
+		Assert.isTrue(minLimit > 0, "'minLimit' must be positive");
+		this.minLimit = minLimit;
+	}
+
+	/**
+	 * Return the minimum concurrency limit.
+	 */
+	public int getMinLimit() {
+		return this.minLimit;
+	}
+
+	/**
+	 * Set the maximum concurrency limit that an adaptive limit may grow to.
+	 * Default is {@link #DEFAULT_MAX_LIMIT}.
+	 */
+	public void setMaxLimit(int maxLimit) {
+		Assert.isTrue(maxLimit > 0, "'maxLimit' must be positive");
+		this.maxLimit = maxLimit;
+	}
+
+	/**
+	 * Return the maximum concurrency limit.
+	 */
+	public int getMaxLimit() {
+		return this.maxLimit;
+	}
+
+	/**
+	 * Specify whether to adapt the concurrency limit to the observed latency.
+	 * Default is "true"; switch this to "false" for a fixed limit.
+	 * @see #setInitialLimit
+	 */
+	public void setAdaptive(boolean adaptive) {
+		this.adaptive = adaptive;
+	}
+
+	/**
+	 * Return whether the concurrency limit adapts to the observed latency.
+	 */
+	public boolean isAdaptive() {
+		return this.adaptive;
+	}
+
+	/**
+	 * Set the maximum time to wait for a permit once the concurrency limit
+	 * has been reached, in milliseconds. Default is 0, rejecting calls
+	 * immediately.
+	 */
+	public void setMaxWait(long maxWait) {
+		Assert.isTrue(maxWait >= 0, "'maxWait' must not be negative");
+		this.maxWait = maxWait;
+	}
+
+	/**
+	 * Return the maximum time to wait for a permit, in milliseconds.
+	 */
+	public long getMaxWait() {
+		return this.maxWait;
+	}
+
+	/**
+	 * Set the number of calls to average the latency over before adapting
+	 * the concurrency limit. Default is {@link #DEFAULT_SAMPLE_WINDOW}.
+	 */
+	public void setSampleWindow(int sampleWindow) {
+		Assert.isTrue(sampleWindow > 0, "'sampleWindow' must be positive");
+		this.sampleWindow = sampleWindow;
+	}
+
+	/**
+	 * Set the factor by which the sampled latency may exceed the long-term
+	 * average before the concurrency limit shrinks. Default is
+	 * {@link #DEFAULT_TOLERANCE}.
+	 */
+	public void setTolerance(double tolerance) {
+		Assert.isTrue(tolerance >= 1, "'tolerance' must be at least 1.0");
+		this.tolerance = tolerance;
+	}
+
+
+	/**
+	 * Try to acquire a permit for accessing the resource, waiting up to the
+	 * {@link #setMaxWait maximum wait time} if the concurrency limit has been reached.
+	 * @return {@code true} if a permit has been acquired (to be returned through
+	 * {@link #release(long)}), or {@code false} if the call has been rejected
+	 */
+	public boolean tryAcquire() {
+		if (tryIncrement()) {
+			this.acceptedCount.incrementAndGet();
+			return true;
+		}
+		if (this.maxWait > 0 && awaitPermit(TimeUnit.MILLISECONDS.toNanos(this.maxWait))) {
+			this.acceptedCount.incrementAndGet();
+			return true;
+		}
+		this.rejectedCount.incrementAndGet();
+		return false;
+	}
+
+	private boolean tryIncrement() {
+		for (;;) {
+			int current = this.inFlight.get();
+			if (current >= this.limit) {
+				return false;
+			}
+			if (this.inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	private boolean awaitPermit(long timeout) {
+		Waiter waiter = new Waiter();
+		long deadline = System.nanoTime() + timeout;
+		boolean acquired = false;
+		this.waiters.add(waiter);
+		try {
+			for (;;) {
+				// Reset before trying, so that a release in between unparks us again
+				waiter.state.set(Waiter.WAITING);
+				if (tryIncrement()) {
+					acquired = true;
+					return true;
+				}
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0 || waiter.thread.isInterrupted()) {
+					return false;
+				}
+				LockSupport.parkNanos(this, remaining);
+			}
+		}
+		finally {
+			int state = waiter.state.getAndSet(Waiter.DONE);
+			this.waiters.remove(waiter);
+			if (state == Waiter.SIGNALLED && !acquired) {
+				// Pass on the wakeup that we received but did not use
+				signalWaiter();
+			}
+		}
+	}
+
+	private void signalWaiter() {
+		for (Waiter waiter : this.waiters) {
+			if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.SIGNALLED)) {
+				LockSupport.unpark(waiter.thread);
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Return a permit acquired through {@link #tryAcquire()}, recording the
+	 * latency of the call for adapting the concurrency limit.
+	 * @param latency the time that the call took, in nanoseconds
+	 */
+	public void release(long latency) {
+		int current = this.inFlight.getAndDecrement();
+		if (!this.waiters.isEmpty()) {
+			signalWaiter();
+		}
+		if (this.adaptive) {
+			Sample sample = this.currentSample.get();
+			if (sample.add(latency, current) >= this.sampleWindow &&
+					this.currentSample.compareAndSet(sample, new Sample())) {
+				// Only the thread that completed the sample window gets here
+				adaptLimit(sample);
+			}
+		}
+	}
+
+	private void adaptLimit(Sample sample) {
+		double shortTerm = (double) sample.latencySum.get() / sample.count.get();
+		double longTerm = this.longTermLatency;
+		if (longTerm == 0) {
+			longTerm = shortTerm;
+		}
+		else {
+			longTerm = longTerm + (shortTerm - longTerm) / LONG_TERM_WINDOWS;
+			if (longTerm / shortTerm > 2) {
+				// Latency recovered after an overload: let the long-term average catch up faster.
+				longTerm = longTerm * 0.95;
+			}
+		}
+		this.longTermLatency = longTerm;
+		this.shortTermLatency = shortTerm;
+
+		double estimate = this.estimatedLimit;
+		if (sample.maxInFlight.get() < estimate / 2) {
+			// Limit not actually being used: no point in growing it any further.
+			return;
+		}
+		double gradient = Math.max(0.5, Math.min(1.0, this.tolerance * longTerm / shortTerm));
+		double newLimit = estimate * gradient + Math.sqrt(estimate);
+		newLimit = estimate * (1 - SMOOTHING) + newLimit * SMOOTHING;
+		newLimit = Math.max(this.minLimit, Math.min(this.maxLimit, newLimit));
+		this.estimatedLimit = newLimit;
+		this.limit = (int) newLimit;
+	}
+
+
+	/**
+	 * Return the current concurrency limit.
+	 */
+	public int getLimit() {
+		return this.limit;
+	}
+
+	/**
+	 * Return the number of calls currently holding a permit.
+	 */
+	public int getInFlightCount() {
+		return this.inFlight.get();
+	}
+
+	/**
+	 * Return the number of calls that acquired a permit so far.
+	 */
+	public long getAcceptedCount() {
+		return this.acceptedCount.get();
+	}
+
+	/**
+	 * Return the number of calls that have been rejected so far.
+	 */
+	public long getRejectedCount() {
+		return this.rejectedCount.get();
+	}
+
+	/**
+	 * Return the average latency of the most recent sample window, in milliseconds.
+	 */
+	public double getSampledLatency() {
+		return this.shortTermLatency / 1000000;
+	}
+
+	/**
+	 * Return the long-term average latency that sampled latencies get compared
+	 * against, in milliseconds.
+	 */
+	public double getLongTermLatency() {
+		return this.longTermLatency / 1000000;
+	}
+
+
+	/**
+	 * Thread waiting for a permit. A release signals the first waiter that has
+	 * not been signalled already, skipping waiters that are about to leave.
+	 */
+	private static class Waiter {
+
+		static final int WAITING = 0;
+
+		static final int SIGNALLED = 1;
+
+		static final int DONE = 2;
+
+		final Thread thread = Thread.currentThread();
+
+		final AtomicInteger state = new AtomicInteger(WAITING);
+	}
+
+
+	/**
+	 * Latency sample for a window of calls.
+	 */
+	private static class Sample {
+
+		final AtomicInteger count = new AtomicInteger();
+
+		final AtomicLong latencySum = new AtomicLong();
+
+		final AtomicInteger maxInFlight = new AtomicInteger();
+
+		public int add(long latency, int inFlight) {
+			this.latencySum.addAndGet(latency);
+			for (;;) {
+				int max = this.maxInFlight.get();
+				if (inFlight <= max || this.maxInFlight.compareAndSet(max, inFlight)) {
+					break;
+				}
+			}
+			return this.count.incrementAndGet();
+		}
+	}
+
+}
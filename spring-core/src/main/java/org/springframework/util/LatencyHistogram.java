@@ -0,0 +1,143 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe histogram of latencies, counting occurrences in exponentially
+ * growing buckets from 10 microseconds up to 10 seconds, plus one bucket for
+ * all longer latencies. All values are in microseconds.
+ *
+ * @author agent
+ * @since 4.0
+ */
+public class LatencyHistogram {
+
+	private static final long[] BUCKET_BOUNDS = new long[] {10, 50, 100, 500, 1000, 5000, 10000,
+			50000, 100000, 500000, 1000000, 5000000, 10000000};
+
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+
+	private final AtomicLong totalMicros = new AtomicLong();
+
+	private final AtomicLong maxMicros = new AtomicLong();
+
+
+	/**
+	 * Record the given latency.
+	 * @param micros the latency in microseconds
+	 */
+	public void recordMicros(long micros) {
+		int bucket = 0;
+		while (bucket < BUCKET_BOUNDS.length && micros >= BUCKET_BOUNDS[bucket]) {
+			bucket++;
+		}
+		this.counts.incrementAndGet(bucket);
+		this.totalMicros.addAndGet(micros);
+		long max = this.maxMicros.get();
+		while (micros > max && !this.maxMicros.compareAndSet(max, micros)) {
+			max = this.maxMicros.get();
+		}
+	}
+
+	/**
+	 * Return the exclusive upper bounds of the buckets in microseconds,
+	 * not including the last bucket (which has no upper bound).
+	 */
+	public static long[] getBucketBoundsMicros() {
+		return BUCKET_BOUNDS.clone();
+	}
+
+	/**
+	 * Return the number of occurrences per bucket, with one more element
+	 * than the {@link #getBucketBoundsMicros() bucket bounds}.
+	 */
+	public long[] getBucketCounts() {
+		long[] result = new long[this.counts.length()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = this.counts.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Return the total number of recorded latencies.
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < this.counts.length(); i++) {
+			count += this.counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Return the average latency in microseconds, or 0 if none has been recorded.
+	 */
+	public double getAverageMicros() {
+		long count = getCount();
+		return (count > 0 ? (double) this.totalMicros.get() / count : 0);
+	}
+
+	/**
+	 * Return the maximum latency in microseconds.
+	 */
+	public long getMaxMicros() {
+		return this.maxMicros.get();
+	}
+
+	/**
+	 * Return an upper estimate for the given percentile of latencies: the upper
+	 * bound of the bucket containing it, or -1 if it is in the unbounded bucket.
+	 * @param percentile the percentile (between 0 and 100)
+	 * @return the estimate in microseconds, or 0 if no latencies have been recorded
+	 */
+	public long getPercentileMicros(double percentile) {
+		long[] bucketCounts = getBucketCounts();
+		long total = 0;
+		for (long count : bucketCounts) {
+			total += count;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long threshold = (long) Math.ceil(total * percentile / 100);
+		long cumulative = 0;
+		for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+			cumulative += bucketCounts[i];
+			if (cumulative >= threshold) {
+				return BUCKET_BOUNDS[i];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Discard all recorded latencies.
+	 */
+	public void reset() {
+		for (int i = 0; i < this.counts.length(); i++) {
+			this.counts.set(i, 0);
+		}
+		this.totalMicros.set(0);
+		this.maxMicros.set(0);
+	}
+
+}
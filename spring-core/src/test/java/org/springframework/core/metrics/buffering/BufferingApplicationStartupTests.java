@@ -0,0 +1,92 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics.buffering;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.core.metrics.buffering.BufferingApplicationStartup.TimelineEvent;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link BufferingApplicationStartup}.
+ *
+ * @author agent
+ */
+public class BufferingApplicationStartupTests {
+
+	@Test
+	public void nestedSteps() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep outer = startup.start("spring.outer").tag("name", "first");
+		StartupStep inner = startup.start("spring.inner");
+		inner.end();
+		outer.end();
+		StartupStep sibling = startup.start("spring.sibling");
+		sibling.end();
+
+		List<TimelineEvent> timeline = startup.getBufferedTimeline();
+		assertEquals(3, timeline.size());
+		assertEquals("spring.inner", timeline.get(0).getName());
+		assertEquals(Long.valueOf(outer.getId()), timeline.get(0).getParentId());
+		assertEquals("spring.outer", timeline.get(1).getName());
+		assertNull(timeline.get(1).getParentId());
+		assertEquals("first", timeline.get(1).getTags().get("name"));
+		assertNull(timeline.get(2).getParentId());
+		assertTrue(timeline.get(1).getDuration() >= timeline.get(0).getDuration());
+	}
+
+	@Test
+	public void capacityIsRespected() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(2);
+		for (int i = 0; i < 5; i++) {
+			startup.start("spring.step").end();
+		}
+		assertEquals(2, startup.getBufferedTimeline().size());
+		startup.clear();
+		assertEquals(0, startup.getBufferedTimeline().size());
+		startup.start("spring.step").end();
+		assertEquals(1, startup.getBufferedTimeline().size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void cannotEndTwice() {
+		StartupStep step = new BufferingApplicationStartup(2).start("spring.step");
+		step.end();
+		step.end();
+	}
+
+	@Test
+	public void jsonTimeline() {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(10);
+		StartupStep outer = startup.start("spring.outer");
+		startup.start("spring.inner").tag("bean\"Name", "a\\b").end();
+		outer.end();
+
+		String json = startup.toJson();
+		assertThat(json, startsWith("{\"startTime\":" + startup.getStartTime() + ",\"events\":[{\"id\":2,"));
+		assertThat(json, containsString("\"parentId\":1,\"name\":\"spring.inner\""));
+		assertThat(json, containsString("\"tags\":{\"bean\\\"Name\":\"a\\\\b\"}"));
+		assertThat(json, containsString("\"id\":1,\"parentId\":null,\"name\":\"spring.outer\""));
+		assertThat(json, endsWith("\"tags\":{}}]}"));
+	}
+
+}
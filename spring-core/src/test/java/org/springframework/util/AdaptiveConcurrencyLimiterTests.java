@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class AdaptiveConcurrencyLimiterTests {
+
+	@Test
+	public void fixedLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+		limiter.setInitialLimit(2);
+		limiter.setAdaptive(false);
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(2, limiter.getInFlightCount());
+
+		limiter.release(1000);
+		assertTrue(limiter.tryAcquire());
+		assertEquals(2, limiter.getLimit());
+		assertEquals(3, limiter.getAcceptedCount());
+		assertEquals(1, limiter.getRejectedCount());
+	}
+
+	@Test
+	public void boundedWait() throws Exception {
+		final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+		limiter.setInitialLimit(1);
+		limiter.setAdaptive(false);
+		limiter.setMaxWait(50);
+		assertTrue(limiter.tryAcquire());
+		long start = System.nanoTime();
+		assertFalse(limiter.tryAcquire());
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+		limiter.setMaxWait(5000);
+		final CountDownLatch waiting = new CountDownLatch(1);
+		Thread releaser = new Thread() {
+			@Override
+			public void run() {
+				try {
+					waiting.await();
+					Thread.sleep(20);
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				limiter.release(1000);
+			}
+		};
+		releaser.start();
+		waiting.countDown();
+		start = System.nanoTime();
+		assertTrue(limiter.tryAcquire());
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(5000));
+		releaser.join();
+		assertEquals(1, limiter.getInFlightCount());
+	}
+
+	@Test
+	public void consecutiveReleasesWakeUpDifferentWaiters() throws Exception {
+		final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+		limiter.setInitialLimit(2);
+		limiter.setAdaptive(false);
+		limiter.setMaxWait(5000);
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+
+		final CountDownLatch acquired = new CountDownLatch(2);
+		Thread[] waiters = new Thread[2];
+		for (int i = 0; i < waiters.length; i++) {
+			waiters[i] = new Thread() {
+				@Override
+				public void run() {
+					if (limiter.tryAcquire()) {
+						acquired.countDown();
+					}
+				}
+			};
+			waiters[i].start();
+		}
+		for (Thread waiter : waiters) {
+			while (waiter.getState() != Thread.State.TIMED_WAITING) {
+				Thread.sleep(5);
+			}
+		}
+		long start = System.nanoTime();
+		limiter.release(1000);
+		limiter.release(1000);
+		assertTrue(acquired.await(5000, TimeUnit.MILLISECONDS));
+		assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(2500));
+		for (Thread waiter : waiters) {
+			waiter.join();
+		}
+		assertEquals(2, limiter.getInFlightCount());
+		assertEquals(0, limiter.getRejectedCount());
+	}
+
+	@Test
+	public void limitGrowsWithFlatLatencyAndShrinksWithRisingLatency() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+		limiter.setInitialLimit(10);
+		limiter.setSampleWindow(10);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+		for (int i = 0; i < 200; i++) {
+			limiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+			assertTrue(limiter.tryAcquire());
+		}
+		int grownLimit = limiter.getLimit();
+		assertTrue(grownLimit > 10);
+		assertEquals(1.0, limiter.getSampledLatency(), 0.001);
+
+		while (limiter.tryAcquire()) {
+		}
+		for (int i = 0; i < 200; i++) {
+			limiter.release(TimeUnit.MILLISECONDS.toNanos(10));
+			limiter.tryAcquire();
+		}
+		assertTrue(limiter.getLimit() < grownLimit);
+		assertTrue(limiter.getLimit() >= limiter.getMinLimit());
+	}
+
+	@Test
+	public void limitDoesNotGrowWithoutLoad() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+		limiter.setInitialLimit(10);
+		limiter.setSampleWindow(10);
+		for (int i = 0; i < 200; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.release(TimeUnit.MILLISECONDS.toNanos(1));
+		}
+		assertEquals(10, limiter.getLimit());
+		assertEquals(0, limiter.getInFlightCount());
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class LatencyHistogramTests {
+
+	@Test
+	public void emptyHistogram() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getAverageMicros(), 0);
+		assertEquals(0, histogram.getMaxMicros());
+		assertEquals(0, histogram.getPercentileMicros(99));
+		assertEquals(LatencyHistogram.getBucketBoundsMicros().length + 1, histogram.getBucketCounts().length);
+	}
+
+	@Test
+	public void recordMicros() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.recordMicros(5);
+		histogram.recordMicros(10);
+		histogram.recordMicros(3000);
+		histogram.recordMicros(3000);
+		assertEquals(4, histogram.getCount());
+		assertEquals(1503.75, histogram.getAverageMicros(), 0.001);
+		assertEquals(3000, histogram.getMaxMicros());
+		long[] counts = histogram.getBucketCounts();
+		assertEquals(1, counts[0]);
+		assertEquals(1, counts[1]);
+		assertEquals(2, counts[5]);
+		assertEquals(10, histogram.getPercentileMicros(25));
+		assertEquals(50, histogram.getPercentileMicros(50));
+		assertEquals(5000, histogram.getPercentileMicros(99));
+	}
+
+	@Test
+	public void unboundedBucket() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.recordMicros(20000000);
+		assertEquals(1, histogram.getBucketCounts()[LatencyHistogram.getBucketBoundsMicros().length]);
+		assertEquals(-1, histogram.getPercentileMicros(50));
+	}
+
+	@Test
+	public void reset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.recordMicros(100);
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMaxMicros());
+	}
+
+}
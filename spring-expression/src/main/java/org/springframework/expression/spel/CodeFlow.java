@@ -0,0 +1,382 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+/**
+ * Records intermediate compilation state as the bytecode for an expression is
+ * generated, and provides helpers for common bytecode sequences such as boxing
+ * and unboxing.
+ *
+ * <p>Type descriptors used here are like their bytecode form but without the
+ * trailing semicolon for non-array reference types, e.g. {@code I} for an int,
+ * {@code Ljava/lang/String} for a String and {@code [I} for an int array.
+ *
+ * @author agent
+ * @since 4.0
+ * @see org.springframework.expression.spel.standard.SpelCompiler
+ */
+public class CodeFlow implements Opcodes {
+
+	/** Descriptor for {@code java.lang.Object} */
+	public static final String OBJECT_DESCRIPTOR = "Ljava/lang/Object";
+
+	/** Descriptor for {@code java.lang.String} */
+	public static final String STRING_DESCRIPTOR = "Ljava/lang/String";
+
+	private static final String EVALUATION_CONTEXT_DESCRIPTOR = "org/springframework/expression/EvaluationContext";
+
+
+	/**
+	 * Stack of lists, each recording the descriptors of the values that have been
+	 * pushed onto the operand stack within a compilation scope. A new scope is
+	 * entered whenever code is generated for a sub-expression that starts out
+	 * from the root object again, e.g. a method argument or an operator operand.
+	 */
+	private final LinkedList<List<String>> compilationScopes = new LinkedList<List<String>>();
+
+	/**
+	 * The next free local variable slot: slot 0 holds the compiled expression
+	 * itself, slot 1 the target and slot 2 the evaluation context.
+	 */
+	private int nextFreeLocal = 3;
+
+
+	public CodeFlow() {
+		this.compilationScopes.add(new ArrayList<String>());
+	}
+
+
+	/**
+	 * Enter a new compilation scope, usually due to nested expression evaluation.
+	 */
+	public void enterCompilationScope() {
+		this.compilationScopes.addFirst(new ArrayList<String>());
+	}
+
+	/**
+	 * Exit the current compilation scope, usually after a nested expression has
+	 * been evaluated.
+	 */
+	public void exitCompilationScope() {
+		this.compilationScopes.removeFirst();
+	}
+
+	/**
+	 * Record the descriptor of the value most recently pushed onto the stack.
+	 */
+	public void pushDescriptor(String descriptor) {
+		this.compilationScopes.getFirst().add(descriptor);
+	}
+
+	/**
+	 * Return the descriptor of the value at the top of the stack within the
+	 * current scope, or {@code null} if nothing has been pushed in this scope yet.
+	 */
+	public String lastDescriptor() {
+		List<String> scope = this.compilationScopes.getFirst();
+		return (scope.isEmpty() ? null : scope.get(scope.size() - 1));
+	}
+
+	/**
+	 * Allocate a local variable slot for a reference value.
+	 * @return the index of the slot
+	 */
+	public int allocateLocal() {
+		return this.nextFreeLocal++;
+	}
+
+	/**
+	 * Push the root object of the evaluation onto the stack.
+	 */
+	public void loadTarget(MethodVisitor mv) {
+		mv.visitVarInsn(ALOAD, 1);
+	}
+
+	/**
+	 * Push the evaluation context onto the stack.
+	 */
+	public void loadEvaluationContext(MethodVisitor mv) {
+		mv.visitVarInsn(ALOAD, 2);
+	}
+
+	/**
+	 * Push a lookup of the given variable in the evaluation context onto the stack.
+	 */
+	public void loadVariable(MethodVisitor mv, String name) {
+		loadEvaluationContext(mv);
+		mv.visitLdcInsn(name);
+		mv.visitMethodInsn(INVOKEINTERFACE, EVALUATION_CONTEXT_DESCRIPTOR,
+				"lookupVariable", "(Ljava/lang/String;)Ljava/lang/Object;");
+	}
+
+	/**
+	 * Push the type comparator of the evaluation context onto the stack.
+	 */
+	public void loadTypeComparator(MethodVisitor mv) {
+		loadEvaluationContext(mv);
+		mv.visitMethodInsn(INVOKEINTERFACE, EVALUATION_CONTEXT_DESCRIPTOR,
+				"getTypeComparator", "()Lorg/springframework/expression/TypeComparator;");
+	}
+
+
+	/**
+	 * Determine the descriptor for the given type.
+	 * @param type the type (may be primitive or an array type)
+	 * @return the descriptor, e.g. {@code I} or {@code Ljava/lang/String}
+	 */
+	public static String toDescriptor(Class<?> type) {
+		if (type.isPrimitive()) {
+			return Type.getDescriptor(type);
+		}
+		if (type.isArray()) {
+			return type.getName().replace('.', '/');
+		}
+		return "L" + type.getName().replace('.', '/');
+	}
+
+	/**
+	 * Determine the descriptor for the runtime type of the given value, falling
+	 * back to {@code java.lang.Object} for {@code null} and non-public types.
+	 */
+	public static String toDescriptorFromObject(Object value) {
+		if (value == null || !isPublicType(value.getClass())) {
+			return OBJECT_DESCRIPTOR;
+		}
+		return toDescriptor(value.getClass());
+	}
+
+	/**
+	 * Determine the internal name to use for type instructions such as
+	 * CHECKCAST for the given (non-primitive) descriptor.
+	 */
+	public static String toInternalName(String descriptor) {
+		return (descriptor.startsWith("[") ? descriptor : descriptor.substring(1));
+	}
+
+	/**
+	 * Determine the JVM method descriptor for the given method.
+	 */
+	public static String createSignatureDescriptor(Method method) {
+		return Type.getMethodDescriptor(method);
+	}
+
+	/**
+	 * Determine whether the given type can be referenced from generated code,
+	 * i.e. whether it is primitive or public (in case of an array: its component type).
+	 */
+	public static boolean isPublicType(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		return (type.isPrimitive() || Modifier.isPublic(type.getModifiers()));
+	}
+
+	/**
+	 * Determine whether the given descriptor denotes a primitive type.
+	 */
+	public static boolean isPrimitive(String descriptor) {
+		return (descriptor != null && descriptor.length() == 1);
+	}
+
+	/**
+	 * Determine the primitive descriptor that a value of the given descriptor can be
+	 * unboxed to, e.g. {@code I} for both {@code I} and {@code Ljava/lang/Integer}.
+	 * @return the primitive descriptor, or {@code null} if not applicable
+	 */
+	public static String toPrimitiveTargetDesc(String descriptor) {
+		if (descriptor == null) {
+			return null;
+		}
+		if (isPrimitive(descriptor)) {
+			return descriptor;
+		}
+		if (descriptor.equals("Ljava/lang/Integer")) {
+			return "I";
+		}
+		else if (descriptor.equals("Ljava/lang/Long")) {
+			return "J";
+		}
+		else if (descriptor.equals("Ljava/lang/Double")) {
+			return "D";
+		}
+		else if (descriptor.equals("Ljava/lang/Float")) {
+			return "F";
+		}
+		else if (descriptor.equals("Ljava/lang/Boolean")) {
+			return "Z";
+		}
+		else if (descriptor.equals("Ljava/lang/Short")) {
+			return "S";
+		}
+		else if (descriptor.equals("Ljava/lang/Byte")) {
+			return "B";
+		}
+		else if (descriptor.equals("Ljava/lang/Character")) {
+			return "C";
+		}
+		return null;
+	}
+
+	/**
+	 * Determine whether a value of the given descriptor is a boolean or a Boolean.
+	 */
+	public static boolean isBooleanCompatible(String descriptor) {
+		return "Z".equals(toPrimitiveTargetDesc(descriptor));
+	}
+
+	/**
+	 * Determine the wrapper class internal name for the given primitive descriptor.
+	 */
+	private static String toWrapperInternalName(char primitive) {
+		switch (primitive) {
+			case 'I': return "java/lang/Integer";
+			case 'J': return "java/lang/Long";
+			case 'D': return "java/lang/Double";
+			case 'F': return "java/lang/Float";
+			case 'Z': return "java/lang/Boolean";
+			case 'S': return "java/lang/Short";
+			case 'B': return "java/lang/Byte";
+			case 'C': return "java/lang/Character";
+			default: throw new IllegalArgumentException("Not a primitive descriptor: " + primitive);
+		}
+	}
+
+	/**
+	 * Determine the name of the unboxing method for the given primitive descriptor.
+	 */
+	private static String toUnboxingMethodName(char primitive) {
+		switch (primitive) {
+			case 'I': return "intValue";
+			case 'J': return "longValue";
+			case 'D': return "doubleValue";
+			case 'F': return "floatValue";
+			case 'Z': return "booleanValue";
+			case 'S': return "shortValue";
+			case 'B': return "byteValue";
+			case 'C': return "charValue";
+			default: throw new IllegalArgumentException("Not a primitive descriptor: " + primitive);
+		}
+	}
+
+	/**
+	 * Insert a boxing call if the value at the top of the stack is a primitive,
+	 * e.g. {@code Integer.valueOf(int)} for an {@code I}.
+	 * @param mv the method visitor to generate code with
+	 * @param descriptor the descriptor of the value at the top of the stack
+	 */
+	public static void insertBoxIfNecessary(MethodVisitor mv, String descriptor) {
+		if (isPrimitive(descriptor)) {
+			char primitive = descriptor.charAt(0);
+			if (primitive == 'V') {
+				return;
+			}
+			String wrapper = toWrapperInternalName(primitive);
+			mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf", "(" + primitive + ")L" + wrapper + ";");
+		}
+	}
+
+	/**
+	 * Insert the instructions needed to turn the value at the top of the stack into
+	 * the given primitive: nothing if it already is that primitive, an unboxing call
+	 * for the corresponding wrapper, or a checkcast plus unboxing call otherwise.
+	 * @param mv the method visitor to generate code with
+	 * @param primitive the target primitive descriptor, e.g. {@code I}
+	 * @param descriptor the descriptor of the value at the top of the stack
+	 */
+	public static void insertUnboxInsns(MethodVisitor mv, char primitive, String descriptor) {
+		if (isPrimitive(descriptor)) {
+			if (descriptor.charAt(0) != primitive) {
+				throw new IllegalStateException("Cannot convert primitive " + descriptor + " to " + primitive);
+			}
+			return;
+		}
+		String wrapper = toWrapperInternalName(primitive);
+		if (descriptor == null || !descriptor.equals("L" + wrapper)) {
+			mv.visitTypeInsn(CHECKCAST, wrapper);
+		}
+		mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, toUnboxingMethodName(primitive), "()" + primitive);
+	}
+
+	/**
+	 * Insert a checkcast to the given descriptor unless it is {@code java.lang.Object}.
+	 */
+	public static void insertCheckCast(MethodVisitor mv, String descriptor) {
+		if (!isPrimitive(descriptor) && !OBJECT_DESCRIPTOR.equals(descriptor)) {
+			mv.visitTypeInsn(CHECKCAST, toInternalName(descriptor));
+		}
+	}
+
+	/**
+	 * Insert the instructions needed to pass the value at the top of the stack
+	 * as an argument of the given parameter type, boxing, unboxing or casting
+	 * it as necessary.
+	 * @param mv the method visitor to generate code with
+	 * @param descriptor the descriptor of the value at the top of the stack
+	 * @param targetType the parameter type
+	 */
+	public static void insertConversion(MethodVisitor mv, String descriptor, Class<?> targetType) {
+		String targetDescriptor = toDescriptor(targetType);
+		if (targetType.isPrimitive()) {
+			insertUnboxInsns(mv, targetDescriptor.charAt(0), descriptor);
+		}
+		else {
+			if (isPrimitive(descriptor)) {
+				insertBoxIfNecessary(mv, descriptor);
+				descriptor = "L" + toWrapperInternalName(descriptor.charAt(0));
+			}
+			if (!targetDescriptor.equals(descriptor)) {
+				insertCheckCast(mv, targetDescriptor);
+			}
+		}
+	}
+
+	/**
+	 * Discard the value at the top of the stack, taking its size into account.
+	 */
+	public static void insertPop(MethodVisitor mv, String descriptor) {
+		mv.visitInsn("J".equals(descriptor) || "D".equals(descriptor) ? POP2 : POP);
+	}
+
+	/**
+	 * Push the given int constant onto the stack, using the most compact instruction.
+	 */
+	public static void insertOptimalLoad(MethodVisitor mv, int value) {
+		if (value >= -1 && value <= 5) {
+			mv.visitInsn(ICONST_0 + value);
+		}
+		else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+			mv.visitIntInsn(BIPUSH, value);
+		}
+		else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+			mv.visitIntInsn(SIPUSH, value);
+		}
+		else {
+			mv.visitLdcInsn(value);
+		}
+	}
+
+}
@@ -26,6 +26,10 @@ package org.springframework.expression.spel;
  */
 public class SpelParserConfiguration {
 
+	private final SpelCompilerMode compilerMode;
+
+	private final ClassLoader compilerClassLoader;
+
 	private final boolean autoGrowNullReferences;
 
 	private final boolean autoGrowCollections;
@@ -33,6 +37,17 @@ public class SpelParserConfiguration {
 	private int maximumAutoGrowSize;
 
 
+	/**
+	 * Create a new {@link SpelParserConfiguration} instance.
+	 * @param compilerMode the compiler mode for expressions created by the parser
+	 * @param compilerClassLoader the ClassLoader to use as the basis for expression compilation
+	 * (may be {@code null} for the default ClassLoader)
+	 * @since 4.0
+	 */
+	public SpelParserConfiguration(SpelCompilerMode compilerMode, ClassLoader compilerClassLoader) {
+		this(compilerMode, compilerClassLoader, false, false, Integer.MAX_VALUE);
+	}
+
 	/**
 	 * Create a new {@link SpelParserConfiguration} instance.
 	 * @param autoGrowNullReferences if null references should automatically grow
@@ -51,12 +66,46 @@ public class SpelParserConfiguration {
 	 */
 	public SpelParserConfiguration(boolean autoGrowNullReferences,
 			boolean autoGrowCollections, int maximumAutoGrowSize) {
+		this(SpelCompilerMode.OFF, null, autoGrowNullReferences, autoGrowCollections, maximumAutoGrowSize);
+	}
+
+	/**
+	 * Create a new {@link SpelParserConfiguration} instance.
+	 * @param compilerMode the compiler mode for expressions created by the parser
+	 * @param compilerClassLoader the ClassLoader to use as the basis for expression compilation
+	 * (may be {@code null} for the default ClassLoader)
+	 * @param autoGrowNullReferences if null references should automatically grow
+	 * @param autoGrowCollections if collections should automatically grow
+	 * @param maximumAutoGrowSize the maximum size that the collection can auto grow
+	 * @since 4.0
+	 */
+	public SpelParserConfiguration(SpelCompilerMode compilerMode, ClassLoader compilerClassLoader,
+			boolean autoGrowNullReferences, boolean autoGrowCollections, int maximumAutoGrowSize) {
+		this.compilerMode = (compilerMode != null ? compilerMode : SpelCompilerMode.OFF);
+		this.compilerClassLoader = compilerClassLoader;
 		this.autoGrowNullReferences = autoGrowNullReferences;
 		this.autoGrowCollections = autoGrowCollections;
 		this.maximumAutoGrowSize = maximumAutoGrowSize;
 	}
 
 
+	/**
+	 * @return the compiler mode for expressions created by the parser
+	 * @since 4.0
+	 */
+	public SpelCompilerMode getCompilerMode() {
+		return this.compilerMode;
+	}
+
+	/**
+	 * @return the ClassLoader to use as the basis for expression compilation,
+	 * or {@code null} for the default ClassLoader
+	 * @since 4.0
+	 */
+	public ClassLoader getCompilerClassLoader() {
+		return this.compilerClassLoader;
+	}
+
 	/**
 	 * @return {@code true} if {@code null} references should be automatically grown
 	 */
@@ -16,8 +16,10 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 
@@ -102,4 +104,35 @@ public class CompoundExpression extends SpelNodeImpl {
 		return sb.toString();
 	}
 
+	@Override
+	public String getExitDescriptor() {
+		return this.children[this.children.length - 1].getExitDescriptor();
+	}
+
+	/**
+	 * A compound expression is compilable if all of its pieces are compilable and if
+	 * all pieces after the first one are property or method references, i.e. operate
+	 * on the value produced by the previous piece.
+	 */
+	@Override
+	public boolean isCompilable() {
+		if (!areCompilable(this.children)) {
+			return false;
+		}
+		for (int i = 1; i < this.children.length; i++) {
+			if (!(this.children[i] instanceof PropertyOrFieldReference || this.children[i] instanceof MethodReference)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		// Each piece picks up the value of the previous piece from the stack
+		for (SpelNodeImpl child : this.children) {
+			child.generateCode(mv, cf);
+		}
+	}
+
 }
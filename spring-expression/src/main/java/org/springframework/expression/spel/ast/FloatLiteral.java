@@ -15,7 +15,9 @@
  */
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * Expression language AST node that represents a float literal.
@@ -29,10 +31,35 @@ public class FloatLiteral extends Literal {
 	FloatLiteral(String payload, int pos, float value) {
 		super(payload, pos);
 		this.value = new TypedValue(value);
+		this.exitTypeDescriptor = "F";
 	}
 
 	@Override
 	public TypedValue getLiteralValue() {
 		return this.value;
 	}
+
+	@Override
+	public boolean isCompilable() {
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		float floatValue = ((Float) this.value.getValue()).floatValue();
+		if (floatValue == 0f) {
+			mv.visitInsn(FCONST_0);
+		}
+		else if (floatValue == 1f) {
+			mv.visitInsn(FCONST_1);
+		}
+		else if (floatValue == 2f) {
+			mv.visitInsn(FCONST_2);
+		}
+		else {
+			mv.visitLdcInsn(floatValue);
+		}
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -15,7 +15,9 @@
  */
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * Expression language AST node that represents an integer literal.
@@ -30,6 +32,7 @@ public class IntLiteral extends Literal {
 	IntLiteral(String payload, int pos, int value) {
 		super(payload, pos);
 		this.value = new TypedValue(value);
+		this.exitTypeDescriptor = "I";
 	}
 
 	@Override
@@ -37,4 +40,16 @@ public class IntLiteral extends Literal {
 		return this.value;
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		int intValue = ((Integer) this.value.getValue()).intValue();
+		CodeFlow.insertOptimalLoad(mv, intValue);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
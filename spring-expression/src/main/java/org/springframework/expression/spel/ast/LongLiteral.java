@@ -16,7 +16,9 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * Expression language AST node that represents a long integer literal.
@@ -31,6 +33,7 @@ public class LongLiteral extends Literal {
 	LongLiteral(String payload, int pos, long value) {
 		super(payload, pos);
 		this.value = new TypedValue(value);
+		this.exitTypeDescriptor = "J";
 	}
 
 	@Override
@@ -38,4 +41,24 @@ public class LongLiteral extends Literal {
 		return this.value;
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		long longValue = ((Long) this.value.getValue()).longValue();
+		if (longValue == 0L) {
+			mv.visitInsn(LCONST_0);
+		}
+		else if (longValue == 1L) {
+			mv.visitInsn(LCONST_1);
+		}
+		else {
+			mv.visitLdcInsn(longValue);
+		}
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
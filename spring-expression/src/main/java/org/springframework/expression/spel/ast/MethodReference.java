@@ -17,9 +17,12 @@
 package org.springframework.expression.spel.ast;
 
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.AccessException;
 import org.springframework.expression.EvaluationContext;
@@ -28,9 +31,11 @@ import org.springframework.expression.ExpressionInvocationTargetException;
 import org.springframework.expression.MethodExecutor;
 import org.springframework.expression.MethodResolver;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.support.ReflectiveMethodExecutor;
 
 /**
  * @author Andy Clement
@@ -93,6 +98,7 @@ public class MethodReference extends SpelNodeImpl {
 			// either there was no accessor or it no longer existed
 			executorToUse = findAccessorForMethod(name, getTypes(arguments), target, evaluationContext);
 			cachedExecutor = executorToUse;
+			updateExitTypeDescriptor(executorToUse);
 			try {
 				return executorToUse.execute(evaluationContext, target, arguments);
 			} catch (AccessException ae) {
@@ -193,6 +199,7 @@ public class MethodReference extends SpelNodeImpl {
 		// either there was no accessor or it no longer existed
 		executorToUse = findAccessorForMethod(this.name, getTypes(arguments), state);
 		this.cachedExecutor = executorToUse;
+		updateExitTypeDescriptor(executorToUse);
 		try {
 			return executorToUse.execute(
 					state.getEvaluationContext(), state.getActiveContextObject().getValue(), arguments);
@@ -224,6 +231,17 @@ public class MethodReference extends SpelNodeImpl {
 		}
 	}
 
+	private void updateExitTypeDescriptor(MethodExecutor executor) {
+		if (executor instanceof ReflectiveMethodExecutor) {
+			Class<?> returnType = ((ReflectiveMethodExecutor) executor).getMethod().getReturnType();
+			this.exitTypeDescriptor = (returnType == void.class ?
+					CodeFlow.OBJECT_DESCRIPTOR : CodeFlow.toDescriptor(returnType));
+		}
+		else {
+			this.exitTypeDescriptor = null;
+		}
+	}
+
 	private List<TypeDescriptor> getTypes(Object... arguments) {
 		List<TypeDescriptor> descriptors = new ArrayList<TypeDescriptor>(arguments.length);
 		for (Object argument : arguments) {
@@ -245,6 +263,71 @@ public class MethodReference extends SpelNodeImpl {
 		return sb.toString();
 	}
 
+	/**
+	 * A method reference is compilable if it is bound to a public method of a public
+	 * class that can be invoked with its arguments as they are, i.e. without varargs
+	 * handling or argument conversion, and if all argument expressions are compilable.
+	 */
+	@Override
+	public boolean isCompilable() {
+		MethodExecutor executorToCheck = this.cachedExecutor;
+		if (this.nullSafe || !(executorToCheck instanceof ReflectiveMethodExecutor) ||
+				this.exitTypeDescriptor == null || !areCompilable(this.children)) {
+			return false;
+		}
+		ReflectiveMethodExecutor executor = (ReflectiveMethodExecutor) executorToCheck;
+		if (executor.isArgumentConversionRequired()) {
+			return false;
+		}
+		Method method = executor.getMethod();
+		if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers()) ||
+				method.isVarArgs() || !CodeFlow.isPublicType(method.getReturnType())) {
+			return false;
+		}
+		for (Class<?> paramType : method.getParameterTypes()) {
+			if (!CodeFlow.isPublicType(paramType)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		Method method = ((ReflectiveMethodExecutor) this.cachedExecutor).getMethod();
+		boolean isStatic = Modifier.isStatic(method.getModifiers());
+		String descriptor = cf.lastDescriptor();
+		String declaringClass = method.getDeclaringClass().getName().replace('.', '/');
+		if (!isStatic) {
+			if (descriptor == null) {
+				cf.loadTarget(mv);
+			}
+			else {
+				CodeFlow.insertBoxIfNecessary(mv, descriptor);
+			}
+			if (descriptor == null || !declaringClass.equals(descriptor.substring(1))) {
+				mv.visitTypeInsn(CHECKCAST, declaringClass);
+			}
+		}
+		else if (descriptor != null) {
+			// A static method does not need the target: discard it
+			CodeFlow.insertPop(mv, descriptor);
+		}
+		Class<?>[] paramTypes = method.getParameterTypes();
+		for (int i = 0; i < this.children.length; i++) {
+			// Arguments are evaluated against the root object
+			String argDescriptor = generateCodeForChild(this.children[i], mv, cf);
+			CodeFlow.insertConversion(mv, argDescriptor, paramTypes[i]);
+		}
+		int opcode = (isStatic ? INVOKESTATIC :
+				method.getDeclaringClass().isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL);
+		mv.visitMethodInsn(opcode, declaringClass, method.getName(), CodeFlow.createSignatureDescriptor(method));
+		if (method.getReturnType() == void.class) {
+			mv.visitInsn(ACONST_NULL);
+		}
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 	private MethodExecutor findAccessorForMethod(String name,
 			List<TypeDescriptor> argumentTypes, ExpressionState state)
 			throws SpelEvaluationException {
@@ -16,7 +16,9 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * @author Andy Clement
@@ -26,6 +28,7 @@ public class NullLiteral extends Literal {
 
 	public NullLiteral(int pos) {
 		super(null,pos);
+		this.exitTypeDescriptor = CodeFlow.OBJECT_DESCRIPTOR;
 	}
 
 	@Override
@@ -38,4 +41,15 @@ public class NullLiteral extends Literal {
 		return "null";
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		mv.visitInsn(ACONST_NULL);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -16,8 +16,11 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -35,6 +38,7 @@ public class OpAnd extends Operator {
 
 	public OpAnd(int pos, SpelNodeImpl... operands) {
 		super("and", pos, operands);
+		this.exitTypeDescriptor = "Z";
 	}
 
 	@Override
@@ -64,4 +68,28 @@ public class OpAnd extends Operator {
 		}
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return (areCompilable(this.children) &&
+				CodeFlow.isBooleanCompatible(getLeftOperand().getExitDescriptor()) &&
+				CodeFlow.isBooleanCompatible(getRightOperand().getExitDescriptor()));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		// Pure boolean AND, short-circuiting the right operand
+		Label elseTarget = new Label();
+		Label endOfIf = new Label();
+		CodeFlow.insertUnboxInsns(mv, 'Z', generateCodeForChild(getLeftOperand(), mv, cf));
+		mv.visitJumpInsn(IFEQ, elseTarget);
+		CodeFlow.insertUnboxInsns(mv, 'Z', generateCodeForChild(getRightOperand(), mv, cf));
+		mv.visitJumpInsn(IFEQ, elseTarget);
+		mv.visitInsn(ICONST_1);
+		mv.visitJumpInsn(GOTO, endOfIf);
+		mv.visitLabel(elseTarget);
+		mv.visitInsn(ICONST_0);
+		mv.visitLabel(endOfIf);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -16,9 +16,11 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Operation;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 
 /**
@@ -56,4 +58,19 @@ public class OpDivide extends Operator {
 		return state.operate(Operation.DIVIDE, operandOne, operandTwo);
 	}
 
+	@Override
+	public String getExitDescriptor() {
+		return getCommonNumericDescriptor();
+	}
+
+	@Override
+	public boolean isCompilable() {
+		return isCompilableNumericOperation();
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		generateNumericOperation(mv, cf, IDIV);
+	}
+
 }
@@ -16,9 +16,11 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Operation;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 
 /**
@@ -98,4 +100,19 @@ public class OpMinus extends Operator {
 		return children[1];
 	}
 
+	@Override
+	public String getExitDescriptor() {
+		return getCommonNumericDescriptor();
+	}
+
+	@Override
+	public boolean isCompilable() {
+		return isCompilableNumericOperation();
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		generateNumericOperation(mv, cf, ISUB);
+	}
+
 }
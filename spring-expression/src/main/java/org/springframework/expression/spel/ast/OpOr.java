@@ -16,7 +16,10 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -34,6 +37,7 @@ public class OpOr extends Operator {
 
 	public OpOr(int pos, SpelNodeImpl... operands) {
 		super("or", pos, operands);
+		this.exitTypeDescriptor = "Z";
 	}
 
 	@Override
@@ -63,4 +67,28 @@ public class OpOr extends Operator {
 		}
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return (areCompilable(this.children) &&
+				CodeFlow.isBooleanCompatible(getLeftOperand().getExitDescriptor()) &&
+				CodeFlow.isBooleanCompatible(getRightOperand().getExitDescriptor()));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		// Pure boolean OR, short-circuiting the right operand
+		Label thenTarget = new Label();
+		Label endOfIf = new Label();
+		CodeFlow.insertUnboxInsns(mv, 'Z', generateCodeForChild(getLeftOperand(), mv, cf));
+		mv.visitJumpInsn(IFNE, thenTarget);
+		CodeFlow.insertUnboxInsns(mv, 'Z', generateCodeForChild(getRightOperand(), mv, cf));
+		mv.visitJumpInsn(IFNE, thenTarget);
+		mv.visitInsn(ICONST_0);
+		mv.visitJumpInsn(GOTO, endOfIf);
+		mv.visitLabel(thenTarget);
+		mv.visitInsn(ICONST_1);
+		mv.visitLabel(endOfIf);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
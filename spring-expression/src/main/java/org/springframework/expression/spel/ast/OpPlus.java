@@ -16,11 +16,13 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Operation;
 import org.springframework.expression.TypeConverter;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.util.Assert;
 
@@ -114,6 +116,65 @@ public class OpPlus extends Operator {
 		return children[1];
 	}
 
+	@Override
+	public String getExitDescriptor() {
+		String numericDescriptor = getCommonNumericDescriptor();
+		if (numericDescriptor != null) {
+			return numericDescriptor;
+		}
+		if (this.children.length == 2 &&
+				CodeFlow.STRING_DESCRIPTOR.equals(getLeftOperand().getExitDescriptor()) &&
+				CodeFlow.STRING_DESCRIPTOR.equals(getRightOperand().getExitDescriptor())) {
+			return CodeFlow.STRING_DESCRIPTOR;
+		}
+		return null;
+	}
+
+	/**
+	 * Numeric addition is compilable for primitive operands, String concatenation if
+	 * at least one operand is a String literal or a nested concatenation: the interpreter
+	 * reports the addition of two {@code null} Strings as an unsupported operation.
+	 */
+	@Override
+	public boolean isCompilable() {
+		if (getCommonNumericDescriptor() != null) {
+			return isCompilableNumericOperation();
+		}
+		return (CodeFlow.STRING_DESCRIPTOR.equals(getExitDescriptor()) &&
+				(isNonNullString(getLeftOperand()) || isNonNullString(getRightOperand())) &&
+				areCompilable(this.children));
+	}
+
+	/**
+	 * Return whether the given operand always evaluates to a non-null String: a String
+	 * literal or a nested String concatenation.
+	 */
+	private static boolean isNonNullString(SpelNodeImpl operand) {
+		return (operand instanceof StringLiteral ||
+				(operand instanceof OpPlus && CodeFlow.STRING_DESCRIPTOR.equals(operand.getExitDescriptor())));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		if (getCommonNumericDescriptor() != null) {
+			generateNumericOperation(mv, cf, IADD);
+		}
+		else {
+			// String concatenation: a null operand is appended as "null", like in the interpreter
+			mv.visitTypeInsn(NEW, "java/lang/StringBuilder");
+			mv.visitInsn(DUP);
+			mv.visitMethodInsn(INVOKESPECIAL, "java/lang/StringBuilder", "<init>", "()V");
+			generateCodeForChild(getLeftOperand(), mv, cf);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append",
+					"(Ljava/lang/String;)Ljava/lang/StringBuilder;");
+			generateCodeForChild(getRightOperand(), mv, cf);
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "append",
+					"(Ljava/lang/String;)Ljava/lang/StringBuilder;");
+			mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/StringBuilder", "toString", "()Ljava/lang/String;");
+			cf.pushDescriptor(CodeFlow.STRING_DESCRIPTOR);
+		}
+	}
+
 	/**
 	 * Convert operand value to string using registered converter or using
 	 * {@code toString} method.
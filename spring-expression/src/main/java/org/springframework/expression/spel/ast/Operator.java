@@ -16,6 +16,9 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * Common supertype for operators that operate on either one or two operands. In the case of multiply or divide there
@@ -45,6 +48,163 @@ public abstract class Operator extends SpelNodeImpl {
 		return operatorName;
 	}
 
+	/**
+	 * Determine the primitive type that both operands of a binary numeric operation
+	 * share according to their exit type descriptors: {@code I}, {@code J} or {@code D}.
+	 * @return the common descriptor, or {@code null} if the operands do not share one
+	 * (in which case the operation is left to interpretation)
+	 */
+	protected String getCommonNumericDescriptor() {
+		if (this.children.length != 2) {
+			return null;
+		}
+		String left = CodeFlow.toPrimitiveTargetDesc(getLeftOperand().getExitDescriptor());
+		String right = CodeFlow.toPrimitiveTargetDesc(getRightOperand().getExitDescriptor());
+		if (left != null && left.equals(right) && ("I".equals(left) || "J".equals(left) || "D".equals(left))) {
+			return left;
+		}
+		return null;
+	}
+
+	/**
+	 * Return whether this operator is a compilable binary numeric operation.
+	 * <p>Both operands need to be primitives: a boxed operand may be {@code null},
+	 * which the interpreter hands to the {@link org.springframework.expression.OperatorOverloader}.
+	 * @see #getCommonNumericDescriptor()
+	 */
+	protected boolean isCompilableNumericOperation() {
+		return (getCommonNumericDescriptor() != null &&
+				CodeFlow.isPrimitive(getLeftOperand().getExitDescriptor()) &&
+				CodeFlow.isPrimitive(getRightOperand().getExitDescriptor()) &&
+				areCompilable(this.children));
+	}
+
+	/**
+	 * Generate the code for a binary numeric operation on the common primitive type.
+	 * @param intOpcode the opcode for the int variant of the operation, e.g. {@code IADD};
+	 * the long and double variants are derived from it
+	 */
+	protected void generateNumericOperation(MethodVisitor mv, CodeFlow cf, int intOpcode) {
+		String descriptor = getCommonNumericDescriptor();
+		char primitive = descriptor.charAt(0);
+		CodeFlow.insertUnboxInsns(mv, primitive, generateCodeForChild(getLeftOperand(), mv, cf));
+		CodeFlow.insertUnboxInsns(mv, primitive, generateCodeForChild(getRightOperand(), mv, cf));
+		mv.visitInsn(intOpcode + (primitive == 'J' ? 1 : primitive == 'D' ? 3 : 0));
+		cf.pushDescriptor(descriptor);
+	}
+
+	/**
+	 * Return whether this operator is a compilable comparison: either a numeric one
+	 * or one that is delegated to the {@link org.springframework.expression.TypeComparator}
+	 * for String or boolean operands.
+	 */
+	protected boolean isCompilableComparison() {
+		if (this.children.length != 2 || !areCompilable(this.children)) {
+			return false;
+		}
+		return (getCommonNumericDescriptor() != null ||
+				(isComparatorOperand(getLeftOperand().getExitDescriptor()) &&
+						isComparatorOperand(getRightOperand().getExitDescriptor())));
+	}
+
+	private static boolean isComparatorOperand(String descriptor) {
+		return (CodeFlow.STRING_DESCRIPTOR.equals(descriptor) || CodeFlow.isBooleanCompatible(descriptor));
+	}
+
+	/**
+	 * Generate the code for a comparison, leaving a boolean on the stack.
+	 * <p>Boxed numeric operands are checked for {@code null} first: like in the
+	 * interpreter, a comparison involving {@code null} is left to the
+	 * {@link org.springframework.expression.TypeComparator}.
+	 * @param intJumpIfFalse the int comparison opcode that jumps if the result is
+	 * {@code false}, e.g. {@code IF_ICMPGE} for a less-than comparison
+	 * @param jumpIfFalse the opcode that jumps if the result is {@code false} given
+	 * the outcome of a long/double comparison or of the type comparator,
+	 * e.g. {@code IFGE} for a less-than comparison
+	 */
+	protected void generateComparisonCode(MethodVisitor mv, CodeFlow cf, int intJumpIfFalse, int jumpIfFalse) {
+		Label elseTarget = new Label();
+		Label endOfIf = new Label();
+		String descriptor = getCommonNumericDescriptor();
+		if (descriptor == null) {
+			cf.loadTypeComparator(mv);
+			CodeFlow.insertBoxIfNecessary(mv, generateCodeForChild(getLeftOperand(), mv, cf));
+			CodeFlow.insertBoxIfNecessary(mv, generateCodeForChild(getRightOperand(), mv, cf));
+			generateTypeComparatorCall(mv, jumpIfFalse, elseTarget);
+		}
+		else {
+			char primitive = descriptor.charAt(0);
+			boolean leftBoxed = !CodeFlow.isPrimitive(getLeftOperand().getExitDescriptor());
+			boolean rightBoxed = !CodeFlow.isPrimitive(getRightOperand().getExitDescriptor());
+			if (!leftBoxed && !rightBoxed) {
+				CodeFlow.insertUnboxInsns(mv, primitive, generateCodeForChild(getLeftOperand(), mv, cf));
+				CodeFlow.insertUnboxInsns(mv, primitive, generateCodeForChild(getRightOperand(), mv, cf));
+				generatePrimitiveComparison(mv, primitive, intJumpIfFalse, jumpIfFalse, elseTarget);
+			}
+			else {
+				// Keep both operands in boxed form, so that they can be checked for null
+				// and then be passed either to the primitive comparison or to the comparator
+				int leftLocal = cf.allocateLocal();
+				int rightLocal = cf.allocateLocal();
+				Label comparatorPath = new Label();
+				CodeFlow.insertBoxIfNecessary(mv, generateCodeForChild(getLeftOperand(), mv, cf));
+				mv.visitVarInsn(ASTORE, leftLocal);
+				CodeFlow.insertBoxIfNecessary(mv, generateCodeForChild(getRightOperand(), mv, cf));
+				mv.visitVarInsn(ASTORE, rightLocal);
+				if (leftBoxed) {
+					mv.visitVarInsn(ALOAD, leftLocal);
+					mv.visitJumpInsn(IFNULL, comparatorPath);
+				}
+				if (rightBoxed) {
+					mv.visitVarInsn(ALOAD, rightLocal);
+					mv.visitJumpInsn(IFNULL, comparatorPath);
+				}
+				mv.visitVarInsn(ALOAD, leftLocal);
+				CodeFlow.insertUnboxInsns(mv, primitive, CodeFlow.OBJECT_DESCRIPTOR);
+				mv.visitVarInsn(ALOAD, rightLocal);
+				CodeFlow.insertUnboxInsns(mv, primitive, CodeFlow.OBJECT_DESCRIPTOR);
+				generatePrimitiveComparison(mv, primitive, intJumpIfFalse, jumpIfFalse, elseTarget);
+				mv.visitInsn(ICONST_1);
+				mv.visitJumpInsn(GOTO, endOfIf);
+				mv.visitLabel(comparatorPath);
+				cf.loadTypeComparator(mv);
+				mv.visitVarInsn(ALOAD, leftLocal);
+				mv.visitVarInsn(ALOAD, rightLocal);
+				generateTypeComparatorCall(mv, jumpIfFalse, elseTarget);
+			}
+		}
+		mv.visitInsn(ICONST_1);
+		mv.visitJumpInsn(GOTO, endOfIf);
+		mv.visitLabel(elseTarget);
+		mv.visitInsn(ICONST_0);
+		mv.visitLabel(endOfIf);
+		cf.pushDescriptor("Z");
+	}
+
+	private static void generatePrimitiveComparison(
+			MethodVisitor mv, char primitive, int intJumpIfFalse, int jumpIfFalse, Label elseTarget) {
+
+		if (primitive == 'I') {
+			mv.visitJumpInsn(intJumpIfFalse, elseTarget);
+		}
+		else {
+			if (primitive == 'J') {
+				mv.visitInsn(LCMP);
+			}
+			else {
+				// NaN needs to make any comparison except != come out false
+				mv.visitInsn(jumpIfFalse == IFGE || jumpIfFalse == IFGT ? DCMPG : DCMPL);
+			}
+			mv.visitJumpInsn(jumpIfFalse, elseTarget);
+		}
+	}
+
+	private static void generateTypeComparatorCall(MethodVisitor mv, int jumpIfFalse, Label elseTarget) {
+		mv.visitMethodInsn(INVOKEINTERFACE, "org/springframework/expression/TypeComparator",
+				"compare", "(Ljava/lang/Object;Ljava/lang/Object;)I");
+		mv.visitJumpInsn(jumpIfFalse, elseTarget);
+	}
+
 	/**
 	 * String format for all operators is the same '(' [operand] [operator] [operand] ')'
 	 */
@@ -16,7 +16,9 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -34,6 +36,7 @@ public class OperatorNot extends SpelNodeImpl { // Not is a unary operator so do
 
 	public OperatorNot(int pos, SpelNodeImpl operand) {
 		super(pos, operand);
+		this.exitTypeDescriptor = "Z";
 	}
 
 	@Override
@@ -51,6 +54,19 @@ public class OperatorNot extends SpelNodeImpl { // Not is a unary operator so do
 		}
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return (this.children[0].isCompilable() && CodeFlow.isBooleanCompatible(this.children[0].getExitDescriptor()));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		CodeFlow.insertUnboxInsns(mv, 'Z', generateCodeForChild(this.children[0], mv, cf));
+		mv.visitInsn(ICONST_1);
+		mv.visitInsn(IXOR);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 	@Override
 	public String toStringAST() {
 		StringBuilder sb = new StringBuilder();
@@ -21,12 +21,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.AccessException;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.PropertyAccessor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
+import org.springframework.expression.spel.CompilablePropertyAccessor;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -231,6 +234,7 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 									eContext, contextObject.getValue(), name);
 						}
 						this.cachedReadAccessor = accessor;
+						updateExitTypeDescriptor(accessor);
 						return accessor.read(eContext, contextObject.getValue(), name);
 					}
 				}
@@ -248,6 +252,15 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 		}
 	}
 
+	private void updateExitTypeDescriptor(PropertyAccessor accessor) {
+		if (accessor instanceof CompilablePropertyAccessor) {
+			this.exitTypeDescriptor = CodeFlow.toDescriptor(((CompilablePropertyAccessor) accessor).getPropertyType());
+		}
+		else {
+			this.exitTypeDescriptor = null;
+		}
+	}
+
 	private void writeProperty(TypedValue contextObject, EvaluationContext eContext, String name, Object newValue) throws SpelEvaluationException {
 
 		if (contextObject.getValue() == null && nullSafe) {
@@ -353,4 +366,18 @@ public class PropertyOrFieldReference extends SpelNodeImpl {
 		return resolvers;
 	}
 
+	@Override
+	public boolean isCompilable() {
+		PropertyAccessor accessorToCheck = this.cachedReadAccessor;
+		return (!this.nullSafe && this.exitTypeDescriptor != null &&
+				accessorToCheck instanceof CompilablePropertyAccessor &&
+				((CompilablePropertyAccessor) accessorToCheck).isCompilable());
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		((CompilablePropertyAccessor) this.cachedReadAccessor).generateCode(this.name, mv, cf);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
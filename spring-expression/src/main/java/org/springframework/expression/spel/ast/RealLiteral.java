@@ -16,7 +16,9 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 
 /**
  * @author Andy Clement
@@ -29,6 +31,7 @@ public class RealLiteral extends Literal {
 	public RealLiteral(String payload, int pos, double value) {
 		super(payload, pos);
 		this.value = new TypedValue(value);
+		this.exitTypeDescriptor = "D";
 	}
 
 	@Override
@@ -36,4 +39,24 @@ public class RealLiteral extends Literal {
 		return this.value;
 	}
 
+	@Override
+	public boolean isCompilable() {
+		return true;
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		double doubleValue = ((Double) this.value.getValue()).doubleValue();
+		if (doubleValue == 0d) {
+			mv.visitInsn(DCONST_0);
+		}
+		else if (doubleValue == 1d) {
+			mv.visitInsn(DCONST_1);
+		}
+		else {
+			mv.visitLdcInsn(doubleValue);
+		}
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -16,13 +16,18 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
 import org.springframework.expression.common.ExpressionUtils;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.SpelMessage;
 import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.util.Assert;
 
@@ -32,7 +37,7 @@ import org.springframework.util.Assert;
  * @author Andy Clement
  * @since 3.0
  */
-public abstract class SpelNodeImpl implements SpelNode {
+public abstract class SpelNodeImpl implements SpelNode, Opcodes {
 
 	private static SpelNodeImpl[] NO_CHILDREN = new SpelNodeImpl[0];
 
@@ -40,6 +45,14 @@ public abstract class SpelNodeImpl implements SpelNode {
 	protected SpelNodeImpl[] children = SpelNodeImpl.NO_CHILDREN;
 	private SpelNodeImpl parent;
 
+	/**
+	 * Indicates the type descriptor for the result of this expression node, as
+	 * used for compilation. It is set as soon as it is known: for a literal node
+	 * immediately, for a property access or method invocation after one evaluation
+	 * of that node. See {@link CodeFlow} for the descriptor format.
+	 */
+	protected volatile String exitTypeDescriptor;
+
 	public SpelNodeImpl(int pos, SpelNodeImpl... operands) {
 		this.pos = pos;
 		// pos combines start and end so can never be zero because tokens cannot be zero length
@@ -149,4 +162,74 @@ public abstract class SpelNodeImpl implements SpelNode {
 	protected ValueRef getValueRef(ExpressionState state) throws EvaluationException {
 		throw new SpelEvaluationException(pos,SpelMessage.NOT_ASSIGNABLE,toStringAST());
 	}
+
+	/**
+	 * Return whether expression compilation is enabled for the given evaluation state,
+	 * i.e. whether it is worth recording exit type descriptors on every evaluation.
+	 * @since 4.0
+	 */
+	protected static boolean isCompilationEnabled(ExpressionState state) {
+		SpelParserConfiguration configuration = state.getConfiguration();
+		return (configuration != null && configuration.getCompilerMode() != SpelCompilerMode.OFF);
+	}
+
+	/**
+	 * Check whether a node can be compiled to bytecode. The reasoning in each node may
+	 * be different but will typically involve checking whether the exit type descriptor
+	 * of the node is known and any relevant child nodes are compilable.
+	 * @return true if this node can be compiled to bytecode
+	 * @since 4.0
+	 */
+	public boolean isCompilable() {
+		return false;
+	}
+
+	/**
+	 * Generate the bytecode for this node into the supplied visitor. Context info about
+	 * the current expression being compiled is available in the codeflow object, e.g.
+	 * including information about the type of the object currently on the stack.
+	 * @param mv the ASM MethodVisitor into which code should be generated
+	 * @param cf a context object with info about what is on the stack
+	 * @since 4.0
+	 */
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		throw new IllegalStateException(getClass().getName() + " has no generateCode(..) method");
+	}
+
+	/**
+	 * Return the type descriptor for the result of this node, or {@code null} if not known yet.
+	 * @since 4.0
+	 */
+	public String getExitDescriptor() {
+		return this.exitTypeDescriptor;
+	}
+
+	/**
+	 * Determine whether all of the given nodes are compilable.
+	 */
+	protected static boolean areCompilable(SpelNodeImpl... nodes) {
+		for (SpelNodeImpl node : nodes) {
+			if (!node.isCompilable()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Generate the bytecode for the given child node in a new compilation scope,
+	 * i.e. with the root object as its starting point.
+	 * @return the exit type descriptor of the child node
+	 */
+	protected static String generateCodeForChild(SpelNodeImpl child, MethodVisitor mv, CodeFlow cf) {
+		cf.enterCompilationScope();
+		try {
+			child.generateCode(mv, cf);
+			return cf.lastDescriptor();
+		}
+		finally {
+			cf.exitCompilationScope();
+		}
+	}
+
 }
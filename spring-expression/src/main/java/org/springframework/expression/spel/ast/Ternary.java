@@ -16,8 +16,11 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 import org.springframework.expression.spel.SpelMessage;
@@ -56,6 +59,48 @@ public class Ternary extends SpelNodeImpl {
 		}
 	}
 
+	/**
+	 * The result type of a ternary is the common type of both alternatives,
+	 * or {@code java.lang.Object} if they differ.
+	 */
+	@Override
+	public String getExitDescriptor() {
+		String leftDescriptor = this.children[1].getExitDescriptor();
+		String rightDescriptor = this.children[2].getExitDescriptor();
+		if (leftDescriptor == null || rightDescriptor == null) {
+			return null;
+		}
+		return (leftDescriptor.equals(rightDescriptor) ? leftDescriptor : CodeFlow.OBJECT_DESCRIPTOR);
+	}
+
+	@Override
+	public boolean isCompilable() {
+		return (areCompilable(this.children) && CodeFlow.isBooleanCompatible(this.children[0].getExitDescriptor()) &&
+				getExitDescriptor() != null);
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		String exitDescriptor = getExitDescriptor();
+		boolean boxResult = (CodeFlow.OBJECT_DESCRIPTOR.equals(exitDescriptor));
+		Label elseTarget = new Label();
+		Label endOfIf = new Label();
+		CodeFlow.insertUnboxInsns(mv, 'Z', generateCodeForChild(this.children[0], mv, cf));
+		mv.visitJumpInsn(IFEQ, elseTarget);
+		String descriptor = generateCodeForChild(this.children[1], mv, cf);
+		if (boxResult) {
+			CodeFlow.insertBoxIfNecessary(mv, descriptor);
+		}
+		mv.visitJumpInsn(GOTO, endOfIf);
+		mv.visitLabel(elseTarget);
+		descriptor = generateCodeForChild(this.children[2], mv, cf);
+		if (boxResult) {
+			CodeFlow.insertBoxIfNecessary(mv, descriptor);
+		}
+		mv.visitLabel(endOfIf);
+		cf.pushDescriptor(exitDescriptor);
+	}
+
 	@Override
 	public String toStringAST() {
 		return new StringBuilder().append(getChild(0).toStringAST()).append(" ? ").append(getChild(1).toStringAST())
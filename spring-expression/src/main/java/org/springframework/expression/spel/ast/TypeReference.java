@@ -18,9 +18,13 @@ package org.springframework.expression.spel.ast;
 
 import java.lang.reflect.Array;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Type;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
+import org.springframework.util.ClassUtils;
 
 /**
  * Represents a reference to a type, for example "T(String)" or "T(com.somewhere.Foo)"
@@ -31,6 +35,8 @@ public class TypeReference extends SpelNodeImpl {
 
 	private int dimensions;
 
+	private volatile Class<?> type;
+
 	public TypeReference(int pos,SpelNodeImpl qualifiedId) {
 		this(pos,qualifiedId,0);
 	}
@@ -50,11 +56,19 @@ public class TypeReference extends SpelNodeImpl {
 				// it is a primitive type
 				Class<?> clazz = tc.getType();
 				clazz = makeArrayIfNecessary(clazz);
+				if (isCompilationEnabled(state)) {
+					this.exitTypeDescriptor = "Ljava/lang/Class";
+					this.type = clazz;
+				}
 				return new TypedValue(clazz);
 			}
 		}
 		Class<?> clazz = state.findType(typename);
 		clazz = makeArrayIfNecessary(clazz);
+		if (isCompilationEnabled(state)) {
+			this.exitTypeDescriptor = "Ljava/lang/Class";
+			this.type = clazz;
+		}
 		return new TypedValue(clazz);
 	}
 
@@ -80,4 +94,24 @@ public class TypeReference extends SpelNodeImpl {
 		return sb.toString();
 	}
 
+	@Override
+	public boolean isCompilable() {
+		Class<?> typeToCheck = this.type;
+		return (typeToCheck != null && CodeFlow.isPublicType(typeToCheck));
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		Class<?> typeToLoad = this.type;
+		if (typeToLoad.isPrimitive()) {
+			// No class literal for primitives: use the TYPE constant of the wrapper
+			Class<?> wrapper = (typeToLoad == void.class ? Void.class : ClassUtils.resolvePrimitiveIfNecessary(typeToLoad));
+			mv.visitFieldInsn(GETSTATIC, Type.getInternalName(wrapper), "TYPE", "Ljava/lang/Class;");
+		}
+		else {
+			mv.visitLdcInsn(Type.getType(typeToLoad));
+		}
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -16,8 +16,10 @@
 
 package org.springframework.expression.spel.ast;
 
+import org.springframework.asm.MethodVisitor;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
 import org.springframework.expression.spel.ExpressionState;
 import org.springframework.expression.spel.SpelEvaluationException;
 
@@ -79,20 +81,29 @@ public class VariableReference extends SpelNodeImpl {
 			return new ValueRef.TypedValueHolderValueRef(state.getRootContextObject(),this);
 		}
 		TypedValue result = state.lookupVariable(this.name);
+		if (isCompilationEnabled(state)) {
+			this.exitTypeDescriptor = CodeFlow.toDescriptorFromObject(result.getValue());
+		}
 		// a null value will mean either the value was null or the variable was not found
 		return new VariableRef(this.name,result,state.getEvaluationContext());
 	}
 
 	@Override
 	public TypedValue getValueInternal(ExpressionState state) throws SpelEvaluationException {
+		TypedValue result;
 		if (this.name.equals(THIS)) {
-			return state.getActiveContextObject();
+			result = state.getActiveContextObject();
 		}
-		if (this.name.equals(ROOT)) {
-			return state.getRootContextObject();
+		else if (this.name.equals(ROOT)) {
+			result = state.getRootContextObject();
+		}
+		else {
+			// a null value will mean either the value was null or the variable was not found
+			result = state.lookupVariable(this.name);
+		}
+		if (isCompilationEnabled(state)) {
+			this.exitTypeDescriptor = CodeFlow.toDescriptorFromObject(result.getValue());
 		}
-		TypedValue result = state.lookupVariable(this.name);
-		// a null value will mean either the value was null or the variable was not found
 		return result;
 	}
 
@@ -111,4 +122,26 @@ public class VariableReference extends SpelNodeImpl {
 		return !(this.name.equals(THIS) || this.name.equals(ROOT));
 	}
 
+	/**
+	 * A variable reference is compilable once its type is known. Note that {@code #this}
+	 * refers to the root object in all positions that a compiled expression supports.
+	 * @see CompoundExpression#isCompilable()
+	 */
+	@Override
+	public boolean isCompilable() {
+		return (this.exitTypeDescriptor != null);
+	}
+
+	@Override
+	public void generateCode(MethodVisitor mv, CodeFlow cf) {
+		if (this.name.equals(THIS) || this.name.equals(ROOT)) {
+			cf.loadTarget(mv);
+		}
+		else {
+			cf.loadVariable(mv, this.name);
+		}
+		CodeFlow.insertCheckCast(mv, this.exitTypeDescriptor);
+		cf.pushDescriptor(this.exitTypeDescriptor);
+	}
+
 }
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel.standard;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.CodeFlow;
+import org.springframework.expression.spel.CompiledExpression;
+import org.springframework.expression.spel.ast.SpelNodeImpl;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * A SpelCompiler will take a regular parsed expression and create (and load) a class
+ * containing byte code that does the same thing as that expression. The compiled form of
+ * an expression will evaluate far faster than the interpreted form.
+ *
+ * <p>The SpelCompiler is not currently handling all expression types but covers many of
+ * the common cases: literals, property access, method invocation, variable references,
+ * type references and arithmetic, relational and logical operators. The framework is
+ * extensible to cover more cases in the future. For any unsupported cases the compiler
+ * will simply not compile the expression, leaving it to interpretation.
+ *
+ * <p>Compilation relies on the types observed during earlier interpreted evaluations of
+ * the expression, in particular for property and method references. A compiled
+ * expression may therefore fail if these types change later on.
+ *
+ * <p>There is one SpelCompiler per ClassLoader, managing a child ClassLoader of it
+ * which is used to define the generated expression classes.
+ *
+ * @author agent
+ * @since 4.0
+ * @see org.springframework.expression.spel.SpelCompilerMode
+ */
+public class SpelCompiler implements Opcodes {
+
+	private static final Log logger = LogFactory.getLog(SpelCompiler.class);
+
+	private static final String COMPILED_EXPRESSION_CLASS = "org/springframework/expression/spel/CompiledExpression";
+
+	// A compiler is created for each ClassLoader; the entries are softly referenced
+	// so as to not prevent a ClassLoader from being garbage collected
+	private static final Map<ClassLoader, SpelCompiler> compilers =
+			new ConcurrentReferenceHashMap<ClassLoader, SpelCompiler>();
+
+
+	// The number of classes to define in one child ClassLoader before starting a new one
+	private static final int CLASSES_DEFINED_LIMIT = 100;
+
+
+	// The child ClassLoader used to load the compiled expression classes
+	private ChildClassLoader childClassLoader;
+
+	// Counter suffix for generated classes within this SpelCompiler instance
+	private final AtomicInteger suffixId = new AtomicInteger(1);
+
+
+	private SpelCompiler(ClassLoader classloader) {
+		this.childClassLoader = new ChildClassLoader(classloader);
+	}
+
+
+	/**
+	 * Attempt compilation of the supplied expression. A check is made to see
+	 * if it is compilable before compilation proceeds. The check involves
+	 * visiting all the nodes in the expression Ast and ensuring enough state
+	 * is known about them that bytecode can be generated for them.
+	 * @param expression the expression to compile
+	 * @return an instance of the class implementing the compiled expression,
+	 * or {@code null} if compilation is not possible
+	 */
+	public CompiledExpression compile(SpelNodeImpl expression) {
+		if (expression.isCompilable()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("SpEL: compiling " + expression.toStringAST());
+			}
+			Class<? extends CompiledExpression> clazz = createExpressionClass(expression);
+			if (clazz != null) {
+				try {
+					return clazz.newInstance();
+				}
+				catch (LinkageError err) {
+					// Generated code turned out to be invalid, e.g. failed verification
+					if (logger.isDebugEnabled()) {
+						logger.debug("SpEL: failed to load compiled expression for " + expression.toStringAST(), err);
+					}
+				}
+				catch (Exception ex) {
+					throw new IllegalStateException("Failed to instantiate CompiledExpression", ex);
+				}
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("SpEL: unable to compile " + expression.toStringAST());
+		}
+		return null;
+	}
+
+	private int getNextSuffix() {
+		return this.suffixId.incrementAndGet();
+	}
+
+	/**
+	 * Generate the class that encapsulates the compiled expression and define it.
+	 * The generated class will be a subtype of CompiledExpression.
+	 * @param expressionToCompile the expression to be compiled
+	 * @return the expression call, or {@code null} if the decision was to opt out of
+	 * compilation during code generation
+	 */
+	@SuppressWarnings("unchecked")
+	private Class<? extends CompiledExpression> createExpressionClass(SpelNodeImpl expressionToCompile) {
+		// Create class outline 'spel/ExNNN extends org.springframework.expression.spel.CompiledExpression'
+		String clazzName = "spel/Ex" + getNextSuffix();
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_5, ACC_PUBLIC, clazzName, null, COMPILED_EXPRESSION_CLASS, null);
+
+		// Create default constructor
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, COMPILED_EXPRESSION_CLASS, "<init>", "()V");
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(1, 1);
+		mv.visitEnd();
+
+		// Create getValue() method
+		mv = cw.visitMethod(ACC_PUBLIC, "getValue",
+				"(Ljava/lang/Object;Lorg/springframework/expression/EvaluationContext;)Ljava/lang/Object;", null,
+				new String[] {"org/springframework/expression/EvaluationException"});
+		mv.visitCode();
+
+		CodeFlow cf = new CodeFlow();
+
+		// Ask the expression AST to generate the body of the method
+		try {
+			expressionToCompile.generateCode(mv, cf);
+		}
+		catch (IllegalStateException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug(expressionToCompile.getClass().getSimpleName() +
+						".generateCode opted out of compilation: " + ex.getMessage());
+			}
+			return null;
+		}
+
+		CodeFlow.insertBoxIfNecessary(mv, cf.lastDescriptor());
+		mv.visitInsn(ARETURN);
+
+		mv.visitMaxs(0, 0);  // not supplied due to COMPUTE_MAXS
+		mv.visitEnd();
+		cw.visitEnd();
+		byte[] data = cw.toByteArray();
+		return (Class<? extends CompiledExpression>) loadClass(clazzName.replace('/', '.'), data);
+	}
+
+	/**
+	 * Define the given class in the current child ClassLoader, replacing that
+	 * ClassLoader once it has reached the limit of classes to define. A replaced
+	 * ClassLoader and its classes can then be garbage collected as soon as the
+	 * compiled expressions that it defined are no longer in use.
+	 */
+	private synchronized Class<?> loadClass(String name, byte[] bytes) {
+		if (this.childClassLoader.getClassesDefinedCount() >= CLASSES_DEFINED_LIMIT) {
+			this.childClassLoader = new ChildClassLoader(this.childClassLoader.getParent());
+		}
+		return this.childClassLoader.defineClass(name, bytes);
+	}
+
+
+	/**
+	 * Factory method for compiler instances. The returned SpelCompiler will
+	 * attach a class loader as the child of the given class loader and this
+	 * child will be used to load compiled expressions.
+	 * @param classLoader the ClassLoader to use as the basis for compilation
+	 * (may be {@code null} for the default ClassLoader)
+	 * @return a corresponding SpelCompiler instance
+	 */
+	public static SpelCompiler getCompiler(ClassLoader classLoader) {
+		ClassLoader clToUse = (classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader());
+		synchronized (compilers) {
+			SpelCompiler compiler = compilers.get(clToUse);
+			if (compiler == null) {
+				compiler = new SpelCompiler(clToUse);
+				compilers.put(clToUse, compiler);
+			}
+			return compiler;
+		}
+	}
+
+	/**
+	 * Request that an attempt is made to compile the specified expression. It may fail if
+	 * components of the expression are not suitable for compilation or the data types
+	 * involved are not suitable for compilation. Used for testing.
+	 * <p>Note that variable references only record their types if the expression
+	 * was parsed with a {@link org.springframework.expression.spel.SpelCompilerMode}
+	 * other than OFF.
+	 * @return true if the expression was successfully compiled
+	 */
+	public static boolean compile(Expression expression) {
+		return (expression instanceof SpelExpression && ((SpelExpression) expression).compileExpression());
+	}
+
+	/**
+	 * Request to revert to the interpreter for expression evaluation.
+	 * Any compiled form is discarded but can be recreated by later recompiling again.
+	 * @param expression the expression
+	 */
+	public static void revertToInterpreted(Expression expression) {
+		if (expression instanceof SpelExpression) {
+			((SpelExpression) expression).revertToInterpreted();
+		}
+	}
+
+
+	/**
+	 * A ChildClassLoader will load the generated compiled expressions.
+	 */
+	private static class ChildClassLoader extends URLClassLoader {
+
+		private static final URL[] NO_URLS = new URL[0];
+
+		private int classesDefinedCount = 0;
+
+		public ChildClassLoader(ClassLoader classLoader) {
+			super(NO_URLS, classLoader);
+		}
+
+		public Class<?> defineClass(String name, byte[] bytes) {
+			Class<?> clazz = super.defineClass(name, bytes, 0, bytes.length);
+			this.classesDefinedCount++;
+			return clazz;
+		}
+
+		public int getClassesDefinedCount() {
+			return this.classesDefinedCount;
+		}
+	}
+
+}
@@ -16,13 +16,19 @@
 
 package org.springframework.expression.spel.standard;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
 import org.springframework.expression.TypedValue;
 import org.springframework.expression.common.ExpressionUtils;
+import org.springframework.expression.spel.CompiledExpression;
 import org.springframework.expression.spel.ExpressionState;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
 import org.springframework.expression.spel.SpelNode;
 import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.ast.SpelNodeImpl;
@@ -35,11 +41,28 @@ import org.springframework.util.Assert;
  * standalone or in a specified context. During expression evaluation the context
  * may be asked to resolve references to types, beans, properties, and methods.
  *
+ * <p>Depending on the {@link SpelCompilerMode} of the parser configuration, the
+ * expression may get compiled to bytecode once its interpreted evaluations have
+ * revealed the runtime types involved. See {@link SpelCompiler} for details.
+ *
  * @author Andy Clement
  * @since 3.0
  */
 public class SpelExpression implements Expression {
 
+	// Number of times to interpret an expression before compiling it in MIXED mode
+	private static final int INTERPRETED_COUNT_THRESHOLD = 100;
+
+	// Number of failed compilation attempts after which to stop trying
+	private static final int FAILED_ATTEMPTS_THRESHOLD = 100;
+
+	// Number of runtime failures of a compiled form after which to stop compiling in MIXED mode
+	private static final int COMPILED_FAILURES_THRESHOLD = 2;
+
+	// Marker for a failed evaluation of the compiled form, to be repeated interpreted
+	private static final Object COMPILED_FAILURE = new Object();
+
+
 	private final String expression;
 
 	private final SpelNodeImpl ast;
@@ -49,6 +72,21 @@ public class SpelExpression implements Expression {
 	// the default context is used if no override is supplied by the user
 	private EvaluationContext defaultContext;
 
+	// Holds the compiled form of the expression (if it has been compiled)
+	private volatile CompiledExpression compiledAst;
+
+	// Count of how many times the expression has been interpreted since the last
+	// (attempted) compilation - can trigger compilation when a limit is reached
+	private final AtomicInteger interpretedCount = new AtomicInteger(0);
+
+	// The number of times compilation was attempted and failed - enables us to
+	// eventually give up trying to compile it when it just doesn't seem to be possible
+	private final AtomicInteger failedAttempts = new AtomicInteger(0);
+
+	// The number of times a compiled form failed at runtime, e.g. due to changing types:
+	// once this happened repeatedly, recompiling is not worth it (and not worth the classes)
+	private final AtomicInteger compiledFailures = new AtomicInteger(0);
+
 
 	/**
 	 * Construct an expression, only used by the parser.
@@ -63,44 +101,127 @@ public class SpelExpression implements Expression {
 	// implementing Expression
 
 	public Object getValue() throws EvaluationException {
+		CompiledExpression compiledAst = this.compiledAst;
+		if (compiledAst != null) {
+			try {
+				EvaluationContext context = getEvaluationContext();
+				return compiledAst.getValue(context.getRootObject().getValue(), context);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(ex);
+			}
+		}
 		ExpressionState expressionState = new ExpressionState(getEvaluationContext(), configuration);
-		return ast.getValue(expressionState);
+		Object result = ast.getValue(expressionState);
+		checkCompile();
+		return result;
 	}
 
 	public Object getValue(Object rootObject) throws EvaluationException {
+		CompiledExpression compiledAst = this.compiledAst;
+		if (compiledAst != null) {
+			try {
+				return compiledAst.getValue(rootObject, getEvaluationContext());
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(ex);
+			}
+		}
 		ExpressionState expressionState = new ExpressionState(getEvaluationContext(), toTypedValue(rootObject), configuration);
-		return ast.getValue(expressionState);
+		Object result = ast.getValue(expressionState);
+		checkCompile();
+		return result;
 	}
 
 	public <T> T getValue(Class<T> expectedResultType) throws EvaluationException {
+		CompiledExpression compiledAst = this.compiledAst;
+		if (compiledAst != null) {
+			EvaluationContext context = getEvaluationContext();
+			Object result = getCompiledValue(compiledAst, context.getRootObject().getValue(), context);
+			if (result != COMPILED_FAILURE) {
+				return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
+			}
+		}
 		ExpressionState expressionState = new ExpressionState(getEvaluationContext(), configuration);
 		TypedValue typedResultValue = ast.getTypedValue(expressionState);
+		checkCompile();
 		return ExpressionUtils.convertTypedValue(expressionState.getEvaluationContext(), typedResultValue, expectedResultType);
 	}
 
 	public <T> T getValue(Object rootObject, Class<T> expectedResultType) throws EvaluationException {
+		CompiledExpression compiledAst = this.compiledAst;
+		if (compiledAst != null) {
+			EvaluationContext context = getEvaluationContext();
+			Object result = getCompiledValue(compiledAst, rootObject, context);
+			if (result != COMPILED_FAILURE) {
+				return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
+			}
+		}
 		ExpressionState expressionState = new ExpressionState(getEvaluationContext(), toTypedValue(rootObject), configuration);
 		TypedValue typedResultValue = ast.getTypedValue(expressionState);
+		checkCompile();
 		return ExpressionUtils.convertTypedValue(expressionState.getEvaluationContext(), typedResultValue, expectedResultType);
 	}
 
 	public Object getValue(EvaluationContext context) throws EvaluationException {
 		Assert.notNull(context, "The EvaluationContext is required");
-		return ast.getValue(new ExpressionState(context, configuration));
+		CompiledExpression compiledAst = this.compiledAst;
+		if (compiledAst != null) {
+			try {
+				return compiledAst.getValue(context.getRootObject().getValue(), context);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(ex);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, configuration);
+		Object result = ast.getValue(expressionState);
+		checkCompile();
+		return result;
 	}
 
 	public Object getValue(EvaluationContext context, Object rootObject) throws EvaluationException {
 		Assert.notNull(context, "The EvaluationContext is required");
-		return ast.getValue(new ExpressionState(context, toTypedValue(rootObject), configuration));
+		CompiledExpression compiledAst = this.compiledAst;
+		if (compiledAst != null) {
+			try {
+				return compiledAst.getValue(rootObject, context);
+			}
+			catch (Throwable ex) {
+				handleCompiledFailure(ex);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, toTypedValue(rootObject), configuration);
+		Object result = ast.getValue(expressionState);
+		checkCompile();
+		return result;
 	}
 
 	public <T> T getValue(EvaluationContext context, Class<T> expectedResultType) throws EvaluationException {
-		TypedValue typedResultValue = ast.getTypedValue(new ExpressionState(context, configuration));
+		CompiledExpression compiledAst = this.compiledAst;
+		if (compiledAst != null) {
+			Object result = getCompiledValue(compiledAst, context.getRootObject().getValue(), context);
+			if (result != COMPILED_FAILURE) {
+				return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, configuration);
+		TypedValue typedResultValue = ast.getTypedValue(expressionState);
+		checkCompile();
 		return ExpressionUtils.convertTypedValue(context, typedResultValue, expectedResultType);
 	}
 
 	public <T> T getValue(EvaluationContext context, Object rootObject, Class<T> expectedResultType) throws EvaluationException {
-		TypedValue typedResultValue = ast.getTypedValue(new ExpressionState(context, toTypedValue(rootObject), configuration));
+		CompiledExpression compiledAst = this.compiledAst;
+		if (compiledAst != null) {
+			Object result = getCompiledValue(compiledAst, rootObject, context);
+			if (result != COMPILED_FAILURE) {
+				return ExpressionUtils.convertTypedValue(context, new TypedValue(result), expectedResultType);
+			}
+		}
+		ExpressionState expressionState = new ExpressionState(context, toTypedValue(rootObject), configuration);
+		TypedValue typedResultValue = ast.getTypedValue(expressionState);
+		checkCompile();
 		return ExpressionUtils.convertTypedValue(context, typedResultValue, expectedResultType);
 	}
 
@@ -180,6 +301,103 @@ public class SpelExpression implements Expression {
 
 	// impl only
 
+	/**
+	 * Perform expression compilation. This will only succeed once exit descriptors for all nodes have
+	 * been determined. If the compilation fails and has failed more than 100 times, or if compiled forms
+	 * of the expression failed at runtime twice, the expression is no longer considered suitable for
+	 * compilation.
+	 * @return {@code true} if the expression is compiled now (or had been compiled before)
+	 * @since 4.0
+	 */
+	public boolean compileExpression() {
+		if (this.compiledAst != null) {
+			// Previously compiled
+			return true;
+		}
+		if (this.failedAttempts.get() > FAILED_ATTEMPTS_THRESHOLD ||
+				this.compiledFailures.get() >= COMPILED_FAILURES_THRESHOLD ||
+				this.configuration.isAutoGrowNullReferences()) {
+			// Too many failed attempts, compiled forms failing repeatedly, or auto-growing
+			// of null references requested which compiled code does not perform
+			return false;
+		}
+		synchronized (this) {
+			if (this.compiledAst != null) {
+				// Compiled by another thread before this thread got into the sync block
+				return true;
+			}
+			SpelCompiler compiler = SpelCompiler.getCompiler(this.configuration.getCompilerClassLoader());
+			CompiledExpression compiledAst = compiler.compile(this.ast);
+			if (compiledAst == null) {
+				this.failedAttempts.incrementAndGet();
+				this.interpretedCount.set(0);
+				return false;
+			}
+			this.compiledAst = compiledAst;
+			return true;
+		}
+	}
+
+	/**
+	 * Cause an expression to revert to being interpreted if it has been using a compiled
+	 * form. It also resets the failure counts (an expression is normally no longer considered
+	 * compilable if it cannot be compiled after 100 attempts or if its compiled form failed twice).
+	 * @since 4.0
+	 */
+	public void revertToInterpreted() {
+		this.compiledAst = null;
+		this.interpretedCount.set(0);
+		this.failedAttempts.set(0);
+		this.compiledFailures.set(0);
+	}
+
+	/**
+	 * Compile the expression if it has been interpreted more than the threshold number
+	 * of times for the configured {@link SpelCompilerMode}: once for IMMEDIATE mode.
+	 */
+	private void checkCompile() {
+		SpelCompilerMode compilerMode = this.configuration.getCompilerMode();
+		if (compilerMode == SpelCompilerMode.OFF) {
+			return;
+		}
+		if (compilerMode == SpelCompilerMode.IMMEDIATE ||
+				this.interpretedCount.incrementAndGet() > INTERPRETED_COUNT_THRESHOLD) {
+			compileExpression();
+		}
+	}
+
+	/**
+	 * Handle a failure of the compiled form of the expression: in MIXED mode, revert
+	 * to interpretation (with the option to recompile later on, unless a compiled form
+	 * failed before); otherwise propagate the exception to the caller.
+	 */
+	/**
+	 * Evaluate the given compiled form, handling a failure according to the compiler mode.
+	 * @return the result, or {@link #COMPILED_FAILURE} if the expression is to be
+	 * interpreted instead
+	 */
+	private Object getCompiledValue(CompiledExpression compiledAst, Object rootObject, EvaluationContext context) {
+		try {
+			return compiledAst.getValue(rootObject, context);
+		}
+		catch (Throwable ex) {
+			handleCompiledFailure(ex);
+			return COMPILED_FAILURE;
+		}
+	}
+
+	private void handleCompiledFailure(Throwable ex) {
+		if (this.configuration.getCompilerMode() == SpelCompilerMode.MIXED) {
+			this.compiledAst = null;
+			this.interpretedCount.set(0);
+			this.compiledFailures.incrementAndGet();
+		}
+		else {
+			throw new SpelEvaluationException(ex, SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION);
+		}
+	}
+
+
 	/**
 	 * @return return the Abstract Syntax Tree for the expression
 	 */
@@ -31,7 +31,7 @@ import org.springframework.util.ReflectionUtils;
  * @author Juergen Hoeller
  * @since 3.0
  */
-class ReflectiveMethodExecutor implements MethodExecutor {
+public class ReflectiveMethodExecutor implements MethodExecutor {
 
 	private final Method method;
 
@@ -55,6 +55,24 @@ class ReflectiveMethodExecutor implements MethodExecutor {
 	}
 
 
+	/**
+	 * Return the method that this executor invokes.
+	 * @since 4.0
+	 */
+	public final Method getMethod() {
+		return this.method;
+	}
+
+	/**
+	 * Return whether any of the arguments need to be converted
+	 * before the method can be invoked with them.
+	 * @since 4.0
+	 */
+	public boolean isArgumentConversionRequired() {
+		return (this.argsRequiringConversion != null && this.argsRequiringConversion.length > 0);
+	}
+
+
 	public TypedValue execute(EvaluationContext context, Object target, Object... arguments) throws AccessException {
 		try {
 			if (arguments != null) {
@@ -26,6 +26,8 @@ import java.util.Comparator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Type;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.convert.Property;
 import org.springframework.core.convert.TypeDescriptor;
@@ -34,6 +36,8 @@ import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.PropertyAccessor;
 import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.CodeFlow;
+import org.springframework.expression.spel.CompilablePropertyAccessor;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
@@ -508,7 +512,7 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 	 * accessor exists because looking up the appropriate reflective object by class/name
 	 * on each read is not cheap.
 	 */
-	private static class OptimalPropertyAccessor implements PropertyAccessor {
+	private static class OptimalPropertyAccessor implements CompilablePropertyAccessor {
 
 		private final Member member;
 
@@ -593,6 +597,53 @@ public class ReflectivePropertyAccessor implements PropertyAccessor {
 		public void write(EvaluationContext context, Object target, String name, Object newValue) {
 			throw new UnsupportedOperationException("Should not be called on an OptimalPropertyAccessor");
 		}
+
+		public boolean isCompilable() {
+			return (Modifier.isPublic(this.member.getModifiers()) &&
+					Modifier.isPublic(this.member.getDeclaringClass().getModifiers()) &&
+					CodeFlow.isPublicType(getPropertyType()));
+		}
+
+		public Class<?> getPropertyType() {
+			if (this.member instanceof Method) {
+				return ((Method) this.member).getReturnType();
+			}
+			else {
+				return ((Field) this.member).getType();
+			}
+		}
+
+		public void generateCode(String propertyName, MethodVisitor mv, CodeFlow cf) {
+			boolean isStatic = Modifier.isStatic(this.member.getModifiers());
+			String descriptor = cf.lastDescriptor();
+			String declaringClass = this.member.getDeclaringClass().getName().replace('.', '/');
+			if (!isStatic) {
+				if (descriptor == null) {
+					cf.loadTarget(mv);
+				}
+				else {
+					CodeFlow.insertBoxIfNecessary(mv, descriptor);
+				}
+				if (descriptor == null || !declaringClass.equals(descriptor.substring(1))) {
+					mv.visitTypeInsn(CHECKCAST, declaringClass);
+				}
+			}
+			else if (descriptor != null) {
+				// A static member does not need the target: discard it
+				CodeFlow.insertPop(mv, descriptor);
+			}
+			if (this.member instanceof Method) {
+				Method method = (Method) this.member;
+				int opcode = (isStatic ? INVOKESTATIC :
+						method.getDeclaringClass().isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL);
+				mv.visitMethodInsn(opcode, declaringClass, method.getName(), CodeFlow.createSignatureDescriptor(method));
+			}
+			else {
+				Field field = (Field) this.member;
+				mv.visitFieldInsn(isStatic ? GETSTATIC : GETFIELD, declaringClass, field.getName(),
+						Type.getDescriptor(field.getType()));
+			}
+		}
 	}
 
 }
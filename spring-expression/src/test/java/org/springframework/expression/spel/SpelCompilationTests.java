@@ -0,0 +1,328 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.expression.spel;
+
+import java.lang.reflect.Field;
+
+import org.junit.Test;
+
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelCompiler;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ReflectionUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for compilation of SpEL expressions to bytecode.
+ *
+ * @author agent
+ * @since 4.0
+ */
+public class SpelCompilationTests {
+
+	private final SpelExpressionParser parser = new SpelExpressionParser(
+			new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader()));
+
+
+	@Test
+	public void literalsAndOperators() {
+		assertCompiledValue(11, "3 + 4 * 2");
+		assertCompiledValue(7L, "10L - 3L");
+		assertCompiledValue(3.0d, "1.5d * 2d");
+		assertCompiledValue(2, "7 / 3");
+		assertCompiledValue(1, "7 % 3");
+		assertCompiledValue(1.5f, "1.5f");
+		assertCompiledValue("abcdef", "'abc' + 'def'");
+		assertCompiledValue(true, "3 > 2 and !(1 == 2)");
+		assertCompiledValue(false, "3L <= 2L or 1.0d != 1.0d");
+		assertCompiledValue(true, "'a' < 'b'");
+		assertCompiledValue(true, "'abc' == 'abc'");
+		assertCompiledValue(1, "true ? 1 : 2");
+		assertCompiledValue("two", "false ? 1 : 'two'");
+		assertCompiledValue(null, "null");
+		assertCompiledValue(String.class, "T(String)");
+	}
+
+	@Test
+	public void propertyAndMethodAccess() {
+		Person person = new Person("Sam", 30);
+		assertCompiledValue(3, "name.length()", person);
+		assertCompiledValue(31, "age + 1", person);
+		assertCompiledValue(true, "age > 18 and name == 'Sam'", person);
+		assertCompiledValue("Hello Sam", "greet(name)", person);
+		assertCompiledValue("Hello Sam, you are 30", "greet(name) + ', you are ' + ageAsString()", person);
+		assertCompiledValue(44, "nickname.length() + 39", person);
+		assertCompiledValue(30, "T(Math).max(age, 3)", person);
+		assertCompiledValue("Sam", "#root.name", person);
+		assertCompiledValue("Sam", "#this.name", person);
+		assertCompiledValue(null, "reset()", person);
+	}
+
+	@Test
+	public void variableReferences() {
+		StandardEvaluationContext context = new StandardEvaluationContext(new Person("Sam", 30));
+		context.setVariable("num", 5);
+		context.setVariable("text", "abc");
+		Expression expression = this.parser.parseExpression("#num.intValue() * age + #text.length()");
+		assertEquals(153, expression.getValue(context));
+		assertTrue(SpelCompiler.compile(expression));
+		assertEquals(153, expression.getValue(context));
+		context.setVariable("num", 2);
+		assertEquals(63, expression.getValue(context));
+	}
+
+	@Test
+	public void notCompilableBeforeFirstEvaluation() {
+		Expression expression = this.parser.parseExpression("name.length()");
+		assertFalse(SpelCompiler.compile(expression));
+		expression.getValue(new Person("Sam", 30));
+		assertTrue(SpelCompiler.compile(expression));
+	}
+
+	@Test
+	public void unsupportedConstructsNotCompiled() {
+		Expression expression = this.parser.parseExpression("name?.length()");
+		assertEquals(3, expression.getValue(new Person("Sam", 30)));
+		assertFalse(SpelCompiler.compile(expression));
+
+		expression = this.parser.parseExpression("{1,2,3}[1]");
+		assertEquals(2, expression.getValue());
+		assertFalse(SpelCompiler.compile(expression));
+	}
+
+	@Test
+	public void mixedModeCompilesAfterThresholdAndFallsBackOnTypeChange() {
+		Expression expression = this.parser.parseExpression("name");
+		Person person = new Person("Sam", 30);
+		for (int i = 0; i < 100; i++) {
+			assertEquals("Sam", expression.getValue(person));
+		}
+		assertFalse(isCompiled(expression));
+		assertEquals("Sam", expression.getValue(person));
+		assertTrue(isCompiled(expression));
+		assertEquals("Sam", expression.getValue(person));
+
+		// Different root type: the compiled form fails and the expression reverts to interpretation
+		assertEquals("Fido", expression.getValue(new Dog("Fido")));
+		assertFalse(isCompiled(expression));
+		assertEquals("Sam", expression.getValue(person));
+	}
+
+	@Test
+	public void immediateModeReportsFailure() {
+		SpelExpressionParser immediateParser = new SpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, getClass().getClassLoader()));
+		Expression expression = immediateParser.parseExpression("name");
+		assertEquals("Sam", expression.getValue(new Person("Sam", 30)));
+		assertTrue(isCompiled(expression));
+		try {
+			expression.getValue(new Dog("Fido"));
+			fail("Should have thrown SpelEvaluationException");
+		}
+		catch (SpelEvaluationException ex) {
+			assertEquals(SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION, ex.getMessageCode());
+			assertTrue(ex.getCause() instanceof ClassCastException);
+		}
+	}
+
+	@Test
+	public void nullBoxedOperandsInComparisons() {
+		SpelExpressionParser immediateParser = new SpelExpressionParser(
+				new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, getClass().getClassLoader()));
+		Score score = new Score(null);
+		Expression greaterThan = immediateParser.parseExpression("value > 5");
+		Expression equal = immediateParser.parseExpression("value == 5");
+		Expression notEqual = immediateParser.parseExpression("value != 5");
+		for (int i = 0; i < 3; i++) {
+			assertEquals(false, greaterThan.getValue(score));
+			assertEquals(false, equal.getValue(score));
+			assertEquals(true, notEqual.getValue(score));
+		}
+		assertTrue(isCompiled(greaterThan));
+		assertTrue(isCompiled(equal));
+		assertTrue(isCompiled(notEqual));
+
+		Score five = new Score(5);
+		assertEquals(false, greaterThan.getValue(five));
+		assertEquals(true, equal.getValue(five));
+		assertEquals(false, notEqual.getValue(five));
+		assertEquals(true, greaterThan.getValue(new Score(6)));
+	}
+
+	@Test
+	public void boxedArithmeticNotCompiled() {
+		Expression expression = this.parser.parseExpression("value + 1");
+		assertEquals(6, expression.getValue(new Score(5)));
+		assertFalse(SpelCompiler.compile(expression));
+	}
+
+	@Test
+	public void mixedModeStopsRecompilingAfterRepeatedFailures() {
+		Expression expression = this.parser.parseExpression("name");
+		Person person = new Person("Sam", 30);
+		Dog dog = new Dog("Fido");
+		for (int failure = 0; failure < 2; failure++) {
+			assertEquals("Sam", expression.getValue(person));
+			assertTrue(SpelCompiler.compile(expression));
+			assertEquals("Fido", expression.getValue(dog));
+			assertFalse(isCompiled(expression));
+		}
+		for (int i = 0; i < 200; i++) {
+			assertEquals("Sam", expression.getValue(person));
+		}
+		assertFalse(isCompiled(expression));
+		assertFalse(SpelCompiler.compile(expression));
+
+		SpelCompiler.revertToInterpreted(expression);
+		assertTrue(SpelCompiler.compile(expression));
+	}
+
+	@Test
+	public void resultConversionFailureNotTreatedAsCompiledFailure() {
+		Expression expression = this.parser.parseExpression("name");
+		Person person = new Person("Sam", 30);
+		assertEquals("Sam", expression.getValue(person));
+		assertTrue(SpelCompiler.compile(expression));
+		for (int i = 0; i < 3; i++) {
+			try {
+				expression.getValue(person, Integer.class);
+				fail("Should have thrown EvaluationException");
+			}
+			catch (EvaluationException ex) {
+				assertFalse(ex instanceof SpelEvaluationException &&
+						((SpelEvaluationException) ex).getMessageCode() == SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION);
+			}
+			assertTrue(isCompiled(expression));
+		}
+	}
+
+	@Test
+	public void variableTypesNotRecordedWhenCompilerOff() {
+		StandardEvaluationContext context = new StandardEvaluationContext();
+		context.setVariable("num", 5);
+		Expression expression = new SpelExpressionParser().parseExpression("#num");
+		assertEquals(5, expression.getValue(context));
+		assertFalse(SpelCompiler.compile(expression));
+	}
+
+	@Test
+	public void compilerOffByDefault() {
+		Expression expression = new SpelExpressionParser().parseExpression("name");
+		for (int i = 0; i < 200; i++) {
+			expression.getValue(new Person("Sam", 30));
+		}
+		assertFalse(isCompiled(expression));
+	}
+
+	@Test
+	public void revertToInterpreted() {
+		Expression expression = this.parser.parseExpression("age * 2");
+		Person person = new Person("Sam", 30);
+		assertEquals(60, expression.getValue(person));
+		assertTrue(SpelCompiler.compile(expression));
+		assertTrue(isCompiled(expression));
+		SpelCompiler.revertToInterpreted(expression);
+		assertFalse(isCompiled(expression));
+		assertEquals(60, expression.getValue(person));
+	}
+
+
+	private void assertCompiledValue(Object expected, String expressionString) {
+		assertCompiledValue(expected, expressionString, null);
+	}
+
+	private void assertCompiledValue(Object expected, String expressionString, Object root) {
+		Expression expression = this.parser.parseExpression(expressionString);
+		assertEquals(expected, expression.getValue(root));
+		assertTrue("Expression not compilable: " + expressionString, SpelCompiler.compile(expression));
+		assertEquals(expected, expression.getValue(root));
+		assertTrue("Expression reverted to interpretation: " + expressionString, isCompiled(expression));
+	}
+
+	private static boolean isCompiled(Expression expression) {
+		Field field = ReflectionUtils.findField(SpelExpression.class, "compiledAst");
+		ReflectionUtils.makeAccessible(field);
+		return (ReflectionUtils.getField(field, expression) != null);
+	}
+
+
+	public static class Person {
+
+		private final String name;
+
+		private final int age;
+
+		public final String nickname = "Sammy";
+
+		public Person(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public String ageAsString() {
+			return String.valueOf(this.age);
+		}
+
+		public String greet(String name) {
+			return "Hello " + name;
+		}
+
+		public void reset() {
+		}
+	}
+
+
+	public static class Score {
+
+		private final Integer value;
+
+		public Score(Integer value) {
+			this.value = value;
+		}
+
+		public Integer getValue() {
+			return this.value;
+		}
+	}
+
+
+	public static class Dog {
+
+		private final String name;
+
+		public Dog(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.util.AdaptiveConcurrencyLimiter;
+import org.springframework.util.Assert;
+
+/**
+ * {@link javax.servlet.Filter} that limits the number of concurrently processed
+ * requests through an {@link AdaptiveConcurrencyLimiter}, shedding load in front of
+ * e.g. the {@code DispatcherServlet}: Once the (by default latency-adaptive)
+ * concurrency limit has been reached, requests get rejected with a 503
+ * ("Service Unavailable") status instead of queueing up in the container.
+ *
+ * <p>The limiter may be configured through {@link #getLimiter()} or shared with
+ * other components through the {@link #ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter)}
+ * constructor. Note that for asynchronous requests, only the initial request
+ * processing counts towards the concurrency limit.
+ *
+ * @author agent
+ * @since 4.0
+ * @see org.springframework.aop.interceptor.ConcurrencyLimitInterceptor
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+	private final AdaptiveConcurrencyLimiter limiter;
+
+	private int rejectionStatusCode = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+
+
+	/**
+	 * Create a new ConcurrencyLimitFilter with a default
+	 * {@link AdaptiveConcurrencyLimiter}.
+	 */
+	public ConcurrencyLimitFilter() {
+		this(new AdaptiveConcurrencyLimiter());
+	}
+
+	/**
+	 * Create a new ConcurrencyLimitFilter for the given limiter.
+	 * @param limiter the limiter to apply
+	 */
+	public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter) {
+		Assert.notNull(limiter, "AdaptiveConcurrencyLimiter must not be null");
+		this.limiter = limiter;
+	}
+
+
+	/**
+	 * Return the limiter applied by this filter, for configuring it
+	 * or for accessing its metrics.
+	 */
+	public AdaptiveConcurrencyLimiter getLimiter() {
+		return this.limiter;
+	}
+
+	/**
+	 * Set the HTTP status code to send for rejected requests.
+	 * Default is 503 ("Service Unavailable").
+	 */
+	public void setRejectionStatusCode(int rejectionStatusCode) {
+		this.rejectionStatusCode = rejectionStatusCode;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		if (!this.limiter.tryAcquire()) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Concurrency limit of " + this.limiter.getLimit() + " reached - rejecting request [" +
+						request.getRequestURI() + "]");
+			}
+			response.sendError(this.rejectionStatusCode);
+			return;
+		}
+		long startTime = System.nanoTime();
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			this.limiter.release(System.nanoTime() - startTime);
+		}
+	}
+
+}
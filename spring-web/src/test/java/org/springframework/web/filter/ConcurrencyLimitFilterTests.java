@@ -0,0 +1,63 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.junit.Test;
+
+import org.springframework.mock.web.test.MockFilterChain;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+import org.springframework.util.AdaptiveConcurrencyLimiter;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author agent
+ */
+public class ConcurrencyLimitFilterTests {
+
+	@Test
+	public void rejectsRequestsBeyondLimit() throws Exception {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter();
+		limiter.setInitialLimit(1);
+		limiter.setAdaptive(false);
+		final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(limiter);
+		final MockHttpServletResponse nestedResponse = new MockHttpServletResponse();
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response)
+					throws IOException, ServletException {
+				filter.doFilter(new MockHttpServletRequest("GET", "/nested"), nestedResponse, new MockFilterChain());
+			}
+		};
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/"), response, filterChain);
+		assertEquals(200, response.getStatus());
+		assertEquals(503, nestedResponse.getStatus());
+		assertEquals(1, limiter.getAcceptedCount());
+		assertEquals(1, limiter.getRejectedCount());
+		assertEquals(0, limiter.getInFlightCount());
+	}
+
+}